@@ -0,0 +1,80 @@
+package com.example.fowltyphoidmonitor.data.local;
+
+import com.example.fowltyphoidmonitor.data.models.DiseaseInfo;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Build-time entry point that turns src/main/knowledge into the bundled pack.
+ *
+ * diseases.json lists the entries; a field named <field>_file takes its text from that
+ * file instead, with the lines joined without separators so HTML can be broken anywhere
+ * between tags. The bytes are written by KnowledgePack itself, so the asset always has
+ * the layout the app reads.
+ *
+ * Usage: KnowledgePackTool <source dir> <target file>
+ */
+public final class KnowledgePackTool {
+
+    private KnowledgePackTool() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: KnowledgePackTool <source dir> <target file>");
+        }
+        File source = new File(args[0]);
+        File target = new File(args[1]);
+
+        JsonObject index = JsonParser.parseString(read(new File(source, "diseases.json"))).getAsJsonObject();
+        List<DiseaseInfo> entries = new ArrayList<>();
+        for (JsonElement element : index.getAsJsonArray("diseases")) {
+            JsonObject disease = element.getAsJsonObject();
+            DiseaseInfo info = new DiseaseInfo();
+            info.setName(text(source, disease, "name"));
+            info.setDescription(text(source, disease, "description"));
+            info.setCauses(text(source, disease, "causes"));
+            info.setSymptoms(text(source, disease, "symptoms"));
+            info.setTreatment(text(source, disease, "treatment"));
+            info.setPrevention(text(source, disease, "prevention"));
+            info.setUpdatedAt(text(source, disease, "updated_at"));
+            entries.add(info);
+        }
+
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        // write() renames over the target, which not every platform allows
+        Files.deleteIfExists(target.toPath());
+        KnowledgePack.write(target, string(index.get("version")), entries);
+    }
+
+    private static String text(File source, JsonObject disease, String field) throws IOException {
+        JsonElement file = disease.get(field + "_file");
+        if (file != null) {
+            StringBuilder text = new StringBuilder();
+            for (String line : Files.readAllLines(new File(source, file.getAsString()).toPath(),
+                    StandardCharsets.UTF_8)) {
+                text.append(line);
+            }
+            return text.toString();
+        }
+        return string(disease.get(field));
+    }
+
+    private static String string(JsonElement value) {
+        return value != null && !value.isJsonNull() ? value.getAsString() : null;
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -22,17 +22,15 @@ import com.example.fowltyphoidmonitor.data.requests.RefreshTokenRequest;
 import com.example.fowltyphoidmonitor.data.requests.ReminderStatusRequest;
 import com.example.fowltyphoidmonitor.data.requests.SignUpRequest;
 import com.example.fowltyphoidmonitor.data.requests.VetAvailabilityRequest;
+import com.example.fowltyphoidmonitor.utils.AppLog;
 
 import java.lang.reflect.Type;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
-import java.util.TimeZone;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
-import android.util.Log;
 import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Call;
 import retrofit2.Retrofit;
@@ -43,12 +41,15 @@ import retrofit2.http.Header;
 import retrofit2.http.Headers;
 import retrofit2.http.PATCH;
 import retrofit2.http.POST;
+import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.QueryMap;
 
 public class ApiClient {
     private static final String TAG = "ApiClient";
     private static Retrofit retrofit = null;
     private static ApiService apiService = null;
+    private static Gson gson = null;
 
     public interface ApiService {
         @POST("auth/v1/token?grant_type=password")
@@ -141,9 +142,9 @@ public class ApiClient {
                 @Body Farmer farmer
         );
 
-        @POST("rest/v1/consultation_messages")
-        @Headers({"Content-Type: application/json", "Prefer: return=representation"})
-        Call<ConsultationMessage> sendConsultationMessage(
+        @POST("rest/v1/consultation_messages?on_conflict=client_id")
+        @Headers({"Content-Type: application/json", "Prefer: return=representation,resolution=ignore-duplicates"})
+        Call<List<ConsultationMessage>> sendConsultationMessage(
                 @Header("Authorization") String authHeader,
                 @Header("apikey") String apiKey,
                 @Body ConsultationMessage message
@@ -177,9 +178,9 @@ public class ApiClient {
                 @Query("vet_id") String vetIdFilter
         );
 
-        @POST("rest/v1/consultations")
-        @Headers({"Content-Type: application/json", "Prefer: return=representation"})
-        Call<Consultation> createConsultation(
+        @POST("rest/v1/consultations?on_conflict=client_id")
+        @Headers({"Content-Type: application/json", "Prefer: return=representation,resolution=ignore-duplicates"})
+        Call<List<Consultation>> createConsultation(
                 @Header("Authorization") String authHeader,
                 @Header("apikey") String apiKey,
                 @Body Consultation consultation
@@ -223,9 +224,42 @@ public class ApiClient {
                 @Header("apikey") String apiKey
         );
 
-        @POST("rest/v1/symptoms_reports")
-        @Headers({"Content-Type: application/json", "Prefer: return=representation"})
-        Call<SymptomsReport> createSymptomsReport(
+        @GET("rest/v1/{table}")
+        Call<ResponseBody> getTableRows(
+                @Header("Authorization") String authHeader,
+                @Header("apikey") String apiKey,
+                @Path("table") String table,
+                @QueryMap Map<String, String> query
+        );
+
+        @POST("rest/v1/rpc/{function}")
+        @Headers({"Content-Type: application/json"})
+        Call<ResponseBody> callRpc(
+                @Header("Authorization") String authHeader,
+                @Header("apikey") String apiKey,
+                @Path("function") String function,
+                @Body Map<String, Object> params
+        );
+
+        @POST("rest/v1/notifications?on_conflict=alert_id,recipient_id")
+        @Headers({"Content-Type: application/json", "Prefer: return=minimal,resolution=ignore-duplicates"})
+        Call<Void> insertNotifications(
+                @Header("Authorization") String authHeader,
+                @Header("apikey") String apiKey,
+                @Body List<Map<String, Object>> rows
+        );
+
+        @GET("rest/v1/disease_info")
+        Call<List<DiseaseInfo>> getDiseaseInfoUpdatedSince(
+                @Header("Authorization") String authHeader,
+                @Header("apikey") String apiKey,
+                @Query("updated_at") String updatedAtFilter,
+                @Query("order") String order
+        );
+
+        @POST("rest/v1/symptoms_reports?on_conflict=client_id")
+        @Headers({"Content-Type: application/json", "Prefer: return=representation,resolution=ignore-duplicates"})
+        Call<List<SymptomsReport>> createSymptomsReport(
                 @Header("Authorization") String authHeader,
                 @Header("apikey") String apiKey,
                 @Body SymptomsReport report
@@ -246,10 +280,22 @@ public class ApiClient {
         return apiService;
     }
 
+    /**
+     * Lenient Gson used by the Retrofit client, for parsing rows stored locally
+     */
+    public static synchronized Gson getGson() {
+        if (gson == null) {
+            getApiService();
+        }
+        return gson;
+    }
+
     private static ApiService getClient() {
         if (retrofit == null) {
-            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-            loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+            // Request bodies are only logged when debug logging is on
+            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(message -> AppLog.d("OkHttp", message));
+            loggingInterceptor.setLevel(AppLog.isLoggable(AppLog.DEBUG)
+                    ? HttpLoggingInterceptor.Level.BODY : HttpLoggingInterceptor.Level.NONE);
 
             OkHttpClient client = new OkHttpClient.Builder()
                     .addInterceptor(loggingInterceptor)
@@ -258,7 +304,7 @@ public class ApiClient {
                     .writeTimeout(60, TimeUnit.SECONDS)
                     .build();
 
-            Gson gson = new GsonBuilder()
+            gson = new GsonBuilder()
                     .registerTypeAdapter(Integer.class, new JsonDeserializer<Integer>() {
                         @Override
                         public Integer deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
@@ -272,7 +318,7 @@ public class ApiClient {
                                         try {
                                             return Integer.parseInt(str);
                                         } catch (NumberFormatException e) {
-                                            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to parse string as Integer: " + str);
+                                            AppLog.w(TAG, () -> "Failed to parse string as Integer: " + str);
                                             return null;
                                         }
                                     } else if (primitive.isNumber()) {
@@ -281,7 +327,7 @@ public class ApiClient {
                                 }
                                 return null;
                             } catch (Exception e) {
-                                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error deserializing Integer", e);
+                                AppLog.e(TAG, "Error deserializing Integer", e);
                                 return null;
                             }
                         }
@@ -299,7 +345,7 @@ public class ApiClient {
                                         try {
                                             return Double.parseDouble(str);
                                         } catch (NumberFormatException e) {
-                                            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to parse string as Double: " + str);
+                                            AppLog.w(TAG, () -> "Failed to parse string as Double: " + str);
                                             return null;
                                         }
                                     } else if (primitive.isNumber()) {
@@ -308,7 +354,7 @@ public class ApiClient {
                                 }
                                 return null;
                             } catch (Exception e) {
-                                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error deserializing Double", e);
+                                AppLog.e(TAG, "Error deserializing Double", e);
                                 return null;
                             }
                         }
@@ -326,7 +372,7 @@ public class ApiClient {
                                         try {
                                             return Long.parseLong(str);
                                         } catch (NumberFormatException e) {
-                                            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to parse string as Long: " + str);
+                                            AppLog.w(TAG, () -> "Failed to parse string as Long: " + str);
                                             return null;
                                         }
                                     } else if (primitive.isNumber()) {
@@ -335,7 +381,7 @@ public class ApiClient {
                                 }
                                 return null;
                             } catch (Exception e) {
-                                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error deserializing Long", e);
+                                AppLog.e(TAG, "Error deserializing Long", e);
                                 return null;
                             }
                         }
@@ -353,7 +399,7 @@ public class ApiClient {
                                         try {
                                             return Integer.parseInt(str);
                                         } catch (NumberFormatException e) {
-                                            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to parse string as primitive int: " + str);
+                                            AppLog.w(TAG, () -> "Failed to parse string as primitive int: " + str);
                                             return 0;
                                         }
                                     } else if (primitive.isNumber()) {
@@ -362,7 +408,7 @@ public class ApiClient {
                                 }
                                 return 0;
                             } catch (Exception e) {
-                                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error deserializing primitive int", e);
+                                AppLog.e(TAG, "Error deserializing primitive int", e);
                                 return 0;
                             }
                         }
@@ -380,7 +426,7 @@ public class ApiClient {
                                         try {
                                             return Double.parseDouble(str);
                                         } catch (NumberFormatException e) {
-                                            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to parse string as primitive double: " + str);
+                                            AppLog.w(TAG, () -> "Failed to parse string as primitive double: " + str);
                                             return 0.0;
                                         }
                                     } else if (primitive.isNumber()) {
@@ -389,7 +435,7 @@ public class ApiClient {
                                 }
                                 return 0.0;
                             } catch (Exception e) {
-                                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error deserializing primitive double", e);
+                                AppLog.e(TAG, "Error deserializing primitive double", e);
                                 return 0.0;
                             }
                         }
@@ -402,7 +448,7 @@ public class ApiClient {
                     .client(client)
                     .build();
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Retrofit client created with base URL: " +
+            AppLog.d(TAG, "Retrofit client created with base URL: " +
                     SupabaseConfig.SUPABASE_URL);
         }
         return retrofit.create(ApiService.class);
@@ -410,27 +456,22 @@ public class ApiClient {
 
     public static String formatUserIdForQuery(String userId) {
         if (userId == null) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Null userId provided for query formatting");
+            AppLog.e(TAG, "Null userId provided for query formatting");
             return "";
         }
         String formattedId = userId.trim();
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Formatted userId for query: " + formattedId);
+        AppLog.d(TAG, () -> "Formatted userId for query: " + formattedId);
         return formattedId;
     }
 
     public static String getUserIdExactMatchFilter(String userId) {
         if (userId == null) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Null userId provided for exact match filter");
+            AppLog.e(TAG, "Null userId provided for exact match filter");
             return "eq.";
         }
         String filter = "eq." + userId.trim();
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Created exact match filter: " + filter);
+        AppLog.d(TAG, () -> "Created exact match filter: " + filter);
         return filter;
     }
 
-    private static String getCurrentTime() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
-        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-        return dateFormat.format(new Date());
-    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.fowltyphoidmonitor.data.api;
 
 import com.example.fowltyphoidmonitor.data.models.Consultation;
 import com.example.fowltyphoidmonitor.data.models.ConsultationMessage;
+import com.example.fowltyphoidmonitor.data.models.DashboardStats;
 import com.example.fowltyphoidmonitor.data.models.Farmer;
 import com.example.fowltyphoidmonitor.data.models.SymptomReport;
 import com.example.fowltyphoidmonitor.data.models.Vet;
@@ -13,6 +14,7 @@ import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.PATCH;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
@@ -55,8 +57,14 @@ public interface ApiService {
     Call<Void> updateVet(@Query("user_id") String userId, @Body Vet vet);
 
     // Consultations endpoints
+    // Inserts keyed by client_id: a retried insert is ignored and returns an empty list
     @POST("consultations")
-    Call<Consultation> createConsultation(@Body Consultation consultation);
+    @Headers("Prefer: return=representation,resolution=ignore-duplicates")
+    Call<List<Consultation>> createConsultation(@Query("on_conflict") String onConflict,
+                                                @Body Consultation consultation);
+
+    @GET("consultations")
+    Call<List<Consultation>> getConsultationByClientId(@Query("client_id") String clientIdFilter);
 
     @GET("consultations")
     Call<List<Consultation>> getConsultations(@QueryMap Map<String, String> params);
@@ -75,7 +83,12 @@ public interface ApiService {
 
     // Consultation messages endpoints
     @POST("consultation_messages")
-    Call<ConsultationMessage> createMessage(@Body ConsultationMessage message);
+    @Headers("Prefer: return=representation,resolution=ignore-duplicates")
+    Call<List<ConsultationMessage>> createMessage(@Query("on_conflict") String onConflict,
+                                                  @Body ConsultationMessage message);
+
+    @GET("consultation_messages")
+    Call<List<ConsultationMessage>> getMessageByClientId(@Query("client_id") String clientIdFilter);
 
     @GET("consultation_messages")
     Call<List<ConsultationMessage>> getConsultationMessages(
@@ -84,7 +97,9 @@ public interface ApiService {
 
     // Symptom reports
     @POST("symptom_reports")
-    Call<SymptomReport> createSymptomReport(@Body SymptomReport report);
+    @Headers("Prefer: return=representation,resolution=ignore-duplicates")
+    Call<List<SymptomReport>> createSymptomReport(@Query("on_conflict") String onConflict,
+                                                  @Body SymptomReport report);
 
     @GET("symptom_reports")
     Call<List<SymptomReport>> getFarmerSymptomReports(@Query("farmer_id") String farmerId);
@@ -95,7 +110,8 @@ public interface ApiService {
     @PATCH("symptom_reports")
     Call<Void> updateSymptomReport(@Query("id") String id, @Body Map<String, Object> updates);
 
-    // Dashboard statistics endpoint
-    @GET("dashboard_stats")
-    Call<Map<String, Object>> getDashboardStats(@retrofit2.http.Header("Authorization") String authHeader);
+    // Dashboard statistics snapshot; 304 with no body while the ETag still matches
+    @GET("rpc/dashboard_stats")
+    Call<DashboardStats> getDashboardStats(@retrofit2.http.Header("Authorization") String authHeader,
+                                           @retrofit2.http.Header("If-None-Match") String etag);
 }
@@ -1,7 +1,6 @@
 package com.example.fowltyphoidmonitor.data.api;
 
-import android.os.Handler;
-import android.os.Looper;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
 
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -15,7 +14,8 @@ public class RequestHandler {
     }
 
     public static void sendPostRequest(String urlString, Map<String, String> params, Callback callback) {
-        new Thread(() -> {
+        AppExecutors executors = AppExecutors.getInstance();
+        executors.io().execute(() -> {
             try {
                 StringBuilder postData = new StringBuilder();
                 for (Map.Entry<String, String> entry : params.entrySet()) {
@@ -34,10 +34,10 @@ public class RequestHandler {
                 os.close();
 
                 conn.getResponseCode(); // Just to trigger the request
-                new Handler(Looper.getMainLooper()).post(() -> callback.onResponse("Success"));
+                executors.mainThread().execute(() -> callback.onResponse("Success"));
             } catch (Exception e) {
-                new Handler(Looper.getMainLooper()).post(() -> callback.onResponse("Failed"));
+                executors.mainThread().execute(() -> callback.onResponse("Failed"));
             }
-        }).start();
+        });
     }
 }
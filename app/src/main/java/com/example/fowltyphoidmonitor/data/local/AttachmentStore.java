@@ -0,0 +1,323 @@
+package com.example.fowltyphoidmonitor.data.local;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fowltyphoidmonitor.utils.AppLog;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * On-device attachment files, stored once per content under their SHA-256.
+ *
+ * A photo or guide forwarded into many consultations is one file here however many
+ * URLs point at it. Attachments uploaded by this app are named by their hash, so a
+ * URL carrying a hash the store already holds is served without any download; other
+ * URLs are mapped to their content's hash after the first download.
+ *
+ * Owners (e.g. messages) hold references to files. When the store goes over its quota,
+ * files nothing references go first, then the least recently used. A file handed out
+ * in the last minute is never evicted, so the caller can still open it.
+ */
+public class AttachmentStore {
+    private static final String TAG = "AttachmentStore";
+    private static final String DIR_NAME = "attachments";
+    private static final long QUOTA_BYTES = 150 * 1024 * 1024L;
+    private static final int EVICTION_BATCH = 20;
+    private static final long PIN_MILLIS = 60 * 1000L;
+    private static final Pattern HASH_IN_PATH = Pattern.compile("([0-9a-f]{64})(\\.[A-Za-z0-9]+)?$");
+
+    private static AttachmentStore instance;
+
+    private final LocalDatabase database;
+    private final File dir;
+    // Own client: attachment bodies must never go through the body logger
+    private final OkHttpClient client = new OkHttpClient.Builder()
+            .connectTimeout(30, TimeUnit.SECONDS)
+            .readTimeout(60, TimeUnit.SECONDS)
+            .build();
+
+    public static synchronized AttachmentStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new AttachmentStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private AttachmentStore(Context context) {
+        this.database = LocalDatabase.getInstance(context);
+        this.dir = new File(context.getFilesDir(), DIR_NAME);
+    }
+
+    /**
+     * The local file for an attachment URL, downloading it only if its content is not
+     * stored yet, and record that the owner references it. Blocks on the network.
+     */
+    @WorkerThread
+    public File fetch(String url, String ownerId) throws IOException {
+        String key = stripQuery(url);
+        // A recorded mapping wins: it holds the real hash when a hash-like name lied
+        String hash = lookupUrl(key);
+        if (hash == null) {
+            hash = hashFromUrl(url);
+        }
+        if (hash != null && touch(hash, ownerId)) {
+            return fileFor(hash);
+        }
+
+        hash = download(url);
+        register(hash, fileFor(hash).length(), key, ownerId);
+        evictToQuota();
+        return fileFor(hash);
+    }
+
+    /**
+     * Move a file this app produced (e.g. a compressed photo) into the store, so the
+     * sender never downloads its own upload. Returns the content hash.
+     */
+    @WorkerThread
+    public String adopt(File source, String url, String ownerId) throws IOException {
+        String hash = sha256(source);
+        File target = fileFor(hash);
+        ensureDir();
+        if (target.isFile()) {
+            source.delete();
+        } else if (!source.renameTo(target)) {
+            copy(source, target);
+            source.delete();
+        }
+        register(hash, target.length(), url != null ? stripQuery(url) : null, ownerId);
+        evictToQuota();
+        return hash;
+    }
+
+    /** Drop every reference the owner holds, e.g. when a message is deleted */
+    public void release(String ownerId) {
+        database.getWritableDatabase().delete(LocalDatabase.TABLE_ATTACHMENT_REFS,
+                "owner_id = ?", new String[]{ownerId});
+    }
+
+    /** Bytes of content currently stored */
+    public long storedBytes() {
+        try (Cursor cursor = database.getReadableDatabase().rawQuery(
+                "SELECT COALESCE(SUM(size), 0) FROM " + LocalDatabase.TABLE_ATTACHMENT_BLOBS, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * The content hash named by a URL whose last path segment is a SHA-256 (with an
+     * optional extension), or null
+     */
+    public static String hashFromUrl(String url) {
+        if (url == null) return null;
+        Matcher matcher = HASH_IN_PATH.matcher(stripQuery(url));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /** Hex SHA-256 of a file */
+    public static String sha256(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    File fileFor(String hash) {
+        return new File(dir, hash);
+    }
+
+    /** Download into a temporary file, hashing on the way, then file it under its hash */
+    private String download(String url) throws IOException {
+        ensureDir();
+        File temp = File.createTempFile("download", ".part", dir);
+        try {
+            MessageDigest digest = newDigest();
+            Request request = new Request.Builder().url(url).build();
+            try (Response response = client.newCall(request).execute()) {
+                ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) {
+                    throw new IOException("HTTP " + response.code() + " for attachment");
+                }
+                byte[] buffer = new byte[64 * 1024];
+                try (InputStream in = body.byteStream(); OutputStream out = new FileOutputStream(temp)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                        out.write(buffer, 0, read);
+                    }
+                }
+            }
+
+            String hash = toHex(digest.digest());
+            String named = hashFromUrl(url);
+            if (named != null && !named.equals(hash)) {
+                AppLog.w(TAG, () -> "Attachment content does not match its name " + named);
+            }
+            File target = fileFor(hash);
+            // Another URL may have brought the same content in meanwhile
+            if (!target.isFile() && !temp.renameTo(target)) {
+                throw new IOException("Cannot store attachment " + hash);
+            }
+            return hash;
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private String lookupUrl(String key) {
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_ATTACHMENT_URLS,
+                new String[]{"hash"}, "url = ?", new String[]{key}, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    /**
+     * Mark a stored file used and referenced, which pins it against eviction for a
+     * while; false if the file or its index entry is gone. Shares the eviction lock.
+     */
+    private synchronized boolean touch(String hash, String ownerId) {
+        if (!fileFor(hash).isFile()) return false;
+        SQLiteDatabase db = database.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put("last_used", System.currentTimeMillis());
+        if (db.update(LocalDatabase.TABLE_ATTACHMENT_BLOBS, values, "hash = ?", new String[]{hash}) == 0) {
+            return false;
+        }
+        addRef(db, hash, ownerId);
+        return true;
+    }
+
+    private synchronized void register(String hash, long size, String urlKey, String ownerId) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues blob = new ContentValues();
+            blob.put("hash", hash);
+            blob.put("size", size);
+            blob.put("last_used", System.currentTimeMillis());
+            db.insertWithOnConflict(LocalDatabase.TABLE_ATTACHMENT_BLOBS, null, blob,
+                    SQLiteDatabase.CONFLICT_REPLACE);
+            if (urlKey != null) {
+                ContentValues url = new ContentValues();
+                url.put("url", urlKey);
+                url.put("hash", hash);
+                db.insertWithOnConflict(LocalDatabase.TABLE_ATTACHMENT_URLS, null, url,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            addRef(db, hash, ownerId);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void addRef(SQLiteDatabase db, String hash, String ownerId) {
+        if (ownerId == null) return;
+        ContentValues ref = new ContentValues();
+        ref.put("owner_id", ownerId);
+        ref.put("hash", hash);
+        db.insertWithOnConflict(LocalDatabase.TABLE_ATTACHMENT_REFS, null, ref, SQLiteDatabase.CONFLICT_IGNORE);
+    }
+
+    /**
+     * Delete files until the store fits its quota: unreferenced files first, then the
+     * least recently used, skipping pinned ones. An evicted file's URL mappings go with
+     * it; its references stay, so a later fetch by the same owner is still counted.
+     */
+    private synchronized void evictToQuota() {
+        long total = storedBytes();
+        if (total <= QUOTA_BYTES) return;
+
+        SQLiteDatabase db = database.getWritableDatabase();
+        String pinnedSince = String.valueOf(System.currentTimeMillis() - PIN_MILLIS);
+        while (total > QUOTA_BYTES) {
+            List<String> hashes = new ArrayList<>();
+            List<Long> sizes = new ArrayList<>();
+            try (Cursor cursor = db.rawQuery("SELECT b.hash, b.size FROM " + LocalDatabase.TABLE_ATTACHMENT_BLOBS
+                    + " b WHERE b.last_used < ? ORDER BY EXISTS (SELECT 1 FROM " + LocalDatabase.TABLE_ATTACHMENT_REFS
+                    + " r WHERE r.hash = b.hash), b.last_used LIMIT " + EVICTION_BATCH,
+                    new String[]{pinnedSince})) {
+                while (cursor.moveToNext()) {
+                    hashes.add(cursor.getString(0));
+                    sizes.add(cursor.getLong(1));
+                }
+            }
+            if (hashes.isEmpty()) return;
+
+            for (int i = 0; i < hashes.size() && total > QUOTA_BYTES; i++) {
+                String hash = hashes.get(i);
+                fileFor(hash).delete();
+                db.delete(LocalDatabase.TABLE_ATTACHMENT_BLOBS, "hash = ?", new String[]{hash});
+                db.delete(LocalDatabase.TABLE_ATTACHMENT_URLS, "hash = ?", new String[]{hash});
+                total -= sizes.get(i);
+            }
+        }
+        final long remaining = total;
+        AppLog.d(TAG, () -> "Evicted attachments down to " + remaining + " bytes");
+    }
+
+    private void ensureDir() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+    }
+
+    private static void copy(File source, File target) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(source); OutputStream out = new FileOutputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format(Locale.ROOT, "%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static String stripQuery(String url) {
+        int query = url.indexOf('?');
+        return query >= 0 ? url.substring(0, query) : url;
+    }
+}
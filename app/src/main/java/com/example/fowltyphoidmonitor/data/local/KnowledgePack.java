@@ -0,0 +1,207 @@
+package com.example.fowltyphoidmonitor.data.local;
+
+import com.example.fowltyphoidmonitor.data.models.DiseaseInfo;
+import com.example.fowltyphoidmonitor.utils.Timestamps;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Read-only view over a versioned binary knowledge pack of disease content.
+ *
+ * The pack is memory-mapped, so opening it costs no heap and a field is only
+ * decoded when a screen asks for it. Layout (big-endian):
+ * <pre>
+ *   header  magic "KKPK" | format u16 | entry count u16 | version ref
+ *   entries entry count x FIELD_COUNT refs
+ *   strings UTF-8 bytes
+ * </pre>
+ * A ref is an (offset, length) pair of ints pointing into the string area.
+ */
+public class KnowledgePack {
+    private static final int MAGIC = 0x4B4B504B; // "KKPK"
+    private static final int FORMAT_VERSION = 1;
+    private static final int REF_SIZE = 8;
+    private static final int HEADER_SIZE = 8 + REF_SIZE;
+
+    public static final int FIELD_NAME = 0;
+    public static final int FIELD_DESCRIPTION = 1;
+    public static final int FIELD_CAUSES = 2;
+    public static final int FIELD_SYMPTOMS = 3;
+    public static final int FIELD_TREATMENT = 4;
+    public static final int FIELD_PREVENTION = 5;
+    public static final int FIELD_UPDATED_AT = 6;
+    private static final int FIELD_COUNT = 7;
+    private static final int ENTRY_SIZE = FIELD_COUNT * REF_SIZE;
+
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final String version;
+
+    private KnowledgePack(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a knowledge pack");
+        }
+        int format = buffer.getShort(4) & 0xFFFF;
+        if (format != FORMAT_VERSION) {
+            throw new IOException("Unsupported knowledge pack format " + format);
+        }
+        this.entryCount = buffer.getShort(6) & 0xFFFF;
+        if (HEADER_SIZE + (long) entryCount * ENTRY_SIZE > buffer.capacity()) {
+            throw new IOException("Truncated knowledge pack");
+        }
+        this.version = readRef(8);
+    }
+
+    /** Map a pack stored at the given region of an open file */
+    public static KnowledgePack map(FileChannel channel, long offset, long length) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        return new KnowledgePack(mapped);
+    }
+
+    /** Map a pack file; the mapping stays valid after the file is closed or replaced */
+    public static KnowledgePack map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return map(raf.getChannel(), 0, raf.length());
+        }
+    }
+
+    /** Content version, the newest disease_info updated_at folded into this pack */
+    public String getVersion() {
+        return version;
+    }
+
+    /** The version as epoch microseconds, or -1 when the pack has none */
+    public long getVersionMicros() {
+        return Timestamps.parseMicros(version);
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    /** Decode one field of one entry */
+    public String getField(int index, int field) {
+        if (index < 0 || index >= entryCount || field < 0 || field >= FIELD_COUNT) {
+            throw new IndexOutOfBoundsException("index=" + index + ", field=" + field);
+        }
+        return readRef(HEADER_SIZE + index * ENTRY_SIZE + field * REF_SIZE);
+    }
+
+    /** Find an entry by disease name, ignoring case; -1 if absent */
+    public int indexOf(String name) {
+        if (name == null) return -1;
+        for (int i = 0; i < entryCount; i++) {
+            if (name.equalsIgnoreCase(getField(i, FIELD_NAME))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Materialize one entry as a model object */
+    public DiseaseInfo toDiseaseInfo(int index) {
+        DiseaseInfo info = new DiseaseInfo(null,
+                getField(index, FIELD_NAME),
+                getField(index, FIELD_CAUSES),
+                getField(index, FIELD_SYMPTOMS),
+                getField(index, FIELD_TREATMENT),
+                getField(index, FIELD_PREVENTION),
+                getField(index, FIELD_DESCRIPTION));
+        info.setUpdatedAt(getField(index, FIELD_UPDATED_AT));
+        return info;
+    }
+
+    /** Materialize every entry, used when rebuilding the pack or the search index */
+    public List<DiseaseInfo> toDiseaseInfoList() {
+        List<DiseaseInfo> list = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            list.add(toDiseaseInfo(i));
+        }
+        return list;
+    }
+
+    private String readRef(int position) {
+        int offset = buffer.getInt(position);
+        int length = buffer.getInt(position + 4);
+        if (length < 0) return null;
+        if (offset < 0 || (long) offset + length > buffer.capacity()) {
+            throw new IllegalStateException("Corrupt knowledge pack reference at " + position);
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a pack to the target file. The data goes to a temporary sibling first and is
+     * renamed into place, so readers never observe a half-written pack.
+     */
+    public static void write(File target, String version, List<DiseaseInfo> entries) throws IOException {
+        if (entries.size() > 0xFFFF) {
+            throw new IOException("Too many knowledge pack entries: " + entries.size());
+        }
+
+        List<byte[]> strings = new ArrayList<>();
+        int stringsStart = HEADER_SIZE + entries.size() * ENTRY_SIZE;
+        ByteBuffer index = ByteBuffer.allocate(stringsStart);
+        int[] cursor = {stringsStart};
+
+        index.putInt(MAGIC);
+        index.putShort((short) FORMAT_VERSION);
+        index.putShort((short) entries.size());
+        putRef(index, strings, cursor, version);
+        for (DiseaseInfo info : entries) {
+            putRef(index, strings, cursor, info.getName());
+            putRef(index, strings, cursor, info.getDescription());
+            putRef(index, strings, cursor, info.getCauses());
+            putRef(index, strings, cursor, info.getSymptoms());
+            putRef(index, strings, cursor, info.getTreatment());
+            putRef(index, strings, cursor, info.getPrevention());
+            putRef(index, strings, cursor, info.getUpdatedAt());
+        }
+
+        File temp = new File(target.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(index.array());
+            for (byte[] bytes : strings) {
+                out.write(bytes);
+            }
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Could not replace " + target.getName());
+        }
+    }
+
+    private static void putRef(ByteBuffer index, List<byte[]> strings, int[] cursor, String value) {
+        if (value == null) {
+            index.putInt(0);
+            index.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        index.putInt(cursor[0]);
+        index.putInt(bytes.length);
+        strings.add(bytes);
+        cursor[0] += bytes.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "KnowledgePack{version=%s, entries=%d}", version, entryCount);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.fowltyphoidmonitor.data.local;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+/**
+ * On-device SQLite store shared by the offline features of the app.
+ * Holds the full-text search index over consultations, messages and disease info,
+ * the rows mirrored from Supabase by the delta sync engine, prefetched
+ * consultation threads, the schedule of pending alerts and the index of the
+ * content-addressed attachment store.
+ */
+public class LocalDatabase extends SQLiteOpenHelper {
+    private static final String TAG = "LocalDatabase";
+    private static final String DATABASE_NAME = "kuku_local.db";
+    private static final int DATABASE_VERSION = 8;
+
+    // Search index tables
+    public static final String TABLE_SEARCH_DOCS = "search_docs";
+    public static final String TABLE_SEARCH_FTS = "search_fts";
+
+    // Delta sync tables
+    public static final String TABLE_SYNC_ROWS = "sync_rows";
+    public static final String TABLE_SYNC_STATE = "sync_state";
+
+    // Prefetched consultation threads
+    public static final String TABLE_THREAD_MESSAGES = "thread_messages";
+    public static final String TABLE_THREAD_STATE = "thread_state";
+    public static final String TABLE_PROFILE_CACHE = "profile_cache";
+
+    // Scheduled alerts
+    public static final String TABLE_ALERT_SCHEDULE = "alert_schedule";
+
+    // Content-addressed attachments
+    public static final String TABLE_ATTACHMENT_BLOBS = "attachment_blobs";
+    public static final String TABLE_ATTACHMENT_REFS = "attachment_refs";
+    public static final String TABLE_ATTACHMENT_URLS = "attachment_urls";
+
+    // Mirror of the server's daily report counts for analytics
+    public static final String TABLE_ANALYTICS_DAILY = "analytics_daily";
+
+    private static LocalDatabase instance;
+
+    public static synchronized LocalDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocalDatabase(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private LocalDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // Lets search queries read while the index is being written
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        createSearchTables(db);
+        createSyncTables(db);
+        createThreadCacheTables(db);
+        createAlertScheduleTable(db);
+        createThreadPagingIndex(db);
+        createAttachmentTables(db);
+        createAnalyticsTable(db);
+        addThreadWatermarkId(db);
+        Log.d(TAG, "Local database created");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        Log.d(TAG, "Upgrading local database from " + oldVersion + " to " + newVersion);
+        if (oldVersion < 2) {
+            createSyncTables(db);
+        }
+        if (oldVersion < 3) {
+            createThreadCacheTables(db);
+        }
+        if (oldVersion < 4) {
+            createAlertScheduleTable(db);
+        }
+        if (oldVersion < 5) {
+            createThreadPagingIndex(db);
+        }
+        if (oldVersion < 6) {
+            createAttachmentTables(db);
+        }
+        if (oldVersion < 7) {
+            createAnalyticsTable(db);
+        }
+        if (oldVersion < 8) {
+            addThreadWatermarkId(db);
+        }
+    }
+
+    /**
+     * Search index: one row per document in search_docs, with the searchable text
+     * in an FTS4 table sharing the same rowid. unicode61 folds case and strips
+     * diacritics for both Swahili and English text.
+     */
+    private void createSearchTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_SEARCH_DOCS + " ("
+                + "rowid INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "doc_type TEXT NOT NULL, "
+                + "doc_id TEXT NOT NULL, "
+                + "parent_id TEXT, "
+                + "updated_at INTEGER NOT NULL, "
+                + "UNIQUE (doc_type, doc_id))");
+        db.execSQL("CREATE INDEX idx_search_docs_parent ON " + TABLE_SEARCH_DOCS + "(parent_id)");
+        db.execSQL("CREATE VIRTUAL TABLE " + TABLE_SEARCH_FTS + " USING fts4("
+                + "title, body, tokenize=unicode61 \"remove_diacritics=1\")");
+    }
+
+    /**
+     * Delta sync: every mirrored server row is kept as JSON keyed by table and primary
+     * key, and sync_state holds the per-table watermark and the stats of the last run.
+     */
+    private void createSyncTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_ROWS + " ("
+                + "table_name TEXT NOT NULL, "
+                + "row_id TEXT NOT NULL, "
+                + "updated_at TEXT, "
+                + "data TEXT NOT NULL, "
+                + "PRIMARY KEY (table_name, row_id))");
+        db.execSQL("CREATE INDEX idx_sync_rows_updated ON " + TABLE_SYNC_ROWS + "(table_name, updated_at)");
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_STATE + " ("
+                + "table_name TEXT PRIMARY KEY, "
+                + "watermark TEXT, "
+                + "watermark_id TEXT, "
+                + "last_sync_at INTEGER NOT NULL DEFAULT 0, "
+                + "last_rows INTEGER NOT NULL DEFAULT 0, "
+                + "last_bytes INTEGER NOT NULL DEFAULT 0, "
+                + "last_duration_ms INTEGER NOT NULL DEFAULT 0, "
+                + "last_error TEXT)");
+    }
+
+    /**
+     * Thread cache: messages per consultation as JSON, a per-thread state row holding
+     * the newest message time for delta checks, and farmer profiles keyed by farmer_id.
+     */
+    private void createThreadCacheTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_THREAD_MESSAGES + " ("
+                + "consultation_id TEXT NOT NULL, "
+                + "message_id TEXT NOT NULL, "
+                + "created_at TEXT, "
+                + "data TEXT NOT NULL, "
+                + "PRIMARY KEY (consultation_id, message_id))");
+        db.execSQL("CREATE TABLE " + TABLE_THREAD_STATE + " ("
+                + "consultation_id TEXT PRIMARY KEY, "
+                + "last_message_at TEXT, "
+                + "fetched_at INTEGER NOT NULL DEFAULT 0, "
+                + "bytes INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE TABLE " + TABLE_PROFILE_CACHE + " ("
+                + "profile_key TEXT PRIMARY KEY, "
+                + "data TEXT NOT NULL, "
+                + "fetched_at INTEGER NOT NULL)");
+    }
+
+    /**
+     * Chat history is read a page at a time in message order, so each page is a
+     * range scan of this index rather than a sort of the whole thread.
+     */
+    private void createThreadPagingIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX idx_thread_messages_order ON " + TABLE_THREAD_MESSAGES
+                + "(consultation_id, created_at, message_id)");
+    }
+
+    /**
+     * The thread watermark is the (created_at, message_id) of the newest cached
+     * message, so a catch-up does not skip messages sharing its timestamp. Threads
+     * cached before the id was kept take it from their newest cached message.
+     */
+    private void addThreadWatermarkId(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + TABLE_THREAD_STATE + " ADD COLUMN last_message_id TEXT");
+        db.execSQL("UPDATE " + TABLE_THREAD_STATE + " SET last_message_id = ("
+                + "SELECT MAX(m.message_id) FROM " + TABLE_THREAD_MESSAGES + " m"
+                + " WHERE m.consultation_id = " + TABLE_THREAD_STATE + ".consultation_id"
+                + " AND m.created_at = " + TABLE_THREAD_STATE + ".last_message_at)");
+    }
+
+    /**
+     * Alert schedule: one row per pending alert, indexed by fire time so the next
+     * due alert is always the head of the index.
+     */
+    private void createAlertScheduleTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_ALERT_SCHEDULE + " ("
+                + "alert_id TEXT PRIMARY KEY, "
+                + "fire_at INTEGER NOT NULL, "
+                + "recurring_pattern TEXT)");
+        db.execSQL("CREATE INDEX idx_alert_schedule_fire_at ON " + TABLE_ALERT_SCHEDULE + "(fire_at)");
+    }
+
+    /**
+     * Attachment store: one row per stored file keyed by its SHA-256, the owners
+     * (e.g. messages) holding a reference to it, and the URLs known to serve it.
+     */
+    private void createAttachmentTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_ATTACHMENT_BLOBS + " ("
+                + "hash TEXT PRIMARY KEY, "
+                + "size INTEGER NOT NULL, "
+                + "last_used INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_attachment_blobs_last_used ON " + TABLE_ATTACHMENT_BLOBS + "(last_used)");
+        db.execSQL("CREATE TABLE " + TABLE_ATTACHMENT_REFS + " ("
+                + "owner_id TEXT NOT NULL, "
+                + "hash TEXT NOT NULL, "
+                + "PRIMARY KEY (owner_id, hash))");
+        db.execSQL("CREATE INDEX idx_attachment_refs_hash ON " + TABLE_ATTACHMENT_REFS + "(hash)");
+        db.execSQL("CREATE TABLE " + TABLE_ATTACHMENT_URLS + " ("
+                + "url TEXT PRIMARY KEY, "
+                + "hash TEXT NOT NULL)");
+        db.execSQL("CREATE INDEX idx_attachment_urls_hash ON " + TABLE_ATTACHMENT_URLS + "(hash)");
+    }
+
+    /**
+     * Analytics: one row per (day, source, area, status) count. Days are yyyy-MM-dd, so
+     * the primary key serves date-range scans.
+     */
+    private void createAnalyticsTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_ANALYTICS_DAILY + " ("
+                + "day TEXT NOT NULL, "
+                + "source TEXT NOT NULL, "
+                + "area TEXT NOT NULL, "
+                + "status TEXT NOT NULL, "
+                + "reports INTEGER NOT NULL, "
+                + "PRIMARY KEY (day, source, area, status))");
+    }
+}
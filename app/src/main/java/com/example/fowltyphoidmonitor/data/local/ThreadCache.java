@@ -0,0 +1,334 @@
+package com.example.fowltyphoidmonitor.data.local;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.data.models.ConsultationMessage;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Local copy of consultation message threads and farmer profiles, so a chat can
+ * render before the network answers. Rows are stored as the server's JSON.
+ */
+public class ThreadCache {
+    private static final String TAG = "ThreadCache";
+    private static final int MAX_CACHED_THREADS = 50;
+    private static final int MAX_COUNTED_UNREAD = 99;
+
+    private static ThreadCache instance;
+
+    private final LocalDatabase database;
+
+    public static synchronized ThreadCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ThreadCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ThreadCache(Context context) {
+        this.database = LocalDatabase.getInstance(context);
+    }
+
+    /** Get the cached messages of a consultation, oldest first */
+    public List<ConsultationMessage> getMessages(String consultationId) {
+        List<ConsultationMessage> messages = new ArrayList<>();
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_THREAD_MESSAGES,
+                new String[]{"data"}, "consultation_id = ?", new String[]{consultationId},
+                null, null, "created_at ASC")) {
+            while (cursor.moveToNext()) {
+                try {
+                    messages.add(ApiClient.getGson().fromJson(cursor.getString(0), ConsultationMessage.class));
+                } catch (Exception e) {
+                    Log.w(TAG, "Skipping unreadable cached message: " + e.getMessage());
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Where a cached message sits in its thread. Message times are compared as the
+     * server's text, like the delta watermark; the id breaks ties.
+     */
+    public static class Position {
+        public final String createdAt;
+        public final String messageId;
+
+        Position(String createdAt, String messageId) {
+            this.createdAt = createdAt;
+            this.messageId = messageId;
+        }
+    }
+
+    /**
+     * A run of consecutive cached messages, oldest first, with the positions of both
+     * ends so the neighbouring pages can be asked for.
+     */
+    public static class Page {
+        public final List<ConsultationMessage> messages;
+        public final Position first;
+        public final Position last;
+        /** Whether the cache holds more messages past this page, in the direction it was read */
+        public final boolean hasMore;
+
+        Page(List<ConsultationMessage> messages, Position first, Position last, boolean hasMore) {
+            this.messages = messages;
+            this.first = first;
+            this.last = last;
+            this.hasMore = hasMore;
+        }
+
+        public boolean isEmpty() {
+            return messages.isEmpty();
+        }
+
+        /** This page with the page right after it appended */
+        public Page followedBy(Page next) {
+            if (next.isEmpty()) return this;
+            if (isEmpty()) return next;
+            List<ConsultationMessage> joined = new ArrayList<>(messages.size() + next.messages.size());
+            joined.addAll(messages);
+            joined.addAll(next.messages);
+            return new Page(joined, first, next.last, next.hasMore);
+        }
+    }
+
+    /** The newest {@code limit} cached messages of a thread */
+    public Page getNewestPage(String consultationId, int limit) {
+        return queryPage("consultation_id = ?", new String[]{consultationId}, true, limit);
+    }
+
+    /** Up to {@code limit} cached messages right before the given position */
+    public Page getPageBefore(String consultationId, Position before, int limit) {
+        return queryPage("consultation_id = ? AND (created_at < ? OR (created_at = ? AND message_id < ?))",
+                new String[]{consultationId, before.createdAt, before.createdAt, before.messageId},
+                true, limit);
+    }
+
+    /** Up to {@code limit} cached messages right after the given position */
+    public Page getPageAfter(String consultationId, Position after, int limit) {
+        return queryPage("consultation_id = ? AND (created_at > ? OR (created_at = ? AND message_id > ?))",
+                new String[]{consultationId, after.createdAt, after.createdAt, after.messageId},
+                false, limit);
+    }
+
+    /**
+     * Read one page along the (consultation_id, created_at, message_id) index. One
+     * extra row is asked for to learn whether the thread goes on.
+     */
+    private Page queryPage(String selection, String[] args, boolean newestFirst, int limit) {
+        String order = newestFirst ? "created_at DESC, message_id DESC" : "created_at ASC, message_id ASC";
+        List<ConsultationMessage> messages = new ArrayList<>(limit);
+        List<Position> positions = new ArrayList<>(limit);
+        boolean hasMore = false;
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_THREAD_MESSAGES,
+                new String[]{"created_at", "message_id", "data"}, selection, args,
+                null, null, order, String.valueOf(limit + 1))) {
+            while (cursor.moveToNext()) {
+                if (positions.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                try {
+                    ConsultationMessage message = ApiClient.getGson().fromJson(cursor.getString(2), ConsultationMessage.class);
+                    messages.add(message);
+                    String createdAt = cursor.getString(0);
+                    positions.add(new Position(createdAt != null ? createdAt : "", cursor.getString(1)));
+                } catch (Exception e) {
+                    Log.w(TAG, "Skipping unreadable cached message: " + e.getMessage());
+                }
+            }
+        }
+        if (newestFirst) {
+            Collections.reverse(messages);
+            Collections.reverse(positions);
+        }
+        Position first = positions.isEmpty() ? null : positions.get(0);
+        Position last = positions.isEmpty() ? null : positions.get(positions.size() - 1);
+        return new Page(messages, first, last, hasMore);
+    }
+
+    /**
+     * Number of cached messages after the newest one sent by {@code readerType}, i.e.
+     * the replies that reader has not answered yet. Messages carry no per-reader read
+     * state, so this is what the inbox shows as unread. Threads that are not cached
+     * count 0; at most MAX_COUNTED_UNREAD messages are looked at.
+     */
+    public int countUnread(String consultationId, String readerType) {
+        int unread = 0;
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_THREAD_MESSAGES,
+                new String[]{"data"}, "consultation_id = ?", new String[]{consultationId},
+                null, null, "created_at DESC, message_id DESC", String.valueOf(MAX_COUNTED_UNREAD))) {
+            while (cursor.moveToNext()) {
+                try {
+                    ConsultationMessage message = ApiClient.getGson().fromJson(cursor.getString(0), ConsultationMessage.class);
+                    if (readerType.equalsIgnoreCase(message.getSenderType())) break;
+                    unread++;
+                } catch (Exception e) {
+                    Log.w(TAG, "Skipping unreadable cached message: " + e.getMessage());
+                }
+            }
+        }
+        return unread;
+    }
+
+    /** Drop one message from a cached thread, e.g. after it was deleted */
+    public void removeMessage(String consultationId, String messageId) {
+        database.getWritableDatabase().delete(LocalDatabase.TABLE_THREAD_MESSAGES,
+                "consultation_id = ? AND message_id = ?", new String[]{consultationId, messageId});
+    }
+
+    /**
+     * Position of the newest cached message of a thread, used as the delta watermark;
+     * null if the thread is not cached. The id is null for a thread whose newest
+     * message was cached before ids were kept and is no longer in the cache.
+     */
+    public Position getWatermark(String consultationId) {
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_THREAD_STATE,
+                new String[]{"last_message_at", "last_message_id"}, "consultation_id = ?",
+                new String[]{consultationId}, null, null, null)) {
+            if (!cursor.moveToFirst() || cursor.isNull(0)) return null;
+            return new Position(cursor.getString(0), cursor.getString(1));
+        }
+    }
+
+    /** When the thread was last checked against the server, 0 if never */
+    public long getFetchedAt(String consultationId) {
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_THREAD_STATE,
+                new String[]{"fetched_at"}, "consultation_id = ?", new String[]{consultationId},
+                null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Append fetched messages to a thread and record the check, in one transaction
+     */
+    public void putMessages(String consultationId, JsonArray rows, long bytes) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            Position watermark = getWatermark(consultationId);
+            String lastMessageAt = watermark != null ? watermark.createdAt : null;
+            String lastMessageId = watermark != null ? watermark.messageId : null;
+            ContentValues values = new ContentValues();
+            for (JsonElement element : rows) {
+                JsonObject row = element.getAsJsonObject();
+                String messageId = getString(row, "message_id");
+                if (messageId == null) messageId = getString(row, "id");
+                if (messageId == null) continue;
+                String createdAt = getString(row, "created_at");
+
+                values.clear();
+                values.put("consultation_id", consultationId);
+                values.put("message_id", messageId);
+                values.put("created_at", createdAt);
+                values.put("data", row.toString());
+                db.insertWithOnConflict(LocalDatabase.TABLE_THREAD_MESSAGES, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+
+                if (createdAt != null && isAfter(createdAt, messageId, lastMessageAt, lastMessageId)) {
+                    lastMessageAt = createdAt;
+                    lastMessageId = messageId;
+                }
+            }
+
+            db.execSQL("INSERT OR IGNORE INTO " + LocalDatabase.TABLE_THREAD_STATE
+                    + " (consultation_id) VALUES (?)", new Object[]{consultationId});
+            db.execSQL("UPDATE " + LocalDatabase.TABLE_THREAD_STATE
+                            + " SET last_message_at = ?, last_message_id = ?, fetched_at = ?, bytes = bytes + ?"
+                            + " WHERE consultation_id = ?",
+                    new Object[]{lastMessageAt, lastMessageId, System.currentTimeMillis(), bytes, consultationId});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Get a cached profile by key, parsed into the given model */
+    public <T> T getProfile(String key, Class<T> type) {
+        if (key == null) return null;
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_PROFILE_CACHE,
+                new String[]{"data"}, "profile_key = ?", new String[]{key}, null, null, null)) {
+            return cursor.moveToFirst() ? ApiClient.getGson().fromJson(cursor.getString(0), type) : null;
+        } catch (Exception e) {
+            Log.w(TAG, "Unreadable cached profile " + key + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** When a profile was cached, 0 if it is not */
+    public long getProfileFetchedAt(String key) {
+        if (key == null) return 0;
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_PROFILE_CACHE,
+                new String[]{"fetched_at"}, "profile_key = ?", new String[]{key}, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    public void putProfile(String key, JsonObject profile) {
+        ContentValues values = new ContentValues();
+        values.put("profile_key", key);
+        values.put("data", profile.toString());
+        values.put("fetched_at", System.currentTimeMillis());
+        database.getWritableDatabase().insertWithOnConflict(LocalDatabase.TABLE_PROFILE_CACHE, null,
+                values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Keep only the most recently checked threads
+     */
+    public void trim() {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            String stale = "SELECT consultation_id FROM " + LocalDatabase.TABLE_THREAD_STATE
+                    + " ORDER BY fetched_at DESC LIMIT -1 OFFSET " + MAX_CACHED_THREADS;
+            db.execSQL("DELETE FROM " + LocalDatabase.TABLE_THREAD_MESSAGES
+                    + " WHERE consultation_id IN (" + stale + ")");
+            db.execSQL("DELETE FROM " + LocalDatabase.TABLE_THREAD_STATE
+                    + " WHERE consultation_id IN (" + stale + ")");
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Drop all cached threads and profiles, e.g. on logout */
+    public void clear() {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(LocalDatabase.TABLE_THREAD_MESSAGES, null, null);
+            db.delete(LocalDatabase.TABLE_THREAD_STATE, null, null);
+            db.delete(LocalDatabase.TABLE_PROFILE_CACHE, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Whether (createdAt, messageId) comes after the watermark in thread order */
+    private static boolean isAfter(String createdAt, String messageId, String lastAt, String lastId) {
+        if (lastAt == null) return true;
+        int byTime = createdAt.compareTo(lastAt);
+        if (byTime != 0) return byTime > 0;
+        return lastId == null || messageId.compareTo(lastId) > 0;
+    }
+
+    private static String getString(JsonObject row, String key) {
+        JsonElement value = row.get(key);
+        return value != null && !value.isJsonNull() ? value.getAsString() : null;
+    }
+}
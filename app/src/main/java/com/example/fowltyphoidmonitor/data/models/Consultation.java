@@ -1,6 +1,7 @@
 package com.example.fowltyphoidmonitor.data.models;
 import com.google.gson.annotations.SerializedName;
 import java.util.Date;
+import java.util.UUID;
 
 public class Consultation {
     @SerializedName("consultation_id")
@@ -30,6 +31,9 @@ public class Consultation {
     @SerializedName("priority")
     private String priority; // "low", "medium", "high", "urgent"
 
+    @SerializedName("client_id")
+    private String clientId; // Client-generated key that makes retried creates idempotent
+
     // Constructors
     public Consultation() {}
 
@@ -69,6 +73,17 @@ public class Consultation {
     public String getPriority() { return priority; }
     public void setPriority(String priority) { this.priority = priority; }
 
+    public String getClientId() { return clientId; }
+    public void setClientId(String clientId) { this.clientId = clientId; }
+
+    // Assign a client id once; later retries must reuse it
+    public String ensureClientId() {
+        if (clientId == null) {
+            clientId = UUID.randomUUID().toString();
+        }
+        return clientId;
+    }
+
     // Add getId method for compatibility - returns consultationId
     public Integer getId() { 
         return consultationId; 
@@ -9,9 +9,12 @@ import java.util.UUID;
  * Model representing a message in a consultation chat
  */
 public class ConsultationMessage {
-    @SerializedName("id")
+    @SerializedName(value = "id", alternate = {"message_id"})
     private String id;
 
+    @SerializedName("client_id")
+    private String clientId; // Client-generated key that makes retried sends idempotent
+
     @SerializedName("created_at")
     private Date createdAt;
 
@@ -87,6 +90,24 @@ public class ConsultationMessage {
         this.id = id;
     }
 
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    /**
+     * Assign a client id once; later retries must reuse it
+     */
+    public String ensureClientId() {
+        if (clientId == null) {
+            clientId = UUID.randomUUID().toString();
+        }
+        return clientId;
+    }
+
     public Date getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,39 @@
+package com.example.fowltyphoidmonitor.data.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Snapshot returned by the dashboard_stats function; all figures are read together
+ */
+public class DashboardStats {
+    @SerializedName("total_farmers")
+    private int totalFarmers;
+
+    @SerializedName("active_reports")
+    private int activeReports;
+
+    @SerializedName("critical_reports")
+    private int criticalReports;
+
+    @SerializedName("pending_consultations")
+    private int pendingConsultations;
+
+    @SerializedName("new_users_today")
+    private int newUsersToday;
+
+    @SerializedName("version")
+    private long version;
+
+    @SerializedName("as_of")
+    private String asOf;
+
+    public DashboardStats() {}
+
+    public int getTotalFarmers() { return totalFarmers; }
+    public int getActiveReports() { return activeReports; }
+    public int getCriticalReports() { return criticalReports; }
+    public int getPendingConsultations() { return pendingConsultations; }
+    public int getNewUsersToday() { return newUsersToday; }
+    public long getVersion() { return version; }
+    public String getAsOf() { return asOf; }
+}
@@ -24,6 +24,9 @@ public class DiseaseInfo {
     @SerializedName("description")
     private String description;
 
+    @SerializedName("updated_at")
+    private String updatedAt;
+
     // Constructors
     public DiseaseInfo() {}
 
@@ -59,4 +62,7 @@ public class DiseaseInfo {
 
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
+
+    public String getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
 }
\ No newline at end of file
@@ -40,6 +40,13 @@ public class Farmer {
     @SerializedName("bird_count")
     private Integer birdCount;
 
+    // Geocoded from the location; the server derives the geohash from them
+    @SerializedName("latitude")
+    private Double latitude;
+
+    @SerializedName("longitude")
+    private Double longitude;
+
     transient private String displayName;
 
     public Farmer() {}
@@ -196,6 +203,19 @@ public class Farmer {
         this.birdCount = birdCount;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setCoordinates(Double latitude, Double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
     public String getDisplayName() {
         return displayName;
     }
@@ -11,6 +11,9 @@ public class SymptomReport {
     @SerializedName("id")
     private String id;
 
+    @SerializedName("client_id")
+    private String clientId; // Idempotency key for retried creates
+
     @SerializedName("created_at")
     private Date createdAt;
 
@@ -52,6 +55,7 @@ public class SymptomReport {
 
     public SymptomReport() {
         this.id = UUID.randomUUID().toString();
+        this.clientId = this.id;
         this.createdAt = new Date();
         this.status = "PENDING";
     }
@@ -64,6 +68,14 @@ public class SymptomReport {
         this.id = id;
     }
 
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
     public Date getCreatedAt() {
         return createdAt;
     }
@@ -1,11 +1,16 @@
 package com.example.fowltyphoidmonitor.data.models;
 import com.google.gson.annotations.SerializedName;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 public class SymptomsReport {
     @SerializedName("report_id")
     private Integer reportId;
 
+    @SerializedName("client_id")
+    private String clientId; // Client-generated key that makes retried creates idempotent
+
     @SerializedName("farmer_id")
     private Integer farmerId;
 
@@ -30,6 +35,9 @@ public class SymptomsReport {
     @SerializedName("status")
     private String status; // "pending", "reviewed", "resolved"
 
+    @SerializedName("images")
+    private List<String> images; // storage URLs of the report's photos
+
     // Constructors
     public SymptomsReport() {}
 
@@ -49,6 +57,17 @@ public class SymptomsReport {
     public Integer getReportId() { return reportId; }
     public void setReportId(Integer reportId) { this.reportId = reportId; }
 
+    public String getClientId() { return clientId; }
+    public void setClientId(String clientId) { this.clientId = clientId; }
+
+    // Assign a client id once; later retries must reuse it
+    public String ensureClientId() {
+        if (clientId == null) {
+            clientId = UUID.randomUUID().toString();
+        }
+        return clientId;
+    }
+
     public Integer getFarmerId() { return farmerId; }
     public void setFarmerId(Integer farmerId) { this.farmerId = farmerId; }
 
@@ -72,4 +91,7 @@ public class SymptomsReport {
 
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+
+    public List<String> getImages() { return images; }
+    public void setImages(List<String> images) { this.images = images; }
 }
\ No newline at end of file
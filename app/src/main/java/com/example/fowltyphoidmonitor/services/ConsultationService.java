@@ -22,6 +22,7 @@ import retrofit2.Response;
  */
 public class ConsultationService {
     private static final String TAG = "ConsultationService";
+    private static final String ON_CONFLICT_CLIENT_ID = "client_id";
     
     private final Context context;
     private final ApiService apiService;
@@ -45,18 +46,26 @@ public class ConsultationService {
     }
     
     /**
-     * Create a new consultation
+     * Create a new consultation. Safe to retry with the same object: its client id
+     * makes the server ignore repeats and return the row stored first.
      */
     public void createConsultation(Consultation consultation, final ConsultationCallback<Consultation> callback) {
         // Set the farmer ID from the current user
         consultation.setFarmerId(authManager.getUserId());
+        final String clientId = consultation.ensureClientId();
         
-        apiService.createConsultation(consultation).enqueue(new Callback<Consultation>() {
+        apiService.createConsultation(ON_CONFLICT_CLIENT_ID, consultation).enqueue(new Callback<List<Consultation>>() {
             @Override
-            public void onResponse(Call<Consultation> call, Response<Consultation> response) {
+            public void onResponse(Call<List<Consultation>> call, Response<List<Consultation>> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    Log.d(TAG, "Consultation created successfully: " + response.body().getId());
-                    callback.onSuccess(response.body());
+                    if (!response.body().isEmpty()) {
+                        Log.d(TAG, "Consultation created successfully: " + response.body().get(0).getId());
+                        callback.onSuccess(response.body().get(0));
+                    } else {
+                        Log.d(TAG, "Consultation " + clientId + " was already created, loading it");
+                        fetchExistingRow(apiService.getConsultationByClientId("eq." + clientId),
+                                "consultation", callback);
+                    }
                 } else {
                     Log.e(TAG, "Failed to create consultation: " + 
                           (response.errorBody() != null ? response.errorBody().toString() : "Unknown error"));
@@ -65,7 +74,7 @@ public class ConsultationService {
             }
 
             @Override
-            public void onFailure(Call<Consultation> call, Throwable t) {
+            public void onFailure(Call<List<Consultation>> call, Throwable t) {
                 Log.e(TAG, "Network error creating consultation", t);
                 callback.onError("Network error: " + t.getMessage());
             }
@@ -212,18 +221,35 @@ public class ConsultationService {
      * Send a message in a consultation
      */
     public void sendMessage(String consultationId, String message, final ConsultationCallback<ConsultationMessage> callback) {
+        sendMessage(null, consultationId, message, callback);
+    }
+
+    /**
+     * Send a message keyed by a client id. Retrying with the same client id never
+     * creates a second message; the callback receives the row stored first.
+     */
+    public void sendMessage(String clientId, String consultationId, String message,
+                            final ConsultationCallback<ConsultationMessage> callback) {
         ConsultationMessage consultationMessage = new ConsultationMessage();
+        consultationMessage.setClientId(clientId);
         consultationMessage.setConsultationId(consultationId);
         consultationMessage.setSenderId(authManager.getUserId());
         consultationMessage.setSenderType(authManager.getUserType());
         consultationMessage.setMessage(message);
+        final String messageClientId = consultationMessage.ensureClientId();
         
-        apiService.createMessage(consultationMessage).enqueue(new Callback<ConsultationMessage>() {
+        apiService.createMessage(ON_CONFLICT_CLIENT_ID, consultationMessage).enqueue(new Callback<List<ConsultationMessage>>() {
             @Override
-            public void onResponse(Call<ConsultationMessage> call, Response<ConsultationMessage> response) {
+            public void onResponse(Call<List<ConsultationMessage>> call, Response<List<ConsultationMessage>> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    Log.d(TAG, "Message sent successfully: " + response.body().getId());
-                    callback.onSuccess(response.body());
+                    if (!response.body().isEmpty()) {
+                        Log.d(TAG, "Message sent successfully: " + response.body().get(0).getId());
+                        callback.onSuccess(response.body().get(0));
+                    } else {
+                        Log.d(TAG, "Message " + messageClientId + " was already sent, loading it");
+                        fetchExistingRow(apiService.getMessageByClientId("eq." + messageClientId),
+                                "message", callback);
+                    }
                 } else {
                     Log.e(TAG, "Failed to send message: " + 
                           (response.errorBody() != null ? response.errorBody().toString() : "Unknown error"));
@@ -232,12 +258,36 @@ public class ConsultationService {
             }
 
             @Override
-            public void onFailure(Call<ConsultationMessage> call, Throwable t) {
+            public void onFailure(Call<List<ConsultationMessage>> call, Throwable t) {
                 Log.e(TAG, "Network error sending message", t);
                 callback.onError("Network error: " + t.getMessage());
             }
         });
     }
+
+    /**
+     * An ignored duplicate insert returns no rows, so load the row an earlier attempt stored
+     */
+    private <T> void fetchExistingRow(Call<List<T>> lookup, final String rowName,
+                                      final ConsultationCallback<T> callback) {
+        lookup.enqueue(new Callback<List<T>>() {
+            @Override
+            public void onResponse(Call<List<T>> call, Response<List<T>> response) {
+                if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
+                    callback.onSuccess(response.body().get(0));
+                } else {
+                    Log.e(TAG, "Failed to load existing " + rowName + ": HTTP " + response.code());
+                    callback.onError("Failed to load existing " + rowName);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<List<T>> call, Throwable t) {
+                Log.e(TAG, "Network error loading existing " + rowName, t);
+                callback.onError("Network error: " + t.getMessage());
+            }
+        });
+    }
     
     /**
      * Get all messages for a consultation
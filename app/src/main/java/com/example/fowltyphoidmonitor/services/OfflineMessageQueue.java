@@ -45,10 +45,24 @@ public class OfflineMessageQueue {
      * Queue a message for later sending when online
      */
     public void queueMessage(String consultationId, String message, String senderId, String senderType) {
+        queueMessage(UUID.randomUUID().toString(), consultationId, message, senderId, senderType);
+    }
+
+    /**
+     * Queue a message under the client id of an earlier failed send, so a send that
+     * actually reached the server is not delivered twice
+     */
+    public synchronized void queueMessage(String clientId, String consultationId, String message,
+                                          String senderId, String senderType) {
         List<QueuedMessage> queuedMessages = getQueuedMessages();
+        for (QueuedMessage queued : queuedMessages) {
+            if (clientId.equals(queued.id)) {
+                return;
+            }
+        }
         
         QueuedMessage queuedMessage = new QueuedMessage();
-        queuedMessage.id = UUID.randomUUID().toString();
+        queuedMessage.id = clientId;
         queuedMessage.consultationId = consultationId;
         queuedMessage.message = message;
         queuedMessage.senderId = senderId;
@@ -64,7 +78,7 @@ public class OfflineMessageQueue {
     /**
      * Get all queued messages
      */
-    public List<QueuedMessage> getQueuedMessages() {
+    public synchronized List<QueuedMessage> getQueuedMessages() {
         String json = prefs.getString(KEY_QUEUED_MESSAGES, "[]");
         Type type = new TypeToken<List<QueuedMessage>>(){}.getType();
         return gson.fromJson(json, type);
@@ -73,7 +87,7 @@ public class OfflineMessageQueue {
     /**
      * Save queued messages to SharedPreferences
      */
-    private void saveQueuedMessages(List<QueuedMessage> messages) {
+    private synchronized void saveQueuedMessages(List<QueuedMessage> messages) {
         String json = gson.toJson(messages);
         prefs.edit().putString(KEY_QUEUED_MESSAGES, json).apply();
     }
@@ -90,32 +104,43 @@ public class OfflineMessageQueue {
         
         Log.d(TAG, "Sending " + queuedMessages.size() + " queued messages");
         
-        List<QueuedMessage> failedMessages = new ArrayList<>();
-        
+        // The queued id is the message's client id, so resending after a lost response is harmless
         for (QueuedMessage queuedMessage : queuedMessages) {
-            chatService.sendMessage(queuedMessage.consultationId, queuedMessage.message, 
+            chatService.sendMessage(queuedMessage.id, queuedMessage.consultationId, queuedMessage.message,
                 new SupabaseChatService.ChatCallback() {
                     @Override
                     public void onSuccess() {
                         Log.d(TAG, "Successfully sent queued message");
+                        removeQueuedMessage(queuedMessage.id);
                     }
                     
                     @Override
                     public void onError(String errorMessage) {
+                        // Stays queued for the next attempt
                         Log.e(TAG, "Failed to send queued message: " + errorMessage);
-                        failedMessages.add(queuedMessage);
                     }
                 });
         }
-        
-        // Keep only failed messages in queue
-        saveQueuedMessages(failedMessages);
+    }
+
+    /**
+     * Remove a delivered message from the queue
+     */
+    private synchronized void removeQueuedMessage(String id) {
+        List<QueuedMessage> queuedMessages = getQueuedMessages();
+        List<QueuedMessage> remaining = new ArrayList<>();
+        for (QueuedMessage queued : queuedMessages) {
+            if (!id.equals(queued.id)) {
+                remaining.add(queued);
+            }
+        }
+        saveQueuedMessages(remaining);
     }
     
     /**
      * Clear all queued messages
      */
-    public void clearQueue() {
+    public synchronized void clearQueue() {
         prefs.edit().remove(KEY_QUEUED_MESSAGES).apply();
     }
     
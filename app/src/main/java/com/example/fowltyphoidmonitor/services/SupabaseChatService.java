@@ -40,7 +40,14 @@ public class SupabaseChatService {
      * Send a message in a consultation
      */
     public void sendMessage(String consultationId, String message, final ChatCallback callback) {
-        consultationService.sendMessage(consultationId, message, new ConsultationService.ConsultationCallback<ConsultationMessage>() {
+        sendMessage(null, consultationId, message, callback);
+    }
+
+    /**
+     * Send a message with a client id; pass the same id when retrying the same message
+     */
+    public void sendMessage(String clientId, String consultationId, String message, final ChatCallback callback) {
+        consultationService.sendMessage(clientId, consultationId, message, new ConsultationService.ConsultationCallback<ConsultationMessage>() {
             @Override
             public void onSuccess(ConsultationMessage result) {
                 Log.d(TAG, "Message sent successfully");
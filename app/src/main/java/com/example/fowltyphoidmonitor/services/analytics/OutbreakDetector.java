@@ -0,0 +1,312 @@
+package com.example.fowltyphoidmonitor.services.analytics;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.location.LocationIndex;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager;
+import com.example.fowltyphoidmonitor.utils.AppLog;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * Flags areas where symptom reports rise above their own recent level.
+ *
+ * Each area keeps the report count of the last BASELINE_DAYS days and of today in a
+ * ring, the running sum and sum of squares of the baseline days, and a one-sided CUSUM
+ * over completed days. A changed count is applied as a delta and a new day slides the
+ * ring by one slot, so a report costs O(1) and history is never rescanned. When today's
+ * count pushes the CUSUM past its threshold, a disease outbreak alert goes to the farmers
+ * of that area and to everyone within ALERT_RADIUS_KM of it, under an id derived from the
+ * area and day. The area stays quiet until its CUSUM has fallen back to zero.
+ *
+ * Fed by ReportAnalyticsEngine with the deltas of the report rows it mirrors, on its
+ * serial queue.
+ */
+class OutbreakDetector {
+    private static final String TAG = "OutbreakDetector";
+    private static final String PREFS_NAME = "outbreak_detector";
+    private static final String KEY_CELLS = "cells";
+    private static final String KEY_SEEDED = "seeded";
+    private static final String RPC_FARMS_NEAR = "farms_near";
+
+    /** Days the expected level is estimated from */
+    static final int BASELINE_DAYS = 28;
+    // Slack and decision threshold in standard deviations; the textbook k = 0.5, h = 4
+    private static final double SLACK = 0.5;
+    private static final double THRESHOLD = 4.0;
+    // Areas with few reports have a near-zero deviation; one report must not be an outbreak
+    private static final double MIN_DEVIATION = 1.0;
+    // Farms this close to the area's centre are warned too, whatever area they named
+    private static final double ALERT_RADIUS_KM = 10.0;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    // Days are bucketed in East Africa time on the server
+    private static final TimeZone SERVER_ZONE = TimeZone.getTimeZone("Africa/Dar_es_Salaam");
+
+    /**
+     * Report counts of one area; counts[day % counts.length] for the days
+     * lastDay - BASELINE_DAYS .. lastDay, where lastDay is the newest day seen
+     */
+    static class Cell {
+        long lastDay;
+        int[] counts = new int[BASELINE_DAYS + 1];
+        double sum;        // of the baseline days, lastDay excluded
+        double sumSquares;
+        double cusum;      // over the days before lastDay
+        boolean alarmed;
+
+        double mean() {
+            return sum / BASELINE_DAYS;
+        }
+
+        double deviation() {
+            double mean = mean();
+            double variance = sumSquares / BASELINE_DAYS - mean * mean;
+            return Math.max(MIN_DEVIATION, Math.sqrt(Math.max(0, variance)));
+        }
+
+        int slot(long day) {
+            return (int) (day % counts.length);
+        }
+
+        /** CUSUM with today's count so far included */
+        double currentCusum() {
+            return Math.max(0, cusum + counts[slot(lastDay)] - mean() - SLACK * deviation());
+        }
+
+        /** Close the days up to today: each adds its step to the CUSUM and joins the baseline */
+        void advanceTo(long today) {
+            if (today - lastDay > counts.length) {
+                // Every day in the ring would be an empty one; start over from zero
+                counts = new int[BASELINE_DAYS + 1];
+                sum = 0;
+                sumSquares = 0;
+                cusum = 0;
+                lastDay = today;
+            }
+            while (lastDay < today) {
+                cusum = currentCusum();
+                int closed = counts[slot(lastDay)];
+                sum += closed;
+                sumSquares += (double) closed * closed;
+                lastDay++;
+                // The slot of today held the day that now leaves the baseline
+                int dropped = counts[slot(lastDay)];
+                sum -= dropped;
+                sumSquares -= (double) dropped * dropped;
+                counts[slot(lastDay)] = 0;
+            }
+            if (cusum == 0) {
+                alarmed = false;
+            }
+        }
+
+        /** Apply a change to a day still in the ring; older days are ignored */
+        void add(long day, int delta) {
+            if (day > lastDay || day < lastDay - BASELINE_DAYS) return;
+            int slot = slot(day);
+            int before = counts[slot];
+            int after = Math.max(0, before + delta);
+            counts[slot] = after;
+            if (day < lastDay) {
+                sum += after - before;
+                sumSquares += (double) after * after - (double) before * before;
+            }
+        }
+    }
+
+    private static OutbreakDetector instance;
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final Gson gson = new Gson();
+    private final Type cellsType = new TypeToken<Map<String, Cell>>() {}.getType();
+    private Map<String, Cell> cells;
+
+    static synchronized OutbreakDetector getInstance(Context context) {
+        if (instance == null) {
+            instance = new OutbreakDetector(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private OutbreakDetector(Context context) {
+        this.context = context;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        Map<String, Cell> saved = gson.fromJson(prefs.getString(KEY_CELLS, null), cellsType);
+        this.cells = saved != null ? saved : new HashMap<>();
+    }
+
+    /** Whether the counts already cover what the analytics mirror held before this detector */
+    synchronized boolean isSeeded() {
+        return prefs.getBoolean(KEY_SEEDED, false);
+    }
+
+    /**
+     * Start from the mirror's per-day totals, given as area -> day -> reports. Only
+     * called once; every later change arrives through apply.
+     */
+    @WorkerThread
+    synchronized void seed(Map<String, Map<String, Integer>> totals) {
+        cells = new HashMap<>();
+        apply(totals, false);
+        prefs.edit().putBoolean(KEY_SEEDED, true).apply();
+        AppLog.d(TAG, () -> "Seeded outbreak counts for " + cells.size() + " areas");
+    }
+
+    /**
+     * Apply report count changes, given as area -> day -> delta, and with check set
+     * look for an outbreak in the areas they touched
+     */
+    @WorkerThread
+    synchronized void apply(Map<String, Map<String, Integer>> deltas, boolean check) {
+        if (deltas.isEmpty()) return;
+        long today = dayIndex(todayString());
+        Set<String> touched = new HashSet<>();
+        for (Map.Entry<String, Map<String, Integer>> area : deltas.entrySet()) {
+            Cell cell = cells.get(area.getKey());
+            if (cell == null) {
+                cell = new Cell();
+                cell.lastDay = today;
+                cells.put(area.getKey(), cell);
+            }
+            cell.advanceTo(today);
+            for (Map.Entry<String, Integer> day : area.getValue().entrySet()) {
+                cell.add(dayIndex(day.getKey()), day.getValue());
+            }
+            touched.add(area.getKey());
+        }
+
+        if (check) {
+            for (String area : touched) {
+                check(area, cells.get(area));
+            }
+        }
+        prefs.edit().putString(KEY_CELLS, gson.toJson(cells, cellsType)).apply();
+    }
+
+    private void check(String area, Cell cell) {
+        double cusum = cell.currentCusum();
+        if (cell.alarmed || cusum <= THRESHOLD * cell.deviation()) return;
+
+        cell.alarmed = true;
+        int today = cell.counts[cell.slot(cell.lastDay)];
+        double mean = cell.mean();
+        AppLog.i(TAG, () -> "Outbreak signal in " + area + ": " + today + " reports today, mean "
+                + mean + ", CUSUM " + cusum);
+        raiseAlert(area, cell.lastDay, today, mean);
+    }
+
+    /**
+     * Every vet device runs this detector, so the alert id is derived from the area
+     * and day: the devices raise the same alert and the server keeps one
+     * notification per recipient.
+     */
+    private void raiseAlert(String area, long day, int today, double mean) {
+        AlertManager.AlertTarget target = new AlertManager.AlertTarget();
+        target.type = AlertManager.AlertTarget.TargetType.BY_LOCATION;
+        target.locations.add(area);
+        double[] centre = LocationIndex.getInstance(context).geocode(area);
+        if (centre != null) {
+            target.centerLatitude = centre[0];
+            target.centerLongitude = centre[1];
+            target.radiusKm = ALERT_RADIUS_KM;
+        }
+
+        String title = "Tahadhari ya mlipuko: " + area;
+        String message = String.format(Locale.US,
+                "Ripoti %d za dalili za kuku zimepokelewa leo kutoka %s, wakati wastani ni %.1f kwa siku. "
+                        + "Kagua kuku wako na wasiliana na daktari wa mifugo.", today, area, mean);
+        long farms = centre != null ? farmsNear(centre[0], centre[1]) : -1;
+        if (farms > 0) {
+            message += String.format(Locale.US, " Kuna takriban mashamba %d ndani ya km %.0f.",
+                    farms, ALERT_RADIUS_KM);
+        }
+        AlertManager.getInstance(context).sendBulkAlert(alertId(area, day), title, message,
+                AlertManager.AlertType.DISEASE_OUTBREAK, AlertManager.AlertPriority.CRITICAL, target);
+    }
+
+    /**
+     * Farms in the geohash buckets around the point, counted on the server; -1 when
+     * the count is unavailable, which never holds the alert back
+     */
+    private long farmsNear(double latitude, double longitude) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("p_lat", latitude);
+        params.put("p_lng", longitude);
+        params.put("p_radius_km", ALERT_RADIUS_KM);
+        try {
+            String auth = SupabaseConfig.getAuthHeader(AuthManager.getInstance(context).getAccessToken());
+            Response<ResponseBody> response = ApiClient.getApiService()
+                    .callRpc(auth, SupabaseConfig.getApiKeyHeader(), RPC_FARMS_NEAR, params)
+                    .execute();
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException(RPC_FARMS_NEAR + ": HTTP " + response.code());
+            }
+            long farms = 0;
+            for (JsonElement row : JsonParser.parseString(response.body().string()).getAsJsonArray()) {
+                farms += row.getAsJsonObject().get("farms").getAsLong();
+            }
+            return farms;
+        } catch (IOException | RuntimeException e) {
+            AppLog.w(TAG, "Could not count farms near outbreak: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /** Name-based UUID of the outbreak alert of an area on a day (days since 1970-01-01) */
+    static String alertId(String area, long day) {
+        return UUID.nameUUIDFromBytes(("outbreak|" + area + "|" + day).getBytes(StandardCharsets.UTF_8))
+                .toString();
+    }
+
+    /** First day the detector needs from the mirror, as yyyy-MM-dd */
+    static String windowStart() {
+        return formatDay(System.currentTimeMillis() - BASELINE_DAYS * DAY_MS);
+    }
+
+    private static String todayString() {
+        return formatDay(System.currentTimeMillis());
+    }
+
+    private static String formatDay(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setTimeZone(SERVER_ZONE);
+        return format.format(new Date(millis));
+    }
+
+    /** Days since 1970-01-01 of a yyyy-MM-dd day */
+    private static long dayIndex(String day) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            return format.parse(day).getTime() / DAY_MS;
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Bad day " + day, e);
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package com.example.fowltyphoidmonitor.services.analytics;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.data.local.LocalDatabase;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+import com.example.fowltyphoidmonitor.utils.AppLog;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * Report analytics for a date window, computed from the server's daily counts.
+ *
+ * The server keeps report_daily_stats, one count per (day, source, area, status).
+ * This class mirrors the rows of the days it has been asked about and, on each load,
+ * pulls only the rows whose version moved since the last pull. Every window is then
+ * summed locally over the mirror, so a window over years of data is a range scan of
+ * a few thousand rows and shows at once from the cache while the refresh runs.
+ *
+ * The change in each area's daily report count is handed to OutbreakDetector as it is
+ * stored, so outbreak checks follow every refresh, whichever caller started it.
+ */
+public class ReportAnalyticsEngine {
+    private static final String TAG = "ReportAnalyticsEngine";
+    private static final String PREFS_NAME = "report_analytics";
+    private static final String KEY_COVERED_FROM = "covered_from";
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_FULL_AT = "full_at";
+    private static final String RPC_CHANGES = "report_daily_stats_changes";
+    private static final int PAGE_SIZE = 1000;
+    // Catches any change whose version was handed out before an earlier one committed
+    private static final long FULL_REFRESH_MS = 24 * 60 * 60 * 1000L;
+    private static final String LAST_DAY = "9999-12-31";
+    // Days are bucketed in East Africa time on the server
+    private static final TimeZone SERVER_ZONE = TimeZone.getTimeZone("Africa/Dar_es_Salaam");
+
+    public static final String SOURCE_REPORT = "report";
+    public static final String SOURCE_CONSULTATION = "consultation";
+
+    public static final String STATUS_NEW = "Mpya";
+    public static final String STATUS_IN_PROGRESS = "Inaendelea";
+    public static final String STATUS_RESOLVED = "Yamekamilika";
+
+    /**
+     * A labelled count: an area, or a day as yyyy-MM-dd
+     */
+    public static class Bucket {
+        public final String label;
+        public final int count;
+
+        Bucket(String label, int count) {
+            this.label = label;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Everything the analytics screen shows for one window
+     */
+    public static class Summary {
+        public int total;
+        public int resolved;
+        /** Reports in the window of the same length just before this one */
+        public int previousTotal;
+        /** STATUS_NEW, STATUS_IN_PROGRESS and STATUS_RESOLVED, in that order */
+        public final Map<String, Integer> statuses = new LinkedHashMap<>();
+        /** Areas by report count, highest first */
+        public final List<Bucket> areas = new ArrayList<>();
+        /** Every day of the window, days without reports included */
+        public final List<Bucket> daily = new ArrayList<>();
+
+        public int getActive() {
+            return total - resolved;
+        }
+
+        public String getMostAffectedArea() {
+            return areas.isEmpty() ? null : areas.get(0).label;
+        }
+
+        /** Change against the previous window in percent, or null without a baseline */
+        public Integer getChangePercent() {
+            if (previousTotal == 0) return null;
+            return Math.round((total - previousTotal) * 100f / previousTotal);
+        }
+    }
+
+    public interface Callback {
+        /**
+         * Called with the cached summary first if the mirror covers the window, then with
+         * the refreshed one (fresh = true). Runs on the main thread.
+         */
+        void onSummary(Summary summary, boolean fresh);
+
+        /** The refresh failed; a cached summary may already have been delivered */
+        void onError(Exception e);
+    }
+
+    private static ReportAnalyticsEngine instance;
+
+    private final Context context;
+    private final LocalDatabase database;
+    private final SharedPreferences prefs;
+    private final OutbreakDetector detector;
+    // One refresh at a time, so two windows never pull the same pages
+    private final Executor executor = AppExecutors.getInstance().serial("report-analytics");
+
+    public static synchronized ReportAnalyticsEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReportAnalyticsEngine(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ReportAnalyticsEngine(Context context) {
+        this.context = context;
+        this.database = LocalDatabase.getInstance(context);
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.detector = OutbreakDetector.getInstance(context);
+    }
+
+    /**
+     * Summarise the window from start to end, both days inclusive, for one source or
+     * all of them (source null)
+     */
+    public void load(Date start, Date end, String source, Callback callback) {
+        String from = formatDay(start);
+        String to = formatDay(end);
+        executor.execute(() -> {
+            int days = daysBetween(from, to) + 1;
+            String previousFrom = addDays(from, -days);
+            String previousTo = addDays(from, -1);
+
+            String coveredFrom = prefs.getString(KEY_COVERED_FROM, null);
+            if (coveredFrom != null && coveredFrom.compareTo(previousFrom) <= 0) {
+                Summary cached = summarize(from, to, previousFrom, previousTo, source);
+                deliver(callback, cached, false);
+            }
+
+            try {
+                long started = System.currentTimeMillis();
+                refresh(previousFrom);
+                Summary fresh = summarize(from, to, previousFrom, previousTo, source);
+                AppLog.d(TAG, () -> "Analytics " + from + ".." + to + " refreshed in "
+                        + (System.currentTimeMillis() - started) + "ms");
+                deliver(callback, fresh, true);
+            } catch (Exception e) {
+                AppLog.e(TAG, "Analytics refresh failed", e);
+                AppExecutors.getInstance().mainThread().execute(() -> callback.onError(e));
+            }
+        });
+    }
+
+    /**
+     * Refresh the days the outbreak detector looks at, waiting for it; for background
+     * work such as SyncWorker
+     */
+    @WorkerThread
+    public void refreshRecent() throws IOException {
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            refresh(OutbreakDetector.windowStart());
+            return null;
+        });
+        executor.execute(task);
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Bring the mirror up to date from the given day on. Days already mirrored get only
+     * the rows changed since the stored version; older days are pulled in full once.
+     */
+    @WorkerThread
+    private void refresh(String neededFrom) throws IOException {
+        String coveredFrom = prefs.getString(KEY_COVERED_FROM, null);
+        long version = prefs.getLong(KEY_VERSION, 0);
+        long fullAt = prefs.getLong(KEY_FULL_AT, 0);
+
+        if (coveredFrom == null || System.currentTimeMillis() - fullAt > FULL_REFRESH_MS) {
+            String from = coveredFrom == null || neededFrom.compareTo(coveredFrom) < 0
+                    ? neededFrom : coveredFrom;
+            long latest = pull(from, LAST_DAY, 0);
+            saveState(from, latest, System.currentTimeMillis());
+            return;
+        }
+
+        // The watermark stays at what the covered days have seen: a pull of older days
+        // may return newer versions, but changes to the covered days below those would
+        // be skipped if the watermark jumped to them
+        long latest = pull(coveredFrom, LAST_DAY, version);
+        if (neededFrom.compareTo(coveredFrom) < 0) {
+            pull(neededFrom, addDays(coveredFrom, -1), 0);
+            coveredFrom = neededFrom;
+        }
+        saveState(coveredFrom, latest, fullAt);
+    }
+
+    /** Store all pages of changed rows; returns the last version seen */
+    private long pull(String from, String to, long after) throws IOException {
+        // A full pull arrives in version order, not day order: today's rows can come before
+        // the days they are compared with, so its counts are taken without a check
+        boolean check = after > 0;
+        String auth = SupabaseConfig.getAuthHeader(AuthManager.getInstance(context).getAccessToken());
+        while (true) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("p_from", from);
+            params.put("p_to", to);
+            params.put("p_after", after);
+            params.put("p_limit", PAGE_SIZE);
+
+            Response<ResponseBody> response = ApiClient.getApiService()
+                    .callRpc(auth, SupabaseConfig.getApiKeyHeader(), RPC_CHANGES, params)
+                    .execute();
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("HTTP " + response.code());
+            }
+            JsonArray rows = JsonParser.parseString(response.body().string()).getAsJsonArray();
+            if (rows.size() == 0) return after;
+
+            after = store(rows, after, check);
+            if (rows.size() < PAGE_SIZE) return after;
+        }
+    }
+
+    private long store(JsonArray rows, long after, boolean check) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        if (!detector.isSeeded()) {
+            detector.seed(reportTotals(db, OutbreakDetector.windowStart()));
+        }
+
+        // area -> day -> change in reports, for the outbreak detector
+        Map<String, Map<String, Integer>> deltas = new HashMap<>();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (JsonElement element : rows) {
+                JsonObject row = element.getAsJsonObject();
+                String day = row.get("day").getAsString();
+                String source = row.get("source").getAsString();
+                String area = row.get("area").getAsString();
+                String status = row.get("status").getAsString();
+                int reports = row.get("reports").getAsInt();
+                if (SOURCE_REPORT.equals(source)) {
+                    int delta = reports - storedReports(db, day, source, area, status);
+                    if (delta != 0) {
+                        Map<String, Integer> days = deltas.get(area);
+                        if (days == null) {
+                            days = new HashMap<>();
+                            deltas.put(area, days);
+                        }
+                        Integer sum = days.get(day);
+                        days.put(day, (sum != null ? sum : 0) + delta);
+                    }
+                }
+
+                values.clear();
+                values.put("day", day);
+                values.put("source", source);
+                values.put("area", area);
+                values.put("status", status);
+                values.put("reports", reports);
+                db.insertWithOnConflict(LocalDatabase.TABLE_ANALYTICS_DAILY, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+                after = Math.max(after, row.get("version").getAsLong());
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        detector.apply(deltas, check);
+        return after;
+    }
+
+    private static int storedReports(SQLiteDatabase db, String day, String source, String area, String status) {
+        try (Cursor cursor = db.rawQuery("SELECT reports FROM " + LocalDatabase.TABLE_ANALYTICS_DAILY
+                        + " WHERE day = ? AND source = ? AND area = ? AND status = ?",
+                new String[]{day, source, area, status})) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    /** Mirrored symptom reports from the given day on, as area -> day -> reports */
+    private static Map<String, Map<String, Integer>> reportTotals(SQLiteDatabase db, String from) {
+        Map<String, Map<String, Integer>> totals = new HashMap<>();
+        try (Cursor cursor = db.rawQuery("SELECT area, day, SUM(reports) FROM "
+                        + LocalDatabase.TABLE_ANALYTICS_DAILY
+                        + " WHERE source = ? AND day >= ? GROUP BY area, day",
+                new String[]{SOURCE_REPORT, from})) {
+            while (cursor.moveToNext()) {
+                Map<String, Integer> days = totals.get(cursor.getString(0));
+                if (days == null) {
+                    days = new HashMap<>();
+                    totals.put(cursor.getString(0), days);
+                }
+                days.put(cursor.getString(1), cursor.getInt(2));
+            }
+        }
+        return totals;
+    }
+
+    private void saveState(String coveredFrom, long version, long fullAt) {
+        prefs.edit()
+                .putString(KEY_COVERED_FROM, coveredFrom)
+                .putLong(KEY_VERSION, version)
+                .putLong(KEY_FULL_AT, fullAt)
+                .apply();
+    }
+
+    @WorkerThread
+    private Summary summarize(String from, String to, String previousFrom, String previousTo, String source) {
+        SQLiteDatabase db = database.getReadableDatabase();
+        Summary summary = new Summary();
+        summary.statuses.put(STATUS_NEW, 0);
+        summary.statuses.put(STATUS_IN_PROGRESS, 0);
+        summary.statuses.put(STATUS_RESOLVED, 0);
+
+        try (Cursor cursor = query(db, "status", from, to, source, "status")) {
+            while (cursor.moveToNext()) {
+                String group = statusGroup(cursor.getString(0));
+                int count = cursor.getInt(1);
+                summary.statuses.put(group, summary.statuses.get(group) + count);
+                summary.total += count;
+                if (STATUS_RESOLVED.equals(group)) {
+                    summary.resolved += count;
+                }
+            }
+        }
+
+        try (Cursor cursor = query(db, "area", from, to, source, "SUM(reports) DESC, area")) {
+            while (cursor.moveToNext()) {
+                if (cursor.getInt(1) > 0) {
+                    summary.areas.add(new Bucket(cursor.getString(0), cursor.getInt(1)));
+                }
+            }
+        }
+
+        Map<String, Integer> perDay = new HashMap<>();
+        try (Cursor cursor = query(db, "day", from, to, source, "day")) {
+            while (cursor.moveToNext()) {
+                perDay.put(cursor.getString(0), cursor.getInt(1));
+            }
+        }
+        SimpleDateFormat format = dayFormat();
+        Calendar calendar = Calendar.getInstance(SERVER_ZONE);
+        calendar.setTime(parseDay(format, from));
+        for (String day = from; day.compareTo(to) <= 0; day = format.format(calendar.getTime())) {
+            Integer count = perDay.get(day);
+            summary.daily.add(new Bucket(day, count != null ? count : 0));
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+
+        try (Cursor cursor = query(db, null, previousFrom, previousTo, source, null)) {
+            if (cursor.moveToFirst()) {
+                summary.previousTotal = cursor.getInt(0);
+            }
+        }
+        return summary;
+    }
+
+    /** Report counts of the day range, grouped by one column (or in total when null) */
+    private static Cursor query(SQLiteDatabase db, String groupBy, String from, String to,
+                                String source, String orderBy) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (groupBy != null) sql.append(groupBy).append(", ");
+        sql.append("COALESCE(SUM(reports), 0) FROM ").append(LocalDatabase.TABLE_ANALYTICS_DAILY)
+                .append(" WHERE day BETWEEN ? AND ?");
+        String[] args;
+        if (source != null) {
+            sql.append(" AND source = ?");
+            args = new String[]{from, to, source};
+        } else {
+            args = new String[]{from, to};
+        }
+        if (groupBy != null) sql.append(" GROUP BY ").append(groupBy);
+        if (orderBy != null) sql.append(" ORDER BY ").append(orderBy);
+        return db.rawQuery(sql.toString(), args);
+    }
+
+    /** Report and consultation statuses folded into the three shown on screen */
+    static String statusGroup(String status) {
+        switch (status != null ? status.toUpperCase(Locale.ROOT) : "") {
+            case "RESOLVED":
+            case "CLOSED":
+            case "COMPLETED":
+            case "ANSWERED":
+            case "CANCELLED":
+            case "REJECTED":
+                return STATUS_RESOLVED;
+            case "OPEN":
+            case "PENDING":
+            case "NEW":
+            case "UNKNOWN":
+            case "":
+                return STATUS_NEW;
+            default:
+                return STATUS_IN_PROGRESS;
+        }
+    }
+
+    private static void deliver(Callback callback, Summary summary, boolean fresh) {
+        AppExecutors.getInstance().mainThread().execute(() -> callback.onSummary(summary, fresh));
+    }
+
+    private static SimpleDateFormat dayFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setTimeZone(SERVER_ZONE);
+        return format;
+    }
+
+    private static String formatDay(Date date) {
+        return dayFormat().format(date);
+    }
+
+    private static String addDays(String day, int days) {
+        SimpleDateFormat format = dayFormat();
+        Calendar calendar = Calendar.getInstance(SERVER_ZONE);
+        calendar.setTime(parseDay(format, day));
+        calendar.add(Calendar.DAY_OF_MONTH, days);
+        return format.format(calendar.getTime());
+    }
+
+    private static int daysBetween(String from, String to) {
+        SimpleDateFormat format = dayFormat();
+        long millis = parseDay(format, to).getTime() - parseDay(format, from).getTime();
+        // East Africa time has no daylight saving, so every day is 24 hours
+        return (int) Math.max(0, millis / (24 * 60 * 60 * 1000L));
+    }
+
+    private static Date parseDay(SimpleDateFormat format, String day) {
+        try {
+            return format.parse(day);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Bad day " + day, e);
+        }
+    }
+}
@@ -14,17 +14,21 @@ import com.example.fowltyphoidmonitor.data.requests.PhoneLoginRequest;
 import com.example.fowltyphoidmonitor.data.requests.RefreshTokenRequest;
 import com.example.fowltyphoidmonitor.data.requests.SignUpRequest;
 import com.example.fowltyphoidmonitor.data.requests.User;
+import com.example.fowltyphoidmonitor.utils.AppLog;
 import com.example.fowltyphoidmonitor.utils.SharedPreferencesManager;
+import com.example.fowltyphoidmonitor.data.models.DashboardStats;
 import com.example.fowltyphoidmonitor.data.models.Farmer;
 import com.example.fowltyphoidmonitor.data.models.Vet;
+import com.example.fowltyphoidmonitor.data.local.ThreadCache;
+import com.example.fowltyphoidmonitor.services.sync.SyncEngine;
+import com.example.fowltyphoidmonitor.services.sync.SyncWorker;
+import com.example.fowltyphoidmonitor.services.upload.ReportUploader;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -85,7 +89,7 @@ public class AuthManager {
         this.authService = supabaseClient.getAuthService();
         this.apiService = supabaseClient.getApiService();
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - AuthManager initialized");
+        AppLog.d(TAG, "AuthManager initialized");
     }
 
     /**
@@ -109,20 +113,20 @@ public class AuthManager {
                 // Refresh if token expires in less than 5 minutes
                 boolean needsRefresh = expiryTime > 0 && (System.currentTimeMillis() + 300000) >= expiryTime;
 
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Token expires at: " + new Date(expiryTime) +
+                AppLog.d(TAG, "Token expires at: " + new Date(expiryTime) +
                         ", needs refresh: " + needsRefresh);
 
                 if (needsRefresh) {
                     // Token needs refresh
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Refreshing token automatically");
+                    AppLog.d(TAG, "Refreshing token automatically");
                     refreshToken(callback);
                 } else if (callback != null) {
                     // Token is still valid
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Token is still valid");
+                    AppLog.d(TAG, "Token is still valid");
                     callback.onSuccess(null);
                 }
             } catch (Exception e) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error checking token expiry", e);
+                AppLog.e(TAG, "Error checking token expiry", e);
                 if (callback != null) {
                     callback.onError("Error checking token status");
                 }
@@ -137,13 +141,13 @@ public class AuthManager {
      */
     public boolean refreshToken() {
         if (isRefreshing) {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Token refresh already in progress");
+            AppLog.d(TAG, "Token refresh already in progress");
             return false;
         }
 
         String refreshToken = prefs.getString(KEY_REFRESH_TOKEN, null);
         if (refreshToken == null || refreshToken.isEmpty()) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - No refresh token available");
+            AppLog.e(TAG, "No refresh token available");
             return false;
         }
 
@@ -162,17 +166,17 @@ public class AuthManager {
                 // Save the new tokens
                 saveAuthTokens(authResponse);
 
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Token refreshed successfully");
+                AppLog.d(TAG, "Token refreshed successfully");
                 isRefreshing = false;
                 return true;
             } else {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to refresh token: " +
+                AppLog.e(TAG, "Failed to refresh token: " +
                       (response.errorBody() != null ? response.errorBody().string() : "Unknown error"));
                 isRefreshing = false;
                 return false;
             }
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error refreshing token", e);
+            AppLog.e(TAG, "Error refreshing token", e);
             isRefreshing = false;
             return false;
         }
@@ -183,7 +187,7 @@ public class AuthManager {
      */
     public void refreshToken(final AuthCallback callback) {
         if (isRefreshing) {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Token refresh already in progress");
+            AppLog.d(TAG, "Token refresh already in progress");
             if (callback != null) {
                 callback.onError("Token refresh already in progress");
             }
@@ -192,7 +196,7 @@ public class AuthManager {
 
         String refreshToken = prefs.getString(KEY_REFRESH_TOKEN, null);
         if (refreshToken == null || refreshToken.isEmpty()) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - No refresh token available");
+            AppLog.e(TAG, "No refresh token available");
             if (callback != null) {
                 callback.onError("No refresh token available");
             }
@@ -215,14 +219,14 @@ public class AuthManager {
                         // Save the new tokens
                         saveAuthTokens(authResponse);
 
-                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Token refreshed successfully");
+                        AppLog.d(TAG, "Token refreshed successfully");
                         isRefreshing = false;
 
                         if (callback != null) {
                             callback.onSuccess(null);
                         }
                     } else {
-                        Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to refresh token: " +
+                        AppLog.e(TAG, "Failed to refresh token: " +
                               (response.errorBody() != null ? response.errorBody().toString() : "Unknown error"));
                         isRefreshing = false;
 
@@ -234,7 +238,7 @@ public class AuthManager {
 
                 @Override
                 public void onFailure(Call<AuthResponse> call, Throwable t) {
-                    Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error refreshing token", t);
+                    AppLog.e(TAG, "Error refreshing token", t);
                     isRefreshing = false;
 
                     if (callback != null) {
@@ -243,7 +247,7 @@ public class AuthManager {
                 }
             });
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error refreshing token", e);
+            AppLog.e(TAG, "Error refreshing token", e);
             isRefreshing = false;
 
             if (callback != null) {
@@ -290,17 +294,17 @@ public class AuthManager {
                     String normalizedIntentType = intentUserType.toLowerCase().trim();
                     if ("doctor".equals(normalizedIntentType) || "admin".equals(normalizedIntentType) || "vet".equals(normalizedIntentType)) {
                         userType = "vet"; // Map all medical professionals to "vet"
-                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - ✅ SUCCESS: userType from Intent: '" + intentUserType + "' -> normalized to 'vet'");
+                        AppLog.d(TAG, "✅ SUCCESS: userType from Intent: '" + intentUserType + "' -> normalized to 'vet'");
                     } else if ("farmer".equals(normalizedIntentType)) {
                         userType = "farmer";
-                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - ✅ SUCCESS: userType from Intent: '" + intentUserType + "'");
+                        AppLog.d(TAG, "✅ SUCCESS: userType from Intent: '" + intentUserType + "'");
                     }
                 }
                 
                 // Default fallback
                 if (userType == null) {
                     userType = "vet"; // For test@vet.com, default to vet
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - ✅ SUCCESS: Using default userType for test: 'vet'");
+                    AppLog.d(TAG, "✅ SUCCESS: Using default userType for test: 'vet'");
                 }
 
                 // Save user info
@@ -361,17 +365,17 @@ public class AuthManager {
                             String normalizedIntentType = intentUserType.toLowerCase().trim();
                             if ("doctor".equals(normalizedIntentType) || "admin".equals(normalizedIntentType) || "vet".equals(normalizedIntentType)) {
                                 userType = "vet"; // Map all medical professionals to "vet"
-                                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Using userType from Intent: '" + intentUserType + "' -> normalized to 'vet'");
+                                AppLog.d(TAG, "Using userType from Intent: '" + intentUserType + "' -> normalized to 'vet'");
                             } else if ("farmer".equals(normalizedIntentType)) {
                                 userType = "farmer";
-                                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Using userType from Intent: '" + intentUserType + "'");
+                                AppLog.d(TAG, "Using userType from Intent: '" + intentUserType + "'");
                             }
                         }
                         
                         // 2. Fallback: Check if user is admin based on email
                         if (userType == null && isAdmin) {
                             userType = "vet";
-                            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Using admin email fallback: userType = 'vet'");
+                            AppLog.d(TAG, "Using admin email fallback: userType = 'vet'");
                         }
                         
                         // 3. Fallback: Try to get user type from API response
@@ -379,20 +383,20 @@ public class AuthManager {
                             String apiUserType = authResponse.getUser().getUserType();
                             if (apiUserType != null && !apiUserType.trim().isEmpty()) {
                                 userType = apiUserType.toLowerCase().trim();
-                                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Using userType from API: '" + apiUserType + "'");
+                                AppLog.d(TAG, "Using userType from API: '" + apiUserType + "'");
                             }
                         }
                         
                         // 4. Final fallback: Default to farmer
                         if (userType == null) {
                             userType = "farmer";
-                            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Using default userType: 'farmer'");
+                            AppLog.d(TAG, "Using default userType: 'farmer'");
                         }
                         
                         // ENSURE user type is either "farmer" or "vet" - nothing else
                         if (!"farmer".equals(userType) && !"vet".equals(userType)) {
                             userType = isAdmin ? "vet" : "farmer";
-                            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Normalized invalid userType to: '" + userType + "'");
+                            AppLog.d(TAG, "Normalized invalid userType to: '" + userType + "'");
                         }
 
                         // Save user info - GUARANTEED to have valid user type
@@ -413,7 +417,7 @@ public class AuthManager {
                         Log.d(TAG, "User ID: " + authResponse.getUser().getId());
                         Log.d(TAG, "=========================");
 
-                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Login successful for: " + email + ", userType: " + userType);
+                        AppLog.d(TAG, "Login successful for: " + email + ", userType: " + userType);
 
                         // Return the auth response immediately to LoginActivity
                         if (callback != null) {
@@ -424,7 +428,7 @@ public class AuthManager {
                         loadUserProfileInBackground(authResponse.getUser().getId());
 
                     } else {
-                        Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Login failed: " +
+                        AppLog.e(TAG, "Login failed: " +
                               (response.errorBody() != null ? response.errorBody().toString() : "Unknown error"));
 
                         if (callback != null) {
@@ -435,7 +439,7 @@ public class AuthManager {
 
                 @Override
                 public void onFailure(Call<AuthResponse> call, Throwable t) {
-                    Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Login network error", t);
+                    AppLog.e(TAG, "Login network error", t);
 
                     if (callback != null) {
                         callback.onError("Network error: " + t.getMessage());
@@ -443,7 +447,7 @@ public class AuthManager {
                 }
             });
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Login exception", e);
+            AppLog.e(TAG, "Login exception", e);
 
             if (callback != null) {
                 callback.onError("Error: " + e.getMessage());
@@ -485,13 +489,13 @@ public class AuthManager {
                             .putBoolean(KEY_PROFILE_COMPLETE, false) // Set to false for new users
                             .apply();
 
-                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Registration successful for: " + email);
+                        AppLog.d(TAG, "Registration successful for: " + email);
 
                         if (callback != null) {
                             callback.onSuccess(authResponse);
                         }
                     } else {
-                        Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Registration failed: " +
+                        AppLog.e(TAG, "Registration failed: " +
                               (response.errorBody() != null ? response.errorBody().toString() : "Unknown error"));
 
                         if (callback != null) {
@@ -502,7 +506,7 @@ public class AuthManager {
 
                 @Override
                 public void onFailure(Call<AuthResponse> call, Throwable t) {
-                    Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Registration network error", t);
+                    AppLog.e(TAG, "Registration network error", t);
 
                     if (callback != null) {
                         callback.onError("Network error: " + t.getMessage());
@@ -510,7 +514,7 @@ public class AuthManager {
                 }
             });
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Registration exception", e);
+            AppLog.e(TAG, "Registration exception", e);
 
             if (callback != null) {
                 callback.onError("Error: " + e.getMessage());
@@ -597,7 +601,7 @@ public class AuthManager {
      * Load user profile in background without blocking the login callback
      */
     private void loadUserProfileInBackground(String userId) {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Loading user profile in background for userId: " + userId);
+        AppLog.d(TAG, "Loading user profile in background for userId: " + userId);
 
         // First try to load farmer profile
         Map<String, String> params = new HashMap<>();
@@ -616,7 +620,7 @@ public class AuthManager {
                         .putString(KEY_USERNAME, farmer.getName())
                         .apply();
 
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Farmer profile loaded in background: " + farmer.getName());
+                    AppLog.d(TAG, "Farmer profile loaded in background: " + farmer.getName());
                 } else {
                     // If not a farmer, try loading vet profile
                     loadVetProfileInBackground(userId);
@@ -625,7 +629,7 @@ public class AuthManager {
 
             @Override
             public void onFailure(Call<List<Farmer>> call, Throwable t) {
-                Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to load farmer profile in background, trying vet profile", t);
+                AppLog.w(TAG, "Failed to load farmer profile in background, trying vet profile", t);
                 // On network error, try vet profile
                 loadVetProfileInBackground(userId);
             }
@@ -649,16 +653,16 @@ public class AuthManager {
                         .putString(KEY_USERNAME, vet.getName())
                         .apply();
 
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Vet profile loaded in background: " + vet.getName());
+                    AppLog.d(TAG, "Vet profile loaded in background: " + vet.getName());
                 } else {
                     // Neither farmer nor vet profile found
-                    Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - No profile found for user in background loading");
+                    AppLog.w(TAG, "No profile found for user in background loading");
                 }
             }
 
             @Override
             public void onFailure(Call<List<Vet>> call, Throwable t) {
-                Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to load vet profile in background", t);
+                AppLog.w(TAG, "Failed to load vet profile in background", t);
             }
         });
     }
@@ -678,7 +682,9 @@ public class AuthManager {
                 .putLong(KEY_TOKEN_EXPIRY, expiryTime)
                 .apply();
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Auth tokens saved, expires at: " + new Date(expiryTime));
+            AppLog.d(TAG, "Auth tokens saved, expires at: " + new Date(expiryTime));
+            // Reports queued while logged out were skipped by the upload worker
+            ReportUploader.getInstance(context).resumePending();
         }
     }
 
@@ -686,7 +692,7 @@ public class AuthManager {
      * Save complete auth data including user details
      */
     public void saveAuthData(String accessToken, String refreshToken, String userId, String email, String phone, String displayName) {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Saving complete auth data for user: " + userId);
+        AppLog.d(TAG, "Saving complete auth data for user: " + userId);
 
         // Calculate token expiry (default to 1 hour if not specified)
         long expiryTime = System.currentTimeMillis() + (60 * 60 * 1000); // 1 hour from now
@@ -701,7 +707,8 @@ public class AuthManager {
             .putLong(KEY_TOKEN_EXPIRY, expiryTime)
             .apply();
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Complete auth data saved successfully");
+        AppLog.d(TAG, "Complete auth data saved successfully");
+        ReportUploader.getInstance(context).resumePending();
     }
 
     /**
@@ -889,18 +896,24 @@ public class AuthManager {
             .remove(KEY_IS_ADMIN)
             .apply();
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User logged out");
+        AppLog.d(TAG, "User logged out");
+        stopDeltaSync();
     }
 
     /**
-     * Format the current time for logging
+     * Stop background sync and drop the previous user's mirrored rows and cached threads
      */
-    private String getCurrentTime() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.getDefault());
-        sdf.setTimeZone(TimeZone.getDefault());
-        return sdf.format(new Date());
+    private void stopDeltaSync() {
+        SyncWorker.cancel(context);
+        SyncEngine engine = SyncEngine.getInstance(context);
+        ThreadCache threadCache = ThreadCache.getInstance(context);
+        AppExecutors.getInstance().serial("local-data").execute(() -> {
+            engine.clearLocalData();
+            threadCache.clear();
+        });
     }
 
+
     /**
      * Interface for authentication callbacks
      */
@@ -1068,7 +1081,8 @@ public class AuthManager {
             .remove(KEY_IS_ADMIN)
             .apply();
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User logged out with callback");
+        AppLog.d(TAG, "User logged out with callback");
+        stopDeltaSync();
         
         if (callback != null) {
             callback.onSuccess(null);
@@ -1144,7 +1158,8 @@ public class AuthManager {
     }
 
     /**
-     * Load dashboard statistics for vet/admin users - returns real data from database
+     * Load dashboard statistics for vet/admin users - one snapshot from the dashboard_stats
+     * function. Screens that poll should use DashboardManagerActivity, which sends the ETag.
      * @param callback Callback to handle the result
      */
     public void loadDashboardStats(StatsCallback callback) {
@@ -1155,42 +1170,31 @@ public class AuthManager {
 
         Log.d(TAG, "Loading dashboard statistics from database...");
 
-        // Use API service to get real statistics from database
-        try {
-            String authHeader = "Bearer " + getAccessToken();
-            Call<Map<String, Object>> call = apiService.getDashboardStats(authHeader);
-            call.enqueue(new Callback<Map<String, Object>>() {
-                @Override
-                public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        Map<String, Object> stats = response.body();
-                        Log.d(TAG, "✅ Dashboard statistics loaded successfully");
-                        callback.onStatsLoaded(stats);
-                    } else {
-                        Log.e(TAG, "Failed to load dashboard stats: " + response.code());
-                        // Return empty stats instead of mock data
-                        Map<String, Object> emptyStats = new HashMap<>();
-                        emptyStats.put("total_farmers", 0);
-                        emptyStats.put("active_reports", 0);
-                        emptyStats.put("pending_consultations", 0);
-                        callback.onStatsLoaded(emptyStats);
-                    }
+        String authHeader = "Bearer " + getAccessToken();
+        apiService.getDashboardStats(authHeader, null).enqueue(new Callback<DashboardStats>() {
+            @Override
+            public void onResponse(Call<DashboardStats> call, Response<DashboardStats> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    DashboardStats body = response.body();
+                    Map<String, Object> stats = new HashMap<>();
+                    stats.put("total_farmers", body.getTotalFarmers());
+                    stats.put("active_reports", body.getActiveReports());
+                    stats.put("critical_reports", body.getCriticalReports());
+                    stats.put("pending_consultations", body.getPendingConsultations());
+                    stats.put("new_users_today", body.getNewUsersToday());
+                    Log.d(TAG, "✅ Dashboard statistics loaded successfully");
+                    callback.onStatsLoaded(stats);
+                } else {
+                    Log.e(TAG, "Failed to load dashboard stats: " + response.code());
+                    callback.onError("Failed to load dashboard statistics");
                 }
+            }
 
-                @Override
-                public void onFailure(Call<Map<String, Object>> call, Throwable t) {
-                    Log.e(TAG, "Error loading dashboard stats: " + t.getMessage());
-                    // Return empty stats instead of mock data
-                    Map<String, Object> emptyStats = new HashMap<>();
-                    emptyStats.put("total_farmers", 0);
-                    emptyStats.put("active_reports", 0);
-                    emptyStats.put("pending_consultations", 0);
-                    callback.onStatsLoaded(emptyStats);
-                }
-            });
-        } catch (Exception e) {
-            Log.e(TAG, "Exception loading dashboard stats: " + e.getMessage());
-            callback.onError("Failed to load dashboard statistics");
-        }
+            @Override
+            public void onFailure(Call<DashboardStats> call, Throwable t) {
+                Log.e(TAG, "Error loading dashboard stats: " + t.getMessage());
+                callback.onError("Failed to load dashboard statistics");
+            }
+        });
     }
 }
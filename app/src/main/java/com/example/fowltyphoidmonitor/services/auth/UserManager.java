@@ -3,6 +3,7 @@ package com.example.fowltyphoidmonitor.services.auth;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
+import com.example.fowltyphoidmonitor.services.location.LocationIndex;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
@@ -26,6 +27,7 @@ public class UserManager {
     private Gson gson;
     private List<UserAccount> users;
     private List<UserManagerListener> listeners;
+    private LocationIndex locationIndex;
 
     // Singleton instance
     private static UserManager instance;
@@ -42,7 +44,9 @@ public class UserManager {
         this.gson = new Gson();
         this.users = new ArrayList<>();
         this.listeners = new ArrayList<>();
+        this.locationIndex = LocationIndex.getInstance(context);
         loadUsers();
+        locationIndex.rebuild(users);
     }
 
     /**
@@ -257,6 +261,7 @@ public class UserManager {
             newUser.permissions = new UserPermissions(role);
 
             users.add(newUser);
+            locationIndex.put(newUser);
             saveUsers();
 
             // Notify listeners
@@ -429,6 +434,7 @@ public class UserManager {
             if (importedUsers != null) {
                 users.clear();
                 users.addAll(importedUsers);
+                locationIndex.rebuild(users);
                 saveUsers();
                 return true;
             }
@@ -458,6 +464,7 @@ public class UserManager {
             existingUser.role = updatedUser.role;
             existingUser.status = updatedUser.status;
             existingUser.permissions = updatedUser.permissions;
+            locationIndex.put(existingUser);
 
             saveUsers();
 
@@ -488,6 +495,7 @@ public class UserManager {
             }
 
             users.remove(user);
+            locationIndex.remove(userId);
             saveUsers();
 
             // Notify listeners
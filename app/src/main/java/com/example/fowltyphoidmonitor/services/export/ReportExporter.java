@@ -0,0 +1,443 @@
+package com.example.fowltyphoidmonitor.services.export;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+import com.example.fowltyphoidmonitor.utils.AppLog;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Exports report rows to a CSV or NDJSON file, optionally gzipped.
+ *
+ * Rows are read a page at a time in (created_at, id) order and each row is parsed from
+ * the response stream and written straight through a fixed-size buffer, so memory use
+ * does not grow with the number of rows. After every page the file is flushed and the
+ * cursor saved; an export that is cancelled, fails or dies with the process resumes
+ * from that point, after cutting off anything written past the last checkpoint.
+ */
+public class ReportExporter {
+    private static final String TAG = "ReportExporter";
+    private static final String PREFS_NAME = "report_export";
+    private static final String KEY_JOB = "job";
+    private static final int PAGE_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Report days are East Africa time, which has no daylight saving
+    private static final TimeZone SERVER_ZONE = TimeZone.getTimeZone("Africa/Dar_es_Salaam");
+    private static final String ZONE_OFFSET = "+03:00";
+
+    /**
+     * A table that can be exported and the columns written for it
+     */
+    public enum Dataset {
+        REPORTS("symptoms_reports", "report_id",
+                new String[]{"report_id", "created_at", "date_observed", "status", "bird_type",
+                        "bird_age", "bird_count", "symptoms", "description"}),
+        CONSULTATIONS("consultations", "consultation_id",
+                new String[]{"consultation_id", "created_at", "status", "urgency", "title",
+                        "description"});
+
+        final String table;
+        final String key;
+        final String[] columns;
+
+        Dataset(String table, String key, String[] columns) {
+            this.table = table;
+            this.key = key;
+            this.columns = columns;
+        }
+
+        /** Own columns plus the farmer's location, embedded by PostgREST */
+        String select() {
+            StringBuilder select = new StringBuilder();
+            for (String column : columns) {
+                select.append(column).append(',');
+            }
+            return select.append("farmers(location)").toString();
+        }
+    }
+
+    public enum Format {
+        CSV("csv"),
+        NDJSON("ndjson");
+
+        public final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    public interface Listener {
+        /** Rows written so far; expected is 0 when unknown */
+        void onProgress(long rows, long expected);
+
+        void onFinished(File file, long rows);
+
+        /** Stopped by cancel(); the export can be resumed */
+        void onCancelled(long rows);
+
+        /** Stopped by an error; the export can be resumed */
+        void onFailed(Exception e);
+    }
+
+    /**
+     * A running export
+     */
+    public static class Handle {
+        private volatile boolean cancelled;
+        private volatile Call<?> call;
+
+        /** Stop at the next row; what was written is kept for resume() */
+        public void cancel() {
+            cancelled = true;
+            Call<?> inFlight = call;
+            if (inFlight != null) {
+                inFlight.cancel();
+            }
+        }
+    }
+
+    /**
+     * Saved state of an export; the cursor is the last row that reached the file
+     */
+    static class Job {
+        Dataset dataset;
+        Format format;
+        boolean gzip;
+        String path;
+        String from;          // inclusive, as an ISO timestamp
+        String to;            // exclusive
+        long expected;
+        long rows;
+        long bytes;           // file length at the last checkpoint
+        String lastCreatedAt;
+        String lastId;
+    }
+
+    private static ReportExporter instance;
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final Gson gson = new Gson();
+    private final Executor executor = AppExecutors.getInstance().serial("report-export");
+
+    public static synchronized ReportExporter getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReportExporter(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ReportExporter(Context context) {
+        this.context = context;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Export the rows created between the two days, both inclusive, into file.
+     * Replaces any unfinished export. expected is only used for progress; pass 0 if unknown.
+     */
+    public Handle start(Dataset dataset, Format format, boolean gzip, Date start, Date end,
+                        long expected, File file, Listener listener) {
+        Job job = new Job();
+        job.dataset = dataset;
+        job.format = format;
+        job.gzip = gzip;
+        job.path = file.getAbsolutePath();
+        job.from = dayStart(start, 0);
+        job.to = dayStart(end, 1);
+        job.expected = expected;
+        // Same serial executor, so the old partial file is gone before the new one starts
+        executor.execute(this::discardPending);
+        return run(job, listener);
+    }
+
+    /** Continue the unfinished export, if any; returns null when there is none */
+    public Handle resume(Listener listener) {
+        Job job = loadJob();
+        return job != null ? run(job, listener) : null;
+    }
+
+    /** The file of the unfinished export, or null */
+    public File getPendingFile() {
+        Job job = loadJob();
+        return job != null ? new File(job.path) : null;
+    }
+
+    /** Forget the unfinished export and delete its partial file */
+    public void discardPending() {
+        Job job = loadJob();
+        if (job != null) {
+            new File(job.path).delete();
+            prefs.edit().remove(KEY_JOB).apply();
+        }
+    }
+
+    private Handle run(Job job, Listener listener) {
+        Handle handle = new Handle();
+        executor.execute(() -> {
+            try {
+                if (export(job, handle, listener)) {
+                    prefs.edit().remove(KEY_JOB).apply();
+                    AppLog.i(TAG, () -> "Exported " + job.rows + " rows to " + job.path);
+                    post(() -> listener.onFinished(new File(job.path), job.rows));
+                } else {
+                    post(() -> listener.onCancelled(job.rows));
+                }
+            } catch (Exception e) {
+                if (handle.cancelled) {
+                    // The in-flight call was cancelled; the last checkpoint stands
+                    post(() -> listener.onCancelled(job.rows));
+                    return;
+                }
+                AppLog.e(TAG, "Export failed after " + job.rows + " rows", e);
+                post(() -> listener.onFailed(e));
+            }
+        });
+        return handle;
+    }
+
+    /** Write pages until the data runs out; false when cancelled first */
+    @WorkerThread
+    private boolean export(Job job, Handle handle, Listener listener) throws IOException {
+        File file = new File(job.path);
+        prepareFile(job, file);
+
+        try (FileOutputStream fileOut = new FileOutputStream(file, true)) {
+            OutputStream out = new KeepOpenOutputStream(fileOut);
+            while (!handle.cancelled) {
+                Call<ResponseBody> call = ApiClient.getApiService().getTableRows(getAuthHeader(),
+                        SupabaseConfig.getApiKeyHeader(), job.dataset.table, pageQuery(job));
+                handle.call = call;
+                Response<ResponseBody> response = call.execute();
+                if (!response.isSuccessful() || response.body() == null) {
+                    throw new IOException("HTTP " + response.code());
+                }
+
+                int written = writePage(job, response.body(), out, handle);
+                job.bytes = fileOut.getChannel().position();
+                saveJob(job);
+                long rows = job.rows;
+                post(() -> listener.onProgress(rows, job.expected));
+
+                if (written < PAGE_SIZE && !handle.cancelled) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Stream one page of rows into the file. Each page is its own gzip member, so the
+     * file is valid after every checkpoint and a resumed export just appends members.
+     */
+    static int writePage(Job job, ResponseBody body, OutputStream out, Handle handle) throws IOException {
+        int written = 0;
+        OutputStream sink = job.gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8), BUFFER_SIZE);
+             JsonReader reader = new JsonReader(body.charStream())) {
+            if (job.bytes == 0 && job.format == Format.CSV) {
+                writeCsvHeader(job.dataset, writer);
+            }
+            reader.beginArray();
+            while (reader.hasNext() && !handle.cancelled) {
+                JsonObject row = JsonParser.parseReader(reader).getAsJsonObject();
+                if (job.format == Format.CSV) {
+                    writeCsvRow(job.dataset, row, writer);
+                } else {
+                    writer.write(row.toString());
+                    writer.write('\n');
+                }
+                job.lastCreatedAt = getString(row, "created_at");
+                job.lastId = getString(row, job.dataset.key);
+                job.rows++;
+                written++;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Start a new file, or cut a resumed one back to its last checkpoint. A file shorter
+     * than the checkpoint was changed elsewhere, so the export starts over.
+     */
+    static void prepareFile(Job job, File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        if (job.bytes > 0 && file.length() >= job.bytes) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(job.bytes);
+            }
+            return;
+        }
+        file.delete();
+        job.bytes = 0;
+        job.rows = 0;
+        job.lastCreatedAt = null;
+        job.lastId = null;
+    }
+
+    /** Keyset page: inside the window and after the cursor, in (created_at, id) order */
+    static Map<String, String> pageQuery(Job job) {
+        String key = job.dataset.key;
+        StringBuilder filter = new StringBuilder("(created_at.gte.").append(quote(job.from))
+                .append(",created_at.lt.").append(quote(job.to));
+        if (job.lastCreatedAt != null) {
+            String created = quote(job.lastCreatedAt);
+            filter.append(",or(created_at.gt.").append(created)
+                    .append(",and(created_at.eq.").append(created)
+                    .append(',').append(key).append(".gt.").append(job.lastId).append("))");
+        }
+        filter.append(')');
+
+        Map<String, String> query = new HashMap<>();
+        query.put("select", job.dataset.select());
+        query.put("and", filter.toString());
+        query.put("order", "created_at.asc," + key + ".asc");
+        query.put("limit", String.valueOf(PAGE_SIZE));
+        return query;
+    }
+
+    private static void writeCsvHeader(Dataset dataset, Writer writer) throws IOException {
+        for (String column : dataset.columns) {
+            writer.write(column);
+            writer.write(',');
+        }
+        writer.write("location\n");
+    }
+
+    private static void writeCsvRow(Dataset dataset, JsonObject row, Writer writer) throws IOException {
+        for (String column : dataset.columns) {
+            writeCsvField(writer, csvValue(row.get(column)));
+            writer.write(',');
+        }
+        JsonElement farmer = row.get("farmers");
+        String location = farmer != null && farmer.isJsonObject()
+                ? getString(farmer.getAsJsonObject(), "location") : null;
+        writeCsvField(writer, location);
+        writer.write('\n');
+    }
+
+    /** Arrays such as symptoms become one field separated by semicolons */
+    private static String csvValue(JsonElement value) {
+        if (value == null || value.isJsonNull()) return null;
+        if (value.isJsonArray()) {
+            JsonArray array = value.getAsJsonArray();
+            StringBuilder joined = new StringBuilder();
+            for (int i = 0; i < array.size(); i++) {
+                if (i > 0) joined.append("; ");
+                joined.append(array.get(i).isJsonPrimitive() ? array.get(i).getAsString() : array.get(i).toString());
+            }
+            return joined.toString();
+        }
+        return value.isJsonPrimitive() ? value.getAsString() : value.toString();
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) return;
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private Job loadJob() {
+        String json = prefs.getString(KEY_JOB, null);
+        return json != null ? gson.fromJson(json, Job.class) : null;
+    }
+
+    /** Committed synchronously: the cursor must never be behind the file on disk */
+    private void saveJob(Job job) {
+        prefs.edit().putString(KEY_JOB, gson.toJson(job)).commit();
+    }
+
+    /** Midnight East Africa time of the day, plus whole days */
+    private static String dayStart(Date date, int plusDays) {
+        Calendar calendar = Calendar.getInstance(SERVER_ZONE);
+        calendar.setTime(date);
+        calendar.add(Calendar.DAY_OF_MONTH, plusDays);
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setTimeZone(SERVER_ZONE);
+        return format.format(calendar.getTime()) + "T00:00:00" + ZONE_OFFSET;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    private String getAuthHeader() {
+        return SupabaseConfig.getAuthHeader(AuthManager.getInstance(context).getAccessToken());
+    }
+
+    private static String getString(JsonObject row, String key) {
+        JsonElement value = row.get(key);
+        return value != null && !value.isJsonNull() ? value.getAsString() : null;
+    }
+
+    private static void post(Runnable action) {
+        AppExecutors.getInstance().mainThread().execute(action);
+    }
+
+    /**
+     * Lets a page's writer and gzip stream be closed, releasing the deflater, while
+     * the file stays open for the next page
+     */
+    private static class KeepOpenOutputStream extends FilterOutputStream {
+        KeepOpenOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.fowltyphoidmonitor.services.knowledge;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.content.res.AssetFileDescriptor;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.util.Log;
+
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.data.local.KnowledgePack;
+import com.example.fowltyphoidmonitor.data.models.DiseaseInfo;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.search.SearchIndex;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+import com.example.fowltyphoidmonitor.utils.Timestamps;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import retrofit2.Response;
+
+/**
+ * Serves disease and education content from the offline knowledge pack.
+ *
+ * The pack ships in assets, built from src/main/knowledge by the generateKnowledgePack
+ * Gradle task, and is memory-mapped on first use. Updates are pulled as deltas from
+ * disease_info (rows with updated_at newer than the pack version), merged by disease
+ * name and written to a new pack in internal storage.
+ */
+public class KnowledgePackManager {
+    private static final String TAG = "KnowledgePackManager";
+    private static final String ASSET_PATH = "knowledge/disease_pack.kpk";
+    private static final String PACK_FILE = "disease_pack.kpk";
+    private static final String BUNDLED_COPY_FILE = "disease_pack_bundled.kpk";
+    private static final String PREFS_NAME = "KnowledgePackPrefs";
+    private static final String KEY_LAST_CHECK = "lastUpdateCheck";
+    private static final String KEY_INDEXED_VERSION = "indexedVersion";
+    private static final long UPDATE_CHECK_INTERVAL = 6 * 60 * 60 * 1000L; // 6 hours
+
+    public static final String DEFAULT_DISEASE = "Fowl Typhoid";
+
+    private static KnowledgePackManager instance;
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final Executor updateExecutor;
+    private final Executor mainThread;
+    private volatile KnowledgePack pack;
+
+    public interface UpdateCallback {
+        void onPackUpdated(String version);
+        void onNoUpdate();
+        void onError(String error);
+    }
+
+    public static synchronized KnowledgePackManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new KnowledgePackManager(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private KnowledgePackManager(Context context) {
+        this.context = context;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.updateExecutor = AppExecutors.getInstance().serial("knowledge-pack");
+        this.mainThread = AppExecutors.getInstance().mainThread();
+    }
+
+    /**
+     * Get the current pack, mapping it on first use. Returns null only if neither the
+     * downloaded pack nor the bundled asset can be read.
+     */
+    public KnowledgePack getPack() {
+        KnowledgePack current = pack;
+        if (current != null) return current;
+
+        synchronized (this) {
+            if (pack == null) {
+                pack = openPack();
+                if (pack != null) {
+                    Log.d(TAG, "Opened " + pack);
+                    indexIfNeeded(pack);
+                }
+            }
+            return pack;
+        }
+    }
+
+    /** Get disease content by name, or null when the pack has no such entry */
+    public DiseaseInfo getDiseaseInfo(String name) {
+        KnowledgePack current = getPack();
+        if (current == null) return null;
+        int index = current.indexOf(name);
+        return index >= 0 ? current.toDiseaseInfo(index) : null;
+    }
+
+    /** Get a single field without materializing the whole entry */
+    public String getField(String name, int field) {
+        KnowledgePack current = getPack();
+        if (current == null) return null;
+        int index = current.indexOf(name);
+        return index >= 0 ? current.getField(index, field) : null;
+    }
+
+    /**
+     * Pull disease_info rows changed since the pack version, at most once per interval
+     * and only when online. The callback runs on the main thread.
+     */
+    public void checkForUpdatesAsync(UpdateCallback callback) {
+        long lastCheck = prefs.getLong(KEY_LAST_CHECK, 0);
+        if (System.currentTimeMillis() - lastCheck < UPDATE_CHECK_INTERVAL || !isOnline()) {
+            if (callback != null) callback.onNoUpdate();
+            return;
+        }
+        updateExecutor.execute(() -> {
+            try {
+                String version = applyDeltaUpdate();
+                prefs.edit().putLong(KEY_LAST_CHECK, System.currentTimeMillis()).apply();
+                if (callback != null) {
+                    mainThread.execute(() -> {
+                        if (version != null) {
+                            callback.onPackUpdated(version);
+                        } else {
+                            callback.onNoUpdate();
+                        }
+                    });
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Knowledge pack update failed", e);
+                if (callback != null) {
+                    mainThread.execute(() -> callback.onError(e.getMessage()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Fetch and merge the delta. Returns the new version, or null when nothing changed.
+     */
+    private String applyDeltaUpdate() throws IOException {
+        KnowledgePack current = getPack();
+        String version = current != null ? current.getVersion() : null;
+        long versionMicros = Timestamps.parseMicros(version);
+        // Sent in one canonical UTC form, never as whatever text the pack happens to hold
+        String filter = versionMicros >= 0 ? "gt." + Timestamps.formatMicros(versionMicros) : null;
+
+        Response<List<DiseaseInfo>> response = ApiClient.getApiService()
+                .getDiseaseInfoUpdatedSince(getAuthHeader(), SupabaseConfig.getApiKeyHeader(),
+                        filter, "updated_at.asc")
+                .execute();
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException("disease_info delta failed: HTTP " + response.code());
+        }
+
+        List<DiseaseInfo> changed = response.body();
+        if (changed.isEmpty()) {
+            Log.d(TAG, "Knowledge pack is current at version " + version);
+            return null;
+        }
+
+        // Merge by name: the bundled pack cannot know server ids
+        Map<String, DiseaseInfo> merged = new LinkedHashMap<>();
+        if (current != null) {
+            for (DiseaseInfo info : current.toDiseaseInfoList()) {
+                merged.put(key(info), info);
+            }
+        }
+        long newestMicros = versionMicros;
+        for (DiseaseInfo info : changed) {
+            if (info.getName() == null) continue;
+            merged.put(key(info), info);
+            newestMicros = Math.max(newestMicros, Timestamps.parseMicros(info.getUpdatedAt()));
+        }
+        String newVersion = newestMicros >= 0 ? Timestamps.formatMicros(newestMicros) : version;
+
+        File target = new File(context.getFilesDir(), PACK_FILE);
+        KnowledgePack.write(target, newVersion, new ArrayList<>(merged.values()));
+        KnowledgePack updated = KnowledgePack.map(target);
+        synchronized (this) {
+            pack = updated;
+        }
+        SearchIndex.getInstance(context).indexDiseaseInfoAsync(changed);
+        prefs.edit().putString(KEY_INDEXED_VERSION, newVersion).apply();
+
+        Log.d(TAG, "Applied " + changed.size() + " disease_info changes, now at version " + newVersion);
+        return newVersion;
+    }
+
+    /**
+     * Open whichever of the downloaded and the bundled pack is newer. An app update can
+     * ship a bundled pack newer than an old download, which is then dropped.
+     */
+    private KnowledgePack openPack() {
+        KnowledgePack bundled = openBundledPack();
+        File downloaded = new File(context.getFilesDir(), PACK_FILE);
+        if (downloaded.exists()) {
+            try {
+                KnowledgePack local = KnowledgePack.map(downloaded);
+                if (bundled == null || local.getVersionMicros() >= bundled.getVersionMicros()) {
+                    return local;
+                }
+                Log.d(TAG, "Bundled pack " + bundled.getVersion() + " is newer than downloaded "
+                        + local.getVersion() + ", dropping the download");
+            } catch (IOException e) {
+                Log.w(TAG, "Downloaded pack unreadable, falling back to bundled pack", e);
+            }
+            downloaded.delete();
+        }
+        return bundled;
+    }
+
+    private KnowledgePack openBundledPack() {
+        // Bundled pack is stored uncompressed so it can be mapped straight out of the APK
+        try (AssetFileDescriptor afd = context.getAssets().openFd(ASSET_PATH);
+             FileInputStream in = afd.createInputStream()) {
+            return KnowledgePack.map(in.getChannel(), afd.getStartOffset(), afd.getLength());
+        } catch (FileNotFoundException e) {
+            Log.w(TAG, "Bundled pack is compressed, copying it out");
+        } catch (IOException e) {
+            Log.e(TAG, "Error mapping bundled pack", e);
+            return null;
+        }
+
+        // Its own file, so it never overwrites a download; copied again after each app update
+        File copy = new File(context.getFilesDir(), BUNDLED_COPY_FILE);
+        if (!copy.exists() || copy.lastModified() < appUpdatedAt()) {
+            File temp = new File(copy.getPath() + ".tmp");
+            try (InputStream in = context.getAssets().open(ASSET_PATH);
+                 OutputStream out = new FileOutputStream(temp)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error copying bundled pack", e);
+                temp.delete();
+                return null;
+            }
+            if (!temp.renameTo(copy)) {
+                temp.delete();
+                return null;
+            }
+        }
+        try {
+            return KnowledgePack.map(copy);
+        } catch (IOException e) {
+            Log.e(TAG, "Error mapping copied pack", e);
+            copy.delete();
+            return null;
+        }
+    }
+
+    private long appUpdatedAt() {
+        try {
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /** Feed the pack into the search index once per version */
+    private void indexIfNeeded(KnowledgePack current) {
+        String version = current.getVersion();
+        if (version != null && version.equals(prefs.getString(KEY_INDEXED_VERSION, null))) {
+            return;
+        }
+        SearchIndex.getInstance(context).indexDiseaseInfoAsync(current.toDiseaseInfoList());
+        prefs.edit().putString(KEY_INDEXED_VERSION, version).apply();
+    }
+
+    private String getAuthHeader() {
+        // disease_info is readable by everyone, so the anon key works before login
+        String token = AuthManager.getInstance(context).getAccessToken();
+        boolean hasToken = token != null && !token.isEmpty();
+        return SupabaseConfig.getAuthHeader(hasToken ? token : SupabaseConfig.SUPABASE_ANON_KEY);
+    }
+
+    private boolean isOnline() {
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo network = cm != null ? cm.getActiveNetworkInfo() : null;
+        return network != null && network.isConnected();
+    }
+
+    private static String key(DiseaseInfo info) {
+        return info.getName().trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.fowltyphoidmonitor.services.location;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.location.Address;
+import android.location.Geocoder;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fowltyphoidmonitor.services.auth.UserManager;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+import com.example.fowltyphoidmonitor.utils.AppLog;
+import com.example.fowltyphoidmonitor.utils.GeoHash;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Where users are, bucketed for alert targeting.
+ *
+ * Every user is kept in two buckets: the area named by their location text, and the
+ * geohash cell of that location's coordinates. Area targeting reads the named buckets
+ * and radius queries read the few cells covering the circle, so neither scans every
+ * user. Location texts are geocoded once, on a background queue, and the result is
+ * kept; a user shows up in the cells as soon as their location has coordinates.
+ */
+public class LocationIndex {
+    private static final String TAG = "LocationIndex";
+    private static final String PREFS_NAME = "location_index";
+    private static final String KEY_GEOCODED = "geocoded";
+
+    /** Cell size of the index, about 4.9 x 4.9 km */
+    public static final int INDEX_PRECISION = 5;
+    // A place the geocoder could not find is asked about again after a week
+    private static final long MISS_RETRY_MS = 7 * 24 * 60 * 60 * 1000L;
+    // Locations are village, ward or district names; the service area is Tanzania
+    private static final String REGION_SUFFIX = ", Tanzania";
+
+    public interface PointCallback {
+        /** The coordinates of the location, or null if it could not be geocoded. Main thread. */
+        void onPoint(double[] point);
+    }
+
+    /** A geocoded location text; a miss has no coordinates */
+    private static class Geocoded {
+        Double latitude;
+        Double longitude;
+        long at;
+    }
+
+    /** Where one user is indexed */
+    private static class Entry {
+        final UserManager.UserAccount user;
+        final String area;
+        String cell;
+        double latitude;
+        double longitude;
+
+        Entry(UserManager.UserAccount user, String area) {
+            this.user = user;
+            this.area = area;
+        }
+    }
+
+    private static LocationIndex instance;
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final Gson gson = new Gson();
+    private final Type geocodedType = new TypeToken<Map<String, Geocoded>>() {}.getType();
+    private final Executor geocoder = AppExecutors.getInstance().serial("geocoder");
+    private final Map<String, Geocoded> geocoded;
+    private final Set<String> geocoding = new HashSet<>();
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Set<String>> areas = new HashMap<>();
+    // Ordered, so every cell under a shorter prefix is one range
+    private final TreeMap<String, Set<String>> cells = new TreeMap<>();
+
+    public static synchronized LocationIndex getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocationIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private LocationIndex(Context context) {
+        this.context = context;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        Map<String, Geocoded> saved = gson.fromJson(prefs.getString(KEY_GEOCODED, null), geocodedType);
+        this.geocoded = saved != null ? saved : new HashMap<>();
+    }
+
+    /**
+     * The bucket key of a location text: trimmed, lower case, single spaces
+     */
+    public static String areaKey(String location) {
+        if (location == null) return "";
+        return location.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /** Replace the whole index, e.g. after the user list was loaded or imported */
+    public synchronized void rebuild(Collection<UserManager.UserAccount> users) {
+        entries.clear();
+        areas.clear();
+        cells.clear();
+        for (UserManager.UserAccount user : users) {
+            put(user);
+        }
+        AppLog.d(TAG, () -> "Indexed " + entries.size() + " users in " + areas.size()
+                + " areas and " + cells.size() + " cells");
+    }
+
+    /** Index a user, or move them after their location changed */
+    public synchronized void put(UserManager.UserAccount user) {
+        remove(user.userId);
+        Entry entry = new Entry(user, areaKey(user.location));
+        entries.put(user.userId, entry);
+        if (entry.area.isEmpty()) return;
+        add(areas, entry.area, user.userId);
+
+        Geocoded point = geocoded.get(entry.area);
+        if (point != null && point.latitude != null) {
+            place(entry, point.latitude, point.longitude);
+        } else if (point == null || System.currentTimeMillis() - point.at > MISS_RETRY_MS) {
+            geocodeLater(entry.area);
+        }
+    }
+
+    public synchronized void remove(String userId) {
+        Entry entry = entries.remove(userId);
+        if (entry == null) return;
+        drop(areas, entry.area, userId);
+        if (entry.cell != null) {
+            drop(cells, entry.cell, userId);
+        }
+    }
+
+    /** Users whose location is one of the named areas */
+    public synchronized List<UserManager.UserAccount> usersInAreas(Collection<String> locations) {
+        Set<String> ids = new HashSet<>();
+        for (String location : locations) {
+            Set<String> bucket = areas.get(areaKey(location));
+            if (bucket != null) ids.addAll(bucket);
+        }
+        return users(ids);
+    }
+
+    /** Users whose location lies within radiusKm of the point, nearest buckets only */
+    public synchronized List<UserManager.UserAccount> usersWithin(double latitude, double longitude,
+                                                                   double radiusKm) {
+        List<UserManager.UserAccount> found = new ArrayList<>();
+        for (String prefix : GeoHash.coveringCells(latitude, longitude, radiusKm, INDEX_PRECISION)) {
+            for (Set<String> bucket : cellsUnder(prefix).values()) {
+                for (String userId : bucket) {
+                    Entry entry = entries.get(userId);
+                    if (GeoHash.distanceKm(latitude, longitude, entry.latitude, entry.longitude) <= radiusKm) {
+                        found.add(entry.user);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /** Users per cell at the given precision (at most INDEX_PRECISION), counted per bucket */
+    public synchronized Map<String, Integer> countByCell(int precision) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<String>> cell : cells.entrySet()) {
+            String key = cell.getKey().substring(0, Math.min(precision, cell.getKey().length()));
+            Integer count = counts.get(key);
+            counts.put(key, (count != null ? count : 0) + cell.getValue().size());
+        }
+        return counts;
+    }
+
+    /** Users per location area, counted per bucket */
+    public synchronized Map<String, Integer> countByArea() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<String, Set<String>> area : areas.entrySet()) {
+            counts.put(area.getKey(), area.getValue().size());
+        }
+        return counts;
+    }
+
+    /**
+     * Coordinates of a location text, from the kept results or the geocoder; null if
+     * it cannot be found. Blocks on the geocoder, so never call it on the main thread.
+     */
+    @WorkerThread
+    public double[] geocode(String location) {
+        String key = areaKey(location);
+        if (key.isEmpty()) return null;
+        Geocoded point;
+        synchronized (this) {
+            point = geocoded.get(key);
+        }
+        if (point == null || (point.latitude == null && System.currentTimeMillis() - point.at > MISS_RETRY_MS)) {
+            point = lookUp(key);
+        }
+        return point != null && point.latitude != null
+                ? new double[]{point.latitude, point.longitude} : null;
+    }
+
+    /** geocode on the background queue, with the result on the main thread */
+    public void geocode(String location, PointCallback callback) {
+        geocoder.execute(() -> {
+            double[] point = geocode(location);
+            AppExecutors.getInstance().mainThread().execute(() -> callback.onPoint(point));
+        });
+    }
+
+    private void geocodeLater(String key) {
+        if (!geocoding.add(key)) return;
+        geocoder.execute(() -> {
+            Geocoded point = lookUp(key);
+            synchronized (this) {
+                geocoding.remove(key);
+                Set<String> bucket = areas.get(key);
+                if (point == null || point.latitude == null || bucket == null) return;
+                for (String userId : bucket) {
+                    Entry entry = entries.get(userId);
+                    if (entry.cell == null) {
+                        place(entry, point.latitude, point.longitude);
+                    }
+                }
+            }
+        });
+    }
+
+    /** Ask the platform geocoder and keep the answer; null when it could not be asked */
+    @WorkerThread
+    private Geocoded lookUp(String key) {
+        if (!Geocoder.isPresent()) return null;
+        Geocoded point = new Geocoded();
+        try {
+            List<Address> addresses = new Geocoder(context, Locale.getDefault())
+                    .getFromLocationName(key + REGION_SUFFIX, 1);
+            if (addresses != null && !addresses.isEmpty()) {
+                point.latitude = addresses.get(0).getLatitude();
+                point.longitude = addresses.get(0).getLongitude();
+            }
+        } catch (IOException e) {
+            // Offline or the service is down; try again next time rather than keep a miss
+            AppLog.w(TAG, "Geocoding failed for " + key + ": " + e.getMessage());
+            return null;
+        }
+        point.at = System.currentTimeMillis();
+        synchronized (this) {
+            geocoded.put(key, point);
+            prefs.edit().putString(KEY_GEOCODED, gson.toJson(geocoded, geocodedType)).apply();
+        }
+        return point;
+    }
+
+    private void place(Entry entry, double latitude, double longitude) {
+        entry.latitude = latitude;
+        entry.longitude = longitude;
+        entry.cell = GeoHash.encode(latitude, longitude, INDEX_PRECISION);
+        add(cells, entry.cell, entry.user.userId);
+    }
+
+    private Map<String, Set<String>> cellsUnder(String prefix) {
+        if (prefix.length() >= INDEX_PRECISION) {
+            Set<String> bucket = cells.get(prefix);
+            Map<String, Set<String>> single = new HashMap<>();
+            if (bucket != null) single.put(prefix, bucket);
+            return single;
+        }
+        // '~' sorts after every geohash character
+        return cells.subMap(prefix, prefix + "~");
+    }
+
+    private List<UserManager.UserAccount> users(Set<String> ids) {
+        List<UserManager.UserAccount> users = new ArrayList<>(ids.size());
+        for (String userId : ids) {
+            users.add(entries.get(userId).user);
+        }
+        return users;
+    }
+
+    private static void add(Map<String, Set<String>> buckets, String key, String userId) {
+        Set<String> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new HashSet<>();
+            buckets.put(key, bucket);
+        }
+        bucket.add(userId);
+    }
+
+    private static void drop(Map<String, Set<String>> buckets, String key, String userId) {
+        Set<String> bucket = buckets.get(key);
+        if (bucket == null) return;
+        bucket.remove(userId);
+        if (bucket.isEmpty()) buckets.remove(key);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+/**
+ * Fires due scheduled alerts when the scheduler's alarm goes off, and re-arms the
+ * alarm after a reboot, an app update or a clock change. Not exported: system
+ * broadcasts still arrive, and any other action is ignored.
+ */
+public class AlertAlarmReceiver extends BroadcastReceiver {
+    private static final String TAG = "AlertAlarmReceiver";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (!isHandled(action)) {
+            Log.w(TAG, "Ignoring unexpected action " + action);
+            return;
+        }
+        Log.d(TAG, "Received " + action);
+
+        PendingResult result = goAsync();
+        Context appContext = context.getApplicationContext();
+        AlertScheduler.getInstance(appContext).getExecutor().execute(() -> {
+            try {
+                // Also covers boot: anything that came due while the phone was off fires now
+                AlertManager.getInstance(appContext).fireDueAlerts();
+            } catch (Exception e) {
+                Log.e(TAG, "Error firing scheduled alerts", e);
+            } finally {
+                result.finish();
+            }
+        });
+    }
+
+    private static boolean isHandled(String action) {
+        return AlertScheduler.ACTION_FIRE.equals(action)
+                || Intent.ACTION_BOOT_COMPLETED.equals(action)
+                || Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)
+                || Intent.ACTION_TIME_CHANGED.equals(action)
+                || Intent.ACTION_TIMEZONE_CHANGED.equals(action);
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.Alert;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertStatistics;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertStatsBucket;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertStatus;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.StatsPeriod;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running alert statistics, kept up to date by AlertRegistry.
+ *
+ * Every change to an alert subtracts the old version and adds the new one, so the
+ * totals and the per-day buckets never need a scan of all alerts. An alert is
+ * counted in the day it was sent, or created if it has not been sent yet. Week
+ * buckets are summed from at most seven day buckets.
+ *
+ * Alerts the retention job archives after they went out stay counted, so totals and
+ * buckets keep their history; only unsent ones (expired drafts and schedules) are
+ * taken out.
+ */
+class AlertCounters {
+
+    /**
+     * Counters for a set of alerts. Keyed by enum name so they survive enum changes
+     * when persisted.
+     */
+    static class Counts {
+        int total;
+        Map<String, Integer> byStatus = new HashMap<>();
+        Map<String, Integer> byPriority = new HashMap<>();
+        long totalRecipients;
+        long delivered;
+        long failed;
+
+        void add(Alert alert, int sign) {
+            total += sign;
+            if (alert.status != null) increment(byStatus, alert.status.name(), sign);
+            if (alert.priority != null) increment(byPriority, alert.priority.name(), sign);
+            if (alert.deliveryStats != null) {
+                totalRecipients += sign * alert.deliveryStats.totalRecipients;
+                delivered += sign * alert.deliveryStats.delivered;
+                failed += sign * alert.deliveryStats.failed;
+            }
+        }
+
+        void addAll(Counts other) {
+            total += other.total;
+            for (Map.Entry<String, Integer> entry : other.byStatus.entrySet()) {
+                increment(byStatus, entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<String, Integer> entry : other.byPriority.entrySet()) {
+                increment(byPriority, entry.getKey(), entry.getValue());
+            }
+            totalRecipients += other.totalRecipients;
+            delivered += other.delivered;
+            failed += other.failed;
+        }
+
+        int status(AlertStatus status) {
+            Integer count = byStatus.get(status.name());
+            return count != null ? count : 0;
+        }
+
+        int priority(AlertManager.AlertPriority priority) {
+            Integer count = byPriority.get(priority.name());
+            return count != null ? count : 0;
+        }
+
+        private static void increment(Map<String, Integer> counts, String key, int delta) {
+            Integer current = counts.get(key);
+            counts.put(key, (current != null ? current : 0) + delta);
+        }
+
+        boolean isEmpty() {
+            return total == 0 && totalRecipients == 0 && delivered == 0 && failed == 0;
+        }
+    }
+
+    private Counts totals = new Counts();
+    private TreeMap<Long, Counts> days = new TreeMap<>();
+    private int archived; // counted alerts no longer in the registry
+
+    /** Account for an alert changing from one version to another; either may be null */
+    synchronized void apply(Alert before, Alert after) {
+        if (before != null) add(before, -1);
+        if (after != null) add(after, 1);
+    }
+
+    /** Account for the retention job removing an alert from the registry */
+    synchronized void archive(Alert alert) {
+        if (alert.sentAt == null) {
+            add(alert, -1);
+        } else {
+            archived++;
+        }
+    }
+
+    /**
+     * Recount from scratch, e.g. when no persisted counters exist yet. Archived alerts
+     * are gone by then, so their history is lost.
+     */
+    synchronized void rebuild(Collection<Alert> alerts) {
+        totals = new Counts();
+        days = new TreeMap<>();
+        archived = 0;
+        for (Alert alert : alerts) {
+            add(alert, 1);
+        }
+    }
+
+    /** Counted alerts still in the registry; matches its size when in sync */
+    synchronized int getLiveTotal() {
+        return totals.total - archived;
+    }
+
+    synchronized AlertStatistics toStatistics() {
+        AlertStatistics stats = new AlertStatistics();
+        stats.totalAlerts = totals.total;
+        stats.sentAlerts = totals.status(AlertStatus.SENT) + totals.status(AlertStatus.DELIVERED);
+        stats.failedAlerts = totals.status(AlertStatus.FAILED);
+        stats.scheduledAlerts = totals.status(AlertStatus.SCHEDULED);
+        stats.draftAlerts = totals.status(AlertStatus.DRAFT);
+        stats.highPriorityAlerts = totals.priority(AlertManager.AlertPriority.EMERGENCY)
+                + totals.priority(AlertManager.AlertPriority.CRITICAL);
+        stats.mediumPriorityAlerts = totals.priority(AlertManager.AlertPriority.HIGH)
+                + totals.priority(AlertManager.AlertPriority.MEDIUM);
+        stats.lowPriorityAlerts = totals.priority(AlertManager.AlertPriority.LOW);
+        stats.totalRecipients = (int) totals.totalRecipients;
+        stats.totalDelivered = (int) totals.delivered;
+        if (totals.totalRecipients > 0) {
+            stats.overallDeliveryRate = (float) totals.delivered / totals.totalRecipients * 100;
+        }
+        return stats;
+    }
+
+    /**
+     * The last {@code count} buckets of the given period, oldest first. Empty periods
+     * are included so the series can be charted directly.
+     */
+    synchronized List<AlertStatsBucket> series(StatsPeriod period, int count, long now) {
+        List<AlertStatsBucket> series = new ArrayList<>(count);
+        long end = periodStart(period, now);
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(end);
+        calendar.add(period == StatsPeriod.WEEK ? Calendar.WEEK_OF_YEAR : Calendar.DAY_OF_MONTH, -(count - 1));
+
+        for (int i = 0; i < count; i++) {
+            long start = calendar.getTimeInMillis();
+            calendar.add(period == StatsPeriod.WEEK ? Calendar.WEEK_OF_YEAR : Calendar.DAY_OF_MONTH, 1);
+            Counts sum = new Counts();
+            for (Counts day : days.subMap(start, calendar.getTimeInMillis()).values()) {
+                sum.addAll(day);
+            }
+            series.add(new AlertStatsBucket(start, sum.total,
+                    sum.status(AlertStatus.SENT) + sum.status(AlertStatus.DELIVERED),
+                    sum.status(AlertStatus.FAILED), sum.totalRecipients, sum.delivered));
+        }
+        return series;
+    }
+
+    /** Persisted form; a copy so it can be serialized outside the lock */
+    synchronized State snapshotState() {
+        State state = new State();
+        state.totals = copyOf(totals);
+        state.archived = archived;
+        state.days = new TreeMap<>();
+        for (Map.Entry<Long, Counts> entry : days.entrySet()) {
+            state.days.put(entry.getKey(), copyOf(entry.getValue()));
+        }
+        return state;
+    }
+
+    synchronized void restore(State state) {
+        totals = state.totals != null ? state.totals : new Counts();
+        days = state.days != null ? new TreeMap<>(state.days) : new TreeMap<>();
+        archived = state.archived;
+    }
+
+    /**
+     * Serializable counters
+     */
+    static class State {
+        Counts totals;
+        TreeMap<Long, Counts> days;
+        int archived;
+    }
+
+    private void add(Alert alert, int sign) {
+        totals.add(alert, sign);
+
+        long day = periodStart(StatsPeriod.DAY, bucketTime(alert));
+        Counts counts = days.get(day);
+        if (counts == null) {
+            counts = new Counts();
+            days.put(day, counts);
+        }
+        counts.add(alert, sign);
+        if (counts.isEmpty()) {
+            days.remove(day);
+        }
+    }
+
+    private static long bucketTime(Alert alert) {
+        if (alert.sentAt != null) return alert.sentAt.getTime();
+        if (alert.createdAt != null) return alert.createdAt.getTime();
+        return 0;
+    }
+
+    private static long periodStart(StatsPeriod period, long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        if (period == StatsPeriod.WEEK) {
+            calendar.set(Calendar.DAY_OF_WEEK, calendar.getFirstDayOfWeek());
+            if (calendar.getTimeInMillis() > time) {
+                calendar.add(Calendar.WEEK_OF_YEAR, -1);
+            }
+        }
+        return calendar.getTimeInMillis();
+    }
+
+    private static Counts copyOf(Counts counts) {
+        Counts copy = new Counts();
+        copy.addAll(counts);
+        return copy;
+    }
+}
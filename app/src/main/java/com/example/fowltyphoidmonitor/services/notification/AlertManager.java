@@ -8,23 +8,46 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
 import android.os.Build;
+import android.os.Looper;
 import android.Manifest;
 import android.util.Log;
+import androidx.annotation.WorkerThread;
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 import androidx.core.content.ContextCompat;
 
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
 import com.example.fowltyphoidmonitor.services.auth.UserManager;
 import com.example.fowltyphoidmonitor.ui.vet.AdminMainActivity;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
 
 /**
  * Comprehensive alert and notification system for admin
@@ -34,7 +57,11 @@ public class AlertManager {
     private static final String TAG = "AlertManager";
     private static final String PREFS_NAME = "FowlTyphoidMonitorAlerts";
     private static final String KEY_ALERTS_LIST = "alertsList";
+    private static final String KEY_ALERT_COUNTERS = "alertCounters";
+    private static final String KEY_ALERT_ARCHIVE = "alertArchive";
     private static final String KEY_NOTIFICATION_SETTINGS = "notificationSettings";
+    private static final String RPC_USERS_IN_AREAS = "users_in_areas";
+    private static final String RPC_USERS_NEAR = "users_near";
 
     // Notification channels
     private static final String CHANNEL_DISEASE_ALERTS = "disease_alerts";
@@ -44,10 +71,17 @@ public class AlertManager {
 
     private Context context;
     private Gson gson;
-    private List<Alert> alerts;
-    private List<AlertListener> listeners;
+    private final AlertRegistry registry; // filled in on the store queue; read through alerts()
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final List<AlertListener> listeners;
     private ExecutorService executorService;
+    private Executor storeExecutor;
+    private Executor listenerExecutor;
+    private final AtomicBoolean savePending = new AtomicBoolean();
     private NotificationManagerCompat notificationManager;
+    private AlertScheduler scheduler;
+    private BroadcastFanout fanout;
+    private Map<String, ArchivedAlertSummary> archive; // loaded on first use, guarded by itself
 
     // Singleton instance
     private static AlertManager instance;
@@ -62,13 +96,53 @@ public class AlertManager {
     private AlertManager(Context context) {
         this.context = context;
         this.gson = new Gson();
-        this.alerts = new ArrayList<>();
-        this.listeners = new ArrayList<>();
-        this.executorService = Executors.newFixedThreadPool(3);
+        this.registry = new AlertRegistry();
+        this.listeners = new CopyOnWriteArrayList<>();
+        // Sending waits on the fan-out rate limits and retry backoff
+        this.executorService = AppExecutors.getInstance().blocking();
+        this.storeExecutor = AppExecutors.getInstance().serial("alert-store");
+        this.listenerExecutor = AppExecutors.getInstance().mainThread();
         this.notificationManager = NotificationManagerCompat.from(context);
+        this.scheduler = AlertScheduler.getInstance(context);
+        this.fanout = new BroadcastFanout(context);
 
         createNotificationChannels();
-        loadAlerts();
+        // Parsing every stored alert is too slow for the first touch on the main thread;
+        // saves are queued behind the load on the same queue
+        storeExecutor.execute(this::loadAlerts);
+    }
+
+    /**
+     * Wait until the stored alerts are loaded. Called from session start-up on a
+     * background thread, so screens find them ready.
+     */
+    @WorkerThread
+    public void awaitLoaded() {
+        alerts();
+    }
+
+    /**
+     * The alerts, once loaded. Only a caller that arrives before the load has
+     * finished waits, and only for the rest of it. The main thread never waits: until
+     * the load is done it sees the alerts written so far, and the load keeps them.
+     */
+    private AlertRegistry alerts() {
+        if (loaded.getCount() > 0 && Looper.myLooper() == Looper.getMainLooper()) {
+            return registry;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                loaded.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return registry;
     }
 
     /**
@@ -116,6 +190,26 @@ public class AlertManager {
             this.type = type;
             this.priority = priority;
         }
+
+        /** Copy with its own stats, metadata and recipient list, so it can be changed independently */
+        public Alert copy() {
+            Alert copy = new Alert();
+            copy.id = id;
+            copy.title = title;
+            copy.message = message;
+            copy.type = type;
+            copy.priority = priority;
+            copy.target = target;
+            copy.createdAt = createdAt;
+            copy.scheduledAt = scheduledAt;
+            copy.sentAt = sentAt;
+            copy.status = status;
+            copy.createdBy = createdBy;
+            copy.recipients = recipients != null ? new ArrayList<>(recipients) : new ArrayList<>();
+            copy.deliveryStats = deliveryStats != null ? deliveryStats.copy() : new AlertDeliveryStats();
+            copy.metadata = metadata != null ? metadata.copy() : new AlertMetadata();
+            return copy;
+        }
     }
 
     /**
@@ -179,6 +273,10 @@ public class AlertManager {
         public List<String> locations;
         public List<UserManager.UserRole> roles;
         public boolean includeAllUsers;
+        // BY_LOCATION: also everyone within radiusKm of this point, when set
+        public Double centerLatitude;
+        public Double centerLongitude;
+        public double radiusKm;
 
         public AlertTarget() {
             this.specificUsers = new ArrayList<>();
@@ -238,6 +336,17 @@ public class AlertManager {
             if (delivered == 0) return 0;
             return (float) read / delivered * 100;
         }
+
+        public AlertDeliveryStats copy() {
+            AlertDeliveryStats copy = new AlertDeliveryStats();
+            copy.totalRecipients = totalRecipients;
+            copy.delivered = delivered;
+            copy.failed = failed;
+            copy.pending = pending;
+            copy.read = read;
+            copy.lastDeliveryAttempt = lastDeliveryAttempt;
+            return copy;
+        }
     }
 
     /**
@@ -255,15 +364,25 @@ public class AlertManager {
         public AlertMetadata() {
             this.tags = new ArrayList<>();
         }
+
+        public AlertMetadata copy() {
+            AlertMetadata copy = new AlertMetadata();
+            copy.imageUrl = imageUrl;
+            copy.actionUrl = actionUrl;
+            copy.category = category;
+            copy.tags = tags != null ? new ArrayList<>(tags) : new ArrayList<>();
+            copy.isRecurring = isRecurring;
+            copy.recurringPattern = recurringPattern;
+            copy.expiryDate = expiryDate;
+            return copy;
+        }
     }
 
     /**
      * Add alert listener
      */
     public void addAlertListener(AlertListener listener) {
-        if (!listeners.contains(listener)) {
-            listeners.add(listener);
-        }
+        ((CopyOnWriteArrayList<AlertListener>) listeners).addIfAbsent(listener);
     }
 
     /**
@@ -274,15 +393,15 @@ public class AlertManager {
     }
 
     /**
-     * Create new alert
+     * Create new alert. Returns an editable copy; pass it to sendAlert or
+     * scheduleAlert to store further changes.
      */
     public Alert createAlert(String title, String message, AlertType type, AlertPriority priority) {
-        Alert alert = new Alert(title, message, type, priority);
-        alerts.add(alert);
+        Alert alert = alerts().put(new Alert(title, message, type, priority));
         saveAlerts();
 
         Log.d(TAG, "Created new alert: " + title);
-        return alert;
+        return alert.copy();
     }
 
     /**
@@ -294,24 +413,29 @@ public class AlertManager {
             return;
         }
 
-        alert.status = AlertStatus.SENDING;
-        alert.sentAt = new Date();
+        // The caller's copy carries its final edits (target, recipients); store it as sent
+        Alert sending = alert.copy();
+        sending.status = AlertStatus.SENDING;
+        sending.sentAt = new Date();
+        alerts().put(sending);
         saveAlerts();
 
         executorService.execute(() -> {
             try {
-                processAlertSending(alert);
+                processAlertSending(sending.id);
             } catch (Exception e) {
                 Log.e(TAG, "Error sending alert: " + e.getMessage());
-                alert.status = AlertStatus.FAILED;
+                alerts().transition(sending.id, AlertStatus.FAILED, null, AlertStatus.SENDING);
                 saveAlerts();
-                notifyAlertFailed(alert.id, e.getMessage());
+                notifyAlertFailed(sending.id, e.getMessage());
             }
         });
     }
 
     /**
-     * Schedule alert for later sending
+     * Schedule alert for later sending. The schedule is persisted and survives
+     * process death and reboots; recurring alerts (metadata.isRecurring with a
+     * recurringPattern such as DAILY or WEEKLY) send a new copy at every occurrence.
      */
     public void scheduleAlert(Alert alert, Date scheduledTime) {
         if (alert == null || scheduledTime == null) {
@@ -319,42 +443,102 @@ public class AlertManager {
             return;
         }
 
-        alert.scheduledAt = scheduledTime;
-        alert.status = AlertStatus.SCHEDULED;
+        boolean recurring = alert.metadata != null && alert.metadata.isRecurring;
+        if (scheduledTime.getTime() <= System.currentTimeMillis() && !recurring) {
+            sendAlert(alert);
+            return;
+        }
+
+        Alert scheduled = alert.copy();
+        scheduled.scheduledAt = scheduledTime;
+        scheduled.status = AlertStatus.SCHEDULED;
+        alerts().put(scheduled);
         saveAlerts();
 
+        scheduler.schedule(alert.id, scheduledTime.getTime(),
+                recurring ? alert.metadata.recurringPattern : null);
         Log.d(TAG, "Scheduled alert: " + alert.title + " for " + scheduledTime);
+    }
 
-        // In a real implementation, you would use JobScheduler or WorkManager
-        // For now, we'll simulate scheduling
-        long delay = scheduledTime.getTime() - System.currentTimeMillis();
-        if (delay > 0) {
-            executorService.execute(() -> {
-                try {
-                    Thread.sleep(delay);
-                    sendAlert(alert);
-                } catch (InterruptedException e) {
-                    Log.e(TAG, "Scheduled alert interrupted: " + e.getMessage());
-                }
-            });
-        } else {
+    /**
+     * Send every scheduled alert that is due and re-arm the scheduler's alarm.
+     * Runs on the scheduler queue, from AlertAlarmReceiver.
+     */
+    @WorkerThread
+    void fireDueAlerts() {
+        List<AlertScheduler.DueAlert> due;
+        do {
+            due = scheduler.pollDue(System.currentTimeMillis());
+            for (AlertScheduler.DueAlert entry : due) {
+                fireScheduledAlert(entry);
+            }
+        } while (!due.isEmpty());
+        scheduler.rearm();
+    }
+
+    private void fireScheduledAlert(AlertScheduler.DueAlert entry) {
+        Alert alert = getAlertById(entry.alertId);
+        if (alert == null || alert.status == AlertStatus.CANCELLED) {
+            Log.d(TAG, "Dropping schedule of missing or cancelled alert: " + entry.alertId);
+            if (entry.isRecurring()) scheduler.cancel(entry.alertId);
+            return;
+        }
+
+        if (AlertRetentionPolicy.isExpired(alert, System.currentTimeMillis())) {
+            Log.d(TAG, "Not firing expired alert: " + entry.alertId);
+            if (entry.isRecurring()) scheduler.cancel(entry.alertId);
+            return;
+        }
+
+        if (!entry.isRecurring()) {
             sendAlert(alert);
+            return;
         }
+
+        // The scheduled alert stays as the template; each occurrence is sent as its own alert
+        Alert occurrence = copyForOccurrence(alert);
+        alerts().update(alert.id, template -> template.scheduledAt = new Date(entry.nextFireAt));
+        sendAlert(occurrence);
+        Log.d(TAG, "Sent occurrence of recurring alert " + alert.id + ", next at " + new Date(entry.nextFireAt));
+    }
+
+    private Alert copyForOccurrence(Alert template) {
+        Alert occurrence = new Alert(template.title, template.message, template.type, template.priority);
+        occurrence.target = template.target;
+        occurrence.createdBy = template.createdBy;
+        occurrence.recipients = new ArrayList<>(template.recipients);
+        occurrence.deliveryStats.totalRecipients = template.deliveryStats.totalRecipients;
+        occurrence.metadata.imageUrl = template.metadata.imageUrl;
+        occurrence.metadata.actionUrl = template.metadata.actionUrl;
+        occurrence.metadata.category = template.metadata.category;
+        occurrence.metadata.tags = new ArrayList<>(template.metadata.tags);
+        occurrence.metadata.expiryDate = template.metadata.expiryDate;
+        return occurrence;
     }
 
     /**
-     * Send bulk alert to multiple recipients
+     * Send bulk alert to multiple recipients. Recipients are resolved from the target
+     * when the alert is sent, off the caller's thread.
      */
     public void sendBulkAlert(String title, String message, AlertType type,
                               AlertPriority priority, AlertTarget target) {
-        Alert alert = createAlert(title, message, type, priority);
-        alert.target = target;
-
-        // Determine recipients based on target
-        List<String> recipients = determineRecipients(target);
-        alert.recipients = recipients;
-        alert.deliveryStats.totalRecipients = recipients.size();
+        sendBulkAlert(UUID.randomUUID().toString(), title, message, type, priority, target);
+    }
 
+    /**
+     * Send bulk alert under a caller-derived id. Every device raising the same alert
+     * derives the same id, so the server keeps one notification per recipient; an id
+     * this device already holds is not sent again.
+     */
+    public void sendBulkAlert(String alertId, String title, String message, AlertType type,
+                              AlertPriority priority, AlertTarget target) {
+        if (alerts().get(alertId) != null) {
+            Log.d(TAG, "Alert " + alertId + " already raised, not sending again");
+            return;
+        }
+        Alert alert = new Alert(title, message, type, priority);
+        alert.id = alertId;
+        alert.target = target;
         sendAlert(alert);
     }
 
@@ -379,7 +563,7 @@ public class AlertManager {
      * Get all alerts
      */
     public List<Alert> getAllAlerts() {
-        return new ArrayList<>(alerts);
+        return alerts().getAll();
     }
 
     /**
@@ -387,7 +571,7 @@ public class AlertManager {
      */
     public List<Alert> getAlertsByStatus(AlertStatus status) {
         List<Alert> filteredAlerts = new ArrayList<>();
-        for (Alert alert : alerts) {
+        for (Alert alert : alerts().getAll()) {
             if (alert.status == status) {
                 filteredAlerts.add(alert);
             }
@@ -400,7 +584,7 @@ public class AlertManager {
      */
     public List<Alert> getAlertsByType(AlertType type) {
         List<Alert> filteredAlerts = new ArrayList<>();
-        for (Alert alert : alerts) {
+        for (Alert alert : alerts().getAll()) {
             if (alert.type == type) {
                 filteredAlerts.add(alert);
             }
@@ -413,7 +597,7 @@ public class AlertManager {
      */
     public List<Alert> getAlertsByPriority(AlertPriority priority) {
         List<Alert> filteredAlerts = new ArrayList<>();
-        for (Alert alert : alerts) {
+        for (Alert alert : alerts().getAll()) {
             if (alert.priority == priority) {
                 filteredAlerts.add(alert);
             }
@@ -425,21 +609,14 @@ public class AlertManager {
      * Get alert by ID
      */
     public Alert getAlertById(String alertId) {
-        for (Alert alert : alerts) {
-            if (alert.id.equals(alertId)) {
-                return alert;
-            }
-        }
-        return null;
+        return alerts().get(alertId);
     }
 
     /**
      * Update alert status
      */
     public void updateAlertStatus(String alertId, AlertStatus newStatus) {
-        Alert alert = getAlertById(alertId);
-        if (alert != null) {
-            alert.status = newStatus;
+        if (alerts().transition(alertId, newStatus, null) != null) {
             saveAlerts();
             Log.d(TAG, "Updated alert status: " + alertId + " -> " + newStatus);
         }
@@ -449,10 +626,12 @@ public class AlertManager {
      * Cancel alert
      */
     public void cancelAlert(String alertId) {
-        Alert alert = getAlertById(alertId);
-        if (alert != null) {
-            alert.status = AlertStatus.CANCELLED;
+        // Alerts already on their way out cannot be called back
+        Alert cancelled = alerts().transition(alertId, AlertStatus.CANCELLED, null,
+                AlertStatus.DRAFT, AlertStatus.SCHEDULED, AlertStatus.FAILED);
+        if (cancelled != null) {
             saveAlerts();
+            scheduler.cancel(alertId);
             Log.d(TAG, "Cancelled alert: " + alertId);
         }
     }
@@ -461,62 +640,27 @@ public class AlertManager {
      * Delete alert
      */
     public void deleteAlert(String alertId) {
-        Alert alert = getAlertById(alertId);
-        if (alert != null) {
-            alerts.remove(alert);
+        if (alerts().remove(alertId) != null) {
             saveAlerts();
+            scheduler.cancel(alertId);
             Log.d(TAG, "Deleted alert: " + alertId);
         }
     }
 
     /**
-     * Get alert statistics
+     * Get alert statistics. Counters are kept up to date on every change, so this
+     * does not scan the alerts.
      */
     public AlertStatistics getAlertStatistics() {
-        AlertStatistics stats = new AlertStatistics();
-
-        for (Alert alert : alerts) {
-            stats.totalAlerts++;
-
-            switch (alert.status) {
-                case SENT:
-                case DELIVERED:
-                    stats.sentAlerts++;
-                    break;
-                case FAILED:
-                    stats.failedAlerts++;
-                    break;
-                case SCHEDULED:
-                    stats.scheduledAlerts++;
-                    break;
-                case DRAFT:
-                    stats.draftAlerts++;
-                    break;
-            }
-
-            switch (alert.priority) {
-                case EMERGENCY:
-                case CRITICAL:
-                    stats.highPriorityAlerts++;
-                    break;
-                case HIGH:
-                case MEDIUM:
-                    stats.mediumPriorityAlerts++;
-                    break;
-                case LOW:
-                    stats.lowPriorityAlerts++;
-                    break;
-            }
-
-            stats.totalRecipients += alert.deliveryStats.totalRecipients;
-            stats.totalDelivered += alert.deliveryStats.delivered;
-        }
-
-        if (stats.totalRecipients > 0) {
-            stats.overallDeliveryRate = (float) stats.totalDelivered / stats.totalRecipients * 100;
-        }
+        return alerts().counters().toStatistics();
+    }
 
-        return stats;
+    /**
+     * Alert counts per day or week for charts, oldest first, ending with the
+     * current period
+     */
+    public List<AlertStatsBucket> getAlertSeries(StatsPeriod period, int count) {
+        return alerts().counters().series(period, count, System.currentTimeMillis());
     }
 
     /**
@@ -537,67 +681,232 @@ public class AlertManager {
     }
 
     /**
-     * Process alert sending
+     * Compact record of archived alerts of one type sent in one month
      */
-    private void processAlertSending(Alert alert) {
-        try {
-            Log.d(TAG, "Processing alert sending: " + alert.title);
+    public static class ArchivedAlertSummary {
+        public String month; // yyyy-MM
+        public AlertType type;
+        public int alerts;
+        public int expired;
+        public long recipients;
+        public long delivered;
+        public long failed;
+        public long read;
+    }
 
-            List<String> recipients = alert.recipients;
-            if (recipients == null || recipients.isEmpty()) {
-                recipients = determineRecipients(alert.target);
-                alert.recipients = recipients;
+    /**
+     * Bucket size of an alert statistics series
+     */
+    public enum StatsPeriod {
+        DAY,
+        WEEK
+    }
+
+    /**
+     * Alert counts for one day or week; alerts count in the period they were sent,
+     * or created if not sent
+     */
+    public static class AlertStatsBucket {
+        public final long startTime;
+        public final int alerts;
+        public final int sent;
+        public final int failed;
+        public final long recipients;
+        public final long delivered;
+
+        AlertStatsBucket(long startTime, int alerts, int sent, int failed, long recipients, long delivered) {
+            this.startTime = startTime;
+            this.alerts = alerts;
+            this.sent = sent;
+            this.failed = failed;
+            this.recipients = recipients;
+            this.delivered = delivered;
+        }
+    }
+
+    /**
+     * Remove expired alerts and finished alerts past their type's retention period,
+     * folding those that were sent into monthly summaries; they stay in the statistics
+     * counters. Expired schedules are cancelled. Runs from AlertRetentionWorker; returns the number removed.
+     */
+    @WorkerThread
+    int compactAlerts(long now) {
+        List<Alert> removed = alerts().archiveMatching(alert ->
+                AlertRetentionPolicy.isExpired(alert, now) || AlertRetentionPolicy.isPastRetention(alert, now));
+        if (removed.isEmpty()) {
+            Log.d(TAG, "Alert retention: nothing to remove");
+            return 0;
+        }
+
+        SimpleDateFormat monthFormat = new SimpleDateFormat("yyyy-MM", Locale.US);
+        Map<String, ArchivedAlertSummary> summaries = getArchive();
+        synchronized (summaries) {
+            for (Alert alert : removed) {
+                if (alert.status == AlertStatus.SCHEDULED) {
+                    scheduler.cancel(alert.id);
+                }
+                if (alert.sentAt == null) continue; // never went out, nothing worth keeping
+
+                String month = monthFormat.format(alert.sentAt);
+                String key = month + "|" + alert.type;
+                ArchivedAlertSummary summary = summaries.get(key);
+                if (summary == null) {
+                    summary = new ArchivedAlertSummary();
+                    summary.month = month;
+                    summary.type = alert.type;
+                    summaries.put(key, summary);
+                }
+                summary.alerts++;
+                if (AlertRetentionPolicy.isExpired(alert, now)) summary.expired++;
+                summary.recipients += alert.deliveryStats.totalRecipients;
+                summary.delivered += alert.deliveryStats.delivered;
+                summary.failed += alert.deliveryStats.failed;
+                summary.read += alert.deliveryStats.read;
             }
+        }
+
+        saveAlerts();
+        saveArchive();
+        Log.d(TAG, "Alert retention removed " + removed.size() + " alerts, " + alerts().size() + " remain");
+        return removed.size();
+    }
 
-            alert.deliveryStats.totalRecipients = recipients.size();
-            alert.deliveryStats.lastDeliveryAttempt = new Date();
+    /**
+     * Summaries of alerts removed by retention, oldest month first
+     */
+    public List<ArchivedAlertSummary> getArchivedAlertSummaries() {
+        Map<String, ArchivedAlertSummary> summaries = getArchive();
+        List<ArchivedAlertSummary> result;
+        synchronized (summaries) {
+            result = new ArrayList<>(summaries.values());
+        }
+        Collections.sort(result, (a, b) -> a.month.compareTo(b.month));
+        return result;
+    }
 
-            // Simulate sending process
-            for (String recipient : recipients) {
+    private Map<String, ArchivedAlertSummary> getArchive() {
+        synchronized (this) {
+            if (archive == null) {
+                archive = new LinkedHashMap<>();
                 try {
-                    // Simulate network delay
-                    Thread.sleep(100);
-
-                    // Simulate 95% success rate
-                    if (Math.random() < 0.95) {
-                        alert.deliveryStats.delivered++;
-                    } else {
-                        alert.deliveryStats.failed++;
+                    SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+                    Type listType = new TypeToken<List<ArchivedAlertSummary>>(){}.getType();
+                    List<ArchivedAlertSummary> stored = gson.fromJson(prefs.getString(KEY_ALERT_ARCHIVE, "[]"), listType);
+                    if (stored != null) {
+                        for (ArchivedAlertSummary summary : stored) {
+                            archive.put(summary.month + "|" + summary.type, summary);
+                        }
                     }
-                } catch (InterruptedException e) {
-                    alert.deliveryStats.failed++;
+                } catch (Exception e) {
+                    Log.e(TAG, "Error loading alert archive: " + e.getMessage());
                 }
             }
+            return archive;
+        }
+    }
 
-            alert.status = AlertStatus.SENT;
-            saveAlerts();
+    private void saveArchive() {
+        storeExecutor.execute(() -> {
+            Map<String, ArchivedAlertSummary> summaries = getArchive();
+            String json;
+            synchronized (summaries) {
+                json = gson.toJson(new ArrayList<>(summaries.values()));
+            }
+            context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                    .putString(KEY_ALERT_ARCHIVE, json)
+                    .apply();
+        });
+    }
 
-            // Send system notification
-            String channelId = getChannelIdForAlertType(alert.type);
-            sendNotification(alert, channelId);
+    /**
+     * Deliver an alert through the broadcast fan-out; progress is written into its
+     * delivery stats chunk by chunk
+     */
+    private void processAlertSending(String alertId) throws IOException {
+        Alert alert = alerts().get(alertId);
+        if (alert == null) return;
 
-            // Notify listeners
-            for (AlertListener listener : listeners) {
-                listener.onAlertSent(alert);
-                listener.onAlertDelivered(alert.id, alert.deliveryStats.delivered);
+        try {
+            Log.d(TAG, "Processing alert sending: " + alert.title);
+
+            List<String> recipients = alert.recipients;
+            if (recipients == null || recipients.isEmpty()) {
+                recipients = determineRecipients(alert.target);
             }
+            List<String> resolvedRecipients = recipients;
+            Date attemptAt = new Date();
+            alerts().update(alertId, a -> {
+                a.recipients = resolvedRecipients;
+                a.deliveryStats.totalRecipients = resolvedRecipients.size();
+                // A retry resends to everyone; the server drops rows it already has
+                a.deliveryStats.delivered = 0;
+                a.deliveryStats.failed = 0;
+                a.deliveryStats.pending = resolvedRecipients.size();
+                a.deliveryStats.lastDeliveryAttempt = attemptAt;
+            });
 
-            Log.d(TAG, "Alert sent successfully: " + alert.title +
-                    " (Delivered: " + alert.deliveryStats.delivered +
-                    "/" + alert.deliveryStats.totalRecipients + ")");
+            fanout.send(alert, recipients, new BroadcastFanout.ProgressListener() {
+                @Override
+                public void onChunkDone(int delivered, int failed) {
+                    alerts().update(alertId, a -> {
+                        AlertDeliveryStats stats = a.deliveryStats;
+                        stats.delivered += delivered;
+                        stats.failed += failed;
+                        stats.pending = Math.max(0, stats.totalRecipients - stats.delivered - stats.failed);
+                        stats.lastDeliveryAttempt = new Date();
+                    });
+                    saveAlerts();
+                }
 
+                @Override
+                public void onComplete(int delivered, int failed) {
+                    finishAlertSending(alertId, delivered, failed);
+                }
+            });
         } catch (Exception e) {
             Log.e(TAG, "Error processing alert: " + e.getMessage());
-            alert.status = AlertStatus.FAILED;
-            saveAlerts();
             throw e;
         }
     }
 
     /**
-     * Determine recipients based on target
+     * Mark a fanned-out alert as sent, or failed when no recipient could be reached
      */
-    private List<String> determineRecipients(AlertTarget target) {
+    private void finishAlertSending(String alertId, int delivered, int failed) {
+        boolean allFailed = delivered == 0 && failed > 0;
+        Alert finished = alerts().transition(alertId,
+                allFailed ? AlertStatus.FAILED : AlertStatus.SENT, null, AlertStatus.SENDING);
+        saveAlerts();
+        if (finished == null) {
+            Log.d(TAG, "Alert " + alertId + " changed state while sending, not marking as sent");
+            return;
+        }
+        if (allFailed) {
+            notifyAlertFailed(alertId, "Delivery failed for all " + failed + " recipients");
+            return;
+        }
+
+        // Send system notification
+        String channelId = getChannelIdForAlertType(finished.type);
+        sendNotification(finished, channelId);
+
+        // Notify listeners
+        notifyListeners(listener -> {
+            listener.onAlertSent(finished);
+            listener.onAlertDelivered(finished.id, finished.deliveryStats.delivered);
+        });
+
+        Log.d(TAG, "Alert sent successfully: " + finished.title +
+                " (Delivered: " + finished.deliveryStats.delivered +
+                "/" + finished.deliveryStats.totalRecipients + ")");
+    }
+
+    /**
+     * Determine recipients based on target; location targets are looked up on the
+     * server and come back as auth user ids. Blocks on the network.
+     */
+    @WorkerThread
+    private List<String> determineRecipients(AlertTarget target) throws IOException {
         List<String> recipients = new ArrayList<>();
 
         if (target == null) {
@@ -633,14 +942,21 @@ public class AlertManager {
                 break;
 
             case BY_LOCATION:
-                List<UserManager.UserAccount> locationUsers = userManager.getAllUsers();
-                for (UserManager.UserAccount user : locationUsers) {
-                    if (user.status == UserManager.UserStatus.ACTIVE &&
-                            target.locations.contains(user.location) &&
-                            !recipients.contains(user.userId)) {
-                        recipients.add(user.userId);
-                    }
+                Set<String> seen = new LinkedHashSet<>();
+                if (!target.locations.isEmpty()) {
+                    Map<String, Object> params = new HashMap<>();
+                    params.put("p_areas", target.locations);
+                    seen.addAll(userIds(rpc(RPC_USERS_IN_AREAS, params)));
+                }
+                if (target.centerLatitude != null && target.centerLongitude != null && target.radiusKm > 0) {
+                    // A range scan per covering geohash prefix on the server
+                    Map<String, Object> params = new HashMap<>();
+                    params.put("p_lat", target.centerLatitude);
+                    params.put("p_lng", target.centerLongitude);
+                    params.put("p_radius_km", target.radiusKm);
+                    seen.addAll(userIds(rpc(RPC_USERS_NEAR, params)));
                 }
+                recipients.addAll(seen);
                 break;
 
             case CUSTOM:
@@ -653,6 +969,29 @@ public class AlertManager {
         return recipients;
     }
 
+    private String rpc(String function, Map<String, Object> params) throws IOException {
+        String auth = SupabaseConfig.getAuthHeader(AuthManager.getInstance(context).getAccessToken());
+        Response<ResponseBody> response = ApiClient.getApiService()
+                .callRpc(auth, SupabaseConfig.getApiKeyHeader(), function, params)
+                .execute();
+        if (!response.isSuccessful()) {
+            throw new IOException(function + ": HTTP " + response.code());
+        }
+        return response.body() != null ? response.body().string() : "[]";
+    }
+
+    /** The user_id column of an RPC's rows */
+    private static List<String> userIds(String json) {
+        List<String> ids = new ArrayList<>();
+        for (JsonElement row : JsonParser.parseString(json).getAsJsonArray()) {
+            JsonElement id = row.getAsJsonObject().get("user_id");
+            if (id != null && !id.isJsonNull()) {
+                ids.add(id.getAsString());
+            }
+        }
+        return ids;
+    }
+
     /**
      * Get notification channel ID for alert type
      */
@@ -793,52 +1132,102 @@ public class AlertManager {
             Type listType = new TypeToken<List<Alert>>(){}.getType();
             List<Alert> loadedAlerts = gson.fromJson(alertsJson, listType);
 
-            if (loadedAlerts != null) {
-                alerts.addAll(loadedAlerts);
-            }
+            registry.load(loadedAlerts != null ? loadedAlerts : new ArrayList<>(),
+                    () -> restoreCounters(prefs));
 
-            Log.d(TAG, "Loaded " + alerts.size() + " alerts");
+            Log.d(TAG, "Loaded " + registry.size() + " alerts");
 
         } catch (Exception e) {
             Log.e(TAG, "Error loading alerts: " + e.getMessage());
+        } finally {
+            loaded.countDown();
         }
     }
 
     /**
-     * Save alerts to SharedPreferences
+     * Restore the persisted counters, recounting once if they are missing or do not
+     * match the loaded alerts (first run after an upgrade, or an interrupted save)
      */
-    private void saveAlerts() {
+    private void restoreCounters(SharedPreferences prefs) {
+        AlertCounters counters = registry.counters();
+        String countersJson = prefs.getString(KEY_ALERT_COUNTERS, null);
+        AlertCounters.State state = null;
         try {
-            SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-            SharedPreferences.Editor editor = prefs.edit();
-
-            String alertsJson = gson.toJson(alerts);
-            editor.putString(KEY_ALERTS_LIST, alertsJson);
-            editor.apply();
+            state = countersJson != null ? gson.fromJson(countersJson, AlertCounters.State.class) : null;
+        } catch (Exception e) {
+            Log.w(TAG, "Ignoring unreadable alert counters: " + e.getMessage());
+        }
 
-            Log.d(TAG, "Saved " + alerts.size() + " alerts");
+        if (state != null) {
+            counters.restore(state);
+        }
+        if (state == null || counters.getLiveTotal() != registry.size()) {
+            counters.rebuild(registry.getAll());
+            Log.d(TAG, "Rebuilt alert counters");
+        }
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error saving alerts: " + e.getMessage());
+    /**
+     * Save alerts to SharedPreferences. Saves are coalesced on the store queue and
+     * always write the latest snapshot, so callers never wait on serialization.
+     */
+    private void saveAlerts() {
+        if (!savePending.compareAndSet(false, true)) {
+            return;
         }
+        storeExecutor.execute(() -> {
+            savePending.set(false);
+            try {
+                List<Alert> snapshot = alerts().getAll();
+                SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+                SharedPreferences.Editor editor = prefs.edit();
+
+                String alertsJson = gson.toJson(snapshot);
+                editor.putString(KEY_ALERTS_LIST, alertsJson);
+                editor.putString(KEY_ALERT_COUNTERS, gson.toJson(alerts().counters().snapshotState()));
+                editor.apply();
+
+                Log.d(TAG, "Saved " + snapshot.size() + " alerts");
+
+            } catch (Exception e) {
+                Log.e(TAG, "Error saving alerts: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Deliver a callback to every listener on the main thread, so a slow listener
+     * never holds up the thread that changed the alert
+     */
+    private void notifyListeners(ListenerCall call) {
+        if (listeners.isEmpty()) return;
+        listenerExecutor.execute(() -> {
+            for (AlertListener listener : listeners) {
+                try {
+                    call.invoke(listener);
+                } catch (Exception e) {
+                    Log.e(TAG, "Alert listener failed: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    private interface ListenerCall {
+        void invoke(AlertListener listener);
     }
 
     /**
      * Notify listeners when alert fails
      */
     private void notifyAlertFailed(String alertId, String error) {
-        for (AlertListener listener : listeners) {
-            listener.onAlertFailed(alertId, error);
-        }
+        notifyListeners(listener -> listener.onAlertFailed(alertId, error));
     }
 
     /**
      * Mark alert as read by user
      */
     public void markAlertAsRead(String alertId, String userId) {
-        Alert alert = getAlertById(alertId);
-        if (alert != null) {
-            alert.deliveryStats.read++;
+        if (alerts().update(alertId, alert -> alert.deliveryStats.read++) != null) {
             saveAlerts();
             Log.d(TAG, "Alert marked as read: " + alertId + " by user: " + userId);
         }
@@ -851,7 +1240,7 @@ public class AlertManager {
         List<Alert> recentAlerts = new ArrayList<>();
         long twentyFourHoursAgo = System.currentTimeMillis() - (24 * 60 * 60 * 1000);
 
-        for (Alert alert : alerts) {
+        for (Alert alert : alerts().getAll()) {
             if (alert.createdAt.getTime() > twentyFourHoursAgo) {
                 recentAlerts.add(alert);
             }
@@ -878,12 +1267,12 @@ public class AlertManager {
      * Retry sending a failed alert
      */
     public void retryAlert(String alertId) {
-        Alert alert = getAlertById(alertId);
-        if (alert != null && alert.status == AlertStatus.FAILED) {
-            alert.status = AlertStatus.DRAFT;
-            alert.deliveryStats.failed = 0;
-            alert.deliveryStats.delivered = 0;
-            alert.deliveryStats.pending = 0;
+        Alert alert = alerts().transition(alertId, AlertStatus.DRAFT, a -> {
+            a.deliveryStats.failed = 0;
+            a.deliveryStats.delivered = 0;
+            a.deliveryStats.pending = 0;
+        }, AlertStatus.FAILED);
+        if (alert != null) {
             sendAlert(alert);
             Log.d(TAG, "Retrying failed alert: " + alertId);
         }
@@ -893,9 +1282,6 @@ public class AlertManager {
      * Clean up resources
      */
     public void cleanup() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-        }
         listeners.clear();
         Log.d(TAG, "AlertManager cleaned up");
     }
@@ -978,10 +1364,11 @@ public class AlertManager {
      * Update alert content
      */
     public void updateAlert(String alertId, String title, String message) {
-        Alert alert = getAlertById(alertId);
-        if (alert != null && alert.status == AlertStatus.DRAFT) {
+        Alert updated = alerts().transition(alertId, AlertStatus.DRAFT, alert -> {
             alert.title = title;
             alert.message = message;
+        }, AlertStatus.DRAFT);
+        if (updated != null) {
             saveAlerts();
             Log.d(TAG, "Updated alert content: " + alertId);
         }
@@ -1000,7 +1387,7 @@ public class AlertManager {
             duplicatedAlert.priority = originalAlert.priority;
             duplicatedAlert.target = originalAlert.target;
 
-            alerts.add(duplicatedAlert);
+            alerts().put(duplicatedAlert);
             saveAlerts();
 
             Log.d(TAG, "Duplicated alert: " + alertId + " -> " + duplicatedAlert.id);
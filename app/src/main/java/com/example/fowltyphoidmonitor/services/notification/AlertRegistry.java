@@ -0,0 +1,217 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.Alert;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copy-on-write store of alerts, indexed by id.
+ *
+ * Readers get an immutable snapshot without locking; lookups by id are O(1).
+ * Writers are serialized and never change an alert that a reader can see: an update
+ * copies the alert, applies the change to the copy and publishes a new snapshot.
+ * Alerts handed out by the registry must therefore be treated as read-only.
+ * Every write is also reported to the running statistics in AlertCounters.
+ */
+class AlertRegistry {
+
+    /**
+     * Change applied to a private copy of an alert
+     */
+    interface Mutation {
+        void apply(Alert alert);
+    }
+
+    /**
+     * Selects alerts for removal
+     */
+    interface Filter {
+        boolean matches(Alert alert);
+    }
+
+    /**
+     * Immutable view of all alerts, in insertion order
+     */
+    static final class Snapshot {
+        final Map<String, Alert> byId;
+        final List<Alert> alerts;
+
+        private Snapshot(LinkedHashMap<String, Alert> byId) {
+            this.byId = Collections.unmodifiableMap(byId);
+            this.alerts = Collections.unmodifiableList(new ArrayList<>(byId.values()));
+        }
+    }
+
+    private final Object writeLock = new Object();
+    private final AlertCounters counters = new AlertCounters();
+    private volatile Snapshot snapshot = new Snapshot(new LinkedHashMap<>());
+
+    AlertCounters counters() {
+        return counters;
+    }
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    List<Alert> getAll() {
+        return snapshot.alerts;
+    }
+
+    Alert get(String id) {
+        return id != null ? snapshot.byId.get(id) : null;
+    }
+
+    int size() {
+        return snapshot.byId.size();
+    }
+
+    /**
+     * Replace the whole contents, e.g. when loading from storage. Counters are left
+     * alone; the caller restores or rebuilds them.
+     */
+    void reset(Collection<Alert> alerts) {
+        LinkedHashMap<String, Alert> byId = new LinkedHashMap<>();
+        for (Alert alert : alerts) {
+            if (alert != null && alert.id != null) byId.put(alert.id, alert);
+        }
+        synchronized (writeLock) {
+            snapshot = new Snapshot(byId);
+        }
+    }
+
+    /**
+     * Install the alerts read from storage beneath any written before the load
+     * finished, which win. restoreCounters runs while only the stored alerts are in,
+     * so it sees what was persisted; the early writes are then counted on top.
+     */
+    void load(Collection<Alert> stored, Runnable restoreCounters) {
+        synchronized (writeLock) {
+            List<Alert> early = snapshot.alerts;
+            reset(stored);
+            restoreCounters.run();
+            if (early.isEmpty()) return;
+            LinkedHashMap<String, Alert> byId = new LinkedHashMap<>(snapshot.byId);
+            for (Alert alert : early) {
+                counters.apply(byId.put(alert.id, alert), alert);
+            }
+            snapshot = new Snapshot(byId);
+        }
+    }
+
+    /** Insert or replace an alert; the registry keeps its own copy */
+    Alert put(Alert alert) {
+        Alert stored = alert.copy();
+        synchronized (writeLock) {
+            LinkedHashMap<String, Alert> byId = new LinkedHashMap<>(snapshot.byId);
+            Alert previous = byId.put(stored.id, stored);
+            snapshot = new Snapshot(byId);
+            counters.apply(previous, stored);
+        }
+        return stored;
+    }
+
+    Alert remove(String id) {
+        synchronized (writeLock) {
+            if (!snapshot.byId.containsKey(id)) return null;
+            LinkedHashMap<String, Alert> byId = new LinkedHashMap<>(snapshot.byId);
+            Alert removed = byId.remove(id);
+            snapshot = new Snapshot(byId);
+            counters.apply(removed, null);
+            return removed;
+        }
+    }
+
+    /** Remove many alerts with a single copy */
+    int removeAll(Collection<String> ids) {
+        synchronized (writeLock) {
+            LinkedHashMap<String, Alert> byId = new LinkedHashMap<>(snapshot.byId);
+            int removed = 0;
+            for (String id : ids) {
+                Alert alert = byId.remove(id);
+                if (alert != null) {
+                    counters.apply(alert, null);
+                    removed++;
+                }
+            }
+            if (removed > 0) {
+                snapshot = new Snapshot(byId);
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Archive every alert the filter matches: remove it in one step, so an alert cannot
+     * change between being checked and removed, but keep it in the counters if it went
+     * out. Returns the removed alerts.
+     */
+    List<Alert> archiveMatching(Filter filter) {
+        synchronized (writeLock) {
+            List<Alert> removed = new ArrayList<>();
+            LinkedHashMap<String, Alert> byId = new LinkedHashMap<>(snapshot.byId);
+            Iterator<Alert> iterator = byId.values().iterator();
+            while (iterator.hasNext()) {
+                Alert alert = iterator.next();
+                if (filter.matches(alert)) {
+                    iterator.remove();
+                    counters.archive(alert);
+                    removed.add(alert);
+                }
+            }
+            if (!removed.isEmpty()) {
+                snapshot = new Snapshot(byId);
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Apply a change to an alert atomically. Returns the new version, or null when
+     * the alert does not exist.
+     */
+    Alert update(String id, Mutation mutation) {
+        synchronized (writeLock) {
+            Alert current = snapshot.byId.get(id);
+            if (current == null) return null;
+            Alert updated = current.copy();
+            mutation.apply(updated);
+            LinkedHashMap<String, Alert> byId = new LinkedHashMap<>(snapshot.byId);
+            byId.put(id, updated);
+            snapshot = new Snapshot(byId);
+            counters.apply(current, updated);
+            return updated;
+        }
+    }
+
+    /**
+     * Move an alert to a new status only if it is currently in one of the allowed
+     * states, applying an optional change in the same step. Returns the new version,
+     * or null when the alert is missing or in another state.
+     */
+    Alert transition(String id, AlertStatus to, Mutation mutation, AlertStatus... allowedFrom) {
+        synchronized (writeLock) {
+            Alert current = snapshot.byId.get(id);
+            if (current == null || !isOneOf(current.status, allowedFrom)) return null;
+            return update(id, alert -> {
+                alert.status = to;
+                if (mutation != null) mutation.apply(alert);
+            });
+        }
+    }
+
+    private static boolean isOneOf(AlertStatus status, AlertStatus[] allowed) {
+        if (allowed.length == 0) return true;
+        for (AlertStatus candidate : allowed) {
+            if (candidate == status) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.Alert;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertStatus;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertType;
+
+/**
+ * How long finished alerts are kept before the retention job archives them.
+ *
+ * Only alerts that are done (sent, delivered, failed or cancelled) age out; drafts and
+ * scheduled alerts stay until they expire. Outbreak and emergency alerts are kept
+ * longest since vets look back at them when tracing cases.
+ */
+public class AlertRetentionPolicy {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private AlertRetentionPolicy() {
+    }
+
+    /** Days a finished alert of the given type is kept */
+    public static int getRetentionDays(AlertType type) {
+        if (type == null) return 90;
+        switch (type) {
+            case DISEASE_OUTBREAK:
+            case EMERGENCY:
+                return 365;
+            case VACCINATION_REMINDER:
+            case WEATHER_WARNING:
+            case REPORT_UPDATE:
+            case CONSULTATION_REQUEST:
+                return 90;
+            case HEALTH_TIP:
+            case GENERAL_INFO:
+                return 30;
+            case SYSTEM_MAINTENANCE:
+                return 14;
+            default:
+                return 90;
+        }
+    }
+
+    /** Past its expiry date. Alerts being sent are left alone until they finish. */
+    public static boolean isExpired(Alert alert, long now) {
+        return alert.metadata != null && alert.metadata.expiryDate != null
+                && alert.metadata.expiryDate.getTime() <= now
+                && alert.status != AlertStatus.SENDING;
+    }
+
+    /** Finished and older than its type's retention period */
+    public static boolean isPastRetention(Alert alert, long now) {
+        if (!isFinished(alert.status)) return false;
+        long finishedAt = alert.sentAt != null ? alert.sentAt.getTime()
+                : alert.createdAt != null ? alert.createdAt.getTime() : now;
+        return now - finishedAt > getRetentionDays(alert.type) * DAY;
+    }
+
+    static boolean isFinished(AlertStatus status) {
+        return status == AlertStatus.SENT || status == AlertStatus.DELIVERED
+                || status == AlertStatus.FAILED || status == AlertStatus.CANCELLED;
+    }
+}
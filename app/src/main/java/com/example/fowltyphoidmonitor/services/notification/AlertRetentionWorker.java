@@ -0,0 +1,55 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs alert retention once a day while the device is idle and charging
+ */
+public class AlertRetentionWorker extends Worker {
+    private static final String TAG = "AlertRetentionWorker";
+    private static final String PERIODIC_WORK_NAME = "alert_retention_periodic";
+    private static final long RUN_INTERVAL_HOURS = 24;
+
+    public static final String OUTPUT_REMOVED = "removed";
+
+    public AlertRetentionWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedule the daily run; keeps an existing schedule so repeated calls are cheap
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiresDeviceIdle(true)
+                .setRequiresCharging(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                AlertRetentionWorker.class, RUN_INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                PERIODIC_WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+        Log.d(TAG, "Alert retention scheduled every " + RUN_INTERVAL_HOURS + " hours");
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        int removed = AlertManager.getInstance(getApplicationContext())
+                .compactAlerts(System.currentTimeMillis());
+        return Result.success(new Data.Builder().putInt(OUTPUT_REMOVED, removed).build());
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.Intent;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fowltyphoidmonitor.data.local.LocalDatabase;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * Persistent schedule of pending alerts.
+ *
+ * Entries live in LocalDatabase ordered by fire time, and a single system alarm is
+ * armed for the earliest one. When it goes off, every due entry is taken in one
+ * batch; recurring entries are moved to their next fire time and the alarm is re-armed.
+ * AlertAlarmReceiver re-arms the alarm after a reboot, since the system forgets it.
+ */
+public class AlertScheduler {
+    private static final String TAG = "AlertScheduler";
+    private static final int ALARM_REQUEST_CODE = 4201;
+    private static final int BATCH_SIZE = 100;
+
+    public static final String ACTION_FIRE = "com.example.fowltyphoidmonitor.action.FIRE_SCHEDULED_ALERTS";
+
+    public static final String PATTERN_HOURLY = "HOURLY";
+    public static final String PATTERN_DAILY = "DAILY";
+    public static final String PATTERN_WEEKLY = "WEEKLY";
+    public static final String PATTERN_MONTHLY = "MONTHLY";
+
+    private static AlertScheduler instance;
+
+    private final Context context;
+    private final LocalDatabase database;
+    private final Executor executor;
+
+    /**
+     * A schedule entry that came due
+     */
+    public static class DueAlert {
+        public final String alertId;
+        public final long scheduledFor;
+        public final long nextFireAt; // 0 when the entry does not repeat
+
+        DueAlert(String alertId, long scheduledFor, long nextFireAt) {
+            this.alertId = alertId;
+            this.scheduledFor = scheduledFor;
+            this.nextFireAt = nextFireAt;
+        }
+
+        public boolean isRecurring() {
+            return nextFireAt > 0;
+        }
+    }
+
+    public static synchronized AlertScheduler getInstance(Context context) {
+        if (instance == null) {
+            instance = new AlertScheduler(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private AlertScheduler(Context context) {
+        this.context = context;
+        this.database = LocalDatabase.getInstance(context);
+        this.executor = AppExecutors.getInstance().serial("alert-scheduler");
+    }
+
+    /** Queue on which schedule changes and firing are serialized */
+    Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Add or move an entry. A null or unknown pattern schedules a single firing.
+     */
+    public void schedule(String alertId, long fireAt, String recurringPattern) {
+        executor.execute(() -> {
+            ContentValues values = new ContentValues();
+            values.put("alert_id", alertId);
+            values.put("fire_at", fireAt);
+            values.put("recurring_pattern", recurringPattern);
+            database.getWritableDatabase().insertWithOnConflict(LocalDatabase.TABLE_ALERT_SCHEDULE,
+                    null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            rearm();
+        });
+    }
+
+    public void cancel(String alertId) {
+        executor.execute(() -> {
+            database.getWritableDatabase().delete(LocalDatabase.TABLE_ALERT_SCHEDULE,
+                    "alert_id = ?", new String[]{alertId});
+            rearm();
+        });
+    }
+
+    /**
+     * Take up to one batch of entries due at the given time. Single entries are removed
+     * and recurring ones advanced, in the same transaction.
+     */
+    @WorkerThread
+    List<DueAlert> pollDue(long now) {
+        List<DueAlert> due = new ArrayList<>();
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            try (Cursor cursor = db.query(LocalDatabase.TABLE_ALERT_SCHEDULE,
+                    new String[]{"alert_id", "fire_at", "recurring_pattern"},
+                    "fire_at <= ?", new String[]{String.valueOf(now)},
+                    null, null, "fire_at ASC", String.valueOf(BATCH_SIZE))) {
+                while (cursor.moveToNext()) {
+                    String alertId = cursor.getString(0);
+                    long fireAt = cursor.getLong(1);
+                    long next = nextFireTime(cursor.getString(2), fireAt, now);
+                    due.add(new DueAlert(alertId, fireAt, next));
+                }
+            }
+
+            for (DueAlert entry : due) {
+                if (entry.isRecurring()) {
+                    ContentValues values = new ContentValues();
+                    values.put("fire_at", entry.nextFireAt);
+                    db.update(LocalDatabase.TABLE_ALERT_SCHEDULE, values, "alert_id = ?",
+                            new String[]{entry.alertId});
+                } else {
+                    db.delete(LocalDatabase.TABLE_ALERT_SCHEDULE, "alert_id = ?",
+                            new String[]{entry.alertId});
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return due;
+    }
+
+    /**
+     * Arm the system alarm for the earliest entry, or cancel it when nothing is pending
+     */
+    @WorkerThread
+    void rearm() {
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) return;
+
+        long next = getNextFireAt();
+        if (next == 0) {
+            alarmManager.cancel(buildAlarmIntent());
+            Log.d(TAG, "No scheduled alerts, alarm cleared");
+            return;
+        }
+
+        PendingIntent pendingIntent = buildAlarmIntent();
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, next, pendingIntent);
+        } else {
+            // Exact alarm access was revoked; fire within the system's inexact window instead
+            alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, next, pendingIntent);
+        }
+        Log.d(TAG, "Alarm armed for " + next);
+    }
+
+    /** Fire time of the earliest entry, 0 if the schedule is empty */
+    @WorkerThread
+    public long getNextFireAt() {
+        try (Cursor cursor = database.getReadableDatabase().rawQuery(
+                "SELECT MIN(fire_at) FROM " + LocalDatabase.TABLE_ALERT_SCHEDULE, null)) {
+            return cursor.moveToFirst() && !cursor.isNull(0) ? cursor.getLong(0) : 0;
+        }
+    }
+
+    private PendingIntent buildAlarmIntent() {
+        Intent intent = new Intent(context, AlertAlarmReceiver.class);
+        intent.setAction(ACTION_FIRE);
+        return PendingIntent.getBroadcast(context, ALARM_REQUEST_CODE, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    /**
+     * Next fire time after now for a recurring pattern, keeping the original time of day.
+     * Missed occurrences (e.g. while the phone was off) are skipped rather than replayed.
+     * Returns 0 for a null or unknown pattern.
+     */
+    static long nextFireTime(String pattern, long previous, long now) {
+        if (pattern == null) return 0;
+
+        int field;
+        switch (pattern.trim().toUpperCase(Locale.ROOT)) {
+            case PATTERN_HOURLY: field = Calendar.HOUR_OF_DAY; break;
+            case PATTERN_DAILY: field = Calendar.DAY_OF_MONTH; break;
+            case PATTERN_WEEKLY: field = Calendar.WEEK_OF_YEAR; break;
+            case PATTERN_MONTHLY: field = Calendar.MONTH; break;
+            default:
+                Log.w(TAG, "Unknown recurring pattern: " + pattern);
+                return 0;
+        }
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(previous);
+        int steps = 0;
+        while (calendar.getTimeInMillis() <= now) {
+            steps++;
+            // Step from the original time so month-end days do not drift
+            calendar.setTimeInMillis(previous);
+            calendar.add(field, steps);
+        }
+        return calendar.getTimeInMillis();
+    }
+}
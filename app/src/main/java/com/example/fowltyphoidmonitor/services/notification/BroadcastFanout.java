@@ -0,0 +1,280 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.Alert;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertPriority;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit2.Response;
+
+/**
+ * Delivers an alert to its recipients as batched inserts into the notifications table.
+ *
+ * Recipients are split into chunks that a few workers send in parallel. Every request
+ * takes a token from a rate limiter first, and failed chunks are retried with backoff;
+ * inserts are idempotent per (alert, recipient), so a retry never delivers twice.
+ * Progress is reported after every chunk. Emergency alerts have their own limiter, so
+ * they never queue behind a large routine broadcast.
+ */
+public class BroadcastFanout {
+    private static final String TAG = "BroadcastFanout";
+    private static final int CHUNK_SIZE = 500;
+    // Matches the routine burst: more inserts in flight would only wait on the limiter
+    private static final int MAX_PARALLEL_CHUNKS = 3;
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BASE_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 8000;
+
+    // Requests per second and burst size
+    private static final double ROUTINE_RATE = 5;
+    private static final int ROUTINE_BURST = 3;
+    private static final double EMERGENCY_RATE = 20;
+    private static final int EMERGENCY_BURST = 6;
+
+    /**
+     * Sends one chunk of notification rows. Swappable so the engine can run against
+     * a local stand-in server.
+     */
+    public interface ChunkSender {
+        void send(List<Map<String, Object>> rows) throws IOException, HttpException;
+    }
+
+    /**
+     * A rejected request; 408, 429 and 5xx responses are retried
+     */
+    public static class HttpException extends Exception {
+        public final int code;
+
+        public HttpException(int code) {
+            super("HTTP " + code);
+            this.code = code;
+        }
+
+        boolean isRetryable() {
+            return code == 408 || code == 429 || code >= 500;
+        }
+    }
+
+    /**
+     * Progress of one fan-out. Both calls come from worker threads.
+     */
+    public interface ProgressListener {
+        void onChunkDone(int delivered, int failed);
+        void onComplete(int delivered, int failed);
+    }
+
+    private final ChunkSender sender;
+    private final Executor executor;
+    private final TokenBucket routineLimiter = new TokenBucket(ROUTINE_RATE, ROUTINE_BURST);
+    private final TokenBucket emergencyLimiter = new TokenBucket(EMERGENCY_RATE, EMERGENCY_BURST);
+
+    public BroadcastFanout(Context context) {
+        this(new SupabaseSender(context.getApplicationContext()), AppExecutors.getInstance().blocking());
+    }
+
+    public BroadcastFanout(ChunkSender sender, Executor executor) {
+        this.sender = sender;
+        this.executor = executor;
+    }
+
+    /**
+     * Deliver the alert. The calling thread works as one of the workers, so this
+     * returns once its share is done; onComplete fires when the last chunk finishes.
+     */
+    public void send(Alert alert, List<String> recipients, ProgressListener listener) {
+        if (recipients.isEmpty()) {
+            listener.onComplete(0, 0);
+            return;
+        }
+
+        ConcurrentLinkedQueue<List<Map<String, Object>>> chunks = new ConcurrentLinkedQueue<>();
+        for (int start = 0; start < recipients.size(); start += CHUNK_SIZE) {
+            List<String> slice = recipients.subList(start, Math.min(start + CHUNK_SIZE, recipients.size()));
+            chunks.add(buildRows(alert, slice));
+        }
+
+        boolean emergency = alert.priority == AlertPriority.EMERGENCY;
+        TokenBucket limiter = emergency ? emergencyLimiter : routineLimiter;
+        int workers = Math.min(MAX_PARALLEL_CHUNKS, chunks.size());
+        Run run = new Run(alert.id, chunks, limiter, workers, listener);
+        Log.d(TAG, "Fan-out of " + alert.id + ": " + recipients.size() + " recipients in "
+                + chunks.size() + " chunks, " + workers + " workers");
+
+        for (int i = 1; i < workers; i++) {
+            executor.execute(run::work);
+        }
+        run.work();
+    }
+
+    private static List<Map<String, Object>> buildRows(Alert alert, List<String> recipients) {
+        List<Map<String, Object>> rows = new ArrayList<>(recipients.size());
+        for (String recipient : recipients) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("alert_id", alert.id);
+            row.put("recipient_id", recipient);
+            row.put("title", alert.title);
+            row.put("message", alert.message);
+            row.put("alert_type", alert.type != null ? alert.type.name() : null);
+            row.put("priority", alert.priority != null ? alert.priority.name() : null);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * State shared by the workers of one fan-out
+     */
+    private class Run {
+        private final String alertId;
+        private final ConcurrentLinkedQueue<List<Map<String, Object>>> chunks;
+        private final TokenBucket limiter;
+        private final AtomicInteger activeWorkers;
+        private final AtomicInteger delivered = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final ProgressListener listener;
+
+        Run(String alertId, ConcurrentLinkedQueue<List<Map<String, Object>>> chunks,
+            TokenBucket limiter, int workers, ProgressListener listener) {
+            this.alertId = alertId;
+            this.chunks = chunks;
+            this.limiter = limiter;
+            this.activeWorkers = new AtomicInteger(workers);
+            this.listener = listener;
+        }
+
+        void work() {
+            try {
+                List<Map<String, Object>> chunk;
+                while ((chunk = chunks.poll()) != null) {
+                    boolean ok = sendWithRetry(chunk);
+                    int size = chunk.size();
+                    if (ok) {
+                        delivered.addAndGet(size);
+                        listener.onChunkDone(size, 0);
+                    } else {
+                        failed.addAndGet(size);
+                        listener.onChunkDone(0, size);
+                    }
+                }
+            } finally {
+                if (activeWorkers.decrementAndGet() == 0) {
+                    Log.d(TAG, "Fan-out of " + alertId + " done: " + delivered.get()
+                            + " delivered, " + failed.get() + " failed");
+                    listener.onComplete(delivered.get(), failed.get());
+                }
+            }
+        }
+
+        private boolean sendWithRetry(List<Map<String, Object>> chunk) {
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                try {
+                    limiter.acquire();
+                    sender.send(chunk);
+                    return true;
+                } catch (HttpException e) {
+                    if (!e.isRetryable()) {
+                        Log.e(TAG, "Chunk of " + alertId + " rejected: " + e.getMessage());
+                        return false;
+                    }
+                    Log.w(TAG, "Chunk of " + alertId + " failed (attempt " + attempt + "): " + e.getMessage());
+                } catch (IOException e) {
+                    Log.w(TAG, "Chunk of " + alertId + " failed (attempt " + attempt + "): " + e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+
+                if (attempt < MAX_ATTEMPTS && !backoff(attempt)) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private boolean backoff(int attempt) {
+            long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (attempt - 1));
+            // Jitter spreads out retries of chunks that failed together
+            delay = delay / 2 + (long) (Math.random() * delay / 2);
+            try {
+                Thread.sleep(delay);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Token bucket: refills at a fixed rate up to its burst size; acquire waits for a token
+     */
+    private static class TokenBucket {
+        private final double ratePerMs;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double ratePerSecond, int burst) {
+            this.ratePerMs = ratePerSecond / 1000.0;
+            this.capacity = burst;
+            this.tokens = burst;
+            this.lastRefill = System.currentTimeMillis();
+        }
+
+        void acquire() throws InterruptedException {
+            long wait;
+            while ((wait = tryAcquire()) > 0) {
+                Thread.sleep(wait);
+            }
+        }
+
+        /** Take a token, or return how long to wait for one */
+        private synchronized long tryAcquire() {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerMs);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / ratePerMs));
+        }
+    }
+
+    /**
+     * Inserts chunks through PostgREST
+     */
+    private static class SupabaseSender implements ChunkSender {
+        private final Context context;
+
+        SupabaseSender(Context context) {
+            this.context = context;
+        }
+
+        @Override
+        public void send(List<Map<String, Object>> rows) throws IOException, HttpException {
+            String token = AuthManager.getInstance(context).getAccessToken();
+            Response<Void> response = ApiClient.getApiService()
+                    .insertNotifications(SupabaseConfig.getAuthHeader(token),
+                            SupabaseConfig.getApiKeyHeader(), rows)
+                    .execute();
+            if (!response.isSuccessful()) {
+                throw new HttpException(response.code());
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.fowltyphoidmonitor.services.prefetch;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.BatteryManager;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.data.local.ThreadCache;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.sync.SyncEngine;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * Warms ThreadCache with the consultations a vet is most likely to open next.
+ *
+ * Candidates come from the inbox, ranked urgent first, then by unread count, then by
+ * recency. A run only happens on an unmetered network or while charging, and stops
+ * once its byte budget is spent.
+ */
+public class ThreadPrefetcher {
+    private static final String TAG = "ThreadPrefetcher";
+    private static final int TOP_N = 5;
+    private static final long BYTE_BUDGET = 256 * 1024L;
+    private static final long MIN_RUN_INTERVAL = 5 * 60 * 1000L; // 5 minutes
+    private static final long PROFILE_MAX_AGE = 24 * 60 * 60 * 1000L; // 1 day
+    private static final int MESSAGE_PAGE_LIMIT = 200;
+    // Smaller pages for prefetch, so one page overshoots the byte budget only a little
+    private static final int PREFETCH_PAGE_LIMIT = 50;
+    private static final int MAX_CATCH_UP_ROUNDS = 5;
+
+    private static ThreadPrefetcher instance;
+
+    private final Context context;
+    private final ThreadCache threadCache;
+    private final SyncEngine syncEngine;
+    private final Executor executor;
+    private volatile long lastRunAt;
+
+    /**
+     * An inbox consultation that may be prefetched
+     */
+    public static class Candidate {
+        public final String consultationId;
+        public final String farmerId;
+        public final boolean urgent;
+        public final int unreadCount;
+        public final long lastActivityAt;
+
+        public Candidate(String consultationId, String farmerId, boolean urgent,
+                         int unreadCount, long lastActivityAt) {
+            this.consultationId = consultationId;
+            this.farmerId = farmerId;
+            this.urgent = urgent;
+            this.unreadCount = unreadCount;
+            this.lastActivityAt = lastActivityAt;
+        }
+    }
+
+    public static synchronized ThreadPrefetcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new ThreadPrefetcher(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ThreadPrefetcher(Context context) {
+        this.context = context;
+        this.threadCache = ThreadCache.getInstance(context);
+        this.syncEngine = SyncEngine.getInstance(context);
+        this.executor = AppExecutors.getInstance().serial("thread-prefetch");
+    }
+
+    /**
+     * Prefetch the top candidates in the background. Cheap to call on every inbox
+     * refresh: runs are throttled and skipped on metered networks unless charging.
+     */
+    public void prefetchAsync(List<Candidate> candidates) {
+        long now = System.currentTimeMillis();
+        if (now - lastRunAt < MIN_RUN_INTERVAL) {
+            return;
+        }
+        if (!isPrefetchAllowed()) {
+            Log.d(TAG, "Skipping prefetch: metered network and not charging");
+            return;
+        }
+        lastRunAt = now;
+
+        List<Candidate> ranked = rank(candidates);
+        if (ranked.isEmpty()) return;
+        executor.execute(() -> runPrefetch(ranked));
+    }
+
+    /**
+     * Prefetch a thread within a byte budget: a never-cached thread gets its newest
+     * page, a cached one catches up from its watermark page by page until it is
+     * current or the budget is spent. Returns the number of bytes downloaded.
+     */
+    @WorkerThread
+    public long refreshThread(String consultationId, long byteBudget) throws IOException {
+        if (threadCache.getWatermark(consultationId) == null) {
+            return fetchMessages(consultationId, newestPage(consultationId, PREFETCH_PAGE_LIMIT)).bytes;
+        }
+
+        long bytes = 0;
+        for (int round = 0; round < MAX_CATCH_UP_ROUNDS && bytes < byteBudget; round++) {
+            Fetched page = fetchMessages(consultationId, newerThanWatermark(consultationId, PREFETCH_PAGE_LIMIT));
+            bytes += page.bytes;
+            if (page.rows < PREFETCH_PAGE_LIMIT) break;
+        }
+        return bytes;
+    }
+
+    /**
+     * Bring the cached copy of an open thread up to date. A thread that was never
+     * cached starts from its newest page, so older history is only fetched when the
+     * chat scrolls back to it; a cached one catches up from its watermark a few
+     * rounds at a time. Returns the number of messages stored.
+     */
+    @WorkerThread
+    public int syncThread(String consultationId) throws IOException {
+        if (threadCache.getWatermark(consultationId) == null) {
+            return fetchMessages(consultationId, newestPage(consultationId, MESSAGE_PAGE_LIMIT)).rows;
+        }
+
+        int stored = 0;
+        for (int round = 0; round < MAX_CATCH_UP_ROUNDS; round++) {
+            int rows = fetchMessages(consultationId, newerThanWatermark(consultationId, MESSAGE_PAGE_LIMIT)).rows;
+            stored += rows;
+            if (rows < MESSAGE_PAGE_LIMIT) break;
+        }
+        return stored;
+    }
+
+    /**
+     * Fetch up to {@code limit} messages before the given position into the cache, for
+     * history the cache does not reach yet. Pages by the same (created_at, message_id)
+     * key as ThreadCache, so messages sharing a timestamp are not skipped. Returns the
+     * number of messages stored.
+     */
+    @WorkerThread
+    public int fetchOlderMessages(String consultationId, ThreadCache.Position before, int limit) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        query.put("consultation_id", "eq." + consultationId);
+        query.put("order", "created_at.desc,message_id.desc");
+        query.put("limit", String.valueOf(limit));
+        if (before != null) {
+            String createdAt = "\"" + before.createdAt + "\"";
+            query.put("or", "(created_at.lt." + createdAt + ",and(created_at.eq." + createdAt
+                    + ",message_id.lt." + before.messageId + "))");
+        }
+        return fetchMessages(consultationId, query).rows;
+    }
+
+    private static Map<String, String> newestPage(String consultationId, int limit) {
+        Map<String, String> query = new HashMap<>();
+        query.put("consultation_id", "eq." + consultationId);
+        query.put("order", "created_at.desc,message_id.desc");
+        query.put("limit", String.valueOf(limit));
+        return query;
+    }
+
+    /**
+     * The page right after the cached watermark, by the same (created_at, message_id)
+     * key as fetchOlderMessages, so a page boundary inside a run of messages sharing
+     * a timestamp does not drop the rest of the run.
+     */
+    private Map<String, String> newerThanWatermark(String consultationId, int limit) {
+        Map<String, String> query = new HashMap<>();
+        query.put("consultation_id", "eq." + consultationId);
+        query.put("order", "created_at.asc,message_id.asc");
+        query.put("limit", String.valueOf(limit));
+        ThreadCache.Position watermark = threadCache.getWatermark(consultationId);
+        if (watermark != null && watermark.messageId != null) {
+            String createdAt = "\"" + watermark.createdAt + "\"";
+            query.put("or", "(created_at.gt." + createdAt + ",and(created_at.eq." + createdAt
+                    + ",message_id.gt." + watermark.messageId + "))");
+        } else if (watermark != null) {
+            // Without the id, re-read the watermark's timestamp; cached rows are replaced
+            query.put("created_at", "gte." + watermark.createdAt);
+        }
+        return query;
+    }
+
+    private Fetched fetchMessages(String consultationId, Map<String, String> query) throws IOException {
+        byte[] body = fetch("consultation_messages", query);
+        JsonArray rows = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonArray();
+        threadCache.putMessages(consultationId, rows, body.length);
+        return new Fetched(rows.size(), body.length);
+    }
+
+    /**
+     * Size of one fetch of message rows
+     */
+    private static class Fetched {
+        final int rows;
+        final long bytes;
+
+        Fetched(int rows, long bytes) {
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Cache a farmer profile under its farmer_id unless a fresh copy is cached. The
+     * inbox keeps the farmers table mirrored, so the row is taken from the mirror and
+     * only a farmer missing there is fetched. Returns the number of bytes downloaded.
+     */
+    @WorkerThread
+    public long refreshFarmerProfile(String farmerId) throws IOException {
+        if (farmerId == null || farmerId.isEmpty()) return 0;
+        if (System.currentTimeMillis() - threadCache.getProfileFetchedAt(farmerId) < PROFILE_MAX_AGE) {
+            return 0;
+        }
+
+        JsonObject mirrored = syncEngine.getLocalRow(SyncEngine.TABLE_FARMERS, farmerId, JsonObject.class);
+        if (mirrored != null) {
+            threadCache.putProfile(farmerId, mirrored);
+            return 0;
+        }
+
+        Map<String, String> query = new HashMap<>();
+        query.put("farmer_id", "eq." + farmerId);
+        query.put("limit", "1");
+
+        byte[] body = fetch(SyncEngine.TABLE_FARMERS, query);
+        JsonArray rows = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonArray();
+        for (JsonElement row : rows) {
+            threadCache.putProfile(farmerId, row.getAsJsonObject());
+        }
+        return body.length;
+    }
+
+    private void runPrefetch(List<Candidate> ranked) {
+        long bytes = 0;
+        int threads = 0;
+        for (Candidate candidate : ranked) {
+            if (bytes >= BYTE_BUDGET) {
+                Log.d(TAG, "Byte budget spent after " + threads + " threads");
+                break;
+            }
+            try {
+                bytes += refreshThread(candidate.consultationId, BYTE_BUDGET - bytes);
+                if (bytes < BYTE_BUDGET) {
+                    bytes += refreshFarmerProfile(candidate.farmerId);
+                }
+                threads++;
+            } catch (Exception e) {
+                Log.w(TAG, "Prefetch failed for consultation " + candidate.consultationId + ": " + e.getMessage());
+            }
+        }
+        threadCache.trim();
+        Log.d(TAG, "Prefetched " + threads + " threads, " + bytes + " bytes");
+    }
+
+    private byte[] fetch(String table, Map<String, String> query) throws IOException {
+        Response<ResponseBody> response = ApiClient.getApiService()
+                .getTableRows(getAuthHeader(), SupabaseConfig.getApiKeyHeader(), table, query)
+                .execute();
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException(table + " fetch failed: HTTP " + response.code());
+        }
+        try (ResponseBody body = response.body()) {
+            return body.bytes();
+        }
+    }
+
+    /**
+     * Every candidate is eligible: unread counts come from the cached threads, so a
+     * thread that was never cached counts 0 even with replies waiting, and is exactly
+     * the one worth warming. The ordering and TOP_N keep the run small.
+     */
+    private static List<Candidate> rank(List<Candidate> candidates) {
+        List<Candidate> eligible = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.consultationId != null) {
+                eligible.add(candidate);
+            }
+        }
+        Collections.sort(eligible, (a, b) -> {
+            if (a.urgent != b.urgent) return a.urgent ? -1 : 1;
+            if (a.unreadCount != b.unreadCount) return Integer.compare(b.unreadCount, a.unreadCount);
+            return Long.compare(b.lastActivityAt, a.lastActivityAt);
+        });
+        return eligible.size() > TOP_N ? new ArrayList<>(eligible.subList(0, TOP_N)) : eligible;
+    }
+
+    private boolean isPrefetchAllowed() {
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo network = cm != null ? cm.getActiveNetworkInfo() : null;
+        if (network == null || !network.isConnected()) return false;
+        return !cm.isActiveNetworkMetered() || isCharging();
+    }
+
+    private boolean isCharging() {
+        // Sticky broadcast, so no receiver is registered
+        Intent battery = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        int plugged = battery != null ? battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) : 0;
+        return plugged != 0;
+    }
+
+    private String getAuthHeader() {
+        return SupabaseConfig.getAuthHeader(AuthManager.getInstance(context).getAccessToken());
+    }
+}
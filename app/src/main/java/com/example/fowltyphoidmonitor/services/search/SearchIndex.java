@@ -0,0 +1,437 @@
+package com.example.fowltyphoidmonitor.services.search;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.graphics.Typeface;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.style.StyleSpan;
+import android.util.Log;
+
+import com.example.fowltyphoidmonitor.data.local.LocalDatabase;
+import com.example.fowltyphoidmonitor.data.models.ConsultationMessage;
+import com.example.fowltyphoidmonitor.data.models.DiseaseInfo;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-device full-text search over consultation questions, chat messages and disease info.
+ * Backed by an SQLite FTS4 table; results are ranked with BM25 and carry a highlighted snippet.
+ */
+public class SearchIndex {
+    private static final String TAG = "SearchIndex";
+
+    // Document types
+    public static final String TYPE_CONSULTATION = "consultation";
+    public static final String TYPE_MESSAGE = "message";
+    public static final String TYPE_DISEASE = "disease";
+
+    // Snippet markers; control characters so they can never clash with message text
+    private static final char HIGHLIGHT_START = '\u0002';
+    private static final char HIGHLIGHT_END = '\u0003';
+
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final int SNIPPET_TOKENS = 12;
+
+    // BM25 tuning and per-column weights (title, body)
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+    private static final double[] COLUMN_WEIGHTS = {2.0, 1.0};
+
+    private static SearchIndex instance;
+
+    private final LocalDatabase database;
+    private final Executor writeExecutor;
+    private final Executor queryExecutor;
+    private final Executor mainThread;
+
+    public static synchronized SearchIndex getInstance(Context context) {
+        if (instance == null) {
+            instance = new SearchIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private SearchIndex(Context context) {
+        this.database = LocalDatabase.getInstance(context);
+        this.writeExecutor = AppExecutors.getInstance().serial("search-index-write");
+        this.queryExecutor = AppExecutors.getInstance().serial("search-index-query");
+        this.mainThread = AppExecutors.getInstance().mainThread();
+    }
+
+    /**
+     * A searchable document
+     */
+    public static class Document {
+        public final String type;
+        public final String id;
+        public final String parentId;
+        public final String title;
+        public final String body;
+
+        public Document(String type, String id, String parentId, String title, String body) {
+            this.type = type;
+            this.id = id;
+            this.parentId = parentId;
+            this.title = title;
+            this.body = body;
+        }
+
+        public static Document forConsultation(String consultationId, String title, String question) {
+            return new Document(TYPE_CONSULTATION, consultationId, consultationId, title, question);
+        }
+
+        public static Document forMessage(ConsultationMessage message) {
+            return new Document(TYPE_MESSAGE, message.getId(), message.getConsultationId(),
+                    message.getSenderName(), message.getMessage());
+        }
+
+        public static Document forDiseaseInfo(DiseaseInfo info) {
+            StringBuilder body = new StringBuilder();
+            appendField(body, info.getDescription());
+            appendField(body, info.getCauses());
+            appendField(body, info.getSymptoms());
+            appendField(body, info.getTreatment());
+            appendField(body, info.getPrevention());
+            String id = info.getDiseaseId() != null ? String.valueOf(info.getDiseaseId()) : info.getName();
+            return new Document(TYPE_DISEASE, id, null, info.getName(), body.toString());
+        }
+
+        private static void appendField(StringBuilder body, String value) {
+            if (value != null && !value.isEmpty()) {
+                if (body.length() > 0) body.append('\n');
+                // Knowledge pack content is HTML; keep tags out of the index and snippets
+                body.append(value.replaceAll("<[^>]+>", " "));
+            }
+        }
+    }
+
+    /**
+     * A ranked search hit
+     */
+    public static class SearchResult {
+        public final String type;
+        public final String id;
+        public final String parentId;
+        public final String title;
+        public final String snippet;
+        public final double score;
+
+        SearchResult(String type, String id, String parentId, String title, String snippet, double score) {
+            this.type = type;
+            this.id = id;
+            this.parentId = parentId;
+            this.title = title;
+            this.snippet = snippet;
+            this.score = score;
+        }
+    }
+
+    public interface SearchCallback {
+        void onResults(String query, List<SearchResult> results);
+    }
+
+    /**
+     * The searches of one screen. A new search supersedes only the earlier ones of
+     * the same session, so screens searching at once never drop each other's results.
+     */
+    public static final class SearchSession {
+        private final AtomicInteger generation = new AtomicInteger();
+
+        /** Drop any search still pending, e.g. when the screen goes away */
+        public void cancel() {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * Index documents on the background writer, replacing any earlier version
+     */
+    public void indexAsync(List<Document> documents) {
+        if (documents == null || documents.isEmpty()) {
+            return;
+        }
+        List<Document> batch = new ArrayList<>(documents);
+        writeExecutor.execute(() -> index(batch));
+    }
+
+    /**
+     * Index documents in a single transaction. Must not be called on the main thread.
+     */
+    public void index(List<Document> documents) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        long now = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            for (Document document : documents) {
+                if (document.id != null) {
+                    upsert(db, document, now);
+                }
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error indexing documents: " + e.getMessage());
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void indexMessagesAsync(List<ConsultationMessage> messages) {
+        List<Document> documents = new ArrayList<>();
+        for (ConsultationMessage message : messages) {
+            if (!"system".equals(message.getMessageType()) && message.getMessage() != null) {
+                documents.add(Document.forMessage(message));
+            }
+        }
+        indexAsync(documents);
+    }
+
+    public void indexDiseaseInfoAsync(List<DiseaseInfo> diseaseInfo) {
+        List<Document> documents = new ArrayList<>();
+        for (DiseaseInfo info : diseaseInfo) {
+            documents.add(Document.forDiseaseInfo(info));
+        }
+        indexAsync(documents);
+    }
+
+    /**
+     * Remove a document from the index
+     */
+    public void removeAsync(String type, String id) {
+        writeExecutor.execute(() -> {
+            SQLiteDatabase db = database.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                long rowId = findRowId(db, type, id);
+                if (rowId != -1) {
+                    deleteRow(db, rowId);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    /**
+     * Search on the query thread and deliver results on the main thread.
+     * Only the session's most recent query is delivered; its superseded searches are
+     * dropped. With types given, only documents of those types are returned.
+     */
+    public void searchAsync(SearchSession session, String query, int limit, SearchCallback callback,
+                            String... types) {
+        int generation = session.generation.incrementAndGet();
+        queryExecutor.execute(() -> {
+            if (generation != session.generation.get()) {
+                return;
+            }
+            List<SearchResult> results = search(query, limit, types);
+            mainThread.execute(() -> {
+                if (generation == session.generation.get()) {
+                    callback.onResults(query, results);
+                }
+            });
+        });
+    }
+
+    /**
+     * Search the index. Must not be called on the main thread.
+     *
+     * Every match is ranked, then snippets are built for the top ones only: ranking
+     * needs just the matchinfo blob, while snippets are the expensive part.
+     */
+    public List<SearchResult> search(String query, int limit, String... types) {
+        String matchExpression = buildMatchExpression(query);
+        if (matchExpression == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        String fts = LocalDatabase.TABLE_SEARCH_FTS;
+        StringBuilder where = new StringBuilder(fts + " MATCH ?");
+        List<String> args = new ArrayList<>();
+        args.add(matchExpression);
+        if (types != null && types.length > 0) {
+            where.append(" AND d.doc_type IN (");
+            for (int i = 0; i < types.length; i++) {
+                where.append(i == 0 ? "?" : ", ?");
+                args.add(types[i]);
+            }
+            where.append(')');
+        }
+        String from = " FROM " + fts + " JOIN " + LocalDatabase.TABLE_SEARCH_DOCS
+                + " d ON d.rowid = " + fts + ".docid WHERE " + where;
+
+        SQLiteDatabase db = database.getReadableDatabase();
+        List<long[]> ranked = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("SELECT " + fts + ".docid, matchinfo(" + fts + ", 'pcnalx')"
+                + from, args.toArray(new String[0]))) {
+            while (cursor.moveToNext()) {
+                ranked.add(new long[]{cursor.getLong(0), scores.size()});
+                scores.add(bm25(cursor.getBlob(1)));
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Search failed for query '" + query + "': " + e.getMessage());
+            return new ArrayList<>();
+        }
+        if (ranked.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Collections.sort(ranked, (a, b) -> Double.compare(scores.get((int) b[1]), scores.get((int) a[1])));
+        List<long[]> top = ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+
+        StringBuilder ids = new StringBuilder();
+        Map<Long, Double> topScores = new HashMap<>();
+        for (long[] hit : top) {
+            if (ids.length() > 0) ids.append(',');
+            ids.append(hit[0]);
+            topScores.put(hit[0], scores.get((int) hit[1]));
+        }
+        List<SearchResult> results = new ArrayList<>(top.size());
+        String sql = "SELECT " + fts + ".docid, d.doc_type, d.doc_id, d.parent_id, " + fts + ".title, "
+                + "snippet(" + fts + ", '" + HIGHLIGHT_START + "', '" + HIGHLIGHT_END + "', '…', -1, "
+                + SNIPPET_TOKENS + ")" + from + " AND " + fts + ".docid IN (" + ids + ")";
+        try (Cursor cursor = db.rawQuery(sql, args.toArray(new String[0]))) {
+            while (cursor.moveToNext()) {
+                results.add(new SearchResult(cursor.getString(1), cursor.getString(2), cursor.getString(3),
+                        cursor.getString(4), cursor.getString(5), topScores.get(cursor.getLong(0))));
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Snippets failed for query '" + query + "': " + e.getMessage());
+            return new ArrayList<>();
+        }
+
+        Collections.sort(results, (a, b) -> Double.compare(b.score, a.score));
+        return results;
+    }
+
+    /**
+     * Render a result snippet with the matched terms in bold
+     */
+    public static CharSequence toHighlightedText(String snippet) {
+        SpannableStringBuilder text = new SpannableStringBuilder();
+        if (snippet == null) {
+            return text;
+        }
+        int highlightStart = -1;
+        for (int i = 0; i < snippet.length(); i++) {
+            char c = snippet.charAt(i);
+            if (c == HIGHLIGHT_START) {
+                highlightStart = text.length();
+            } else if (c == HIGHLIGHT_END) {
+                if (highlightStart >= 0 && highlightStart < text.length()) {
+                    text.setSpan(new StyleSpan(Typeface.BOLD), highlightStart, text.length(),
+                            Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                }
+                highlightStart = -1;
+            } else {
+                text.append(c);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Turn free text into an FTS match expression: every term must match as a prefix,
+     * so partially typed words still hit (e.g. "wagonj" finds "wagonjwa").
+     */
+    static String buildMatchExpression(String query) {
+        if (query == null) {
+            return null;
+        }
+        String[] tokens = query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        StringBuilder expression = new StringBuilder();
+        int terms = 0;
+        for (String token : tokens) {
+            if (token.isEmpty()) continue;
+            if (expression.length() > 0) expression.append(' ');
+            expression.append(token).append('*');
+            if (++terms == MAX_QUERY_TERMS) break;
+        }
+        return terms == 0 ? null : expression.toString();
+    }
+
+    /**
+     * Okapi BM25 computed from an FTS4 matchinfo('pcnalx') blob
+     */
+    static double bm25(byte[] matchInfo) {
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        long totalDocs = buffer.getInt(8) & 0xFFFFFFFFL;
+        int avgOffset = 3;
+        int lengthOffset = avgOffset + columns;
+        int hitsOffset = lengthOffset + columns;
+
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int base = hitsOffset + 3 * (phrase * columns + column);
+                int hitsInRow = buffer.getInt(base * 4);
+                if (hitsInRow == 0) continue;
+
+                int docsWithHits = buffer.getInt((base + 2) * 4);
+                double avgLength = Math.max(1, buffer.getInt((avgOffset + column) * 4));
+                double rowLength = buffer.getInt((lengthOffset + column) * 4);
+                double idf = Math.log((totalDocs - docsWithHits + 0.5) / (docsWithHits + 0.5));
+                if (idf < 0.01) idf = 0.01;
+                double tf = hitsInRow * (BM25_K1 + 1)
+                        / (hitsInRow + BM25_K1 * (1 - BM25_B + BM25_B * rowLength / avgLength));
+                double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                score += weight * idf * tf;
+            }
+        }
+        return score;
+    }
+
+    private void upsert(SQLiteDatabase db, Document document, long now) {
+        ContentValues text = new ContentValues();
+        text.put("title", document.title != null ? document.title : "");
+        text.put("body", document.body != null ? document.body : "");
+
+        long rowId = findRowId(db, document.type, document.id);
+        if (rowId == -1) {
+            ContentValues doc = new ContentValues();
+            doc.put("doc_type", document.type);
+            doc.put("doc_id", document.id);
+            doc.put("parent_id", document.parentId);
+            doc.put("updated_at", now);
+            rowId = db.insertOrThrow(LocalDatabase.TABLE_SEARCH_DOCS, null, doc);
+            text.put("docid", rowId);
+            db.insertOrThrow(LocalDatabase.TABLE_SEARCH_FTS, null, text);
+        } else {
+            ContentValues doc = new ContentValues();
+            doc.put("parent_id", document.parentId);
+            doc.put("updated_at", now);
+            String[] args = {String.valueOf(rowId)};
+            db.update(LocalDatabase.TABLE_SEARCH_DOCS, doc, "rowid = ?", args);
+            db.update(LocalDatabase.TABLE_SEARCH_FTS, text, "docid = ?", args);
+        }
+    }
+
+    private long findRowId(SQLiteDatabase db, String type, String id) {
+        try (Cursor cursor = db.rawQuery("SELECT rowid FROM " + LocalDatabase.TABLE_SEARCH_DOCS
+                + " WHERE doc_type = ? AND doc_id = ?", new String[]{type, id})) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : -1;
+        }
+    }
+
+    private void deleteRow(SQLiteDatabase db, long rowId) {
+        String[] args = {String.valueOf(rowId)};
+        db.delete(LocalDatabase.TABLE_SEARCH_FTS, "docid = ?", args);
+        db.delete(LocalDatabase.TABLE_SEARCH_DOCS, "rowid = ?", args);
+    }
+}
@@ -0,0 +1,428 @@
+package com.example.fowltyphoidmonitor.services.sync;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.data.local.LocalDatabase;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * Incremental mirror of Supabase tables into LocalDatabase.
+ *
+ * Each table keeps an (updated_at, primary key) watermark. A run pulls only rows past
+ * the watermark, page by page in key order, and applies every page in one transaction
+ * together with the advanced watermark, so an interrupted run resumes where it stopped.
+ * Deletes reach the mirror through sync_tombstones, pulled the same way after the tables.
+ */
+public class SyncEngine {
+    private static final String TAG = "SyncEngine";
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_PAGES_PER_RUN = 50;
+
+    /**
+     * A server table mirrored by the engine
+     */
+    public static class SyncTable {
+        public final String name;
+        public final String primaryKey;
+        public final String timestampColumn;
+
+        public SyncTable(String name, String primaryKey) {
+            this(name, primaryKey, "updated_at");
+        }
+
+        SyncTable(String name, String primaryKey, String timestampColumn) {
+            this.name = name;
+            this.primaryKey = primaryKey;
+            this.timestampColumn = timestampColumn;
+        }
+    }
+
+    public static final String TABLE_CONSULTATIONS = "consultations";
+    public static final String TABLE_FARMERS = "farmers";
+
+    /**
+     * Only tables a screen reads from the mirror; chat threads have their own cache
+     */
+    public static final List<SyncTable> TABLES = Arrays.asList(
+            new SyncTable(TABLE_FARMERS, "farmer_id"),
+            new SyncTable(TABLE_CONSULTATIONS, "consultation_id")
+    );
+
+    // Rows deleted on the server, recorded by a trigger on every mirrored table
+    private static final SyncTable TOMBSTONES = new SyncTable("sync_tombstones", "tombstone_id", "deleted_at");
+
+    /**
+     * Watermark and last-run stats of one table
+     */
+    public static class TableStatus {
+        public String tableName;
+        public String watermark;
+        public String watermarkId;
+        public long lastSyncAt;
+        public int lastRows;
+        public long lastBytes;
+        public long lastDurationMs;
+        public String lastError;
+
+        /** Time since the table last synced successfully, or -1 if it never has */
+        public long getLagMillis() {
+            return lastSyncAt > 0 ? System.currentTimeMillis() - lastSyncAt : -1;
+        }
+    }
+
+    /**
+     * Totals of one sync run across all tables
+     */
+    public static class SyncRunResult {
+        public int rows;
+        public long bytes;
+        public long durationMs;
+        public final List<String> failedTables = new ArrayList<>();
+
+        public boolean isSuccessful() {
+            return failedTables.isEmpty();
+        }
+    }
+
+    private static SyncEngine instance;
+
+    private final Context context;
+    private final LocalDatabase database;
+
+    public static synchronized SyncEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new SyncEngine(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private SyncEngine(Context context) {
+        this.context = context;
+        this.database = LocalDatabase.getInstance(context);
+    }
+
+    /**
+     * Sync every table. A failing table is recorded and skipped so the others still advance.
+     */
+    @WorkerThread
+    public synchronized SyncRunResult syncAll() {
+        SyncRunResult result = new SyncRunResult();
+        long start = System.currentTimeMillis();
+        dropUnmirroredRows();
+        List<SyncTable> tables = new ArrayList<>(TABLES);
+        tables.add(TOMBSTONES);
+        for (SyncTable table : tables) {
+            TableStatus status = syncTable(table);
+            result.rows += status.lastRows;
+            result.bytes += status.lastBytes;
+            if (status.lastError != null) {
+                result.failedTables.add(table.name);
+            }
+        }
+        result.durationMs = System.currentTimeMillis() - start;
+        Log.d(TAG, "Sync run: " + result.rows + " rows, " + result.bytes + " bytes in "
+                + result.durationMs + "ms, failed: " + result.failedTables);
+        return result;
+    }
+
+    /**
+     * Bring the given tables and the tombstones up to date, e.g. before a screen reads
+     * them. Returns false if any of them failed; the mirror then still holds what it had.
+     */
+    @WorkerThread
+    public synchronized boolean syncTables(String... tableNames) {
+        boolean ok = true;
+        for (SyncTable table : TABLES) {
+            for (String name : tableNames) {
+                if (table.name.equals(name)) {
+                    ok &= syncTable(table).lastError == null;
+                }
+            }
+        }
+        return syncTable(TOMBSTONES).lastError == null && ok;
+    }
+
+    /**
+     * Pull all pages past the table's watermark
+     */
+    @WorkerThread
+    public synchronized TableStatus syncTable(SyncTable table) {
+        TableStatus status = getStatus(table.name);
+        long start = System.currentTimeMillis();
+        int rows = 0;
+        long bytes = 0;
+        String error = null;
+
+        try {
+            for (int page = 0; page < MAX_PAGES_PER_RUN; page++) {
+                Response<ResponseBody> response = ApiClient.getApiService()
+                        .getTableRows(getAuthHeader(), SupabaseConfig.getApiKeyHeader(),
+                                table.name, buildPageQuery(table, status))
+                        .execute();
+                if (!response.isSuccessful() || response.body() == null) {
+                    throw new IOException("HTTP " + response.code());
+                }
+
+                byte[] body = response.body().bytes();
+                bytes += body.length;
+                JsonArray pageRows = JsonParser.parseString(new String(body, StandardCharsets.UTF_8))
+                        .getAsJsonArray();
+                if (pageRows.size() == 0) break;
+
+                applyPage(table, pageRows, status);
+                rows += pageRows.size();
+                if (pageRows.size() < PAGE_SIZE) break;
+            }
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            Log.e(TAG, "Sync failed for " + table.name + ": " + error);
+        }
+
+        status.lastRows = rows;
+        status.lastBytes = bytes;
+        status.lastDurationMs = System.currentTimeMillis() - start;
+        status.lastError = error;
+        if (error == null) {
+            status.lastSyncAt = System.currentTimeMillis();
+        }
+        saveRunStats(status);
+        return status;
+    }
+
+    /**
+     * Keyset query: rows strictly after (watermark, watermarkId) in (timestamp, pk) order
+     */
+    private Map<String, String> buildPageQuery(SyncTable table, TableStatus status) {
+        String column = table.timestampColumn;
+        Map<String, String> query = new HashMap<>();
+        query.put("select", "*");
+        query.put("order", column + ".asc," + table.primaryKey + ".asc");
+        query.put("limit", String.valueOf(PAGE_SIZE));
+        if (status.watermark != null) {
+            String watermark = "\"" + status.watermark + "\"";
+            if (status.watermarkId != null) {
+                query.put("or", "(" + column + ".gt." + watermark + ",and(" + column + ".eq." + watermark
+                        + "," + table.primaryKey + ".gt." + status.watermarkId + "))");
+            } else {
+                query.put(column, "gt." + status.watermark);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Upsert one page and advance the watermark in the same transaction
+     */
+    private void applyPage(SyncTable table, JsonArray rows, TableStatus status) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        String watermark = status.watermark;
+        String watermarkId = status.watermarkId;
+
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (JsonElement element : rows) {
+                JsonObject row = element.getAsJsonObject();
+                String id = getString(row, table.primaryKey);
+                if (id == null) continue;
+                String updatedAt = getString(row, table.timestampColumn);
+
+                if (table == TOMBSTONES) {
+                    db.delete(LocalDatabase.TABLE_SYNC_ROWS, "table_name = ? AND row_id = ?",
+                            new String[]{getString(row, "table_name"), getString(row, "row_id")});
+                    watermark = updatedAt;
+                    watermarkId = id;
+                    continue;
+                }
+
+                values.clear();
+                values.put("table_name", table.name);
+                values.put("row_id", id);
+                values.put("updated_at", updatedAt);
+                values.put("data", row.toString());
+                db.insertWithOnConflict(LocalDatabase.TABLE_SYNC_ROWS, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+
+                if (updatedAt != null) {
+                    watermark = updatedAt;
+                    watermarkId = id;
+                }
+            }
+
+            ContentValues state = new ContentValues();
+            state.put("table_name", table.name);
+            state.put("watermark", watermark);
+            state.put("watermark_id", watermarkId);
+            if (db.update(LocalDatabase.TABLE_SYNC_STATE, state, "table_name = ?",
+                    new String[]{table.name}) == 0) {
+                db.insert(LocalDatabase.TABLE_SYNC_STATE, null, state);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        status.watermark = watermark;
+        status.watermarkId = watermarkId;
+    }
+
+    private void saveRunStats(TableStatus status) {
+        ContentValues values = new ContentValues();
+        values.put("table_name", status.tableName);
+        values.put("last_sync_at", status.lastSyncAt);
+        values.put("last_rows", status.lastRows);
+        values.put("last_bytes", status.lastBytes);
+        values.put("last_duration_ms", status.lastDurationMs);
+        values.put("last_error", status.lastError);
+        SQLiteDatabase db = database.getWritableDatabase();
+        if (db.update(LocalDatabase.TABLE_SYNC_STATE, values, "table_name = ?",
+                new String[]{status.tableName}) == 0) {
+            db.insert(LocalDatabase.TABLE_SYNC_STATE, null, values);
+        }
+    }
+
+    /** Get the watermark and last-run stats of a table */
+    public TableStatus getStatus(String tableName) {
+        TableStatus status = new TableStatus();
+        status.tableName = tableName;
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_SYNC_STATE,
+                null, "table_name = ?", new String[]{tableName}, null, null, null)) {
+            if (cursor.moveToFirst()) {
+                status.watermark = cursor.getString(cursor.getColumnIndexOrThrow("watermark"));
+                status.watermarkId = cursor.getString(cursor.getColumnIndexOrThrow("watermark_id"));
+                status.lastSyncAt = cursor.getLong(cursor.getColumnIndexOrThrow("last_sync_at"));
+                status.lastRows = cursor.getInt(cursor.getColumnIndexOrThrow("last_rows"));
+                status.lastBytes = cursor.getLong(cursor.getColumnIndexOrThrow("last_bytes"));
+                status.lastDurationMs = cursor.getLong(cursor.getColumnIndexOrThrow("last_duration_ms"));
+                status.lastError = cursor.getString(cursor.getColumnIndexOrThrow("last_error"));
+            }
+        }
+        return status;
+    }
+
+    /** Rows of tables this version no longer mirrors, left by an earlier one */
+    private void dropUnmirroredRows() {
+        StringBuilder names = new StringBuilder("?");
+        List<String> args = new ArrayList<>();
+        args.add(TOMBSTONES.name);
+        for (SyncTable table : TABLES) {
+            names.append(", ?");
+            args.add(table.name);
+        }
+        String where = "table_name NOT IN (" + names + ")";
+        SQLiteDatabase db = database.getWritableDatabase();
+        int dropped = db.delete(LocalDatabase.TABLE_SYNC_ROWS, where, args.toArray(new String[0]));
+        db.delete(LocalDatabase.TABLE_SYNC_STATE, where, args.toArray(new String[0]));
+        if (dropped > 0) {
+            Log.d(TAG, "Dropped " + dropped + " rows of tables no longer mirrored");
+        }
+    }
+
+    /** Get the status of every mirrored table */
+    public List<TableStatus> getAllStatus() {
+        List<TableStatus> list = new ArrayList<>();
+        for (SyncTable table : TABLES) {
+            list.add(getStatus(table.name));
+        }
+        return list;
+    }
+
+    /** Worst lag across tables, or -1 if some table has never synced */
+    public long getSyncLagMillis() {
+        long lag = 0;
+        for (TableStatus status : getAllStatus()) {
+            long tableLag = status.getLagMillis();
+            if (tableLag < 0) return -1;
+            lag = Math.max(lag, tableLag);
+        }
+        return lag;
+    }
+
+    /** Bytes downloaded by the most recent run of every table */
+    public long getLastRunBytes() {
+        long bytes = 0;
+        for (TableStatus status : getAllStatus()) {
+            bytes += status.lastBytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Read mirrored rows of a table, newest first, parsed into the given model
+     */
+    public <T> List<T> getLocalRows(String tableName, Class<T> type) {
+        List<T> rows = new ArrayList<>();
+        Gson gson = ApiClient.getGson();
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_SYNC_ROWS,
+                new String[]{"data"}, "table_name = ?", new String[]{tableName},
+                null, null, "updated_at DESC")) {
+            while (cursor.moveToNext()) {
+                try {
+                    rows.add(gson.fromJson(cursor.getString(0), type));
+                } catch (Exception e) {
+                    Log.w(TAG, "Skipping unreadable " + tableName + " row: " + e.getMessage());
+                }
+            }
+        }
+        return rows;
+    }
+
+    /** Get one mirrored row by primary key, or null */
+    public <T> T getLocalRow(String tableName, String id, Class<T> type) {
+        try (Cursor cursor = database.getReadableDatabase().query(LocalDatabase.TABLE_SYNC_ROWS,
+                new String[]{"data"}, "table_name = ? AND row_id = ?", new String[]{tableName, id},
+                null, null, null)) {
+            return cursor.moveToFirst() ? ApiClient.getGson().fromJson(cursor.getString(0), type) : null;
+        }
+    }
+
+    /**
+     * Drop all mirrored rows and watermarks, e.g. on logout
+     */
+    @WorkerThread
+    public synchronized void clearLocalData() {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(LocalDatabase.TABLE_SYNC_ROWS, null, null);
+            db.delete(LocalDatabase.TABLE_SYNC_STATE, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        Log.d(TAG, "Cleared mirrored tables");
+    }
+
+    private String getAuthHeader() {
+        return SupabaseConfig.getAuthHeader(AuthManager.getInstance(context).getAccessToken());
+    }
+
+    private static String getString(JsonObject row, String key) {
+        JsonElement value = row.get(key);
+        return value != null && !value.isJsonNull() ? value.getAsString() : null;
+    }
+}
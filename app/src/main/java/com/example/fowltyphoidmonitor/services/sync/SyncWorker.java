@@ -0,0 +1,116 @@
+package com.example.fowltyphoidmonitor.services.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.fowltyphoidmonitor.services.analytics.ReportAnalyticsEngine;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.triage.TriageScheduler;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the delta sync engine in the background under WorkManager
+ */
+public class SyncWorker extends Worker {
+    private static final String TAG = "SyncWorker";
+    private static final String PERIODIC_WORK_NAME = "delta_sync_periodic";
+    private static final String ONE_TIME_WORK_NAME = "delta_sync_now";
+    private static final long SYNC_INTERVAL_MINUTES = 30;
+
+    public static final String OUTPUT_ROWS = "rows";
+    public static final String OUTPUT_BYTES = "bytes";
+    public static final String OUTPUT_DURATION_MS = "duration_ms";
+
+    public SyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedule the periodic sync; keeps an existing schedule so repeated calls are cheap
+     */
+    public static void schedule(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                SyncWorker.class, SYNC_INTERVAL_MINUTES, TimeUnit.MINUTES)
+                .setConstraints(buildConstraints())
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                PERIODIC_WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+        Log.d(TAG, "Periodic delta sync scheduled every " + SYNC_INTERVAL_MINUTES + " minutes");
+    }
+
+    /**
+     * Request an immediate sync, e.g. after pull-to-refresh
+     */
+    public static void syncNow(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SyncWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                ONE_TIME_WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Stop all background sync, e.g. on logout
+     */
+    public static void cancel(Context context) {
+        WorkManager manager = WorkManager.getInstance(context);
+        manager.cancelUniqueWork(PERIODIC_WORK_NAME);
+        manager.cancelUniqueWork(ONE_TIME_WORK_NAME);
+    }
+
+    private static Constraints buildConstraints() {
+        return new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .setRequiresBatteryNotLow(true)
+                .build();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        if (!AuthManager.getInstance(getApplicationContext()).isLoggedIn()) {
+            Log.d(TAG, "Not logged in, skipping delta sync");
+            return Result.success();
+        }
+
+        SyncEngine.SyncRunResult result = SyncEngine.getInstance(getApplicationContext()).syncAll();
+        if (AuthManager.getInstance(getApplicationContext()).isVet()) {
+            // Vets' devices run the outbreak checks, which follow the report counts
+            try {
+                ReportAnalyticsEngine.getInstance(getApplicationContext()).refreshRecent();
+            } catch (IOException e) {
+                Log.w(TAG, "Report counts refresh failed: " + e.getMessage());
+            }
+            // Keeps this vet counted as online and hands out consultations nobody has yet
+            try {
+                TriageScheduler.getInstance(getApplicationContext()).runNow();
+            } catch (IOException e) {
+                Log.w(TAG, "Consultation triage failed: " + e.getMessage());
+            }
+        }
+        Data output = new Data.Builder()
+                .putInt(OUTPUT_ROWS, result.rows)
+                .putLong(OUTPUT_BYTES, result.bytes)
+                .putLong(OUTPUT_DURATION_MS, result.durationMs)
+                .build();
+
+        // Watermarks of the tables that did sync are already committed, so a retry only redoes the rest
+        return result.isSuccessful() ? Result.success(output) : Result.retry();
+    }
+}
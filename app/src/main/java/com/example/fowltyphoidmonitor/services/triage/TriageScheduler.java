@@ -0,0 +1,417 @@
+package com.example.fowltyphoidmonitor.services.triage;
+
+import android.content.Context;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+import com.example.fowltyphoidmonitor.utils.AppLog;
+import com.example.fowltyphoidmonitor.utils.IndexedPriorityQueue;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * Assigns open consultations to vets, most pressing first.
+ *
+ * Open consultations without a vet, or whose vet has gone offline, wait in an indexed
+ * heap ordered by SLA deadline, then urgency, then age. A deadline is the creation time
+ * plus the SLA of the urgency, so the order never changes as time passes and a case
+ * only moves when it is added, changed or removed, each O(log n). Every run applies the
+ * server's snapshot as such changes and then hands out cases from the head of the heap:
+ * to the least loaded online vet of the case's specialization, or else to the least
+ * loaded online vet, never beyond MAX_OPEN_PER_VET.
+ *
+ * Each assignment is a compare-and-set on the server, so vets' devices running this at
+ * the same time cannot hand one case out twice.
+ */
+public class TriageScheduler {
+    private static final String TAG = "TriageScheduler";
+    private static final String RPC_HEARTBEAT = "vet_heartbeat";
+    private static final String RPC_SNAPSHOT = "triage_snapshot";
+    private static final String RPC_CLAIM = "claim_consultation";
+
+    /** Open consultations one vet is given at most */
+    public static final int MAX_OPEN_PER_VET = 5;
+
+    public static final int URGENCY_LOW = 1;
+    public static final int URGENCY_MEDIUM = 2;
+    public static final int URGENCY_HIGH = 3;
+    public static final int URGENCY_URGENT = 4;
+
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+
+    /**
+     * Queue-wait figures of one run
+     */
+    public static class Metrics {
+        /** Consultations waiting for a vet after the run */
+        public int queued;
+        /** Of those, how many are already past their SLA deadline */
+        public int breached;
+        /** How long the longest waiting one has waited */
+        public long oldestWaitMs;
+        /** Time from creation to assignment over the open, assigned consultations */
+        public long medianWaitMs;
+        public long p90WaitMs;
+        /** Assigned in this run; reassigned ones had a vet who went offline */
+        public int assigned;
+        public int reassigned;
+        public int onlineVets;
+    }
+
+    public interface Callback {
+        /** Runs on the main thread */
+        void onTriaged(Metrics metrics);
+
+        void onError(Exception e);
+    }
+
+    /** An open consultation as the scheduler sees it */
+    private static class Case {
+        String id;
+        int urgency;
+        long createdAt;
+        long deadline;
+        String specialization;
+        String vetId;       // the vet it has now; null while unassigned
+        long assignedAt;
+
+        boolean sameAs(Case other) {
+            return other != null && urgency == other.urgency && createdAt == other.createdAt
+                    && deadline == other.deadline && equal(specialization, other.specialization)
+                    && equal(vetId, other.vetId);
+        }
+    }
+
+    private static class Vet {
+        final String id;
+        final String specialization;
+        int load;
+
+        Vet(String id, String specialization) {
+            this.id = id;
+            this.specialization = specialization;
+        }
+    }
+
+    /** Earliest deadline first; then the more urgent, then the older one */
+    private static final Comparator<Case> ORDER = new Comparator<Case>() {
+        @Override
+        public int compare(Case a, Case b) {
+            if (a.deadline != b.deadline) return a.deadline < b.deadline ? -1 : 1;
+            if (a.urgency != b.urgency) return b.urgency - a.urgency;
+            if (a.createdAt != b.createdAt) return a.createdAt < b.createdAt ? -1 : 1;
+            return a.id.compareTo(b.id);
+        }
+    };
+
+    private static final Comparator<Vet> BY_LOAD = new Comparator<Vet>() {
+        @Override
+        public int compare(Vet a, Vet b) {
+            if (a.load != b.load) return a.load - b.load;
+            return a.id.compareTo(b.id);
+        }
+    };
+
+    private static TriageScheduler instance;
+
+    private final Context context;
+    // One run at a time; the queue and vets are only touched here
+    private final Executor executor = AppExecutors.getInstance().serial("triage");
+    private final IndexedPriorityQueue<String, Case> queue = new IndexedPriorityQueue<>(ORDER);
+    // Assigned to an online vet; kept to count loads and waits
+    private final Map<String, Case> assigned = new HashMap<>();
+    private final Map<String, Vet> vets = new HashMap<>();
+    private final TreeSet<Vet> onlineByLoad = new TreeSet<>(BY_LOAD);
+    private final Map<String, TreeSet<Vet>> onlineBySpecialization = new HashMap<>();
+
+    public static synchronized TriageScheduler getInstance(Context context) {
+        if (instance == null) {
+            instance = new TriageScheduler(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private TriageScheduler(Context context) {
+        this.context = context;
+    }
+
+    /** Urgency level of a priority or urgency value, English or Swahili */
+    public static int urgencyLevel(String urgency) {
+        switch (urgency != null ? urgency.trim().toLowerCase(Locale.ROOT) : "") {
+            case "urgent":
+            case "emergency":
+            case "dharura":
+            case "haraka sana":
+                return URGENCY_URGENT;
+            case "high":
+            case "juu":
+            case "haraka":
+                return URGENCY_HIGH;
+            case "low":
+            case "chini":
+                return URGENCY_LOW;
+            default:
+                return URGENCY_MEDIUM;
+        }
+    }
+
+    /** How long a consultation of the urgency may wait; the server's consultation_sla */
+    public static long slaMillis(int urgencyLevel) {
+        switch (urgencyLevel) {
+            case URGENCY_URGENT:
+                return 2 * HOUR_MS;
+            case URGENCY_HIGH:
+                return 6 * HOUR_MS;
+            case URGENCY_LOW:
+                return 72 * HOUR_MS;
+            default:
+                return 24 * HOUR_MS;
+        }
+    }
+
+    /** When a consultation of the urgency, created at createdAt, passes its SLA */
+    public static long deadlineOf(String urgency, long createdAt) {
+        return createdAt + slaMillis(urgencyLevel(urgency));
+    }
+
+    /** Check in, bring the queue up to date and assign what can be assigned */
+    public void run(Callback callback) {
+        executor.execute(() -> {
+            try {
+                Metrics metrics = triage();
+                AppExecutors.getInstance().mainThread().execute(() -> callback.onTriaged(metrics));
+            } catch (Exception e) {
+                AppLog.e(TAG, "Triage run failed", e);
+                AppExecutors.getInstance().mainThread().execute(() -> callback.onError(e));
+            }
+        });
+    }
+
+    /** run, waiting for it; for background work such as SyncWorker */
+    @WorkerThread
+    public Metrics runNow() throws IOException {
+        FutureTask<Metrics> task = new FutureTask<>(this::triage);
+        executor.execute(task);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private Metrics triage() throws IOException {
+        long started = System.currentTimeMillis();
+        rpc(RPC_HEARTBEAT, new HashMap<>());
+        JsonObject snapshot = JsonParser.parseString(rpc(RPC_SNAPSHOT, new HashMap<>())).getAsJsonObject();
+        long now = snapshot.get("now").getAsLong();
+        apply(snapshot);
+
+        Metrics metrics = new Metrics();
+        assign(now, metrics);
+        fillMetrics(now, metrics);
+        AppLog.d(TAG, () -> "Triage: " + metrics.assigned + " assigned (" + metrics.reassigned
+                + " from offline vets), " + metrics.queued + " waiting, " + metrics.breached
+                + " past SLA, in " + (System.currentTimeMillis() - started) + "ms");
+        return metrics;
+    }
+
+    /**
+     * Make the queue, loads and online vets match the snapshot. Only cases that changed
+     * are moved in the heap.
+     */
+    private void apply(JsonObject snapshot) {
+        vets.clear();
+        onlineByLoad.clear();
+        onlineBySpecialization.clear();
+        Set<String> online = new HashSet<>();
+        for (JsonElement element : snapshot.getAsJsonArray("vets")) {
+            JsonObject row = element.getAsJsonObject();
+            Vet vet = new Vet(row.get("id").getAsString(), specializationKey(string(row, "specialization")));
+            vets.put(vet.id, vet);
+            // A vet that never sent a heartbeat may come back with a null flag
+            JsonElement isOnline = row.get("online");
+            if (isOnline != null && !isOnline.isJsonNull() && isOnline.getAsBoolean()) {
+                online.add(vet.id);
+            }
+        }
+
+        Set<String> open = new HashSet<>();
+        assigned.clear();
+        for (JsonElement element : snapshot.getAsJsonArray("consultations")) {
+            Case item = parseCase(element.getAsJsonObject());
+            open.add(item.id);
+            if (item.vetId != null && online.contains(item.vetId)) {
+                queue.remove(item.id);
+                assigned.put(item.id, item);
+                vets.get(item.vetId).load++;
+            } else if (!item.sameAs(queue.get(item.id))) {
+                queue.put(item.id, item);
+            }
+        }
+        for (Case item : queue.values()) {
+            if (!open.contains(item.id)) {
+                queue.remove(item.id);
+            }
+        }
+
+        // Sorted sets are filled after the loads are final, so no entry changes order in place
+        for (String vetId : online) {
+            addOnline(vets.get(vetId));
+        }
+    }
+
+    private void assign(long now, Metrics metrics) throws IOException {
+        while (!queue.isEmpty()) {
+            Case item = queue.peek();
+            Vet vet = pickVet(item);
+            if (vet == null) {
+                // The most pressing case has nobody; no vet has room for any other either
+                break;
+            }
+            queue.poll();
+            if (!claim(item, vet)) {
+                // Someone else changed it first; the next snapshot has the truth
+                continue;
+            }
+            removeOnline(vet);
+            vet.load++;
+            addOnline(vet);
+
+            if (item.vetId != null) metrics.reassigned++;
+            metrics.assigned++;
+            item.vetId = vet.id;
+            item.assignedAt = now;
+            assigned.put(item.id, item);
+        }
+    }
+
+    /** Least loaded online vet of the case's specialization with room, else of any */
+    private Vet pickVet(Case item) {
+        if (item.specialization != null) {
+            TreeSet<Vet> specialists = onlineBySpecialization.get(item.specialization);
+            if (specialists != null && !specialists.isEmpty()
+                    && specialists.first().load < MAX_OPEN_PER_VET) {
+                return specialists.first();
+            }
+        }
+        if (!onlineByLoad.isEmpty() && onlineByLoad.first().load < MAX_OPEN_PER_VET) {
+            return onlineByLoad.first();
+        }
+        return null;
+    }
+
+    private boolean claim(Case item, Vet vet) throws IOException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("p_consultation_id", item.id);
+        params.put("p_vet_id", vet.id);
+        params.put("p_expected_vet", item.vetId);
+        return Boolean.parseBoolean(rpc(RPC_CLAIM, params).trim());
+    }
+
+    private void fillMetrics(long now, Metrics metrics) {
+        metrics.queued = queue.size();
+        metrics.onlineVets = onlineByLoad.size();
+        for (Case item : queue.values()) {
+            if (now > item.deadline) metrics.breached++;
+            metrics.oldestWaitMs = Math.max(metrics.oldestWaitMs, now - item.createdAt);
+        }
+
+        List<Long> waits = new ArrayList<>(assigned.size());
+        for (Case item : assigned.values()) {
+            if (item.assignedAt > 0) {
+                waits.add(Math.max(0, item.assignedAt - item.createdAt));
+            }
+        }
+        if (!waits.isEmpty()) {
+            Collections.sort(waits);
+            metrics.medianWaitMs = waits.get((waits.size() - 1) / 2);
+            metrics.p90WaitMs = waits.get((int) Math.ceil(waits.size() * 0.9) - 1);
+        }
+    }
+
+    private void addOnline(Vet vet) {
+        onlineByLoad.add(vet);
+        if (vet.specialization != null) {
+            TreeSet<Vet> specialists = onlineBySpecialization.get(vet.specialization);
+            if (specialists == null) {
+                specialists = new TreeSet<>(BY_LOAD);
+                onlineBySpecialization.put(vet.specialization, specialists);
+            }
+            specialists.add(vet);
+        }
+    }
+
+    private void removeOnline(Vet vet) {
+        onlineByLoad.remove(vet);
+        if (vet.specialization != null) {
+            onlineBySpecialization.get(vet.specialization).remove(vet);
+        }
+    }
+
+    private static Case parseCase(JsonObject row) {
+        Case item = new Case();
+        item.id = row.get("id").getAsString();
+        item.urgency = row.get("urgency").getAsInt();
+        item.createdAt = row.get("created_at").getAsLong();
+        JsonElement deadline = row.get("sla_deadline");
+        item.deadline = deadline != null && !deadline.isJsonNull()
+                ? deadline.getAsLong() : item.createdAt + slaMillis(item.urgency);
+        item.specialization = specializationKey(string(row, "specialization"));
+        item.vetId = string(row, "vet_id");
+        JsonElement assignedAt = row.get("assigned_at");
+        item.assignedAt = assignedAt != null && !assignedAt.isJsonNull() ? assignedAt.getAsLong() : 0;
+        return item;
+    }
+
+    private String rpc(String function, Map<String, Object> params) throws IOException {
+        String auth = SupabaseConfig.getAuthHeader(AuthManager.getInstance(context).getAccessToken());
+        Response<ResponseBody> response = ApiClient.getApiService()
+                .callRpc(auth, SupabaseConfig.getApiKeyHeader(), function, params)
+                .execute();
+        if (!response.isSuccessful()) {
+            throw new IOException(function + ": HTTP " + response.code());
+        }
+        return response.body() != null ? response.body().string() : "";
+    }
+
+    private static String string(JsonObject row, String name) {
+        JsonElement value = row.get(name);
+        return value != null && !value.isJsonNull() ? value.getAsString() : null;
+    }
+
+    private static String specializationKey(String specialization) {
+        if (specialization == null || specialization.trim().isEmpty()) return null;
+        return specialization.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
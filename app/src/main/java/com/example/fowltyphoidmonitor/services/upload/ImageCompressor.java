@@ -0,0 +1,152 @@
+package com.example.fowltyphoidmonitor.services.upload;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.net.Uri;
+
+import androidx.annotation.WorkerThread;
+import androidx.exifinterface.media.ExifInterface;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Shrinks a camera photo for upload over slow links.
+ *
+ * The photo is decoded at the smallest power-of-two subsample that still covers the
+ * target size, scaled and turned upright in one pass, then re-encoded as JPEG at the
+ * highest quality step that fits the byte budget. The re-encoded file carries no EXIF,
+ * so location, device and capture details never leave the phone.
+ */
+public final class ImageCompressor {
+    static final int MAX_EDGE_PX = 1280;
+    static final int TARGET_BYTES = 250 * 1024;
+    private static final int START_QUALITY = 80;
+    private static final int MIN_QUALITY = 50;
+    private static final int QUALITY_STEP = 10;
+
+    /**
+     * The written file
+     */
+    public static class Result {
+        public final int width;
+        public final int height;
+        public final long bytes;
+
+        Result(int width, int height, long bytes) {
+            this.width = width;
+            this.height = height;
+            this.bytes = bytes;
+        }
+    }
+
+    private ImageCompressor() {
+    }
+
+    /**
+     * Compress the image at source into target. Blocks; call off the main thread.
+     */
+    @WorkerThread
+    public static Result compress(Context context, Uri source, File target) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, source)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not an image: " + source);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(Math.max(bounds.outWidth, bounds.outHeight));
+        Bitmap decoded;
+        try (InputStream in = open(resolver, source)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Could not decode " + source);
+        }
+
+        Bitmap upright = scaleAndRotate(decoded, readOrientation(resolver, source));
+        try {
+            byte[] jpeg = encode(upright);
+            try (OutputStream out = new FileOutputStream(target)) {
+                out.write(jpeg);
+            }
+            return new Result(upright.getWidth(), upright.getHeight(), jpeg.length);
+        } finally {
+            if (upright != decoded) {
+                upright.recycle();
+            }
+            decoded.recycle();
+        }
+    }
+
+    /** Largest power of two that keeps the long edge at or above the target */
+    private static int sampleSize(int longEdge) {
+        int sample = 1;
+        while (longEdge / (sample * 2) >= MAX_EDGE_PX) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private static Bitmap scaleAndRotate(Bitmap bitmap, ExifInterface exif) {
+        Matrix matrix = new Matrix();
+        int longEdge = Math.max(bitmap.getWidth(), bitmap.getHeight());
+        if (longEdge > MAX_EDGE_PX) {
+            float scale = MAX_EDGE_PX / (float) longEdge;
+            matrix.postScale(scale, scale);
+        }
+        if (exif != null) {
+            if (exif.isFlipped()) {
+                matrix.postScale(-1, 1);
+            }
+            matrix.postRotate(exif.getRotationDegrees());
+        }
+        if (matrix.isIdentity()) {
+            return bitmap;
+        }
+        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+    }
+
+    /** Step the quality down until the JPEG fits the budget or the floor is reached */
+    private static byte[] encode(Bitmap bitmap) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(TARGET_BYTES);
+        int quality = START_QUALITY;
+        while (true) {
+            out.reset();
+            bitmap.compress(Bitmap.CompressFormat.JPEG, quality, out);
+            if (out.size() <= TARGET_BYTES || quality - QUALITY_STEP < MIN_QUALITY) {
+                return out.toByteArray();
+            }
+            quality -= QUALITY_STEP;
+        }
+    }
+
+    private static ExifInterface readOrientation(ContentResolver resolver, Uri source) {
+        try (InputStream in = open(resolver, source)) {
+            return new ExifInterface(in);
+        } catch (IOException e) {
+            // No readable EXIF; treat the photo as already upright
+            return null;
+        }
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri source) throws IOException {
+        InputStream in = resolver.openInputStream(source);
+        if (in == null) {
+            throw new IOException("Cannot open " + source);
+        }
+        return in;
+    }
+}
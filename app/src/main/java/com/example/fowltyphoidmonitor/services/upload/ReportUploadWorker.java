@@ -0,0 +1,57 @@
+package com.example.fowltyphoidmonitor.services.upload;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs pending report uploads under WorkManager, so they outlive the screen that
+ * started them and resume after the process is killed
+ */
+public class ReportUploadWorker extends Worker {
+    private static final String WORK_NAME = "report_upload";
+    private static final long BACKOFF_SECONDS = 30;
+
+    public ReportUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Run the upload queue when online. Appends behind a run in progress, so a job
+     * stored after that run read the queue is still picked up.
+     */
+    public static void enqueue(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ReportUploadWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        if (!AuthManager.getInstance(getApplicationContext()).isLoggedIn()) {
+            // Uploads need the farmer's token; login queues them again
+            return Result.success();
+        }
+        // Offsets are stored after every chunk, so a retry only resends the unacknowledged rest
+        return ReportUploader.getInstance(getApplicationContext()).runPending()
+                ? Result.success() : Result.retry();
+    }
+}
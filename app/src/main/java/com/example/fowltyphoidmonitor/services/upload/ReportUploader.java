@@ -0,0 +1,455 @@
+package com.example.fowltyphoidmonitor.services.upload;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Base64;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.data.local.AttachmentStore;
+import com.example.fowltyphoidmonitor.data.models.SymptomsReport;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+import com.example.fowltyphoidmonitor.utils.AppLog;
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import retrofit2.Call;
+
+/**
+ * Sends a symptom report with its photos.
+ *
+ * Photos are compressed in the background into app storage and the report is saved
+ * as a persistent job, then ReportUploadWorker uploads each image in resumable chunks.
+ * Every acknowledged chunk moves the stored offset, so after a dropped connection or
+ * process death the upload carries on from the bytes the server already holds. The
+ * report row is inserted only once all its images have landed, and the insert is
+ * idempotent on the report's client id.
+ *
+ * Images are stored under their content hash, so a photo the bucket already holds,
+ * e.g. one sent with an earlier report, is not uploaded again. A job the server
+ * rejects outright (a 4xx other than a timeout or throttling) is parked instead of
+ * being retried forever.
+ */
+public class ReportUploader {
+    private static final String TAG = "ReportUploader";
+    private static final String UPLOAD_DIR = "report_uploads";
+    static final String BUCKET = "report-images";
+
+    /**
+     * Resumable storage uploads. Swappable so the pipeline can run against a local
+     * stand-in server.
+     */
+    public interface ChunkUploader {
+        /** Whether the bucket already holds the object */
+        boolean exists(String objectPath) throws IOException, HttpException;
+
+        /** Open an upload session for the object; returns the session URL */
+        String create(String objectPath, long length, String contentType) throws IOException, HttpException;
+
+        /** Bytes of the session the server already holds */
+        long offset(String uploadUrl) throws IOException, HttpException;
+
+        /** Send length bytes of data at offset; returns the server's new offset */
+        long append(String uploadUrl, long offset, byte[] data, int length) throws IOException, HttpException;
+
+        /** Bytes per append; the last chunk may be shorter */
+        int chunkSize();
+
+        /** Where the finished object is read back from */
+        String objectUrl(String objectPath);
+    }
+
+    /**
+     * A rejected request. Retryable ones keep the job queued for WorkManager's backoff.
+     */
+    public static class HttpException extends Exception {
+        public final int code;
+
+        public HttpException(int code) {
+            super("HTTP " + code);
+            this.code = code;
+        }
+
+        /** The upload session is gone and has to be started again */
+        boolean isSessionLost() {
+            return code == 404 || code == 410;
+        }
+
+        /** Worth another try later; 401 too, since the token is refreshed by then */
+        boolean isRetryable() {
+            return code == 401 || code == 408 || code == 429 || code >= 500;
+        }
+    }
+
+    /**
+     * Outcome of submit, on the main thread
+     */
+    public interface Callback {
+        void onQueued(String reportId);
+        void onFailed(Exception error);
+    }
+
+    private static ReportUploader instance;
+
+    private final Context context;
+    private final UploadJobStore store;
+    private final ChunkUploader uploader;
+
+    public static synchronized ReportUploader getInstance(Context context) {
+        if (instance == null) {
+            Context app = context.getApplicationContext();
+            instance = new ReportUploader(app, new SupabaseTusUploader(app));
+        }
+        return instance;
+    }
+
+    ReportUploader(Context context, ChunkUploader uploader) {
+        this.context = context;
+        this.store = UploadJobStore.getInstance(context);
+        this.uploader = uploader;
+    }
+
+    /**
+     * Compress the photos and queue the report. The callback fires once the job is
+     * stored, i.e. once the report is safe from process death, not once it is sent.
+     */
+    public void submit(SymptomsReport report, List<Uri> photos, Callback callback) {
+        report.ensureClientId();
+        AppExecutors.getInstance().cpu().execute(() -> {
+            try {
+                UploadJobStore.Job job = buildJob(report, photos);
+                store.save(job);
+                ReportUploadWorker.enqueue(context);
+                AppLog.i(TAG, () -> "Queued report " + job.id + " with " + job.images.size() + " images");
+                AppExecutors.getInstance().mainThread().execute(() -> callback.onQueued(job.id));
+            } catch (IOException | RuntimeException e) {
+                AppLog.e(TAG, "Could not prepare report photos", e);
+                deleteFiles(report.getClientId());
+                AppExecutors.getInstance().mainThread().execute(() -> callback.onFailed(e));
+            }
+        });
+    }
+
+    private UploadJobStore.Job buildJob(SymptomsReport report, List<Uri> photos) throws IOException {
+        UploadJobStore.Job job = new UploadJobStore.Job();
+        job.id = report.getClientId();
+        job.createdAt = System.currentTimeMillis();
+
+        File dir = jobDir(job.id);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        for (int i = 0; i < photos.size(); i++) {
+            File file = new File(dir, i + ".jpg");
+            ImageCompressor.Result result = ImageCompressor.compress(context, photos.get(i), file);
+
+            UploadJobStore.Image image = new UploadJobStore.Image();
+            image.localPath = file.getAbsolutePath();
+            image.objectPath = AttachmentStore.sha256(file) + ".jpg";
+            image.length = result.bytes;
+            job.images.add(image);
+        }
+        job.reportJson = ApiClient.getGson().toJson(report);
+        return job;
+    }
+
+    /**
+     * Queue a run if jobs are waiting, e.g. ones a run skipped while logged out
+     */
+    public void resumePending() {
+        for (UploadJobStore.Job job : store.getJobs()) {
+            if (job.parkedReason == null) {
+                ReportUploadWorker.enqueue(context);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Work through every stored job. Returns false if any is left for a retry.
+     */
+    @WorkerThread
+    boolean runPending() {
+        boolean allDone = true;
+        for (UploadJobStore.Job job : store.getJobs()) {
+            if (job.parkedReason != null) continue;
+            try {
+                process(job);
+            } catch (HttpException e) {
+                if (e.isRetryable() || e.isSessionLost()) {
+                    AppLog.w(TAG, "Upload of report " + job.id + " interrupted: " + e.getMessage());
+                    allDone = false;
+                } else {
+                    park(job, e);
+                }
+            } catch (IOException e) {
+                AppLog.w(TAG, "Upload of report " + job.id + " interrupted: " + e.getMessage());
+                allDone = false;
+            } catch (RuntimeException e) {
+                // e.g. a stored report that no longer parses; a retry would fail the same way
+                park(job, e);
+            }
+        }
+        return allDone;
+    }
+
+    private void park(UploadJobStore.Job job, Exception e) {
+        AppLog.e(TAG, "Upload of report " + job.id + " rejected, parking it", e);
+        job.parkedReason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        store.save(job);
+    }
+
+    private void process(UploadJobStore.Job job) throws IOException, HttpException {
+        for (UploadJobStore.Image image : job.images) {
+            if (!image.uploaded) {
+                uploadImage(job, image);
+            }
+        }
+
+        Gson gson = ApiClient.getGson();
+        SymptomsReport report = gson.fromJson(job.reportJson, SymptomsReport.class);
+        String[] urls = new String[job.images.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = uploader.objectUrl(job.images.get(i).objectPath);
+        }
+        report.setImages(Arrays.asList(urls));
+        insertReport(report);
+
+        store.remove(job.id);
+        keepLocalCopies(job, urls);
+        deleteFiles(job.id);
+        AppLog.i(TAG, () -> "Report " + job.id + " sent with " + urls.length + " images");
+    }
+
+    private void uploadImage(UploadJobStore.Job job, UploadJobStore.Image image)
+            throws IOException, HttpException {
+        File file = new File(image.localPath);
+        if (!file.isFile()) {
+            throw new IOException("Compressed image missing: " + image.localPath);
+        }
+
+        if (image.uploadUrl == null && uploader.exists(image.objectPath)) {
+            AppLog.d(TAG, () -> "Image " + image.objectPath + " already stored, skipping upload");
+            image.uploaded = true;
+            store.save(job);
+            return;
+        }
+
+        try {
+            resumeOrStart(job, image);
+            sendChunks(job, image, file);
+        } catch (HttpException e) {
+            if (e.isSessionLost()) {
+                // The server dropped the session, e.g. it expired; start this image over
+                AppLog.w(TAG, "Upload session of " + image.objectPath + " lost, restarting");
+                image.uploadUrl = null;
+                image.offset = 0;
+                store.save(job);
+            } else if (e.code != 409) {
+                throw e;
+            }
+            // On 409 our offset disagreed with the server's; carry on from the server's
+            resumeOrStart(job, image);
+            sendChunks(job, image, file);
+        }
+
+        image.uploaded = true;
+        store.save(job);
+    }
+
+    private void resumeOrStart(UploadJobStore.Job job, UploadJobStore.Image image)
+            throws IOException, HttpException {
+        if (image.uploadUrl == null) {
+            image.uploadUrl = uploader.create(image.objectPath, image.length, "image/jpeg");
+            image.offset = 0;
+        } else {
+            // The stored offset may trail what the server got before the connection dropped
+            image.offset = uploader.offset(image.uploadUrl);
+        }
+        store.save(job);
+    }
+
+    private void sendChunks(UploadJobStore.Job job, UploadJobStore.Image image, File file)
+            throws IOException, HttpException {
+        byte[] buffer = new byte[(int) Math.min(uploader.chunkSize(), Math.max(1, image.length))];
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            while (image.offset < image.length) {
+                int length = (int) Math.min(buffer.length, image.length - image.offset);
+                in.seek(image.offset);
+                in.readFully(buffer, 0, length);
+                image.offset = uploader.append(image.uploadUrl, image.offset, buffer, length);
+                store.save(job);
+            }
+        }
+    }
+
+    private void insertReport(SymptomsReport report) throws IOException, HttpException {
+        String token = AuthManager.getInstance(context).getAccessToken();
+        Call<List<SymptomsReport>> call = ApiClient.getApiService()
+                .createSymptomsReport(SupabaseConfig.getAuthHeader(token), SupabaseConfig.getApiKeyHeader(), report);
+        retrofit2.Response<List<SymptomsReport>> response = call.execute();
+        if (!response.isSuccessful()) {
+            throw new HttpException(response.code());
+        }
+    }
+
+    /** Hand the sent images to the attachment store, so viewing them needs no download */
+    private void keepLocalCopies(UploadJobStore.Job job, String[] urls) {
+        AttachmentStore attachments = AttachmentStore.getInstance(context);
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                attachments.adopt(new File(job.images.get(i).localPath), urls[i], job.id);
+            } catch (IOException e) {
+                AppLog.w(TAG, "Could not keep a local copy of " + urls[i], e);
+            }
+        }
+    }
+
+    private File jobDir(String jobId) {
+        return new File(new File(context.getFilesDir(), UPLOAD_DIR), jobId);
+    }
+
+    private void deleteFiles(String jobId) {
+        File dir = jobDir(jobId);
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /**
+     * Supabase Storage's TUS endpoint. It takes appends of exactly 6 MB except for the
+     * last one, so a compressed photo normally goes in a single append, and a retry
+     * resumes from the offset the server reports.
+     */
+    private static class SupabaseTusUploader implements ChunkUploader {
+        private static final String ENDPOINT = SupabaseConfig.SUPABASE_URL + "/storage/v1/upload/resumable";
+        private static final String TUS_VERSION = "1.0.0";
+        private static final int CHUNK_SIZE = 6 * 1024 * 1024;
+        private static final MediaType OFFSET_STREAM = MediaType.parse("application/offset+octet-stream");
+
+        private final Context context;
+        // Own client: image bytes must never go through the body logger
+        private final OkHttpClient client = new OkHttpClient.Builder()
+                .connectTimeout(30, TimeUnit.SECONDS)
+                .writeTimeout(120, TimeUnit.SECONDS)
+                .readTimeout(60, TimeUnit.SECONDS)
+                .build();
+
+        SupabaseTusUploader(Context context) {
+            this.context = context;
+        }
+
+        @Override
+        public boolean exists(String objectPath) throws IOException, HttpException {
+            Request request = authorized(new Request.Builder()
+                    .url(SupabaseConfig.SUPABASE_URL + "/storage/v1/object/authenticated/" + BUCKET + "/" + objectPath))
+                    .head()
+                    .build();
+            try (Response response = client.newCall(request).execute()) {
+                if (response.isSuccessful()) return true;
+                // Storage answers a missing object with 400 as well as 404
+                if (response.code() == 400 || response.code() == 404) return false;
+                throw new HttpException(response.code());
+            }
+        }
+
+        @Override
+        public String create(String objectPath, long length, String contentType)
+                throws IOException, HttpException {
+            Request request = authorized(new Request.Builder().url(ENDPOINT))
+                    .header("Upload-Length", String.valueOf(length))
+                    .header("Upload-Metadata", "bucketName " + base64(BUCKET)
+                            + ",objectName " + base64(objectPath)
+                            + ",contentType " + base64(contentType))
+                    .header("x-upsert", "true")
+                    .post(RequestBody.create(new byte[0], null))
+                    .build();
+            try (Response response = client.newCall(request).execute()) {
+                String location = response.header("Location");
+                if (!response.isSuccessful() || location == null) {
+                    throw new HttpException(response.code());
+                }
+                return response.request().url().resolve(location).toString();
+            }
+        }
+
+        @Override
+        public long offset(String uploadUrl) throws IOException, HttpException {
+            Request request = authorized(new Request.Builder().url(uploadUrl)).head().build();
+            try (Response response = client.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    throw new HttpException(response.code());
+                }
+                return parseOffset(response);
+            }
+        }
+
+        @Override
+        public long append(String uploadUrl, long offset, byte[] data, int length)
+                throws IOException, HttpException {
+            Request request = authorized(new Request.Builder().url(uploadUrl))
+                    .header("Upload-Offset", String.valueOf(offset))
+                    .patch(RequestBody.create(data, OFFSET_STREAM, 0, length))
+                    .build();
+            try (Response response = client.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    throw new HttpException(response.code());
+                }
+                return parseOffset(response);
+            }
+        }
+
+        @Override
+        public int chunkSize() {
+            return CHUNK_SIZE;
+        }
+
+        @Override
+        public String objectUrl(String objectPath) {
+            return SupabaseConfig.SUPABASE_URL + "/storage/v1/object/public/" + BUCKET + "/" + objectPath;
+        }
+
+        private Request.Builder authorized(Request.Builder builder) {
+            String token = AuthManager.getInstance(context).getAccessToken();
+            return builder
+                    .header("Authorization", SupabaseConfig.getAuthHeader(token))
+                    .header(SupabaseConfig.API_KEY_HEADER, SupabaseConfig.getApiKeyHeader())
+                    .header("Tus-Resumable", TUS_VERSION);
+        }
+
+        private static long parseOffset(Response response) throws IOException {
+            String offset = response.header("Upload-Offset");
+            if (offset == null) {
+                throw new IOException("Upload-Offset missing");
+            }
+            try {
+                return Long.parseLong(offset.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad Upload-Offset: " + offset);
+            }
+        }
+
+        private static String base64(String value) {
+            return Base64.encodeToString(value.getBytes(StandardCharsets.UTF_8), Base64.NO_WRAP);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.fowltyphoidmonitor.services.upload;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists pending report uploads, so a job and each image's upload offset survive
+ * process death. Every change is written before the next network call relies on it.
+ */
+class UploadJobStore {
+    private static final String PREFS_NAME = "report_uploads";
+    private static final String KEY_JOBS = "jobs";
+
+    /**
+     * A report waiting for its images; the report row is only inserted once all are uploaded
+     */
+    static class Job {
+        String id;            // the report's client id
+        String reportJson;
+        List<Image> images = new ArrayList<>();
+        long createdAt;
+        String parkedReason;  // set once the server rejected the job for good; kept, never retried
+
+        boolean imagesDone() {
+            for (Image image : images) {
+                if (!image.uploaded) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * One compressed image and how far its upload has got
+     */
+    static class Image {
+        String localPath;
+        String objectPath;
+        long length;
+        String uploadUrl;     // resumable upload session, null until created
+        long offset;
+        boolean uploaded;
+    }
+
+    private static UploadJobStore instance;
+
+    private final SharedPreferences prefs;
+    private final Gson gson = new Gson();
+    private final Type listType = new TypeToken<List<Job>>() {}.getType();
+
+    static synchronized UploadJobStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new UploadJobStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private UploadJobStore(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    synchronized List<Job> getJobs() {
+        String json = prefs.getString(KEY_JOBS, null);
+        if (json == null) return new ArrayList<>();
+        List<Job> jobs = gson.fromJson(json, listType);
+        return jobs != null ? jobs : new ArrayList<>();
+    }
+
+    /** Insert or replace a job by id; committed synchronously so a crash right after keeps it */
+    synchronized void save(Job job) {
+        List<Job> jobs = getJobs();
+        boolean replaced = false;
+        for (int i = 0; i < jobs.size(); i++) {
+            if (jobs.get(i).id.equals(job.id)) {
+                jobs.set(i, job);
+                replaced = true;
+                break;
+            }
+        }
+        if (!replaced) {
+            jobs.add(job);
+        }
+        prefs.edit().putString(KEY_JOBS, gson.toJson(jobs, listType)).commit();
+    }
+
+    synchronized void remove(String jobId) {
+        List<Job> jobs = getJobs();
+        for (int i = 0; i < jobs.size(); i++) {
+            if (jobs.get(i).id.equals(jobId)) {
+                jobs.remove(i);
+                prefs.edit().putString(KEY_JOBS, gson.toJson(jobs, listType)).commit();
+                return;
+            }
+        }
+    }
+}
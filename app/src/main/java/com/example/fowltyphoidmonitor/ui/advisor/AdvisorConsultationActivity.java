@@ -18,6 +18,7 @@ import com.example.fowltyphoidmonitor.services.auth.AuthManager;
 import com.example.fowltyphoidmonitor.ui.auth.LoginActivity;
 import com.example.fowltyphoidmonitor.ui.common.BaseChatActivity;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Map;
 
@@ -141,7 +142,7 @@ public class AdvisorConsultationActivity extends BaseChatActivity {
         welcomeMessage.setSenderUsername("System");
         welcomeMessage.setCreatedAt(new Date());
         messages.add(welcomeMessage);
-        chatAdapter.notifyDataSetChanged();
+        chatAdapter.submitList(new ArrayList<>(messages));
     }
     
     /**
@@ -195,7 +196,7 @@ public class AdvisorConsultationActivity extends BaseChatActivity {
             }
         }
         
-        chatAdapter.notifyDataSetChanged();
+        chatAdapter.submitList(new ArrayList<>(messages));
         
         if (messages.isEmpty()) {
             showWelcomeMessage();
@@ -274,6 +275,7 @@ public class AdvisorConsultationActivity extends BaseChatActivity {
                 consultationMessage.setCreatedAt(new Date());
                 messages.add(consultationMessage);
             }
+            chatAdapter.submitList(new ArrayList<>(messages));
         }
     }
     
@@ -2,9 +2,6 @@ package com.example.fowltyphoidmonitor.ui.auth;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Log;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
@@ -14,6 +11,9 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager;
+import com.example.fowltyphoidmonitor.services.notification.AlertRetentionWorker;
+import com.example.fowltyphoidmonitor.services.sync.SyncWorker;
 import com.example.fowltyphoidmonitor.R;
 import com.example.fowltyphoidmonitor.data.requests.User;
 import com.example.fowltyphoidmonitor.ui.vet.AdminMainActivity;
@@ -21,12 +21,11 @@ import com.example.fowltyphoidmonitor.ui.common.DashboardActivity;
 import com.example.fowltyphoidmonitor.ui.common.ProfileSetupActivity;
 import com.example.fowltyphoidmonitor.ui.farmer.FarmerProfileEditActivity;
 import com.example.fowltyphoidmonitor.ui.farmer.MainActivity;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+import com.example.fowltyphoidmonitor.utils.AppLog;
 import com.example.fowltyphoidmonitor.utils.SharedPreferencesManager;
+import com.example.fowltyphoidmonitor.utils.StartupTrace;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
-import java.util.TimeZone;
 
 /**
  * LauncherActivity - Entry point for the Fowl Typhoid Monitor App
@@ -54,23 +53,19 @@ public class LauncherActivity extends AppCompatActivity {
     // Internal mapping: admin users are treated as vet users
     private static final String USER_TYPE_ADMIN = USER_TYPE_VET; // Internal: admin maps to vet
 
-    // Splash screen delay
-    private static final int SPLASH_DELAY = 2000; // 2 seconds
-
     // UI Components
     private ImageView imgLogo;
     private TextView txtAppName;
     private TextView txtLoadingMessage;
     private ProgressBar progressBar;
 
-    // Handler for delayed navigation
-    private Handler navigationHandler;
-    private Runnable navigationRunnable;
-
-    // Auth and preferences managers
+    // Auth and preferences managers, created off the main thread
     private AuthManager authManager;
     private SharedPreferencesManager prefManager;
 
+    // User state read in the background at start; null until it is ready
+    private SessionSnapshot session;
+
     // Event listener interface for activity completion
     public interface LauncherCompletionListener {
         void onLauncherCompleted(String userType, boolean isLoggedIn);
@@ -82,82 +77,165 @@ public class LauncherActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTrace.Section section = StartupTrace.begin("Launcher.onCreate");
 
         try {
             setContentView(R.layout.activity_launcher);
 
-            // Initialize managers
-            authManager = AuthManager.getInstance(this);
-            prefManager = new SharedPreferencesManager(this);
-
             // Initialize views - with null checks
             initializeViews();
 
-            // Verify authentication setup
-            if (!authManager.verifySetup()) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - AuthManager setup verification failed");
-                // Continue and hope for the best, but log the issue
-            }
-
-            // Log current user state
-            logUserState();
-
             // Show splash screen with loading animation
             showSplashScreen();
 
-            // Initialize navigation handler
-            setupNavigationHandler();
-
             // Set up event listener for LoginSelectionActivity
             setupCompletionListener();
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - LauncherActivity created successfully");
+            StartupTrace.markFirstFrame(this, "launcher first frame");
+
+            // Route as soon as the user state is read, instead of after a fixed delay
+            loadSession();
+
+            AppLog.d(TAG, "LauncherActivity created successfully");
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Critical error in onCreate: " + e.getMessage(), e);
+            AppLog.e(TAG, "Critical error in onCreate: " + e.getMessage(), e);
             // If we can't initialize properly, go directly to login selection
             safeNavigateToLoginSelection();
+        } finally {
+            section.end();
         }
     }
 
     /**
-     * Log detailed user state information for debugging
+     * Everything routing needs, read once. The stores behind it are opened from disk
+     * and the user JSON is parsed, so this runs on a background thread.
      */
-    private void logUserState() {
-        try {
-            boolean isLoggedIn = authManager.isLoggedIn();
-            boolean isProfileComplete = authManager.isProfileComplete();
-            String userId = authManager.getUserId();
-            String userType = authManager.getUserTypeSafe();
-            boolean isAdmin = authManager.isAdmin();
-            boolean isFarmer = authManager.isFarmer();
-
-            // Get user and extract metadata
-            User user = authManager.getUser();
-            String metadataInfo = "null";
-            if (user != null && user.getUserMetadata() != null) {
-                metadataInfo = user.getUserMetadata().toString();
+    private static class SessionSnapshot {
+        boolean firstLaunch;
+        boolean loggedIn;
+        boolean profileComplete;
+        boolean admin;
+        boolean vet;
+        boolean farmer;
+        String userType;
+        String userId;
+        String userEmail;
+    }
+
+    /**
+     * Create the managers and read the user state off the main thread, then route
+     */
+    private void loadSession() {
+        AppExecutors.getInstance().io().execute(() -> {
+            SessionSnapshot snapshot;
+            try {
+                StartupTrace.Section section = StartupTrace.begin("AuthManager.init");
+                authManager = AuthManager.getInstance(this);
+                prefManager = new SharedPreferencesManager(this);
+                section.end();
+
+                section = StartupTrace.begin("AuthManager.verifySetup");
+                if (!authManager.verifySetup()) {
+                    AppLog.e(TAG, "AuthManager setup verification failed");
+                    // Continue and hope for the best, but log the issue
+                }
+                section.end();
+
+                section = StartupTrace.begin("session snapshot");
+                snapshot = readSession();
+                section.end();
+            } catch (Exception e) {
+                AppLog.e(TAG, "Error loading session: " + e.getMessage(), e);
+                AppExecutors.getInstance().mainThread().execute(() -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    safeNavigateToLoginSelection();
+                });
+                return;
+            }
+
+            AppExecutors.getInstance().mainThread().execute(() -> {
+                if (isFinishing() || isDestroyed()) return;
+                StartupTrace.mark("session ready");
+                session = snapshot;
+                routeUser();
+            });
+
+            if (snapshot.loggedIn) {
+                startSessionServices();
+            }
+        });
+    }
+
+    private SessionSnapshot readSession() {
+        SessionSnapshot snapshot = new SessionSnapshot();
+        snapshot.firstLaunch = prefManager.getBoolean(KEY_FIRST_LAUNCH, true);
+        snapshot.loggedIn = authManager.isLoggedIn();
+
+        if (snapshot.loggedIn && !authManager.isSessionValid()) {
+            AppLog.w(TAG, "Session invalid despite being logged in, clearing session");
+            authManager.debugAuthState(); // Log detailed state for debugging
+            authManager.logout();
+            snapshot.loggedIn = false;
+        }
+
+        snapshot.userType = authManager.getUserTypeSafe();
+        snapshot.admin = authManager.isAdmin();
+        snapshot.vet = authManager.isVet();
+        snapshot.farmer = authManager.isFarmer();
+        if (snapshot.loggedIn) {
+            snapshot.profileComplete = authManager.isProfileComplete();
+            snapshot.userId = authManager.getUserId();
+            snapshot.userEmail = authManager.getUserEmail();
+
+            // If user type is not clearly determined, check from metadata directly
+            if (snapshot.userType == null || snapshot.userType.isEmpty()) {
+                User user = authManager.getUser();
+                if (user != null) {
+                    snapshot.userType = user.getUserType();
+                    snapshot.farmer = USER_TYPE_FARMER.equalsIgnoreCase(snapshot.userType);
+                    snapshot.admin = USER_TYPE_ADMIN.equalsIgnoreCase(snapshot.userType);
+                    snapshot.vet = USER_TYPE_VET.equalsIgnoreCase(snapshot.userType);
+                }
             }
+        }
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User state: " +
-                    "LoggedIn=" + isLoggedIn +
-                    ", UserType=" + userType +
-                    ", UserId=" + userId +
-                    ", IsAdmin=" + isAdmin +
-                    ", IsFarmer=" + isFarmer +
-                    ", ProfileComplete=" + isProfileComplete +
-                    ", Metadata=" + metadataInfo);
+        AppLog.d(TAG, () -> "User state: " +
+                "LoggedIn=" + snapshot.loggedIn +
+                ", UserType=" + snapshot.userType +
+                ", UserId=" + snapshot.userId +
+                ", IsAdmin=" + snapshot.admin +
+                ", IsFarmer=" + snapshot.farmer +
+                ", ProfileComplete=" + snapshot.profileComplete);
+        return snapshot;
+    }
+
+    /**
+     * Background work for a signed-in session; started after routing so none of it
+     * delays the first screen
+     */
+    private void startSessionServices() {
+        StartupTrace.Section section = StartupTrace.begin("session services");
+        // Check user role - try to refresh token if needed
+        try {
+            authManager.autoRefreshIfNeeded(null);
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error logging user state: " + e.getMessage());
+            AppLog.e(TAG, "Error refreshing token: " + e.getMessage());
+            // Continue anyway - token might still be valid
         }
+
+        // Keep local tables fresh in the background for this session
+        SyncWorker.schedule(this);
+        AlertRetentionWorker.schedule(this);
+
+        // Load the stored alerts now, off the main thread, rather than on the first
+        // screen's first use
+        AlertManager.getInstance(this).awaitLoaded();
+        section.end();
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        // Clean up handler to prevent memory leaks
-        if (navigationHandler != null && navigationRunnable != null) {
-            navigationHandler.removeCallbacks(navigationRunnable);
-        }
         // Clear the completion listener to prevent memory leaks
         completionListener = null;
     }
@@ -169,17 +247,9 @@ public class LauncherActivity extends AppCompatActivity {
         completionListener = new LauncherCompletionListener() {
             @Override
             public void onLauncherCompleted(String userType, boolean isLoggedIn) {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Launcher completed - routing to LoginSelectionActivity");
+                AppLog.d(TAG, "Launcher completed - routing to LoginSelectionActivity");
                 updateLoadingMessage("Inakuelekeza kwenye chaguo la kuingia...");
-
-                // Add slight delay for smooth transition
-                if (navigationHandler != null) {
-                    navigationHandler.postDelayed(() -> {
-                        safeNavigateToLoginSelection();
-                    }, 500);
-                } else {
-                    safeNavigateToLoginSelection();
-                }
+                safeNavigateToLoginSelection();
             }
         };
     }
@@ -199,9 +269,9 @@ public class LauncherActivity extends AppCompatActivity {
                 txtAppName.setText("Fowl Typhoid Monitor");
             }
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Views initialized successfully");
+            AppLog.d(TAG, "Views initialized successfully");
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error initializing views: " + e.getMessage());
+            AppLog.e(TAG, "Error initializing views: " + e.getMessage());
             // Continue anyway - the app might still work without some UI elements
         }
     }
@@ -235,74 +305,27 @@ public class LauncherActivity extends AppCompatActivity {
                         });
             }
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Splash screen displayed");
+            AppLog.d(TAG, "Splash screen displayed");
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error showing splash screen: " + e.getMessage());
+            AppLog.e(TAG, "Error showing splash screen: " + e.getMessage());
             // Continue anyway
         }
     }
 
-    /**
-     * Setup navigation handler for delayed routing
-     */
-    private void setupNavigationHandler() {
-        try {
-            navigationHandler = new Handler(Looper.getMainLooper());
-            navigationRunnable = new Runnable() {
-                @Override
-                public void run() {
-                    updateLoadingMessage("Inaangalia hali ya mtumiaji...");
-
-                    // Add slight delay for smooth UX
-                    navigationHandler.postDelayed(() -> {
-                        routeUser();
-                    }, 500);
-                }
-            };
-
-            // Start navigation after splash delay
-            navigationHandler.postDelayed(navigationRunnable, SPLASH_DELAY);
-
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Navigation handler setup successfully");
-        } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error setting up navigation handler: " + e.getMessage());
-            // Fallback to immediate navigation
-            routeUser();
-        }
-    }
-
     /**
      * Route user to appropriate activity based on authentication and user type
      * Updated to only support admin and farmer user types
      */
     private void routeUser() {
+        StartupTrace.Section section = StartupTrace.begin("Launcher.routeUser");
         try {
-            // Check if this is first app launch using our SharedPreferencesManager
-            boolean isFirstLaunch = prefManager.getBoolean(KEY_FIRST_LAUNCH, true);
-
-            if (isFirstLaunch) {
+            if (session.firstLaunch) {
                 handleFirstLaunch();
                 return;
             }
 
-            // Check if user is logged in
-            boolean isLoggedIn = authManager.isLoggedIn();
-
-            if (!isLoggedIn) {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User is not logged in, routing to login selection");
-                if (completionListener != null) {
-                    completionListener.onLauncherCompleted(USER_TYPE_FARMER, false);
-                } else {
-                    safeNavigateToLoginSelection();
-                }
-                return;
-            }
-
-            // Additional session validation
-            if (!authManager.isSessionValid()) {
-                Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Session invalid despite being logged in, clearing session");
-                authManager.debugAuthState(); // Log detailed state for debugging
-                authManager.logout();
+            if (!session.loggedIn) {
+                AppLog.d(TAG, "User is not logged in, routing to login selection");
                 if (completionListener != null) {
                     completionListener.onLauncherCompleted(USER_TYPE_FARMER, false);
                 } else {
@@ -312,54 +335,18 @@ public class LauncherActivity extends AppCompatActivity {
             }
 
             // User is logged in, determine which interface to show
-            updateLoadingMessage("Inatambua hali ya mtumiaji...");
+            String userType = session.userType;
+            boolean isAdmin = session.admin;
 
-            // Check user role - try to refresh token if needed
-            try {
-                authManager.autoRefreshIfNeeded(null);
-            } catch (Exception e) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error refreshing token: " + e.getMessage());
-                // Continue anyway - token might still be valid
-            }
-
-            // Double-check user state after token refresh
-            logUserState();
-
-            // Get user role information - only check admin and farmer
-            boolean isAdmin = authManager.isAdmin();
-            boolean isFarmer = authManager.isFarmer();
-            String userType = authManager.getUserTypeSafe();
-
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User role detection - " +
-                    "LoggedIn: " + isLoggedIn +
-                    ", Type: " + userType +
-                    ", Admin: " + isAdmin +
-                    ", Farmer: " + isFarmer);
-
-            // If user type is not clearly determined, check from metadata directly
-            if (userType == null || userType.isEmpty()) {
-                User user = authManager.getUser();
-                if (user != null) {
-                    userType = user.getUserType();
-
-                    // Update flags based on user type - only admin and farmer supported
-                    isFarmer = USER_TYPE_FARMER.equalsIgnoreCase(userType);
-                    isAdmin = USER_TYPE_ADMIN.equalsIgnoreCase(userType);
-
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User type from metadata: " +
-                            userType + " (Admin=" + isAdmin + ", Farmer=" + isFarmer + ")");
-                }
-            }
-
-            // Check if user profile is complete
-            boolean isProfileComplete = authManager.isProfileComplete();
-            
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Profile completion check - " +
-                    "IsComplete: " + isProfileComplete);
+            AppLog.d(TAG, () -> "User role detection - " +
+                    "Type: " + session.userType +
+                    ", Admin: " + session.admin +
+                    ", Farmer: " + session.farmer +
+                    ", ProfileComplete: " + session.profileComplete);
 
             // If profile is not complete, navigate to profile setup
-            if (!isProfileComplete) {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Profile incomplete, navigating to profile setup");
+            if (!session.profileComplete) {
+                AppLog.d(TAG, "Profile incomplete, navigating to profile setup");
                 navigateToProfileSetup(userType);
                 return;
             }
@@ -368,33 +355,35 @@ public class LauncherActivity extends AppCompatActivity {
             updateLoadingMessage("Unaingia...");
 
             // Use NavigationManager for centralized routing
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Using NavigationManager to route user with type: " + userType);
+            AppLog.d(TAG, "Using NavigationManager to route user with type: " + userType);
             
             try {
                 com.example.fowltyphoidmonitor.utils.NavigationManager.navigateToUserInterface(this, true);
                 finish();
             } catch (Exception navError) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - NavigationManager failed, using fallback", navError);
+                AppLog.e(TAG, "NavigationManager failed, using fallback", navError);
                 
                 // Fallback to manual routing
                 if (isAdmin || USER_TYPE_ADMIN.equalsIgnoreCase(userType) || "vet".equalsIgnoreCase(userType)) {
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Fallback: Routing vet/admin user to admin interface");
+                    AppLog.d(TAG, "Fallback: Routing vet/admin user to admin interface");
                     navigateToAdminInterface();
                 } else {
                     // Default to farmer interface for all non-admin users
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Fallback: Routing user to farmer interface");
+                    AppLog.d(TAG, "Fallback: Routing user to farmer interface");
                     navigateToFarmerInterface();
                 }
             }
 
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error in routeUser: " + e.getMessage(), e);
+            AppLog.e(TAG, "Error in routeUser: " + e.getMessage(), e);
             // Fallback to login selection on any error
             if (completionListener != null) {
                 completionListener.onLauncherCompleted(USER_TYPE_FARMER, false);
             } else {
                 safeNavigateToLoginSelection();
             }
+        } finally {
+            section.end();
         }
     }
 
@@ -403,18 +392,18 @@ public class LauncherActivity extends AppCompatActivity {
      */
     private void navigateToProfileSetup(String userType) {
         try {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Navigating to profile setup for user type: " + userType);
+            AppLog.d(TAG, "Navigating to profile setup for user type: " + userType);
 
             // Determine appropriate profile setup activity based on user type
             Intent intent;
 
-            if (USER_TYPE_ADMIN.equalsIgnoreCase(userType) || authManager.isAdmin() || authManager.isVet()) {
+            if (USER_TYPE_ADMIN.equalsIgnoreCase(userType) || session.admin || session.vet) {
                 // For admin/vet/doctor users, use AdminProfileEditActivity
                 try {
                     intent = new Intent(this, com.example.fowltyphoidmonitor.ui.vet.AdminProfileEditActivity.class);
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Using AdminProfileEditActivity for admin/vet user");
+                    AppLog.d(TAG, "Using AdminProfileEditActivity for admin/vet user");
                 } catch (Exception e) {
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - AdminProfileEditActivity failed, trying ProfileSetupActivity with admin flag");
+                    AppLog.d(TAG, "AdminProfileEditActivity failed, trying ProfileSetupActivity with admin flag");
                     intent = new Intent(this, ProfileSetupActivity.class);
                     intent.putExtra("isAdmin", true);
                     intent.putExtra("isVet", true);
@@ -423,9 +412,9 @@ public class LauncherActivity extends AppCompatActivity {
                 // Default to farmer profile setup for farmer users
                 try {
                     intent = new Intent(this, FarmerProfileEditActivity.class);
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Using FarmerProfileEditActivity for farmer user");
+                    AppLog.d(TAG, "Using FarmerProfileEditActivity for farmer user");
                 } catch (Exception e) {
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - FarmerProfileEditActivity failed, using generic ProfileSetupActivity");
+                    AppLog.d(TAG, "FarmerProfileEditActivity failed, using generic ProfileSetupActivity");
                     intent = new Intent(this, ProfileSetupActivity.class);
                     intent.putExtra("isFarmer", true);
                 }
@@ -434,19 +423,19 @@ public class LauncherActivity extends AppCompatActivity {
             // Add comprehensive user type information to intent
             intent.putExtra("userType", userType); // Changed: Use camelCase for consistency
             intent.putExtra("isNewUser", true);
-            intent.putExtra("isAdmin", authManager.isAdmin());
-            intent.putExtra("isVet", authManager.isVet());
-            intent.putExtra("isFarmer", authManager.isFarmer());
-            intent.putExtra("userEmail", authManager.getUserEmail());
-            intent.putExtra("userId", authManager.getUserId());
+            intent.putExtra("isAdmin", session.admin);
+            intent.putExtra("isVet", session.vet);
+            intent.putExtra("isFarmer", session.farmer);
+            intent.putExtra("userEmail", session.userEmail);
+            intent.putExtra("userId", session.userId);
 
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
             startActivity(intent);
             finish();
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully navigated to profile setup for user type: " + userType);
+            AppLog.d(TAG, "Successfully navigated to profile setup for user type: " + userType);
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error navigating to profile setup: " + e.getMessage(), e);
+            AppLog.e(TAG, "Error navigating to profile setup: " + e.getMessage(), e);
             // Fallback to login selection
             safeNavigateToLoginSelection();
         }
@@ -462,27 +451,17 @@ public class LauncherActivity extends AppCompatActivity {
             // Mark first launch as complete using SharedPreferencesManager
             prefManager.saveBoolean(KEY_FIRST_LAUNCH, false);
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - First launch marked as complete");
+            AppLog.d(TAG, "First launch marked as complete");
 
             // Trigger completion listener after first launch setup
-            if (navigationHandler != null) {
-                navigationHandler.postDelayed(() -> {
-                    if (completionListener != null) {
-                        completionListener.onLauncherCompleted(USER_TYPE_FARMER, false);
-                    } else {
-                        safeNavigateToLoginSelection();
-                    }
-                }, 1000);
+            if (completionListener != null) {
+                completionListener.onLauncherCompleted(USER_TYPE_FARMER, false);
             } else {
-                if (completionListener != null) {
-                    completionListener.onLauncherCompleted(USER_TYPE_FARMER, false);
-                } else {
-                    safeNavigateToLoginSelection();
-                }
+                safeNavigateToLoginSelection();
             }
 
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error handling first launch: " + e.getMessage());
+            AppLog.e(TAG, "Error handling first launch: " + e.getMessage());
             safeNavigateToLoginSelection();
         }
     }
@@ -494,13 +473,11 @@ public class LauncherActivity extends AppCompatActivity {
         try {
             Intent loginSelectionIntent = new Intent(LauncherActivity.this, LoginSelectionActivity.class);
 
-            // Pass user information to LoginSelectionActivity
-            boolean isLoggedIn = authManager.isLoggedIn();
-            String userType = authManager.getUserTypeSafe();
-            boolean isAdmin = authManager.isAdmin();
-
-            // getUserTypeSafe() already handles null/empty cases with fallback to "farmer"
-            // No additional fallback needed
+            // Pass user information to LoginSelectionActivity; before the session has
+            // been read (an error during start), fall back to a signed-out farmer
+            boolean isLoggedIn = session != null && session.loggedIn;
+            String userType = session != null ? session.userType : USER_TYPE_FARMER;
+            boolean isAdmin = session != null && session.admin;
 
             loginSelectionIntent.putExtra("isLoggedIn", isLoggedIn);
             loginSelectionIntent.putExtra("userType", userType);
@@ -513,16 +490,16 @@ public class LauncherActivity extends AppCompatActivity {
             startActivity(loginSelectionIntent);
             finish();
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully navigated to LoginSelectionActivity");
+            AppLog.d(TAG, "Successfully navigated to LoginSelectionActivity");
 
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error navigating to LoginSelectionActivity: " + e.getMessage());
+            AppLog.e(TAG, "Error navigating to LoginSelectionActivity: " + e.getMessage());
 
             // Try fallback login options
             try {
                 safeNavigateToDefaultLogin();
             } catch (Exception ex) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Critical navigation error: " + ex.getMessage());
+                AppLog.e(TAG, "Critical navigation error: " + ex.getMessage());
                 displayFallbackMessage();
                 finish();
             }
@@ -538,9 +515,9 @@ public class LauncherActivity extends AppCompatActivity {
             loginIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
             startActivity(loginIntent);
             finish();
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Fallback: Navigated to default LoginActivity");
+            AppLog.d(TAG, "Fallback: Navigated to default LoginActivity");
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Critical error: Cannot navigate to LoginActivity: " + e.getMessage());
+            AppLog.e(TAG, "Critical error: Cannot navigate to LoginActivity: " + e.getMessage());
             displayFallbackMessage();
             finish();
         }
@@ -555,7 +532,7 @@ public class LauncherActivity extends AppCompatActivity {
                     Toast.LENGTH_LONG).show();
         } catch (Exception e) {
             // Nothing more we can do
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Cannot even show toast: " + e.getMessage());
+            AppLog.e(TAG, "Cannot even show toast: " + e.getMessage());
         }
     }
 
@@ -578,16 +555,16 @@ public class LauncherActivity extends AppCompatActivity {
                 intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                 startActivity(intent);
                 finish();
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Navigated to fallback admin activity: " + className);
+                AppLog.d(TAG, "Navigated to fallback admin activity: " + className);
                 return;
             } catch (Exception e) {
-                Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Fallback admin activity not found: " + className);
+                AppLog.w(TAG, "Fallback admin activity not found: " + className);
                 // Continue to next class
             }
         }
 
         // If all fallbacks failed, try login selection with admin flag
-        Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - All admin fallbacks failed, going to login selection");
+        AppLog.e(TAG, "All admin fallbacks failed, going to login selection");
         Intent intent = new Intent(LauncherActivity.this, LoginSelectionActivity.class);
         intent.putExtra("isAdmin", true);
         intent.putExtra("userType", USER_TYPE_ADMIN);
@@ -602,7 +579,7 @@ public class LauncherActivity extends AppCompatActivity {
      */
     private void navigateToAdminInterface() {
         try {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Attempting to navigate admin user to appropriate interface");
+            AppLog.d(TAG, "Attempting to navigate admin user to appropriate interface");
 
             // Try AdminMainActivity first
             try {
@@ -611,10 +588,10 @@ public class LauncherActivity extends AppCompatActivity {
                 adminIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                 startActivity(adminIntent);
                 finish();
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully navigated to AdminMainActivity");
+                AppLog.d(TAG, "Successfully navigated to AdminMainActivity");
                 return;
             } catch (Exception e) {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - AdminMainActivity not found, trying DashboardActivity");
+                AppLog.d(TAG, "AdminMainActivity not found, trying DashboardActivity");
             }
 
             // Try DashboardActivity with admin type as secondary option
@@ -625,17 +602,17 @@ public class LauncherActivity extends AppCompatActivity {
                 adminIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                 startActivity(adminIntent);
                 finish();
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully navigated to admin dashboard");
+                AppLog.d(TAG, "Successfully navigated to admin dashboard");
                 return;
             } catch (Exception e) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - DashboardActivity failed, using fallback activities");
+                AppLog.e(TAG, "DashboardActivity failed, using fallback activities");
             }
 
             // Try other fallback activities
             tryFallbackAdminActivities();
 
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error navigating to admin interface: " + e.getMessage());
+            AppLog.e(TAG, "Error navigating to admin interface: " + e.getMessage());
             // Ultimate fallback: go to login selection
             safeNavigateToLoginSelection();
         }
@@ -652,9 +629,9 @@ public class LauncherActivity extends AppCompatActivity {
             farmerIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
             startActivity(farmerIntent);
             finish();
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully navigated to MainActivity");
+            AppLog.d(TAG, "Successfully navigated to MainActivity");
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error navigating to MainActivity: " + e.getMessage());
+            AppLog.e(TAG, "Error navigating to MainActivity: " + e.getMessage());
 
             // Try fallback to DashboardActivity
             try {
@@ -663,9 +640,9 @@ public class LauncherActivity extends AppCompatActivity {
                 intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                 startActivity(intent);
                 finish();
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Navigated to fallback DashboardActivity as farmer");
+                AppLog.d(TAG, "Navigated to fallback DashboardActivity as farmer");
             } catch (Exception ex) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Fallback to DashboardActivity failed: " + ex.getMessage());
+                AppLog.e(TAG, "Fallback to DashboardActivity failed: " + ex.getMessage());
                 safeNavigateToLoginSelection();
             }
         }
@@ -679,9 +656,9 @@ public class LauncherActivity extends AppCompatActivity {
             if (txtLoadingMessage != null) {
                 txtLoadingMessage.setText(message);
             }
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Loading: " + message);
+            AppLog.d(TAG, "Loading: " + message);
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error updating loading message: " + e.getMessage());
+            AppLog.e(TAG, "Error updating loading message: " + e.getMessage());
         }
     }
 
@@ -692,23 +669,4 @@ public class LauncherActivity extends AppCompatActivity {
         completionListener = listener;
     }
 
-    /**
-     * Get current UTC time formatted as string
-     */
-    private String getCurrentTime() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
-        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-        return dateFormat.format(new Date());
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Optional: refresh user state when activity resumes
-        try {
-            logUserState();
-        } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error in onResume: " + e.getMessage());
-        }
-    }
 }
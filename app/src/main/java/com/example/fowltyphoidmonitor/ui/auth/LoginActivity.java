@@ -7,7 +7,6 @@ import android.os.Bundle;
 import android.text.Spannable;
 import android.text.SpannableStringBuilder;
 import android.text.TextUtils;
-import android.util.Log;
 import android.util.Patterns;
 import android.view.View;
 import android.widget.ProgressBar;
@@ -28,16 +27,13 @@ import com.example.fowltyphoidmonitor.ui.vet.AdminMainActivity;
 import com.example.fowltyphoidmonitor.ui.common.DashboardActivity;
 import com.example.fowltyphoidmonitor.ui.farmer.FarmerProfileEditActivity;
 import com.example.fowltyphoidmonitor.ui.farmer.MainActivity;
+import com.example.fowltyphoidmonitor.utils.AppLog;
 import com.example.fowltyphoidmonitor.utils.SharedPreferencesManager;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
-import java.util.TimeZone;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -74,7 +70,7 @@ public class LoginActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - LoginActivity onCreate");
+        AppLog.d(TAG, "LoginActivity onCreate");
 
         authManager = AuthManager.getInstance(this);
         prefManager = new SharedPreferencesManager(this);
@@ -82,19 +78,19 @@ public class LoginActivity extends AppCompatActivity {
         // CRITICAL FIX: Check if userType was passed from UserTypeSelectionActivity
         String intentUserType = getIntent().getStringExtra("userType");
         if (intentUserType != null && !intentUserType.isEmpty()) {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User type specified in intent: " + intentUserType);
+            AppLog.d(TAG, "User type specified in intent: " + intentUserType);
             authManager.setUserType(intentUserType);
             
             // DEBUG: Verify it was set correctly
             String verifyType = authManager.getUserTypeSafe();
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - VERIFICATION: User type after setting: " + verifyType);
+            AppLog.d(TAG, "VERIFICATION: User type after setting: " + verifyType);
         } else {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - No user type in intent, current user type: " + authManager.getUserTypeSafe());
+            AppLog.d(TAG, "No user type in intent, current user type: " + authManager.getUserTypeSafe());
         }
 
         // Check if user is already logged in
         if (authManager.isLoggedIn()) {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User already logged in, navigating based on user type");
+            AppLog.d(TAG, "User already logged in, navigating based on user type");
             navigateBasedOnUserType();
             return;
         }
@@ -116,7 +112,7 @@ public class LoginActivity extends AppCompatActivity {
         tvErrorBanner = findViewById(R.id.tvErrorBanner);
         progressBar = findViewById(R.id.progressBar);
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Views initialized");
+        AppLog.d(TAG, "Views initialized");
     }
 
     private void setupClickListeners() {
@@ -124,11 +120,11 @@ public class LoginActivity extends AppCompatActivity {
         if (btnRegister != null) btnRegister.setOnClickListener(v -> navigateToRegister());
         if (tvForgotPassword != null) tvForgotPassword.setOnClickListener(v -> handleForgotPassword());
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Click listeners setup");
+        AppLog.d(TAG, "Click listeners setup");
     }
 
     private void performLogin() {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - performLogin started");
+        AppLog.d(TAG, "performLogin started");
 
         clearEditTextSpans(etUsername);
         clearEditTextSpans(etPassword);
@@ -136,17 +132,17 @@ public class LoginActivity extends AppCompatActivity {
         String identifier = etUsername.getText() != null ? etUsername.getText().toString().trim() : "";
         String password = etPassword.getText() != null ? etPassword.getText().toString() : "";
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Login attempt with identifier: " + identifier);
+        AppLog.d(TAG, "Login attempt with identifier: " + identifier);
 
         // Validate
         if (TextUtils.isEmpty(identifier)) {
             tilUsername.setError("Tafadhali ingiza barua pepe au namba ya simu");
-            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Empty identifier");
+            AppLog.w(TAG, "Empty identifier");
             return;
         }
         if (TextUtils.isEmpty(password)) {
             tilPassword.setError("Tafadhali ingiza nenosiri");
-            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Empty password");
+            AppLog.w(TAG, "Empty password");
             return;
         }
         tilUsername.setError(null);
@@ -155,12 +151,12 @@ public class LoginActivity extends AppCompatActivity {
         showLoading(true);
 
         boolean isEmail = Patterns.EMAIL_ADDRESS.matcher(identifier).matches();
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - isEmail: " + isEmail);
+        AppLog.d(TAG, "isEmail: " + isEmail);
 
         AuthManager.AuthCallback callback = new AuthManager.AuthCallback() {
             @Override
             public void onSuccess(AuthResponse response) {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Login authentication successful");
+                AppLog.d(TAG, "Login authentication successful");
                 showLoading(false);
 
                 if (response != null && response.getUser() != null) {
@@ -171,7 +167,7 @@ public class LoginActivity extends AppCompatActivity {
                     String phone = response.getUser().getPhone();
                     String displayName = response.getUser().getDisplayName();
 
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Saving auth data for userId: " + userId);
+                    AppLog.d(TAG, "Saving auth data for userId: " + userId);
                     authManager.saveAuthData(accessToken, refreshToken, userId, email, phone, displayName);
                     
                     // Debug auth state after saving
@@ -179,31 +175,31 @@ public class LoginActivity extends AppCompatActivity {
                     
                     // CRITICAL FIX: Route based on user type
                     String userType = authManager.getUserTypeSafe();
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User type after auth: '" + userType + "'");
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Checking user type conditions...");
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Is vet? " + "vet".equalsIgnoreCase(userType));
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Is admin? " + "admin".equalsIgnoreCase(userType));
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Is doctor? " + "doctor".equalsIgnoreCase(userType));
+                    AppLog.d(TAG, "User type after auth: '" + userType + "'");
+                    AppLog.d(TAG, "Checking user type conditions...");
+                    AppLog.d(TAG, "Is vet? " + "vet".equalsIgnoreCase(userType));
+                    AppLog.d(TAG, "Is admin? " + "admin".equalsIgnoreCase(userType));
+                    AppLog.d(TAG, "Is doctor? " + "doctor".equalsIgnoreCase(userType));
                     
                     if ("vet".equalsIgnoreCase(userType) || "admin".equalsIgnoreCase(userType) || "doctor".equalsIgnoreCase(userType)) {
-                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - ✅ MEDICAL PROFESSIONAL DETECTED: '" + userType + "' - navigating to vet interface");
+                        AppLog.d(TAG, "✅ MEDICAL PROFESSIONAL DETECTED: '" + userType + "' - navigating to vet interface");
                         // Use NavigationManager for consistent routing
                         authManager.setLoggedIn(true);
                         com.example.fowltyphoidmonitor.utils.NavigationManager.navigateToUserInterface(LoginActivity.this, true);
                         finish();
                     } else {
-                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - ❌ FARMER USER DETECTED: '" + userType + "' - checking farmer profile");
+                        AppLog.d(TAG, "❌ FARMER USER DETECTED: '" + userType + "' - checking farmer profile");
                         checkFarmerProfile(accessToken, userId, email);
                     }
                 } else {
-                    Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Auth response or user is null");
+                    AppLog.e(TAG, "Auth response or user is null");
                     showError("Tatizo la uthibitisho, tafadhali jaribu tena.");
                 }
             }
 
             @Override
             public void onError(String error) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Login authentication failed: " + error);
+                AppLog.e(TAG, "Login authentication failed: " + error);
                 showLoading(false);
 
                 if (error != null) {
@@ -224,23 +220,23 @@ public class LoginActivity extends AppCompatActivity {
         };
 
         if (isEmail) {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Attempting email login");
+            AppLog.d(TAG, "Attempting email login");
             // Pass the userType from Intent to AuthManager
             String intentUserType = getIntent().getStringExtra("userType");
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Passing userType to AuthManager: '" + intentUserType + "'");
+            AppLog.d(TAG, "Passing userType to AuthManager: '" + intentUserType + "'");
             authManager.login(identifier, password, intentUserType, callback);
         } else {
             String formattedPhone = formatPhoneNumber(identifier);
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Attempting phone login with: " + formattedPhone);
+            AppLog.d(TAG, "Attempting phone login with: " + formattedPhone);
             // Pass the userType from Intent to AuthManager
             String intentUserType = getIntent().getStringExtra("userType");
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Passing userType to AuthManager: '" + intentUserType + "'");
+            AppLog.d(TAG, "Passing userType to AuthManager: '" + intentUserType + "'");
             authManager.loginWithPhone(formattedPhone, password, intentUserType, callback);
         }
     }
 
     private void checkFarmerProfile(String accessToken, String userId, String email) {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - checkFarmerProfile for userId: " + userId);
+        AppLog.d(TAG, "checkFarmerProfile for userId: " + userId);
         showLoading(true);
 
         ApiClient.getApiService().getFarmerByUserId(
@@ -250,18 +246,18 @@ public class LoginActivity extends AppCompatActivity {
         ).enqueue(new Callback<List<Farmer>>() {
             @Override
             public void onResponse(@NonNull Call<List<Farmer>> call, @NonNull Response<List<Farmer>> response) {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - getFarmerByUserId response code: " + response.code());
+                AppLog.d(TAG, "getFarmerByUserId response code: " + response.code());
                 showLoading(false);
 
                 if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
                     Farmer farmer = response.body().get(0); // Get first farmer from list
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Farmer found: " + farmer.getFarmerId() + ", profile complete: " + farmer.isProfileComplete());
+                    AppLog.d(TAG, "Farmer found: " + farmer.getFarmerId() + ", profile complete: " + farmer.isProfileComplete());
 
                     if (farmer.isProfileComplete()) {
                         // CRITICAL FIX: Mark profile as complete in AuthManager to prevent repeated profile setup
                         AuthManager authManager = AuthManager.getInstance(LoginActivity.this);
                         authManager.markProfileComplete();
-                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Profile marked as complete in AuthManager");
+                        AppLog.d(TAG, "Profile marked as complete in AuthManager");
                         
                         saveFarmerIdToPrefs(farmer.getFarmerId());
                         goToMainActivity();
@@ -269,18 +265,18 @@ public class LoginActivity extends AppCompatActivity {
                         redirectToProfileEdit(true);
                     }
                 } else if (response.code() == 404) {
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Farmer not found by userId, checking by email");
+                    AppLog.d(TAG, "Farmer not found by userId, checking by email");
                     checkFarmerByEmail(accessToken, email);
                 } else if (response.code() == 401) {
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Unauthorized access - user exists but no farmer profile");
+                    AppLog.d(TAG, "Unauthorized access - user exists but no farmer profile");
                     // User authenticated successfully but no farmer profile exists
                     // This is normal for new users, redirect to profile creation
                     redirectToProfileEdit(true);
                 } else {
-                    Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to get farmer profile: " + response.code());
+                    AppLog.e(TAG, "Failed to get farmer profile: " + response.code());
                     // For new users without farmer profiles, redirect to profile creation instead of showing error
                     if (response.code() == 404) {
-                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - No farmer profile found, redirecting to profile creation");
+                        AppLog.d(TAG, "No farmer profile found, redirecting to profile creation");
                         redirectToProfileEdit(true);
                     } else {
                         showError("Hitilafu ya kupata taarifa. Jaribu tena.");
@@ -290,7 +286,7 @@ public class LoginActivity extends AppCompatActivity {
 
             @Override
             public void onFailure(@NonNull Call<List<Farmer>> call, @NonNull Throwable t) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - getFarmerByUserId failed: " + t.getMessage(), t);
+                AppLog.e(TAG, "getFarmerByUserId failed: " + t.getMessage(), t);
                 showLoading(false);
                 showError("Hitilafu ya mtandao. Tafadhali angalia muunganisho wako.");
             }
@@ -298,7 +294,7 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void checkFarmerByEmail(String accessToken, String email) {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - checkFarmerByEmail for: " + email);
+        AppLog.d(TAG, "checkFarmerByEmail for: " + email);
         showLoading(true);
 
         ApiClient.getApiService().getFarmerByEmail(
@@ -308,18 +304,18 @@ public class LoginActivity extends AppCompatActivity {
         ).enqueue(new Callback<List<Farmer>>() {
             @Override
             public void onResponse(@NonNull Call<List<Farmer>> call, @NonNull Response<List<Farmer>> response) {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - getFarmerByEmail response code: " + response.code());
+                AppLog.d(TAG, "getFarmerByEmail response code: " + response.code());
                 showLoading(false);
 
                 if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
                     Farmer farmer = response.body().get(0); // Get first farmer from list
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Farmer found by email: " + farmer.getFarmerId() + ", profile complete: " + farmer.isProfileComplete());
+                    AppLog.d(TAG, "Farmer found by email: " + farmer.getFarmerId() + ", profile complete: " + farmer.isProfileComplete());
 
                     if (farmer.isProfileComplete()) {
                         // CRITICAL FIX: Mark profile as complete in AuthManager to prevent repeated profile setup
                         AuthManager authManager = AuthManager.getInstance(LoginActivity.this);
                         authManager.markProfileComplete();
-                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Profile marked as complete in AuthManager");
+                        AppLog.d(TAG, "Profile marked as complete in AuthManager");
                         
                         saveFarmerIdToPrefs(farmer.getFarmerId());
                         goToMainActivity();
@@ -327,14 +323,14 @@ public class LoginActivity extends AppCompatActivity {
                         redirectToProfileEdit(true);
                     }
                 } else {
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - No farmer found by email, redirecting to profile edit");
+                    AppLog.d(TAG, "No farmer found by email, redirecting to profile edit");
                     redirectToProfileEdit(true);
                 }
             }
 
             @Override
             public void onFailure(@NonNull Call<List<Farmer>> call, @NonNull Throwable t) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - getFarmerByEmail failed: " + t.getMessage(), t);
+                AppLog.e(TAG, "getFarmerByEmail failed: " + t.getMessage(), t);
                 showLoading(false);
                 showError("Hitilafu ya mtandao. Tafadhali angalia muunganisho wako.");
             }
@@ -342,7 +338,7 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void redirectToProfileEdit(boolean isNewUser) {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Redirecting to profile edit, isNewUser: " + isNewUser);
+        AppLog.d(TAG, "Redirecting to profile edit, isNewUser: " + isNewUser);
         Intent intent = new Intent(LoginActivity.this, FarmerProfileEditActivity.class);
         intent.putExtra("isNewUser", isNewUser);
         startActivity(intent);
@@ -350,7 +346,7 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void goToMainActivity() {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Navigating to MainActivity");
+        AppLog.d(TAG, "Navigating to MainActivity");
         Intent intent = new Intent(LoginActivity.this, MainActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
         startActivity(intent);
@@ -358,13 +354,13 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void saveFarmerIdToPrefs(String farmerId) {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Saving farmerId to prefs: " + farmerId);
+        AppLog.d(TAG, "Saving farmerId to prefs: " + farmerId);
         SharedPreferences prefs = getSharedPreferences(PREFS_FILE, Context.MODE_PRIVATE);
         prefs.edit().putString(KEY_FARMER_ID, farmerId).apply();
     }
 
     private void showError(String message) {
-        Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Showing error: " + message);
+        AppLog.e(TAG, "Showing error: " + message);
         if (tvErrorBanner != null) {
             tvErrorBanner.setText(message);
             tvErrorBanner.setVisibility(View.VISIBLE);
@@ -374,7 +370,7 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void showLoading(boolean isLoading) {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - showLoading: " + isLoading);
+        AppLog.d(TAG, "showLoading: " + isLoading);
 
         if (btnLogin != null) {
             btnLogin.setEnabled(!isLoading);
@@ -415,46 +411,46 @@ public class LoginActivity extends AppCompatActivity {
                 phoneNumber = "+255" + phoneNumber;
             }
         }
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Formatted phone number: " + phoneNumber);
+        AppLog.d(TAG, "Formatted phone number: " + phoneNumber);
         return phoneNumber;
     }
 
     private void handleForgotPassword() {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - handleForgotPassword");
+        AppLog.d(TAG, "handleForgotPassword");
         Toast.makeText(this, "Kwa msaada wa nenosiri, wasiliana na msimamizi", Toast.LENGTH_LONG).show();
     }
 
     private void navigateToRegister() {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - navigateToRegister");
+        AppLog.d(TAG, "navigateToRegister");
         try {
             Intent intent = new Intent(LoginActivity.this, RegisterSelectionActivity.class);
             startActivity(intent);
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - RegisterSelectionActivity not found, using RegisterActivity", e);
+            AppLog.e(TAG, "RegisterSelectionActivity not found, using RegisterActivity", e);
             Intent intent = new Intent(LoginActivity.this, RegisterActivity.class);
             startActivity(intent);
         }
     }
 
     private void navigateBasedOnUserType() {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - navigateBasedOnUserType called");
+        AppLog.d(TAG, "navigateBasedOnUserType called");
         
         if (!authManager.isSessionValid()) {
-            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - Invalid session detected, clearing and restarting login");
+            AppLog.w(TAG, "Invalid session detected, clearing and restarting login");
             authManager.logout();
             recreate();
             return;
         }
         
         String userType = authManager.getUserTypeSafe();
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User type: '" + userType + "'");
+        AppLog.d(TAG, "User type: '" + userType + "'");
         
         try {
             // Use NavigationManager for centralized routing
             com.example.fowltyphoidmonitor.utils.NavigationManager.navigateToUserInterface(this, true);
             finish();
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Navigation failed", e);
+            AppLog.e(TAG, "Navigation failed", e);
             Toast.makeText(this, "Navigation error. Please try logging in again.", Toast.LENGTH_LONG).show();
             authManager.logout();
             recreate();
@@ -462,7 +458,7 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void navigateToVetInterface() {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - navigateToVetInterface");
+        AppLog.d(TAG, "navigateToVetInterface");
         authManager.setLoggedIn(true);
         try {
             // Primary: Try AdminMainActivity
@@ -470,18 +466,18 @@ public class LoginActivity extends AppCompatActivity {
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
             startActivity(intent);
             finish();
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully navigated to AdminMainActivity");
+            AppLog.d(TAG, "Successfully navigated to AdminMainActivity");
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - AdminMainActivity failed, trying VetConsultationInboxActivity", e);
+            AppLog.e(TAG, "AdminMainActivity failed, trying VetConsultationInboxActivity", e);
             try {
                 // Fallback 1: Try the new comprehensive vet consultation system
                 Intent intent = new Intent(LoginActivity.this, com.example.fowltyphoidmonitor.ui.vet.VetConsultationInboxActivity.class);
                 intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                 startActivity(intent);
                 finish();
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully navigated to VetConsultationInboxActivity");
+                AppLog.d(TAG, "Successfully navigated to VetConsultationInboxActivity");
             } catch (Exception e2) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - VetConsultationInboxActivity failed, trying AdminConsultationActivity", e2);
+                AppLog.e(TAG, "VetConsultationInboxActivity failed, trying AdminConsultationActivity", e2);
                 try {
                     // Fallback 2: Try AdminConsultationActivity
                     Intent intent = new Intent(LoginActivity.this, AdminConsultationActivity.class);
@@ -489,9 +485,9 @@ public class LoginActivity extends AppCompatActivity {
                     intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                     startActivity(intent);
                     finish();
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully navigated to AdminConsultationActivity");
+                    AppLog.d(TAG, "Successfully navigated to AdminConsultationActivity");
                 } catch (Exception e3) {
-                    Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - All vet activities failed", e3);
+                    AppLog.e(TAG, "All vet activities failed", e3);
                     Toast.makeText(this, "Hitilafu: Imeshindikana kufungua ukurasa wa madaktari.\n\nTafadhali:\n1. Hakikisha umeinstall programu kwa usahihi\n2. Jaribu kutoka na kuingia tena\n3. Wasiliana na msimamizi wa mfumo", Toast.LENGTH_LONG).show();
                     authManager.logout(); // Clear session to force fresh login
                 }
@@ -499,15 +495,10 @@ public class LoginActivity extends AppCompatActivity {
         }
     }
 
-    private String getCurrentTime() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
-        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT+03:00"));
-        return dateFormat.format(new Date());
-    }
 
     @Override
     protected void onDestroy() {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - onDestroy");
+        AppLog.d(TAG, "onDestroy");
         super.onDestroy();
         authManager = null;
         prefManager = null;
@@ -515,7 +506,7 @@ public class LoginActivity extends AppCompatActivity {
 
     @Override
     public void onBackPressed() {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - onBackPressed");
+        AppLog.d(TAG, "onBackPressed");
         super.onBackPressed();
     }
 }
@@ -15,13 +15,11 @@ import androidx.cardview.widget.CardView;
 import com.example.fowltyphoidmonitor.services.auth.AuthManager;
 import com.example.fowltyphoidmonitor.R;
 import com.example.fowltyphoidmonitor.ui.farmer.MainActivity;
+import com.example.fowltyphoidmonitor.utils.AppLog;
 import com.example.fowltyphoidmonitor.utils.SharedPreferencesManager;
+import com.example.fowltyphoidmonitor.utils.StartupTrace;
 import com.google.android.material.button.MaterialButton;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
-import java.util.TimeZone;
 
 /**
  * LoginSelectionActivity - Allows users to choose their account type
@@ -55,6 +53,7 @@ public class LoginSelectionActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTrace.finishOnFirstFrame(this);
         setContentView(R.layout.activity_login_selection);
 
         // Initialize managers
@@ -82,7 +81,7 @@ public class LoginSelectionActivity extends AppCompatActivity {
         // Log user information
         logUserInfo();
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - LoginSelectionActivity created successfully");
+        AppLog.d(TAG, "LoginSelectionActivity created successfully");
     }
 
     /**
@@ -97,7 +96,7 @@ public class LoginSelectionActivity extends AppCompatActivity {
                 fromLauncher = intent.getBooleanExtra("fromLauncher", false);
             }
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error getting intent data: " + e.getMessage());
+            AppLog.e(TAG, "Error getting intent data: " + e.getMessage());
         }
     }
 
@@ -118,9 +117,9 @@ public class LoginSelectionActivity extends AppCompatActivity {
             // Logo
             imgLogo = findViewById(R.id.imgLogo);
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Views initialized successfully");
+            AppLog.d(TAG, "Views initialized successfully");
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error initializing views: " + e.getMessage());
+            AppLog.e(TAG, "Error initializing views: " + e.getMessage());
         }
     }
 
@@ -132,7 +131,7 @@ public class LoginSelectionActivity extends AppCompatActivity {
         // Veterinarian/Admin login - Navigate to AdminLoginActivity
         View.OnClickListener vetLoginClick = v -> {
             try {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Daktari wa Mifugo clicked");
+                AppLog.d(TAG, "Daktari wa Mifugo clicked");
                 animateCardClick(cardVetLogin);
 
                 // Save user type preference
@@ -144,10 +143,10 @@ public class LoginSelectionActivity extends AppCompatActivity {
                 loginIntent.putExtra("fromSelection", true);
                 startActivity(loginIntent);
 
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully navigated to LoginActivity");
+                AppLog.d(TAG, "Successfully navigated to LoginActivity");
 
             } catch (Exception e) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error navigating to LoginActivity: " + e.getMessage());
+                AppLog.e(TAG, "Error navigating to LoginActivity: " + e.getMessage());
                 showNavigationError("Hitilafu imetokea wakati wa kwenda kwenye skrini ya daktari");
             }
         };
@@ -155,7 +154,7 @@ public class LoginSelectionActivity extends AppCompatActivity {
         // Farmer login - Navigate to LoginActivity
         View.OnClickListener farmerLoginClick = v -> {
             try {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Mfugaji clicked");
+                AppLog.d(TAG, "Mfugaji clicked");
                 animateCardClick(cardFarmerLogin);
 
                 // Save user type preference
@@ -167,10 +166,10 @@ public class LoginSelectionActivity extends AppCompatActivity {
                 farmerLoginIntent.putExtra("fromSelection", true);
                 startActivity(farmerLoginIntent);
 
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully navigated to LoginActivity");
+                AppLog.d(TAG, "Successfully navigated to LoginActivity");
 
             } catch (Exception e) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error navigating to LoginActivity: " + e.getMessage());
+                AppLog.e(TAG, "Error navigating to LoginActivity: " + e.getMessage());
                 showNavigationError("Hitilafu imetokea wakati wa kwenda kwenye skrini ya mfugaji");
             }
         };
@@ -188,10 +187,10 @@ public class LoginSelectionActivity extends AppCompatActivity {
         if (txtSupport != null) {
             txtSupport.setOnClickListener(v -> {
                 try {
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Support contact clicked");
+                    AppLog.d(TAG, "Support contact clicked");
                     showSupportOptions();
                 } catch (Exception e) {
-                    Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error showing support options: " + e.getMessage());
+                    AppLog.e(TAG, "Error showing support options: " + e.getMessage());
                 }
             });
         }
@@ -260,9 +259,9 @@ public class LoginSelectionActivity extends AppCompatActivity {
                         .setStartDelay(1000);
             }
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Animations setup successfully");
+            AppLog.d(TAG, "Animations setup successfully");
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error setting up animations: " + e.getMessage());
+            AppLog.e(TAG, "Error setting up animations: " + e.getMessage());
         }
     }
 
@@ -291,10 +290,10 @@ public class LoginSelectionActivity extends AppCompatActivity {
      */
     private void showNavigationError(String message) {
         try {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Navigation Error: " + message);
+            AppLog.e(TAG, "Navigation Error: " + message);
             Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error showing navigation error: " + e.getMessage());
+            AppLog.e(TAG, "Error showing navigation error: " + e.getMessage());
         }
     }
 
@@ -303,7 +302,7 @@ public class LoginSelectionActivity extends AppCompatActivity {
      */
     private void showSupportOptions() {
         try {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Support options requested");
+            AppLog.d(TAG, "Support options requested");
 
             // Show a toast with contact information
             Toast.makeText(this,
@@ -311,7 +310,7 @@ public class LoginSelectionActivity extends AppCompatActivity {
                     Toast.LENGTH_LONG).show();
 
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error showing support options: " + e.getMessage());
+            AppLog.e(TAG, "Error showing support options: " + e.getMessage());
         }
     }
 
@@ -325,7 +324,7 @@ public class LoginSelectionActivity extends AppCompatActivity {
             startActivity(intent);
             finish();
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error navigating to main activity", e);
+            AppLog.e(TAG, "Error navigating to main activity", e);
         }
     }
 
@@ -334,11 +333,11 @@ public class LoginSelectionActivity extends AppCompatActivity {
      */
     private void logUserInfo() {
         try {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User Info - LoggedIn: " + isLoggedIn +
+            AppLog.d(TAG, "User Info - LoggedIn: " + isLoggedIn +
                     ", UserType: " + userType +
                     ", FromLauncher: " + fromLauncher);
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error logging user info: " + e.getMessage());
+            AppLog.e(TAG, "Error logging user info: " + e.getMessage());
         }
     }
 
@@ -348,7 +347,7 @@ public class LoginSelectionActivity extends AppCompatActivity {
     @Override
     public void onBackPressed() {
         try {
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Back button pressed");
+            AppLog.d(TAG, "Back button pressed");
 
             if (fromLauncher) {
                 // If we came from launcher, close the app
@@ -358,7 +357,7 @@ public class LoginSelectionActivity extends AppCompatActivity {
                 super.onBackPressed();
             }
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error handling back press: " + e.getMessage());
+            AppLog.e(TAG, "Error handling back press: " + e.getMessage());
             super.onBackPressed();
         }
     }
@@ -373,36 +372,28 @@ public class LoginSelectionActivity extends AppCompatActivity {
             prefManager.saveString("selectedUserType", selectedUserType);
             prefManager.saveLong("selectionTimestamp", System.currentTimeMillis());
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User selection saved: " + selectedUserType);
+            AppLog.d(TAG, "User selection saved: " + selectedUserType);
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error saving user selection: " + e.getMessage());
+            AppLog.e(TAG, "Error saving user selection: " + e.getMessage());
         }
     }
 
-    /**
-     * Get current UTC time formatted as string
-     */
-    private String getCurrentTime() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
-        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-        return dateFormat.format(new Date());
-    }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - LoginSelectionActivity destroyed");
+        AppLog.d(TAG, "LoginSelectionActivity destroyed");
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - LoginSelectionActivity paused");
+        AppLog.d(TAG, "LoginSelectionActivity paused");
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - LoginSelectionActivity resumed");
+        AppLog.d(TAG, "LoginSelectionActivity resumed");
     }
 }
\ No newline at end of file
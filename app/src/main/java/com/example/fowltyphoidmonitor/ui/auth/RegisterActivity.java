@@ -4,7 +4,6 @@ import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
 import android.text.TextUtils;
-import android.util.Log;
 import android.util.Patterns;
 import android.view.View;
 import android.widget.ImageButton;
@@ -20,17 +19,14 @@ import com.example.fowltyphoidmonitor.ui.vet.AdminMainActivity;
 import com.example.fowltyphoidmonitor.ui.common.ProfileActivity;
 import com.example.fowltyphoidmonitor.ui.farmer.FarmerProfileEditActivity;
 import com.example.fowltyphoidmonitor.ui.farmer.MainActivity;
+import com.example.fowltyphoidmonitor.utils.AppLog;
 import com.example.fowltyphoidmonitor.utils.SharedPreferencesManager;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
 
 /**
  * RegisterActivity - Handles user registration for farmers and veterinarians
@@ -116,7 +112,7 @@ public class RegisterActivity extends AppCompatActivity {
         setupListeners();
         updateUIForUserType();
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - RegisterActivity initialized with user type: " + userType);
+        AppLog.d(TAG, "RegisterActivity initialized with user type: " + userType);
     }
 
     private void initializeViews() {
@@ -190,11 +186,11 @@ public class RegisterActivity extends AppCompatActivity {
         authManager.signUp(email, password, userType, new AuthManager.AuthCallback() {
             @Override
             public void onSuccess(AuthResponse response) {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Registration successful");
+                AppLog.d(TAG, "Registration successful");
                 
                 // Ensure user type is saved immediately after registration
                 authManager.setUserType(userType);
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User type set to: " + userType);
+                AppLog.d(TAG, "User type set to: " + userType);
                 
                 setLoadingState(false);
                 navigateToProfileSetup();
@@ -202,7 +198,7 @@ public class RegisterActivity extends AppCompatActivity {
 
             @Override
             public void onError(String message) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Registration error: " + message);
+                AppLog.e(TAG, "Registration error: " + message);
                 setLoadingState(false);
                 showError(getString(R.string.registration_error));
             }
@@ -272,11 +268,6 @@ public class RegisterActivity extends AppCompatActivity {
         finish();
     }
 
-    private String getCurrentTime() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-        sdf.setTimeZone(TimeZone.getDefault());
-        return sdf.format(new Date());
-    }
 
     private void navigateToMainScreen() {
         // Get the appropriate activity based on user type
@@ -2,7 +2,6 @@ package com.example.fowltyphoidmonitor.ui.auth;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.View;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -14,13 +13,10 @@ import com.example.fowltyphoidmonitor.services.auth.AuthManager;
 import com.example.fowltyphoidmonitor.R;
 import com.example.fowltyphoidmonitor.ui.vet.AdminRegisterActivity;
 import com.example.fowltyphoidmonitor.ui.farmer.MainActivity;
+import com.example.fowltyphoidmonitor.utils.AppLog;
 import com.example.fowltyphoidmonitor.utils.SharedPreferencesManager;
 import com.google.android.material.button.MaterialButton;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
-import java.util.TimeZone;
 
 /**
  * RegisterSelectionActivity - Allows users to choose registration type
@@ -68,7 +64,7 @@ public class RegisterSelectionActivity extends AppCompatActivity {
         // Setup animations
         setupAnimations();
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - RegisterSelectionActivity created");
+        AppLog.d(TAG, "RegisterSelectionActivity created");
     }
 
     /**
@@ -88,7 +84,7 @@ public class RegisterSelectionActivity extends AppCompatActivity {
             txtSupport = findViewById(R.id.txtSupport);
 
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error initializing views: " + e.getMessage());
+            AppLog.e(TAG, "Error initializing views: " + e.getMessage());
         }
     }
 
@@ -100,7 +96,7 @@ public class RegisterSelectionActivity extends AppCompatActivity {
         View.OnClickListener vetRegisterClick = v -> {
             try {
                 animateCardClick(cardVetRegister);
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User selected Vet registration");
+                AppLog.d(TAG, "User selected Vet registration");
 
                 // Save selected user type in preferences
                 prefManager.setUserType("vet");
@@ -116,12 +112,12 @@ public class RegisterSelectionActivity extends AppCompatActivity {
                         Intent adminRegisterIntent = new Intent(RegisterSelectionActivity.this, AdminRegisterActivity.class);
                         startActivity(adminRegisterIntent);
                     } catch (Exception ex) {
-                        Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error navigating to vet registration: " + e.getMessage());
+                        AppLog.e(TAG, "Error navigating to vet registration: " + e.getMessage());
                         navigateToGenericRegister();
                     }
                 }
             } catch (Exception e) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error in vet registration click: " + e.getMessage());
+                AppLog.e(TAG, "Error in vet registration click: " + e.getMessage());
                 navigateToGenericRegister();
             }
         };
@@ -132,7 +128,7 @@ public class RegisterSelectionActivity extends AppCompatActivity {
         View.OnClickListener farmerRegisterClick = v -> {
             try {
                 animateCardClick(cardFarmerRegister);
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User selected Farmer registration");
+                AppLog.d(TAG, "User selected Farmer registration");
 
                 // Save selected user type in preferences
                 prefManager.setUserType("farmer");
@@ -141,7 +137,7 @@ public class RegisterSelectionActivity extends AppCompatActivity {
                 farmerRegisterIntent.putExtra("userType", "farmer");
                 startActivity(farmerRegisterIntent);
             } catch (Exception e) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error navigating to farmer registration: " + e.getMessage());
+                AppLog.e(TAG, "Error navigating to farmer registration: " + e.getMessage());
                 navigateToGenericRegister();
             }
         };
@@ -151,7 +147,7 @@ public class RegisterSelectionActivity extends AppCompatActivity {
         // Back to login
         if (btnBackToLogin != null) {
             btnBackToLogin.setOnClickListener(v -> {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User clicked back to login");
+                AppLog.d(TAG, "User clicked back to login");
                 navigateToLogin();
             });
         }
@@ -159,7 +155,7 @@ public class RegisterSelectionActivity extends AppCompatActivity {
         // Support contact
         if (txtSupport != null) {
             txtSupport.setOnClickListener(v -> {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Support contact clicked");
+                AppLog.d(TAG, "Support contact clicked");
                 showSupportInfo();
             });
         }
@@ -211,7 +207,7 @@ public class RegisterSelectionActivity extends AppCompatActivity {
             }
 
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error setting up animations: " + e.getMessage());
+            AppLog.e(TAG, "Error setting up animations: " + e.getMessage());
         }
     }
 
@@ -260,7 +256,7 @@ public class RegisterSelectionActivity extends AppCompatActivity {
             Intent registerIntent = new Intent(RegisterSelectionActivity.this, RegisterActivity.class);
             startActivity(registerIntent);
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Critical error: Cannot navigate to any registration: " + e.getMessage());
+            AppLog.e(TAG, "Critical error: Cannot navigate to any registration: " + e.getMessage());
             Toast.makeText(this, "Imeshindikana kufungua ukurasa wa usajili", Toast.LENGTH_SHORT).show();
         }
     }
@@ -275,14 +271,6 @@ public class RegisterSelectionActivity extends AppCompatActivity {
                 Toast.LENGTH_LONG).show();
     }
 
-    /**
-     * Get current UTC time formatted as string
-     */
-    private String getCurrentTime() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
-        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-        return dateFormat.format(new Date());
-    }
 
     @Override
     public void onBackPressed() {
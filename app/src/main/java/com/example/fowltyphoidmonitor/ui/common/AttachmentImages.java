@@ -0,0 +1,104 @@
+package com.example.fowltyphoidmonitor.ui.common;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.data.local.AttachmentStore;
+
+import java.util.Locale;
+
+/**
+ * Loads chat attachment images.
+ *
+ * Thumbnails are always decoded at one fixed size, so a thumbnail prefetched while
+ * scrolling is the same cache entry the row binds later. Images named by their content
+ * hash are cached under the hash, so copies forwarded under different URLs share one
+ * entry; other images are cached under their URL without the query string, so signed
+ * links to one file share an entry. The disk cache keeps the original too, which the
+ * attachment viewer opens from.
+ */
+public final class AttachmentImages {
+    private static final int THUMBNAIL_WIDTH_DP = 240;
+    private static final int THUMBNAIL_HEIGHT_DP = 120;
+
+    private AttachmentImages() {
+    }
+
+    /** Bind a thumbnail, or the file icon for attachments that are not images */
+    public static void loadThumbnail(ImageView view, String url, String type) {
+        if (!isImage(url, type)) {
+            Glide.with(view).clear(view);
+            view.setImageResource(R.drawable.ic_file_download_24dp);
+            return;
+        }
+        thumbnailRequest(Glide.with(view), view.getContext(), url)
+                .placeholder(R.drawable.ic_image)
+                .error(R.drawable.ic_image)
+                .into(view);
+    }
+
+    /** Decode a thumbnail into the caches ahead of its row being bound */
+    public static void preloadThumbnail(RequestManager glide, Context context, String url) {
+        thumbnailRequest(glide, context, url).preload();
+    }
+
+    /** Cancel a pending load and let the view's bitmap go back to the pool */
+    public static void clear(ImageView view) {
+        Glide.with(view).clear(view);
+    }
+
+    static RequestBuilder<Drawable> thumbnailRequest(RequestManager glide, Context context, String url) {
+        float density = context.getResources().getDisplayMetrics().density;
+        return glide.load(modelFor(url))
+                .apply(new RequestOptions()
+                        .override(Math.round(THUMBNAIL_WIDTH_DP * density), Math.round(THUMBNAIL_HEIGHT_DP * density))
+                        .centerCrop()
+                        .diskCacheStrategy(DiskCacheStrategy.ALL));
+    }
+
+    static GlideUrl modelFor(String url) {
+        return new AttachmentUrl(url);
+    }
+
+    public static boolean isImage(String url, String type) {
+        if (type != null && !type.isEmpty()) {
+            return type.startsWith("image");
+        }
+        if (url == null) return false;
+        String path = stripQuery(url).toLowerCase(Locale.ROOT);
+        return path.endsWith(".jpg") || path.endsWith(".jpeg") || path.endsWith(".png")
+                || path.endsWith(".webp") || path.endsWith(".gif");
+    }
+
+    private static String stripQuery(String url) {
+        int query = url.indexOf('?');
+        return query >= 0 ? url.substring(0, query) : url;
+    }
+
+    /**
+     * Attachment URL whose cache key is its content hash if it names one, and otherwise
+     * ignores the query string (e.g. a signing token)
+     */
+    private static class AttachmentUrl extends GlideUrl {
+        private final String cacheKey;
+
+        AttachmentUrl(String url) {
+            super(url);
+            String hash = AttachmentStore.hashFromUrl(url);
+            this.cacheKey = hash != null ? "sha256:" + hash : stripQuery(url);
+        }
+
+        @Override
+        public String getCacheKey() {
+            return cacheKey;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.fowltyphoidmonitor.ui.common;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.example.fowltyphoidmonitor.data.models.ConsultationMessage;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Preloads the attachment thumbnails of the next screen of messages in the direction
+ * the chat is scrolling, so photos are decoded before their rows appear.
+ */
+class AttachmentPrefetcher extends RecyclerView.OnScrollListener {
+    private static final int MAX_REMEMBERED = 100;
+
+    private final EnhancedChatMessageAdapter adapter;
+    private final RequestManager glide;
+
+    // Recently preloaded URLs, so a scroll back and forth doesn't queue them again
+    private final Map<String, Boolean> preloaded = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_REMEMBERED;
+        }
+    };
+
+    AttachmentPrefetcher(RecyclerView recyclerView, EnhancedChatMessageAdapter adapter) {
+        this.adapter = adapter;
+        this.glide = Glide.with(recyclerView);
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof LinearLayoutManager)) return;
+
+        int first = ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition();
+        int last = ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) return;
+
+        // Chats are read upwards into history, so anything but a downward scroll prefetches above
+        int screen = last - first + 1;
+        List<ConsultationMessage> messages = adapter.getCurrentList();
+        int from = dy > 0 ? last + 1 : Math.max(0, first - screen);
+        int to = dy > 0 ? Math.min(messages.size(), last + 1 + screen) : first;
+        for (int i = from; i < to; i++) {
+            ConsultationMessage message = messages.get(i);
+            String url = message.getAttachmentUrl();
+            if (message.hasAttachment() && AttachmentImages.isImage(url, message.getAttachmentType())
+                    && preloaded.put(url, Boolean.TRUE) == null) {
+                AttachmentImages.preloadThumbnail(glide, recyclerView.getContext(), url);
+            }
+        }
+    }
+}
@@ -1,27 +1,157 @@
 package com.example.fowltyphoidmonitor.ui.common;
 
+import android.content.ActivityNotFoundException;
+import android.content.Intent;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
 import android.os.Bundle;
+import android.view.View;
+import android.webkit.MimeTypeMap;
+import android.widget.ImageButton;
+import android.widget.ImageView;
+import android.widget.ProgressBar;
 import android.widget.Toast;
+
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.FileProvider;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
 import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.data.local.AttachmentStore;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+import com.example.fowltyphoidmonitor.utils.AppLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
 
 /**
- * Activity for viewing chat attachments (images, documents, etc.)
- * This is a placeholder implementation that can be enhanced later
+ * Activity for viewing chat attachments.
+ *
+ * Images show their cached chat thumbnail straight away, then the full image decoded
+ * at screen size replaces it. Other attachments are fetched through the attachment
+ * store, so a guide already on the device opens without a download, and handed to an
+ * app that can open them.
  */
 public class AttachmentViewerActivity extends AppCompatActivity {
+    private static final String TAG = "AttachmentViewer";
+
+    private ImageView imgAttachment;
+    private ProgressBar progressBar;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        // For now, just show a toast and close
         String attachmentUrl = getIntent().getStringExtra("attachment_url");
         String attachmentType = getIntent().getStringExtra("attachment_type");
+        String ownerId = getIntent().getStringExtra("attachment_owner");
+
+        if (attachmentUrl == null || attachmentUrl.trim().isEmpty()) {
+            finish();
+            return;
+        }
+
+        setContentView(R.layout.activity_attachment_viewer);
+        imgAttachment = findViewById(R.id.imgAttachmentFull);
+        progressBar = findViewById(R.id.progressAttachment);
+        ImageButton btnClose = findViewById(R.id.btnCloseViewer);
+        btnClose.setOnClickListener(v -> finish());
+
+        if (AttachmentImages.isImage(attachmentUrl, attachmentType)) {
+            loadImage(attachmentUrl);
+        } else {
+            imgAttachment.setVisibility(View.GONE);
+            openDocument(attachmentUrl, ownerId);
+        }
+    }
 
-        Toast.makeText(this, "Kivinjari cha viunganishi kitaongezwa hivi karibuni", Toast.LENGTH_LONG).show();
+    private void loadImage(String attachmentUrl) {
+        RequestManager glide = Glide.with(this);
+        glide.load(AttachmentImages.modelFor(attachmentUrl))
+                .format(DecodeFormat.PREFER_ARGB_8888)
+                .fitCenter()
+                .diskCacheStrategy(DiskCacheStrategy.ALL)
+                // Shown until the full image is decoded; usually already in memory
+                .thumbnail(AttachmentImages.thumbnailRequest(glide, this, attachmentUrl))
+                .listener(new RequestListener<Drawable>() {
+                    @Override
+                    public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                                Target<Drawable> target, boolean isFirstResource) {
+                        progressBar.setVisibility(View.GONE);
+                        Toast.makeText(AttachmentViewerActivity.this,
+                                "Imeshindwa kupakia picha", Toast.LENGTH_SHORT).show();
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                                   DataSource dataSource, boolean isFirstResource) {
+                        progressBar.setVisibility(View.GONE);
+                        return false;
+                    }
+                })
+                .into(imgAttachment);
+    }
+
+    private void openDocument(String attachmentUrl, String ownerId) {
+        AttachmentStore store = AttachmentStore.getInstance(this);
+        AppExecutors.getInstance().io().execute(() -> {
+            File file;
+            try {
+                file = store.fetch(attachmentUrl, ownerId);
+            } catch (IOException e) {
+                AppLog.w(TAG, "Could not fetch attachment: " + e.getMessage());
+                file = null;
+            }
+            File fetched = file;
+            AppExecutors.getInstance().mainThread().execute(() -> {
+                if (isFinishing() || isDestroyed()) return;
+                if (fetched != null) {
+                    openFile(fetched, attachmentUrl);
+                } else {
+                    // Let a browser try; it may get through where our download did not
+                    openExternally(attachmentUrl);
+                }
+                finish();
+            });
+        });
+    }
+
+    private void openFile(File file, String attachmentUrl) {
+        Uri uri = FileProvider.getUriForFile(this, getPackageName() + ".attachments", file);
+        Intent intent = new Intent(Intent.ACTION_VIEW)
+                .setDataAndType(uri, mimeTypeOf(attachmentUrl))
+                .addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        try {
+            startActivity(intent);
+        } catch (ActivityNotFoundException e) {
+            Toast.makeText(this, "Hakuna programu ya kufungua kiambatisho hiki", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    /** Stored files are named by hash, so the type comes from the URL's extension */
+    private static String mimeTypeOf(String attachmentUrl) {
+        String extension = MimeTypeMap.getFileExtensionFromUrl(attachmentUrl);
+        String type = extension != null
+                ? MimeTypeMap.getSingleton().getMimeTypeFromExtension(extension.toLowerCase(Locale.ROOT))
+                : null;
+        return type != null ? type : "*/*";
+    }
 
-        // Close the activity after showing the message
-        finish();
+    private void openExternally(String attachmentUrl) {
+        try {
+            startActivity(new Intent(Intent.ACTION_VIEW, Uri.parse(attachmentUrl)));
+        } catch (ActivityNotFoundException e) {
+            Toast.makeText(this, "Hakuna programu ya kufungua kiambatisho hiki", Toast.LENGTH_SHORT).show();
+        }
     }
 }
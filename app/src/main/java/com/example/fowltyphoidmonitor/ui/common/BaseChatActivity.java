@@ -19,12 +19,17 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.data.local.AttachmentStore;
+import com.example.fowltyphoidmonitor.data.local.ThreadCache;
 import com.example.fowltyphoidmonitor.data.models.ConsultationMessage;
 import com.example.fowltyphoidmonitor.services.NetworkConnectivityService;
 import com.example.fowltyphoidmonitor.services.OfflineMessageQueue;
 import com.example.fowltyphoidmonitor.services.SupabaseChatService;
 import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.prefetch.ThreadPrefetcher;
+import com.example.fowltyphoidmonitor.services.search.SearchIndex;
 import com.example.fowltyphoidmonitor.ui.auth.LoginActivity;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.textfield.TextInputEditText;
@@ -35,6 +40,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 /**
  * Enhanced Base Chat Activity for Robust Consultation Interface
@@ -47,6 +53,7 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
     private static final String TAG = "BaseChatActivity";
     private static final int MESSAGE_POLL_INTERVAL = 10000; // 10 seconds
     private static final int TYPING_INDICATOR_DELAY = 3000; // 3 seconds
+    private static final int PAGE_PREFETCH_DISTANCE = 10; // rows from either end of the window
 
     // Enhanced UI Components
     protected RecyclerView recyclerViewMessages;
@@ -67,7 +74,7 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
     protected Chip chipQuickReply1, chipQuickReply2, chipQuickReply3, chipQuickReply4;
 
     protected EnhancedChatMessageAdapter chatAdapter;
-    protected ArrayList<ConsultationMessage> messages;
+    protected ArrayList<ConsultationMessage> messages; // what is on screen: the history window
     protected String currentUserId;
     protected String currentRole;
     protected String consultationId;
@@ -76,6 +83,9 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
 
     // Services
     protected SupabaseChatService chatService;
+    protected SearchIndex searchIndex;
+    private ThreadCache threadCache;
+    private ThreadPrefetcher threadSync;
     private Handler messagePollingHandler;
     private Handler typingHandler;
     private Runnable messagePollingRunnable;
@@ -89,6 +99,14 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
     private boolean isTypingIndicatorVisible = false;
     private boolean isLoadingMessages = false;
 
+    // Paged history: the window is only touched on historyExecutor, the flags on the main thread
+    private final ChatHistoryWindow historyWindow = new ChatHistoryWindow();
+    private Executor historyExecutor;
+    private boolean windowHasOlder = false;
+    private boolean windowHasNewer = false;
+    private boolean isLoadingOlder = false;
+    private boolean isLoadingNewer = false;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -150,6 +168,12 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         layoutManager.setStackFromEnd(true);
         recyclerViewMessages.setLayoutManager(layoutManager);
+        recyclerViewMessages.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                loadAdjacentPages();
+            }
+        });
     }
 
     private void extractIntentData() {
@@ -171,22 +195,30 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
 
     private void initializeServices() {
         chatService = SupabaseChatService.getInstance(this);
+        searchIndex = SearchIndex.getInstance(this);
+        threadCache = ThreadCache.getInstance(this);
+        threadSync = ThreadPrefetcher.getInstance(this);
+        historyExecutor = AppExecutors.getInstance().serial("chat-history");
         networkService = new NetworkConnectivityService(this);
         offlineQueue = OfflineMessageQueue.getInstance(this);
 
-        messagePollingHandler = new Handler(Looper.getMainLooper());
         typingHandler = new Handler(Looper.getMainLooper());
+        setupMessagePolling();
     }
 
     private void initializeChat() {
         // Initialize messages list and adapter
         messages = new ArrayList<>();
-        chatAdapter = new EnhancedChatMessageAdapter(this, messages, currentUserId);
+        chatAdapter = new EnhancedChatMessageAdapter(this, currentUserId);
         chatAdapter.setOnMessageActionListener(this);
         recyclerViewMessages.setAdapter(chatAdapter);
+        recyclerViewMessages.addOnScrollListener(new AttachmentPrefetcher(recyclerViewMessages, chatAdapter));
 
-        // Load initial messages
-        loadMessages();
+        // Show the newest cached page right away; the first poll catches up with the server
+        historyExecutor.execute(() -> {
+            historyWindow.reset(threadCache.getNewestPage(consultationId, ChatHistoryWindow.PAGE_SIZE));
+            publishWindow(true);
+        });
     }
     
     private void setupClickListeners() {
@@ -287,10 +319,13 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
         // Disable button to prevent multiple sends
         btnSendMessage.setEnabled(false);
 
+        // One client id for this message across the direct send and any queued retry
+        final String clientId = UUID.randomUUID().toString();
+
         // Check network connectivity
         if (!networkService.isConnected()) {
             // Queue message for offline sending
-            offlineQueue.queueMessage(consultationId, messageText, currentUserId, currentRole);
+            offlineQueue.queueMessage(clientId, consultationId, messageText, currentUserId, currentRole);
 
             runOnUiThread(() -> {
                 // Clear input field
@@ -308,7 +343,7 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
         }
 
         // Send message through Supabase
-        chatService.sendMessage(consultationId, messageText, new SupabaseChatService.ChatCallback() {
+        chatService.sendMessage(clientId, consultationId, messageText, new SupabaseChatService.ChatCallback() {
             @Override
             public void onSuccess() {
                 runOnUiThread(() -> {
@@ -318,8 +353,8 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
                     // Re-enable send button
                     btnSendMessage.setEnabled(true);
 
-                    // Refresh messages
-                    loadMessages();
+                    // Fetch the sent message and jump to it
+                    syncNewest(true);
                 });
             }
 
@@ -327,7 +362,7 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
             public void onError(String errorMessage) {
                 runOnUiThread(() -> {
                     // Queue message for offline sending as fallback
-                    offlineQueue.queueMessage(consultationId, messageText, currentUserId, currentRole);
+                    offlineQueue.queueMessage(clientId, consultationId, messageText, currentUserId, currentRole);
 
                     // Clear input field
                     etMessage.setText("");
@@ -345,50 +380,183 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
     }
 
     protected void loadMessages() {
+        syncNewest(false);
+    }
+
+    /**
+     * Catch the cached thread up with the server, then extend the window with any new
+     * messages if it is following the end of the thread, or move it back to the end
+     * when {@code jumpToNewest} is set.
+     */
+    private void syncNewest(boolean jumpToNewest) {
         if (consultationId == null) {
             Log.e(TAG, "Cannot load messages: consultationId is null");
             return;
         }
 
-        // Show loading indicator if needed
         isLoadingMessages = true;
+        historyExecutor.execute(() -> {
+            String error = null;
+            try {
+                threadSync.syncThread(consultationId);
+            } catch (Exception e) {
+                error = e.getMessage();
+            }
 
-        // Load messages from Supabase
-        chatService.getMessages(consultationId, new SupabaseChatService.MessagesCallback() {
-            @Override
-            public void onMessagesLoaded(List<ConsultationMessage> loadedMessages) {
-                runOnUiThread(() -> {
-                    messages.clear();
-                    messages.addAll(loadedMessages);
-                    chatAdapter.notifyDataSetChanged();
+            boolean jump = jumpToNewest || historyWindow.isEmpty();
+            ThreadCache.Page page = null;
+            if (!jump && !historyWindow.hasNewer()) {
+                page = threadCache.getPageAfter(consultationId, historyWindow.newest(), ChatHistoryWindow.PAGE_SIZE);
+                if (page.hasMore) {
+                    // Too far behind to page through; start again from the newest page
+                    jump = true;
+                } else {
+                    historyWindow.appendNewer(page);
+                }
+            }
+            if (jump) {
+                page = threadCache.getNewestPage(consultationId, ChatHistoryWindow.PAGE_SIZE);
+                historyWindow.reset(page);
+            }
+            if (page != null) {
+                // Keep new history searchable offline
+                searchIndex.indexMessagesAsync(page.messages);
+            }
 
-                    // Scroll to bottom
-                    if (messages.size() > 0) {
-                        recyclerViewMessages.smoothScrollToPosition(messages.size() - 1);
+            final String syncError = error;
+            final boolean scrollToEnd = jump;
+            runOnUiThread(() -> {
+                isLoadingMessages = false;
+                swipeRefreshLayout.setRefreshing(false);
+                if (syncError != null) {
+                    Log.e(TAG, "Error loading messages: " + syncError);
+                    if (messages.isEmpty()) {
+                        Toast.makeText(BaseChatActivity.this,
+                                "Error loading messages: " + syncError,
+                                Toast.LENGTH_SHORT).show();
                     }
+                }
+            });
+            publishWindow(scrollToEnd);
+        });
+    }
 
-                    // Hide loading indicator if shown
-                    isLoadingMessages = false;
-                    swipeRefreshLayout.setRefreshing(false);
-                });
+    /**
+     * Page in history when the user scrolls close to either end of the window
+     */
+    private void loadAdjacentPages() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerViewMessages.getLayoutManager();
+        if (layoutManager == null || messages.isEmpty()) return;
+
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first != RecyclerView.NO_POSITION && first <= PAGE_PREFETCH_DISTANCE) {
+            loadOlderPage();
+        }
+        if (last != RecyclerView.NO_POSITION && last >= messages.size() - 1 - PAGE_PREFETCH_DISTANCE) {
+            loadNewerPage();
+        }
+    }
+
+    private void loadOlderPage() {
+        if (isLoadingOlder || !windowHasOlder) return;
+        isLoadingOlder = true;
+
+        historyExecutor.execute(() -> {
+            ThreadCache.Position oldest = historyWindow.oldest();
+            if (oldest == null) {
+                finishPageLoad(true);
+                return;
             }
 
-            @Override
-            public void onError(String errorMessage) {
-                runOnUiThread(() -> {
-                    Log.e(TAG, "Error loading messages: " + errorMessage);
-                    Toast.makeText(BaseChatActivity.this,
-                            "Error loading messages: " + errorMessage,
-                            Toast.LENGTH_SHORT).show();
+            ThreadCache.Page page = threadCache.getPageBefore(consultationId, oldest, ChatHistoryWindow.PAGE_SIZE);
+            boolean moreOlder = page.hasMore;
+            if (!page.hasMore) {
+                // The cache ends here; ask the server for the history before it
+                try {
+                    ThreadCache.Position cacheStart = page.isEmpty() ? oldest : page.first;
+                    int fetched = threadSync.fetchOlderMessages(consultationId, cacheStart,
+                            ChatHistoryWindow.PAGE_SIZE);
+                    if (fetched > 0) {
+                        page = threadCache.getPageBefore(consultationId, oldest, ChatHistoryWindow.PAGE_SIZE);
+                    }
+                    moreOlder = page.hasMore || fetched >= ChatHistoryWindow.PAGE_SIZE;
+                } catch (Exception e) {
+                    // Offline: try again on the next scroll
+                    Log.w(TAG, "Could not fetch older messages: " + e.getMessage());
+                    moreOlder = true;
+                }
+            }
 
-                    // Hide loading indicator if shown
-                    isLoadingMessages = false;
-                    swipeRefreshLayout.setRefreshing(false);
-                });
+            historyWindow.prependOlder(page, moreOlder);
+            searchIndex.indexMessagesAsync(page.messages);
+            finishPageLoad(true);
+            publishWindow(false);
+        });
+    }
+
+    private void loadNewerPage() {
+        if (isLoadingNewer || !windowHasNewer) return;
+        isLoadingNewer = true;
+
+        historyExecutor.execute(() -> {
+            ThreadCache.Position newest = historyWindow.newest();
+            if (newest != null) {
+                historyWindow.appendNewer(threadCache.getPageAfter(consultationId, newest,
+                        ChatHistoryWindow.PAGE_SIZE));
             }
+            finishPageLoad(false);
+            publishWindow(false);
         });
     }
-    
+
+    private void finishPageLoad(boolean older) {
+        runOnUiThread(() -> {
+            if (older) {
+                isLoadingOlder = false;
+            } else {
+                isLoadingNewer = false;
+            }
+        });
+    }
+
+    /**
+     * Show the current window. Called on historyExecutor; the list handed to the
+     * adapter is a snapshot, so later window changes never touch it.
+     */
+    private void publishWindow(boolean scrollToEnd) {
+        List<ConsultationMessage> snapshot = historyWindow.snapshot();
+        boolean hasOlder = historyWindow.hasOlder();
+        boolean hasNewer = historyWindow.hasNewer();
+
+        runOnUiThread(() -> {
+            if (isDestroyed()) return;
+
+            // Follow new messages only if the user was already reading the end of the thread
+            boolean follow = scrollToEnd || (!hasNewer && snapshot.size() > messages.size() && isNearEnd());
+            windowHasOlder = hasOlder;
+            windowHasNewer = hasNewer;
+            messages.clear();
+            messages.addAll(snapshot);
+
+            // Only changed rows are rebound; scroll once the diff has landed
+            chatAdapter.submitList(snapshot, () -> {
+                if (follow && !messages.isEmpty()) {
+                    recyclerViewMessages.scrollToPosition(messages.size() - 1);
+                }
+                // A short window may not fill the screen, so no scroll would ask for more
+                loadAdjacentPages();
+            });
+        });
+    }
+
+    private boolean isNearEnd() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerViewMessages.getLayoutManager();
+        if (layoutManager == null || messages.isEmpty()) return true;
+        int last = layoutManager.findLastVisibleItemPosition();
+        return last == RecyclerView.NO_POSITION || last >= messages.size() - 2;
+    }
+
     private void setupMessagePolling() {
         messagePollingHandler = new Handler(Looper.getMainLooper());
         messagePollingRunnable = new Runnable() {
@@ -415,6 +583,8 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
     }
     
     private void startMessagePolling() {
+        // onCreate and onResume both start polling; keep a single loop
+        messagePollingHandler.removeCallbacks(messagePollingRunnable);
         messagePollingHandler.post(messagePollingRunnable);
     }
     
@@ -458,16 +628,16 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
                 // Update the message status to pending
                 ConsultationMessage pendingMessage = messages.get(index);
                 pendingMessage.setStatus(ConsultationMessage.Status.PENDING);
-                chatAdapter.notifyItemChanged(index);
+                chatAdapter.notifyMessageStatusChanged(pendingMessage);
 
                 // Resend the message
-                chatService.sendMessage(consultationId, message.getContent(), new SupabaseChatService.ChatCallback() {
+                chatService.sendMessage(pendingMessage.ensureClientId(), consultationId, message.getContent(), new SupabaseChatService.ChatCallback() {
                     @Override
                     public void onSuccess() {
                         runOnUiThread(() -> {
                             // Update the message status to sent
                             pendingMessage.setStatus(ConsultationMessage.Status.SENT);
-                            chatAdapter.notifyItemChanged(index);
+                            chatAdapter.notifyMessageStatusChanged(pendingMessage);
                         });
                     }
 
@@ -488,9 +658,16 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
     public void onMessageDelete(ConsultationMessage message) {
         // Handle message delete action
         if (message != null && message.getId() != null) {
-            // Remove the message from the list
+            // Remove the message from the list and the cached thread
             messages.remove(message);
-            chatAdapter.notifyDataSetChanged();
+            chatAdapter.submitList(new ArrayList<>(messages));
+            String messageId = message.getId();
+            historyExecutor.execute(() -> {
+                historyWindow.remove(messageId);
+                threadCache.removeMessage(consultationId, messageId);
+                AttachmentStore.getInstance(this).release(messageId);
+            });
+            searchIndex.removeAsync(SearchIndex.TYPE_MESSAGE, messageId);
 
             // Optionally, notify the server about the message deletion
             chatService.deleteMessage(message.getId(), new SupabaseChatService.ChatCallback() {
@@ -538,7 +715,7 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
                         systemMessage.setMessageType("system");
                         systemMessage.setCreatedAt(getCurrentTimestamp());
                         messages.add(systemMessage);
-                        chatAdapter.notifyItemInserted(messages.size() - 1);
+                        chatAdapter.submitList(new ArrayList<>(messages));
 
                         Toast.makeText(BaseChatActivity.this, "Shauri limemalizika", Toast.LENGTH_SHORT).show();
                     });
@@ -571,6 +748,7 @@ public abstract class BaseChatActivity extends AppCompatActivity implements Enha
             Intent intent = new Intent(this, AttachmentViewerActivity.class);
             intent.putExtra("attachment_url", message.getAttachmentUrl());
             intent.putExtra("attachment_type", message.getAttachmentType());
+            intent.putExtra("attachment_owner", message.getId());
             startActivity(intent);
         }
     }
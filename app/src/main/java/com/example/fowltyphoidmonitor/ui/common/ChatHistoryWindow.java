@@ -0,0 +1,117 @@
+package com.example.fowltyphoidmonitor.ui.common;
+
+import com.example.fowltyphoidmonitor.data.local.ThreadCache;
+import com.example.fowltyphoidmonitor.data.models.ConsultationMessage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The part of a consultation thread the chat screen keeps in memory.
+ *
+ * Pages come from ThreadCache: the newest first, older ones as the user scrolls up.
+ * At most MAX_PAGES pages are held; loading past that drops the page furthest from
+ * the one just loaded, so a long consultation costs no more memory than a short one.
+ * Once the newest page has been dropped the window stops following new messages
+ * until the user scrolls back down to them.
+ *
+ * Not thread safe; BaseChatActivity only touches it from its history executor.
+ */
+class ChatHistoryWindow {
+    static final int PAGE_SIZE = 40;
+    static final int MAX_PAGES = 4;
+
+    private final ArrayDeque<ThreadCache.Page> pages = new ArrayDeque<>();
+    private boolean hasOlder;
+    private boolean hasNewer;
+
+    /** Start over from the newest page of the thread */
+    void reset(ThreadCache.Page newest) {
+        pages.clear();
+        if (!newest.isEmpty()) {
+            pages.add(newest);
+        }
+        // The server may still hold history the cache has not seen
+        hasOlder = true;
+        hasNewer = false;
+    }
+
+    void prependOlder(ThreadCache.Page page, boolean moreOlder) {
+        if (!page.isEmpty()) {
+            pages.addFirst(page);
+            while (pages.size() > MAX_PAGES) {
+                pages.removeLast();
+                hasNewer = true;
+            }
+        }
+        hasOlder = moreOlder;
+    }
+
+    void appendNewer(ThreadCache.Page page) {
+        if (!page.isEmpty()) {
+            ThreadCache.Page last = pages.peekLast();
+            if (last != null && last.messages.size() + page.messages.size() <= PAGE_SIZE) {
+                // Top up a partly filled page so single new messages don't each cost a page
+                pages.removeLast();
+                pages.addLast(last.followedBy(page));
+            } else {
+                pages.addLast(page);
+            }
+            while (pages.size() > MAX_PAGES) {
+                pages.removeFirst();
+                hasOlder = true;
+            }
+        }
+        hasNewer = page.hasMore;
+    }
+
+    /** Drop a message, e.g. one the user deleted; true if it was in the window */
+    boolean remove(String messageId) {
+        for (ThreadCache.Page page : pages) {
+            Iterator<ConsultationMessage> it = page.messages.iterator();
+            while (it.hasNext()) {
+                if (messageId.equals(it.next().getId())) {
+                    it.remove();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    boolean isEmpty() {
+        return pages.isEmpty();
+    }
+
+    boolean hasOlder() {
+        return hasOlder;
+    }
+
+    /** Whether newer messages were dropped, i.e. the window is not at the end of the thread */
+    boolean hasNewer() {
+        return hasNewer;
+    }
+
+    ThreadCache.Position oldest() {
+        return pages.isEmpty() ? null : pages.peekFirst().first;
+    }
+
+    ThreadCache.Position newest() {
+        return pages.isEmpty() ? null : pages.peekLast().last;
+    }
+
+    /** The window's messages, oldest first, as a new list */
+    List<ConsultationMessage> snapshot() {
+        int size = 0;
+        for (ThreadCache.Page page : pages) {
+            size += page.messages.size();
+        }
+        List<ConsultationMessage> messages = new ArrayList<>(size);
+        for (ThreadCache.Page page : pages) {
+            messages.addAll(page.messages);
+        }
+        return messages;
+    }
+}
@@ -7,22 +7,62 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.fowltyphoidmonitor.ui.farmer.FarmerConsultationsActivity;
+import com.example.fowltyphoidmonitor.ui.farmer.FarmerConsultationsActivity.ConsultationItem;
 import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.utils.ListDiff;
 
 import java.util.List;
+import java.util.Objects;
 
-public class ConsultationsAdapter extends RecyclerView.Adapter<ConsultationsAdapter.ConsultationViewHolder> {
+public class ConsultationsAdapter extends ListAdapter<ConsultationItem, ConsultationsAdapter.ConsultationViewHolder> {
 
-    private List<FarmerConsultationsActivity.ConsultationItem> consultations;
+    // Payload for a consultation whose only change is its status
+    private static final String PAYLOAD_STATUS = "status";
+
+    private static final DiffUtil.ItemCallback<ConsultationItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<ConsultationItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ConsultationItem oldItem, @NonNull ConsultationItem newItem) {
+            return Objects.equals(oldItem.consultationId, newItem.consultationId);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ConsultationItem oldItem, @NonNull ConsultationItem newItem) {
+            return sameExceptStatus(oldItem, newItem) && Objects.equals(oldItem.status, newItem.status);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull ConsultationItem oldItem, @NonNull ConsultationItem newItem) {
+            return sameExceptStatus(oldItem, newItem) ? PAYLOAD_STATUS : null;
+        }
+
+        private boolean sameExceptStatus(ConsultationItem a, ConsultationItem b) {
+            return Objects.equals(a.consultationType, b.consultationType)
+                    && Objects.equals(a.patientName, b.patientName)
+                    && Objects.equals(a.preferredDate, b.preferredDate)
+                    && Objects.equals(a.preferredTime, b.preferredTime)
+                    && Objects.equals(a.urgencyLevel, b.urgencyLevel)
+                    && Objects.equals(a.symptoms, b.symptoms);
+        }
+    };
+
+    private final ListDiff.StableIds stableIds = new ListDiff.StableIds();
     private FarmerConsultationsActivity.OnConsultationItemClickListener clickListener;
 
-    public ConsultationsAdapter(List<FarmerConsultationsActivity.ConsultationItem> consultations,
-                                FarmerConsultationsActivity.OnConsultationItemClickListener clickListener) {
-        this.consultations = consultations;
+    public ConsultationsAdapter(FarmerConsultationsActivity.OnConsultationItemClickListener clickListener) {
+        super(ListDiff.config(DIFF_CALLBACK));
         this.clickListener = clickListener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        ConsultationItem consultation = getItem(position);
+        return stableIds.get(consultation.consultationId, consultation);
     }
 
     @NonNull
@@ -35,13 +75,19 @@ public class ConsultationsAdapter extends RecyclerView.Adapter<ConsultationsAdap
 
     @Override
     public void onBindViewHolder(@NonNull ConsultationViewHolder holder, int position) {
-        FarmerConsultationsActivity.ConsultationItem consultation = consultations.get(position);
+        ConsultationItem consultation = getItem(position);
         holder.bind(consultation, clickListener);
     }
 
     @Override
-    public int getItemCount() {
-        return consultations.size();
+    public void onBindViewHolder(@NonNull ConsultationViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        ConsultationItem consultation = getItem(position);
+        holder.bindStatus(consultation);
+        holder.bindClick(consultation, clickListener);
     }
 
     static class ConsultationViewHolder extends RecyclerView.ViewHolder {
@@ -63,14 +109,13 @@ public class ConsultationsAdapter extends RecyclerView.Adapter<ConsultationsAdap
             statusIndicator = itemView.findViewById(R.id.statusIndicator);
         }
 
-        public void bind(FarmerConsultationsActivity.ConsultationItem consultation,
+        public void bind(ConsultationItem consultation,
                          FarmerConsultationsActivity.OnConsultationItemClickListener clickListener) {
 
             txtConsultationType.setText(consultation.consultationType);
             txtPatientName.setText(consultation.patientName);
             txtDate.setText(consultation.preferredDate);
             txtTime.setText(consultation.preferredTime);
-            txtStatus.setText(consultation.getStatusInSwahili());
             txtUrgency.setText(consultation.urgencyLevel);
 
             // Show first 100 characters of symptoms
@@ -80,9 +125,7 @@ public class ConsultationsAdapter extends RecyclerView.Adapter<ConsultationsAdap
             }
             txtSymptoms.setText(symptoms);
 
-            // Set status color
-            txtStatus.setTextColor(consultation.getStatusColor());
-            statusIndicator.setBackgroundColor(consultation.getStatusColor());
+            bindStatus(consultation);
 
             // Set urgency text color
             if (consultation.urgencyLevel.contains("Haraka Sana")) {
@@ -93,8 +136,18 @@ public class ConsultationsAdapter extends RecyclerView.Adapter<ConsultationsAdap
                 txtUrgency.setTextColor(0xFF757575); // Gray
             }
 
-            // Set click listener
+            bindClick(consultation, clickListener);
+        }
+
+        void bindClick(ConsultationItem consultation,
+                       FarmerConsultationsActivity.OnConsultationItemClickListener clickListener) {
             cardView.setOnClickListener(v -> clickListener.onConsultationItemClick(consultation));
         }
+
+        void bindStatus(ConsultationItem consultation) {
+            txtStatus.setText(consultation.getStatusInSwahili());
+            txtStatus.setTextColor(consultation.getStatusColor());
+            statusIndicator.setBackgroundColor(consultation.getStatusColor());
+        }
     }
 }
\ No newline at end of file
@@ -5,35 +5,55 @@ import android.content.SharedPreferences;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
+
+import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.data.api.SupabaseClient;
+import com.example.fowltyphoidmonitor.data.models.DashboardStats;
+import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
 
 /**
  * Manages real-time dashboard updates for admin interface
- * Simulates real-time data updates and provides callback mechanisms
+ * Polls the server's dashboard_stats snapshot with its ETag, so a poll while nothing
+ * changed costs a 304 and no body. All figures of a snapshot are read together.
+ * Listeners are called on the main thread.
  */
 public class DashboardManagerActivity {
     private static final String TAG = "DashboardManager";
     private static final String PREFS_NAME = "FowlTyphoidMonitorAdminPrefs";
+    private static final String KEY_ETAG = "dashboardStatsEtag";
 
-    // Update intervals
+    // Update interval
     private static final long DASHBOARD_UPDATE_INTERVAL = 30000; // 30 seconds
-    private static final long STATISTICS_UPDATE_INTERVAL = 60000; // 1 minute
 
     private Context context;
     private Handler mainHandler;
-    private ExecutorService executorService;
     private List<DashboardUpdateListener> listeners;
     private boolean isUpdating = false;
+    private boolean isFetching = false;
 
     // Singleton instance
     private static com.example.fowltyphoidmonitor.ui.common.DashboardManagerActivity instance;
 
-    // Dashboard data
+    // Dashboard data and the ETag of the snapshot it came from
     private DashboardData currentData;
+    private String etag;
+
+    private final Runnable pollRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (isUpdating) {
+                fetchStats();
+                mainHandler.postDelayed(this, DASHBOARD_UPDATE_INTERVAL);
+            }
+        }
+    };
 
     public static synchronized com.example.fowltyphoidmonitor.ui.common.DashboardManagerActivity getInstance(Context context) {
         if (instance == null) {
@@ -45,11 +65,9 @@ public class DashboardManagerActivity {
     private DashboardManagerActivity(Context context) {
         this.context = context;
         this.mainHandler = new Handler(Looper.getMainLooper());
-        this.executorService = Executors.newFixedThreadPool(2);
         this.listeners = new ArrayList<>();
-        this.currentData = new DashboardData();
 
-        // Load initial data
+        // Load the last snapshot
         loadInitialData();
     }
 
@@ -58,66 +76,27 @@ public class DashboardManagerActivity {
      */
     public interface DashboardUpdateListener {
         void onDashboardDataUpdated(DashboardData data);
-        void onStatisticsUpdated(DashboardStatistics stats);
-        void onNewAlert(AlertData alert);
         void onError(String error);
     }
 
     /**
-     * Dashboard data container
+     * Dashboard data container; one server snapshot, never changed once delivered
      */
     public static class DashboardData {
         public int totalFarmers;
         public int activeReports;
+        public int criticalReports;
         public int pendingConsultations;
-        public int totalAlerts;
         public int newUsersToday;
-        public int criticalReports;
-        public long lastUpdated;
+        public long version;
+        public long lastUpdated; // when the server last confirmed these figures, 0 if never
 
         public DashboardData() {
-            this.lastUpdated = System.currentTimeMillis();
-        }
-    }
-
-    /**
-     * Dashboard statistics container
-     */
-    public static class DashboardStatistics {
-        public float reportIncreaseRate;
-        public float userGrowthRate;
-        public int mostActiveRegion;
-        public String trendingDisease;
-        public int consultationResponseRate;
-
-        public DashboardStatistics() {
-            // Default values
-        }
-    }
-
-    /**
-     * Alert data container
-     */
-    public static class AlertData {
-        public String id;
-        public String title;
-        public String message;
-        public String priority; // HIGH, MEDIUM, LOW
-        public String type; // DISEASE_OUTBREAK, SYSTEM_ALERT, USER_ALERT
-        public long timestamp;
-
-        public AlertData(String id, String title, String message, String priority, String type) {
-            this.id = id;
-            this.title = title;
-            this.message = message;
-            this.priority = priority;
-            this.type = type;
-            this.timestamp = System.currentTimeMillis();
         }
     }
 
     /**
-     * Start real-time dashboard updates
+     * Start polling; the first poll runs now. Call on the main thread.
      */
     public void startRealTimeUpdates() {
         if (isUpdating) {
@@ -127,13 +106,7 @@ public class DashboardManagerActivity {
 
         isUpdating = true;
         Log.d(TAG, "Starting real-time dashboard updates");
-
-        // Schedule periodic updates
-        scheduleDashboardUpdates();
-        scheduleStatisticsUpdates();
-
-        // Simulate random alerts
-        scheduleRandomAlerts();
+        mainHandler.post(pollRunnable);
     }
 
     /**
@@ -142,18 +115,19 @@ public class DashboardManagerActivity {
     public void stopRealTimeUpdates() {
         isUpdating = false;
         Log.d(TAG, "Stopping real-time dashboard updates");
-
-        // Cancel all pending updates
-        mainHandler.removeCallbacksAndMessages(null);
+        mainHandler.removeCallbacks(pollRunnable);
     }
 
     /**
-     * Add dashboard update listener
+     * Add dashboard update listener; it gets the last known snapshot right away
      */
     public void addUpdateListener(DashboardUpdateListener listener) {
         if (!listeners.contains(listener)) {
             listeners.add(listener);
             Log.d(TAG, "Added dashboard update listener");
+            if (currentData.lastUpdated > 0) {
+                listener.onDashboardDataUpdated(currentData);
+            }
         }
     }
 
@@ -177,200 +151,110 @@ public class DashboardManagerActivity {
      */
     public void forceUpdate() {
         Log.d(TAG, "Forcing immediate dashboard update");
-        executorService.execute(this::updateDashboardData);
+        mainHandler.post(this::fetchStats);
     }
 
     /**
-     * Load initial dashboard data from SharedPreferences
+     * Load the last snapshot and its ETag from SharedPreferences
      */
     private void loadInitialData() {
         SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
 
-        currentData.totalFarmers = prefs.getInt("totalFarmers", 125);
-        currentData.activeReports = prefs.getInt("activeReports", 8);
-        currentData.pendingConsultations = prefs.getInt("pendingConsultations", 3);
-        currentData.totalAlerts = prefs.getInt("totalAlerts", 0);
-        currentData.newUsersToday = prefs.getInt("newUsersToday", 0);
+        currentData = new DashboardData();
+        currentData.totalFarmers = prefs.getInt("totalFarmers", 0);
+        currentData.activeReports = prefs.getInt("activeReports", 0);
         currentData.criticalReports = prefs.getInt("criticalReports", 0);
+        currentData.pendingConsultations = prefs.getInt("pendingConsultations", 0);
+        currentData.newUsersToday = prefs.getInt("newUsersToday", 0);
+        currentData.version = prefs.getLong("dashboardStatsVersion", 0);
+        currentData.lastUpdated = prefs.getLong("lastDashboardUpdate", 0);
+        etag = prefs.getString(KEY_ETAG, null);
+        if (etag == null) {
+            // Figures saved before snapshots existed were simulated
+            currentData = new DashboardData();
+        }
 
         Log.d(TAG, "Loaded initial dashboard data");
     }
 
     /**
-     * Schedule periodic dashboard updates
+     * One conditional GET of the snapshot; a poll while one is in flight is dropped
      */
-    private void scheduleDashboardUpdates() {
-        mainHandler.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                if (isUpdating) {
-                    executorService.execute(() -> updateDashboardData());
-                    mainHandler.postDelayed(this, DASHBOARD_UPDATE_INTERVAL);
-                }
-            }
-        }, DASHBOARD_UPDATE_INTERVAL);
-    }
+    private void fetchStats() {
+        if (isFetching) return;
 
-    /**
-     * Schedule periodic statistics updates
-     */
-    private void scheduleStatisticsUpdates() {
-        mainHandler.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                if (isUpdating) {
-                    executorService.execute(() -> updateStatistics());
-                    mainHandler.postDelayed(this, STATISTICS_UPDATE_INTERVAL);
-                }
-            }
-        }, STATISTICS_UPDATE_INTERVAL);
-    }
+        AuthManager authManager = AuthManager.getInstance(context);
+        if (!authManager.isLoggedIn() || !authManager.isVet()) {
+            notifyError("User not authorized to view dashboard statistics");
+            return;
+        }
 
-    /**
-     * Schedule random alerts
-     */
-    private void scheduleRandomAlerts() {
-        Random random = new Random();
-
-        mainHandler.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                if (isUpdating) {
-                    // Random chance of generating an alert
-                    if (random.nextFloat() < 0.3f) { // 30% chance
-                        generateRandomAlert();
+        isFetching = true;
+        String authHeader = SupabaseConfig.getAuthHeader(authManager.getAccessToken());
+        SupabaseClient.getInstance(context).getApiService().getDashboardStats(authHeader, etag)
+                .enqueue(new Callback<DashboardStats>() {
+                    @Override
+                    public void onResponse(Call<DashboardStats> call, Response<DashboardStats> response) {
+                        isFetching = false;
+                        if (response.code() == 304) {
+                            // Unchanged; only the confirmation time moves
+                            DashboardData data = copy(currentData);
+                            data.lastUpdated = System.currentTimeMillis();
+                            apply(data, etag);
+                        } else if (response.isSuccessful() && response.body() != null) {
+                            apply(fromStats(response.body()), response.headers().get("ETag"));
+                            Log.d(TAG, "Dashboard data updated to version " + currentData.version);
+                        } else {
+                            notifyError("Kosa katika kusasisha data: HTTP " + response.code());
+                        }
                     }
-                    // Schedule next check
-                    mainHandler.postDelayed(this, 45000 + random.nextInt(30000)); // 45-75 seconds
-                }
-            }
-        }, 60000); // Initial delay of 1 minute
-    }
 
-    /**
-     * Update dashboard data (simulated)
-     */
-    private void updateDashboardData() {
-        try {
-            // Simulate data changes
-            Random random = new Random();
-
-            // Small random changes to simulate real-time updates
-            if (random.nextFloat() < 0.7f) { // 70% chance of change
-                currentData.totalFarmers += random.nextInt(3) - 1; // -1 to +1
-                currentData.activeReports += random.nextInt(5) - 2; // -2 to +2
-                currentData.pendingConsultations += random.nextInt(3) - 1; // -1 to +1
-
-                // Ensure non-negative values
-                currentData.totalFarmers = Math.max(0, currentData.totalFarmers);
-                currentData.activeReports = Math.max(0, currentData.activeReports);
-                currentData.pendingConsultations = Math.max(0, currentData.pendingConsultations);
-
-                currentData.lastUpdated = System.currentTimeMillis();
-
-                // Save to SharedPreferences
-                saveDashboardData();
-
-                // Notify listeners on main thread
-                mainHandler.post(() -> {
-                    for (DashboardUpdateListener listener : listeners) {
-                        listener.onDashboardDataUpdated(currentData);
+                    @Override
+                    public void onFailure(Call<DashboardStats> call, Throwable t) {
+                        isFetching = false;
+                        notifyError("Kosa katika kusasisha data: " + t.getMessage());
                     }
                 });
+    }
 
-                Log.d(TAG, "Dashboard data updated");
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error updating dashboard data: " + e.getMessage());
-            mainHandler.post(() -> {
-                for (DashboardUpdateListener listener : listeners) {
-                    listener.onError("Kosa katika kusasisha data: " + e.getMessage());
-                }
-            });
+    private void apply(DashboardData data, String newEtag) {
+        currentData = data;
+        etag = newEtag;
+        saveDashboardData();
+        for (DashboardUpdateListener listener : new ArrayList<>(listeners)) {
+            listener.onDashboardDataUpdated(data);
         }
     }
 
-    /**
-     * Update statistics (simulated)
-     */
-    private void updateStatistics() {
-        try {
-            DashboardStatistics stats = new DashboardStatistics();
-            Random random = new Random();
-
-            // Generate realistic statistics
-            stats.reportIncreaseRate = random.nextFloat() * 20 - 10; // -10% to +10%
-            stats.userGrowthRate = random.nextFloat() * 15; // 0% to 15%
-            stats.mostActiveRegion = random.nextInt(5) + 1; // Region 1-5
-            stats.consultationResponseRate = 75 + random.nextInt(25); // 75-100%
-
-            // Trending diseases
-            String[] diseases = {"Fowl Typhoid", "Newcastle Disease", "Avian Influenza", "Infectious Bronchitis", "Marek's Disease"};
-            stats.trendingDisease = diseases[random.nextInt(diseases.length)];
-
-            // Notify listeners on main thread
-            mainHandler.post(() -> {
-                for (DashboardUpdateListener listener : listeners) {
-                    listener.onStatisticsUpdated(stats);
-                }
-            });
-
-            Log.d(TAG, "Statistics updated");
-        } catch (Exception e) {
-            Log.e(TAG, "Error updating statistics: " + e.getMessage());
+    private void notifyError(String error) {
+        Log.e(TAG, "Error updating dashboard data: " + error);
+        for (DashboardUpdateListener listener : new ArrayList<>(listeners)) {
+            listener.onError(error);
         }
     }
 
-    /**
-     * Generate random alert
-     */
-    private void generateRandomAlert() {
-        try {
-            Random random = new Random();
-            String[] alertTypes = {"DISEASE_OUTBREAK", "SYSTEM_ALERT", "USER_ALERT"};
-            String[] priorities = {"HIGH", "MEDIUM", "LOW"};
-
-            String[] titles = {
-                    "Mlipuko wa Ugonjwa",
-                    "Ripoti Mpya za Kigurumu",
-                    "Mfumo wa Kumbuka",
-                    "Takwimu za Haraka",
-                    "Taarifa za Usalama"
-            };
-
-            String[] messages = {
-                    "Mlipuko wa fowl typhoid umeonekana katika eneo la Arusha",
-                    "Ripoti 5 mpya za ugonjwa zimesajiliwa",
-                    "Mfumo wa kumbuka: Wakati wa chanjo umefika",
-                    "Ongezeko la asilimia 15 la matukio ya ugonjwa",
-                    "Angalizo: Hakikisha usafi wa mazingira"
-            };
-
-            String alertId = "ALERT_" + System.currentTimeMillis();
-            String alertType = alertTypes[random.nextInt(alertTypes.length)];
-            String priority = priorities[random.nextInt(priorities.length)];
-            String title = titles[random.nextInt(titles.length)];
-            String message = messages[random.nextInt(messages.length)];
-
-            AlertData alert = new AlertData(alertId, title, message, priority, alertType);
-
-            // Update alert count
-            currentData.totalAlerts++;
-            if ("HIGH".equals(priority)) {
-                currentData.criticalReports++;
-            }
-
-            // Notify listeners on main thread
-            mainHandler.post(() -> {
-                for (DashboardUpdateListener listener : listeners) {
-                    listener.onNewAlert(alert);
-                }
-            });
+    private static DashboardData fromStats(DashboardStats stats) {
+        DashboardData data = new DashboardData();
+        data.totalFarmers = stats.getTotalFarmers();
+        data.activeReports = stats.getActiveReports();
+        data.criticalReports = stats.getCriticalReports();
+        data.pendingConsultations = stats.getPendingConsultations();
+        data.newUsersToday = stats.getNewUsersToday();
+        data.version = stats.getVersion();
+        data.lastUpdated = System.currentTimeMillis();
+        return data;
+    }
 
-            Log.d(TAG, "Generated random alert: " + title);
-        } catch (Exception e) {
-            Log.e(TAG, "Error generating alert: " + e.getMessage());
-        }
+    private static DashboardData copy(DashboardData source) {
+        DashboardData data = new DashboardData();
+        data.totalFarmers = source.totalFarmers;
+        data.activeReports = source.activeReports;
+        data.criticalReports = source.criticalReports;
+        data.pendingConsultations = source.pendingConsultations;
+        data.newUsersToday = source.newUsersToday;
+        data.version = source.version;
+        data.lastUpdated = source.lastUpdated;
+        return data;
     }
 
     /**
@@ -382,11 +266,12 @@ public class DashboardManagerActivity {
 
         editor.putInt("totalFarmers", currentData.totalFarmers);
         editor.putInt("activeReports", currentData.activeReports);
+        editor.putInt("criticalReports", currentData.criticalReports);
         editor.putInt("pendingConsultations", currentData.pendingConsultations);
-        editor.putInt("totalAlerts", currentData.totalAlerts);
         editor.putInt("newUsersToday", currentData.newUsersToday);
-        editor.putInt("criticalReports", currentData.criticalReports);
+        editor.putLong("dashboardStatsVersion", currentData.version);
         editor.putLong("lastDashboardUpdate", currentData.lastUpdated);
+        editor.putString(KEY_ETAG, etag);
 
         editor.apply();
     }
@@ -398,10 +283,6 @@ public class DashboardManagerActivity {
         stopRealTimeUpdates();
         listeners.clear();
 
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-        }
-
         Log.d(TAG, "Dashboard manager cleanup completed");
     }
-}
\ No newline at end of file
+}
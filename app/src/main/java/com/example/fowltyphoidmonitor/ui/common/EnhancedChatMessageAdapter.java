@@ -8,17 +8,22 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.fowltyphoidmonitor.R;
 import com.example.fowltyphoidmonitor.data.models.ConsultationMessage;
+import com.example.fowltyphoidmonitor.utils.ListDiff;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 import de.hdodenhof.circleimageview.CircleImageView;
 
@@ -29,14 +34,48 @@ import de.hdodenhof.circleimageview.CircleImageView;
  * @author LWENA27
  * @created 2025-07-07
  */
-public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+public class EnhancedChatMessageAdapter extends ListAdapter<ConsultationMessage, RecyclerView.ViewHolder> {
 
     private static final int VIEW_TYPE_SENT = 1;
     private static final int VIEW_TYPE_RECEIVED = 2;
     private static final int VIEW_TYPE_SYSTEM = 3;
 
+    // Payload for a message whose only change is its delivery status
+    private static final String PAYLOAD_STATUS = "status";
+
+    private static final DiffUtil.ItemCallback<ConsultationMessage> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ConsultationMessage>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ConsultationMessage oldItem, @NonNull ConsultationMessage newItem) {
+                    // The client id links a local pending message to its saved copy
+                    return Objects.equals(keyOf(oldItem), keyOf(newItem));
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ConsultationMessage oldItem, @NonNull ConsultationMessage newItem) {
+                    return sameExceptStatus(oldItem, newItem)
+                            && Objects.equals(oldItem.getMessageStatus(), newItem.getMessageStatus());
+                }
+
+                @Override
+                public Object getChangePayload(@NonNull ConsultationMessage oldItem, @NonNull ConsultationMessage newItem) {
+                    return sameExceptStatus(oldItem, newItem) ? PAYLOAD_STATUS : null;
+                }
+
+                private boolean sameExceptStatus(ConsultationMessage a, ConsultationMessage b) {
+                    return Objects.equals(a.getMessageText(), b.getMessageText())
+                            && Objects.equals(a.getCreatedAt(), b.getCreatedAt())
+                            && Objects.equals(a.getSenderId(), b.getSenderId())
+                            && Objects.equals(a.getSenderName(), b.getSenderName())
+                            && Objects.equals(a.getSenderRole(), b.getSenderRole())
+                            && Objects.equals(a.getMessageType(), b.getMessageType())
+                            && Objects.equals(a.getAttachmentUrl(), b.getAttachmentUrl())
+                            && Objects.equals(a.getConsultationStatus(), b.getConsultationStatus());
+                }
+            };
+
+    private final ListDiff.StableIds stableIds = new ListDiff.StableIds();
     private Context context;
-    private List<ConsultationMessage> messages;
     private String currentUserId;
     private OnMessageActionListener actionListener;
 
@@ -48,10 +87,21 @@ public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerVie
         void onQuickReply(String replyText);
     }
 
-    public EnhancedChatMessageAdapter(Context context, List<ConsultationMessage> messages, String currentUserId) {
+    public EnhancedChatMessageAdapter(Context context, String currentUserId) {
+        super(ListDiff.config(DIFF_CALLBACK));
         this.context = context;
-        this.messages = messages;
         this.currentUserId = currentUserId;
+        setHasStableIds(true);
+    }
+
+    private static String keyOf(ConsultationMessage message) {
+        return message.getClientId() != null ? message.getClientId() : message.getId();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        ConsultationMessage message = getItem(position);
+        return stableIds.get(keyOf(message), message);
     }
 
     public void setOnMessageActionListener(OnMessageActionListener listener) {
@@ -60,7 +110,7 @@ public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerVie
 
     @Override
     public int getItemViewType(int position) {
-        ConsultationMessage message = messages.get(position);
+        ConsultationMessage message = getItem(position);
 
         if (message.getMessageType() != null && message.getMessageType().equals("system")) {
             return VIEW_TYPE_SYSTEM;
@@ -99,7 +149,7 @@ public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerVie
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-        ConsultationMessage message = messages.get(position);
+        ConsultationMessage message = getItem(position);
 
         switch (holder.getItemViewType()) {
             case VIEW_TYPE_SENT:
@@ -116,6 +166,16 @@ public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerVie
         }
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && holder instanceof SentMessageViewHolder) {
+            // Only the delivery status changed
+            updateMessageStatus(((SentMessageViewHolder) holder).imgMessageStatus, getItem(position));
+            return;
+        }
+        onBindViewHolder(holder, position);
+    }
+
     private void bindSentMessage(SentMessageViewHolder holder, ConsultationMessage message) {
         holder.txtMessage.setText(message.getMessageText());
         holder.txtTimestamp.setText(formatTimestamp(message.getCreatedAt()));
@@ -127,7 +187,7 @@ public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerVie
         if (message.hasAttachment()) {
             holder.attachmentPreview.setVisibility(View.VISIBLE);
             // Load attachment preview
-            loadAttachmentPreview(holder.imgAttachment, message.getAttachmentUrl());
+            AttachmentImages.loadThumbnail(holder.imgAttachment, message.getAttachmentUrl(), message.getAttachmentType());
 
             holder.attachmentPreview.setOnClickListener(v -> {
                 if (actionListener != null) {
@@ -136,6 +196,7 @@ public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerVie
             });
         } else {
             holder.attachmentPreview.setVisibility(View.GONE);
+            AttachmentImages.clear(holder.imgAttachment);
         }
     }
 
@@ -181,7 +242,7 @@ public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerVie
         // Handle attachments
         if (message.hasAttachment()) {
             holder.attachmentPreview.setVisibility(View.VISIBLE);
-            loadAttachmentPreview(holder.imgAttachment, message.getAttachmentUrl());
+            AttachmentImages.loadThumbnail(holder.imgAttachment, message.getAttachmentUrl(), message.getAttachmentType());
 
             holder.attachmentPreview.setOnClickListener(v -> {
                 if (actionListener != null) {
@@ -190,6 +251,7 @@ public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerVie
             });
         } else {
             holder.attachmentPreview.setVisibility(View.GONE);
+            AttachmentImages.clear(holder.imgAttachment);
         }
     }
 
@@ -222,12 +284,6 @@ public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerVie
         }
     }
 
-    private void loadAttachmentPreview(ImageView imageView, String attachmentUrl) {
-        // Load attachment preview - implement with your image loading library (Glide/Picasso)
-        // For now, show placeholder
-        imageView.setImageResource(R.drawable.ic_image);
-    }
-
     // Helper method to format timestamp - updated to handle Date objects
     private String formatTimestamp(Date date) {
         if (date == null) {
@@ -237,20 +293,38 @@ public class EnhancedChatMessageAdapter extends RecyclerView.Adapter<RecyclerVie
         return outputFormat.format(date);
     }
 
-    @Override
-    public int getItemCount() {
-        return messages != null ? messages.size() : 0;
-    }
-
     public void updateMessages(List<ConsultationMessage> newMessages) {
-        this.messages.clear();
-        this.messages.addAll(newMessages);
-        notifyDataSetChanged();
+        submitList(new ArrayList<>(newMessages));
     }
 
     public void addMessage(ConsultationMessage message) {
-        messages.add(message);
-        notifyItemInserted(messages.size() - 1);
+        List<ConsultationMessage> updated = new ArrayList<>(getCurrentList());
+        updated.add(message);
+        submitList(updated);
+    }
+
+    /**
+     * Rebind the status of a message that was changed in place, e.g. on resend
+     */
+    public void notifyMessageStatusChanged(ConsultationMessage message) {
+        List<ConsultationMessage> current = getCurrentList();
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i) == message) {
+                notifyItemChanged(i, PAYLOAD_STATUS);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        // Hand thumbnails of off-screen rows back to Glide's pool
+        if (holder instanceof SentMessageViewHolder) {
+            AttachmentImages.clear(((SentMessageViewHolder) holder).imgAttachment);
+        } else if (holder instanceof ReceivedMessageViewHolder) {
+            AttachmentImages.clear(((ReceivedMessageViewHolder) holder).imgAttachment);
+        }
     }
 
     // ViewHolder classes
@@ -7,16 +7,47 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.utils.ListDiff;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
-public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdapter.NotificationViewHolder> {
+public class NotificationsAdapter extends ListAdapter<NotificationItem, NotificationsAdapter.NotificationViewHolder> {
+
+    // Payload for a notification whose only change is being read
+    private static final String PAYLOAD_READ = "read";
+
+    private static final DiffUtil.ItemCallback<NotificationItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<NotificationItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull NotificationItem oldItem, @NonNull NotificationItem newItem) {
+            return Objects.equals(keyOf(oldItem), keyOf(newItem)) && (keyOf(oldItem) != null || oldItem == newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull NotificationItem oldItem, @NonNull NotificationItem newItem) {
+            return sameExceptRead(oldItem, newItem) && oldItem.isRead() == newItem.isRead();
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull NotificationItem oldItem, @NonNull NotificationItem newItem) {
+            return sameExceptRead(oldItem, newItem) ? PAYLOAD_READ : null;
+        }
+
+        private boolean sameExceptRead(NotificationItem a, NotificationItem b) {
+            return Objects.equals(a.getTitle(), b.getTitle())
+                    && Objects.equals(a.getMessage(), b.getMessage())
+                    && Objects.equals(a.getTimestamp(), b.getTimestamp())
+                    && a.getType() == b.getType();
+        }
+    };
 
     public interface OnNotificationClickListener {
         void onNotificationClick(NotificationItem notification);
@@ -26,18 +57,30 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
         void onDismissClick(NotificationItem notification);
     }
 
+    private final ListDiff.StableIds stableIds = new ListDiff.StableIds();
     private Context context;
-    private List<NotificationItem> notifications;
     private OnNotificationClickListener clickListener;
     private OnDismissClickListener dismissListener;
     private SimpleDateFormat dateFormat;
 
     public NotificationsAdapter(Context context, OnNotificationClickListener clickListener, OnDismissClickListener dismissListener) {
+        super(ListDiff.config(DIFF_CALLBACK));
         this.context = context;
-        this.notifications = new ArrayList<>();
         this.clickListener = clickListener;
         this.dismissListener = dismissListener;
         this.dateFormat = new SimpleDateFormat("MMM dd, HH:mm", Locale.getDefault());
+        setHasStableIds(true);
+    }
+
+    // Items built from stored alerts have no id; those are matched by identity
+    private static String keyOf(NotificationItem notification) {
+        return notification.getId() != 0 ? String.valueOf(notification.getId()) : null;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        NotificationItem notification = getItem(position);
+        return stableIds.get(keyOf(notification), notification);
     }
 
     @NonNull
@@ -49,19 +92,23 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
 
     @Override
     public void onBindViewHolder(@NonNull NotificationViewHolder holder, int position) {
-        NotificationItem notification = notifications.get(position);
+        NotificationItem notification = getItem(position);
         holder.bind(notification);
     }
 
     @Override
-    public int getItemCount() {
-        return notifications.size();
+    public void onBindViewHolder(@NonNull NotificationViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        NotificationItem notification = getItem(position);
+        holder.bindReadState(notification);
+        holder.bindClicks(notification);
     }
 
     public void updateNotifications(List<NotificationItem> newNotifications) {
-        this.notifications.clear();
-        this.notifications.addAll(newNotifications);
-        notifyDataSetChanged();
+        submitList(new ArrayList<>(newNotifications));
     }
 
     class NotificationViewHolder extends RecyclerView.ViewHolder {
@@ -114,17 +161,11 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
                     break;
             }
 
-            // Show/hide unread indicator
-            if (notification.isRead()) {
-                unreadIndicator.setVisibility(View.GONE);
-                // Slightly transparent for read notifications
-                itemView.setAlpha(0.7f);
-            } else {
-                unreadIndicator.setVisibility(View.VISIBLE);
-                itemView.setAlpha(1.0f);
-            }
+            bindReadState(notification);
+            bindClicks(notification);
+        }
 
-            // Set click listeners
+        void bindClicks(NotificationItem notification) {
             itemView.setOnClickListener(v -> {
                 if (clickListener != null) {
                     clickListener.onNotificationClick(notification);
@@ -137,5 +178,17 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
                 }
             });
         }
+
+        void bindReadState(NotificationItem notification) {
+            // Show/hide unread indicator
+            if (notification.isRead()) {
+                unreadIndicator.setVisibility(View.GONE);
+                // Slightly transparent for read notifications
+                itemView.setAlpha(0.7f);
+            } else {
+                unreadIndicator.setVisibility(View.VISIBLE);
+                itemView.setAlpha(1.0f);
+            }
+        }
     }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ import com.example.fowltyphoidmonitor.config.SupabaseConfig;
 import com.example.fowltyphoidmonitor.R;
 import com.example.fowltyphoidmonitor.data.requests.AuthResponse;
 import com.example.fowltyphoidmonitor.services.reminders.ReminderHelper;
+import com.example.fowltyphoidmonitor.utils.AppLog;
 import com.google.android.material.button.MaterialButton;
 
 import java.text.SimpleDateFormat;
@@ -27,7 +28,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
 
 public class ReminderActivity extends AppCompatActivity {
     private MaterialButton addReminderBtn;
@@ -38,24 +38,24 @@ public class ReminderActivity extends AppCompatActivity {
     // Add this method to your RegisterActivity
     private void testApiConnection() {
         // Log the current time
-        Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - Testing API connection");
+        AppLog.d("RegisterActivity", "Testing API connection");
 
         // Initialize auth manager
         AuthManager authManager = AuthManager.getInstance(this);
 
         // Verify setup
         boolean isSetupValid = authManager.verifySetup();
-        Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - API setup valid: " + isSetupValid);
+        AppLog.d("RegisterActivity", "API setup valid: " + isSetupValid);
 
         // Log configuration
-        Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - Supabase URL: " + SupabaseConfig.SUPABASE_URL);
+        AppLog.d("RegisterActivity", "Supabase URL: " + SupabaseConfig.SUPABASE_URL);
 
         // Generate test email with timestamp to avoid duplicates
         String testEmail = "test" + System.currentTimeMillis() + "@example.com";
         String testPassword = "Password123";
         String testName = "Test User";
 
-        Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - Testing registration with email: " + testEmail);
+        AppLog.d("RegisterActivity", "Testing registration with email: " + testEmail);
 
         // Create test metadata
         Map<String, Object> metadata = new HashMap<>();
@@ -67,9 +67,9 @@ public class ReminderActivity extends AppCompatActivity {
         authManager.signUpWithEmail(testEmail, testPassword, metadata, new AuthManager.AuthCallback() {
             @Override
             public void onSuccess(AuthResponse response) {
-                Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - Registration successful!");
+                AppLog.d("RegisterActivity", "Registration successful!");
                 if (response != null && response.getUser() != null) {
-                    Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - User created with ID: " +
+                    AppLog.d("RegisterActivity", "User created with ID: " +
                             response.getUser().getUserId());
 
                     // Now try to login with the same credentials
@@ -79,44 +79,39 @@ public class ReminderActivity extends AppCompatActivity {
 
             @Override
             public void onError(String error) {
-                Log.e("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - Registration failed: " + error);
+                AppLog.e("RegisterActivity", "Registration failed: " + error);
             }
         });
     }
 
     // Helper method to test login after registration
     private void testLogin(String email, String password) {
-        Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - Testing login with: " + email);
+        AppLog.d("RegisterActivity", "Testing login with: " + email);
 
         AuthManager authManager = AuthManager.getInstance(this);
         authManager.login(email, password, new AuthManager.AuthCallback() {
             @Override
             public void onSuccess(AuthResponse response) {
-                Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - Login successful!");
+                AppLog.d("RegisterActivity", "Login successful!");
 
                 // Get user ID and token
                 String userId = authManager.getUserId();
                 String token = authManager.getAccessToken();
                 String userType = authManager.getUserType();
 
-                Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - User ID: " + userId);
-                Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - User token: " +
+                AppLog.d("RegisterActivity", "User ID: " + userId);
+                AppLog.d("RegisterActivity", "User token: " +
                         (token != null ? "present" : "missing"));
-                Log.d("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - User type: " + userType);
+                AppLog.d("RegisterActivity", "User type: " + userType);
             }
 
             @Override
             public void onError(String error) {
-                Log.e("RegisterActivity", "[LWENA27] " + getCurrentTime() + " - Login failed: " + error);
+                AppLog.e("RegisterActivity", "Login failed: " + error);
             }
         });
     }
 
-    private String getCurrentTime() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
-        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-        return dateFormat.format(new Date());
-    }
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
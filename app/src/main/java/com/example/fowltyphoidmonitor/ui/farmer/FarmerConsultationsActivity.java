@@ -124,7 +124,7 @@ public class FarmerConsultationsActivity extends AppCompatActivity {
 
     private void setupRecyclerView() {
         consultationList = new ArrayList<>();
-        adapter = new ConsultationsAdapter(consultationList, this::onConsultationItemClick);
+        adapter = new ConsultationsAdapter(this::onConsultationItemClick);
 
         recyclerViewConsultations.setLayoutManager(new LinearLayoutManager(this));
         recyclerViewConsultations.setAdapter(adapter);
@@ -212,7 +212,7 @@ public class FarmerConsultationsActivity extends AppCompatActivity {
             emptyStateLayout.setVisibility(View.GONE);
         }
 
-        adapter.notifyDataSetChanged();
+        adapter.submitList(new ArrayList<>(consultationList));
     }
 
     private void onConsultationItemClick(ConsultationItem consultation) {
@@ -21,15 +21,13 @@ import com.example.fowltyphoidmonitor.R;
 import com.example.fowltyphoidmonitor.data.api.ApiClient;
 import com.example.fowltyphoidmonitor.data.models.Farmer;
 import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.location.LocationIndex;
 import com.example.fowltyphoidmonitor.config.SupabaseConfig;
+import com.example.fowltyphoidmonitor.utils.AppLog;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
-import java.util.TimeZone;
 
 import de.hdodenhof.circleimageview.CircleImageView;
 import retrofit2.Call;
@@ -77,13 +75,14 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
     private Uri selectedImageUri = null;
     private boolean isNewUser = false;
     private Farmer currentFarmer;
+    private double[] farmPoint; // geocoded location, null if unknown
 
     private final ActivityResultLauncher<String> imagePickerLauncher =
             registerForActivityResult(new ActivityResultContracts.GetContent(), uri -> {
                 if (uri != null) {
                     selectedImageUri = uri;
                     profileImageEdit.setImageURI(uri);
-                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Profile image selected: " + uri.toString());
+                    AppLog.d(TAG, "Profile image selected: " + uri.toString());
                 }
             });
 
@@ -99,7 +98,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
         loadProfileData();
         setupClickListeners();
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - FarmerProfileEditActivity initialized - isNewUser: " + isNewUser);
+        AppLog.d(TAG, "FarmerProfileEditActivity initialized - isNewUser: " + isNewUser);
     }
 
     private void initViews() {
@@ -155,9 +154,9 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
             ArrayAdapter<String> farmTypeAdapter = new ArrayAdapter<>(this, android.R.layout.simple_dropdown_item_1line, farmTypeOptions);
             etFarmType.setAdapter(farmTypeAdapter);
 
-            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Views initialized successfully");
+            AppLog.d(TAG, "Views initialized successfully");
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error initializing views: " + e.getMessage(), e);
+            AppLog.e(TAG, "Error initializing views: " + e.getMessage(), e);
             Toast.makeText(this, "Hitilafu katika kuanzisha UI", Toast.LENGTH_SHORT).show();
         }
     }
@@ -183,7 +182,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
     }
 
     private void loadProfileData() {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Loading farmer profile data");
+        AppLog.d(TAG, "Loading farmer profile data");
 
         currentFarmer = new Farmer();
         String userId = authManager.getUserId();
@@ -228,7 +227,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
         String token = authManager.getAccessToken();
 
         if (userId == null || token == null) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Missing userId or token");
+            AppLog.e(TAG, "Missing userId or token");
             loadDefaultsFromPrefs();
             showErrorMessage("Hakuna mtumiaji aliyeingia");
             return;
@@ -248,13 +247,13 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
                             // CRITICAL FIX: If we successfully loaded farmer data, mark profile as complete
                             if (currentFarmer.isProfileComplete()) {
                                 authManager.markProfileComplete();
-                                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Profile marked as complete after loading from database");
+                                AppLog.d(TAG, "Profile marked as complete after loading from database");
                             }
                             
-                            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Loaded farmer data from API: " +
+                            AppLog.d(TAG, "Loaded farmer data from API: " +
                                     currentFarmer.getFullName() + ", " + currentFarmer.getFarmLocation());
                         } else {
-                            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - No farmer data found or request failed: HTTP " + response.code());
+                            AppLog.w(TAG, "No farmer data found or request failed: HTTP " + response.code());
                             // Try fetching by email as fallback
                             loadFarmerByEmail(authHeader, currentFarmer.getEmail());
                         }
@@ -263,7 +262,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
                     @Override
                     public void onFailure(Call<List<Farmer>> call, Throwable t) {
                         showLoading(false);
-                        Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error loading farmer data: " + t.getMessage());
+                        AppLog.e(TAG, "Error loading farmer data: " + t.getMessage());
                         Toast.makeText(FarmerProfileEditActivity.this, "Hitilafu: " + t.getMessage(), Toast.LENGTH_SHORT).show();
                         loadDefaultsFromPrefs();
                         showErrorMessage("Hitilafu ya mtandao: " + t.getMessage());
@@ -273,7 +272,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
 
     private void loadFarmerByEmail(String authHeader, String email) {
         if (email == null || email.isEmpty()) {
-            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - No email available for fallback fetch");
+            AppLog.w(TAG, "No email available for fallback fetch");
             loadDefaultsFromPrefs();
             showErrorMessage("Tafadhali jaza wasifu wako");
             return;
@@ -291,13 +290,13 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
                             // CRITICAL FIX: If we successfully loaded farmer data, mark profile as complete
                             if (currentFarmer.isProfileComplete()) {
                                 authManager.markProfileComplete();
-                                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Profile marked as complete after loading by email");
+                                AppLog.d(TAG, "Profile marked as complete after loading by email");
                             }
                             
-                            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Loaded farmer data by email: " +
+                            AppLog.d(TAG, "Loaded farmer data by email: " +
                                     currentFarmer.getFullName() + ", " + currentFarmer.getFarmLocation());
                         } else {
-                            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - No farmer data found by email: HTTP " + response.code());
+                            AppLog.w(TAG, "No farmer data found by email: HTTP " + response.code());
                             loadDefaultsFromPrefs();
                             showErrorMessage("Tafadhali jaza wasifu wako");
                         }
@@ -306,7 +305,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
                     @Override
                     public void onFailure(Call<List<Farmer>> call, Throwable t) {
                         showLoading(false);
-                        Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error loading farmer by email: " + t.getMessage());
+                        AppLog.e(TAG, "Error loading farmer by email: " + t.getMessage());
                         Toast.makeText(FarmerProfileEditActivity.this, "Hitilafu: " + t.getMessage(), Toast.LENGTH_SHORT).show();
                         loadDefaultsFromPrefs();
                         showErrorMessage("Hitilafu ya mtandao: " + t.getMessage());
@@ -315,7 +314,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
     }
 
     private void displayFarmerData(Farmer farmer) {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Displaying farmer data in form fields");
+        AppLog.d(TAG, "Displaying farmer data in form fields");
         
         // Display actual farmer data from database
         if (farmer.getFarmLocation() != null && !farmer.getFarmLocation().isEmpty()) {
@@ -353,11 +352,11 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
             Log.d(TAG, "Loaded experience from prefs: " + experience);
         }
         
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Successfully populated form with farmer data");
+        AppLog.d(TAG, "Successfully populated form with farmer data");
     }
 
     private void loadDefaultsFromPrefs() {
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Loading profile data from SharedPreferences");
+        AppLog.d(TAG, "Loading profile data from SharedPreferences");
         
         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         
@@ -409,7 +408,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
             Log.d(TAG, "Loaded experience from prefs: " + experience);
         }
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Loaded data from prefs - Location: " +
+        AppLog.d(TAG, "Loaded data from prefs - Location: " +
                 location + ", Farm Size: " + farmSize + ", Farm Address: " + farmAddress +
                 ", Farm Type: " + farmType + ", Farm Name: " + farmName + ", Experience: " + experience +
                 ", Display Name: " + displayName + ", Email: " + userEmail);
@@ -505,13 +504,13 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
 
         if (!saved) {
             showLoading(false);
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to save profile data to prefs");
+            AppLog.e(TAG, "Failed to save profile data to prefs");
             showErrorMessage("Hitilafu katika kuhifadhi data");
             Toast.makeText(this, "Hitilafu katika kuhifadhi data", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Profile saved to prefs - Username: " +
+        AppLog.d(TAG, "Profile saved to prefs - Username: " +
                 username + ", Location: " + location + ", Farm Size: " + farmSize +
                 ", Farm Address: " + farmAddress + ", Farm Type: " + farmType +
                 ", Farm Name: " + farmName + ", Experience: " + experience);
@@ -519,6 +518,15 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
         SharedPreferences authPrefs = getSharedPreferences(AuthManager.PREFS_NAME, MODE_PRIVATE);
         authPrefs.edit().putBoolean(AuthManager.KEY_PROFILE_COMPLETE, true).apply();
 
+        // Coordinates put the farm in the server's geohash index for area and radius alerts
+        LocationIndex.getInstance(this).geocode(location, point -> {
+            farmPoint = point;
+            saveProfileToDatabase(location, farmSize, farmAddress, farmType, farmName, experience);
+        });
+    }
+
+    private void saveProfileToDatabase(String location, int farmSize, String farmAddress, String farmType,
+                                       String farmName, String experience) {
         saveToDatabase(location, farmSize, farmAddress, farmType, farmName, experience, new DatabaseSaveCallback() {
             @Override
             public void onSuccess() {
@@ -575,7 +583,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
                 // Still mark profile as complete even if database save failed (offline scenario)
                 authManager.markProfileComplete();
 
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error saving to database: " + errorMessage);
+                AppLog.e(TAG, "Error saving to database: " + errorMessage);
                 showErrorMessage("Wasifu umehifadhiwa bila kuunganisha kwenye mtandao");
                 Toast.makeText(FarmerProfileEditActivity.this, "Wasifu umehifadhiwa bila kuunganisha kwenye mtandao", Toast.LENGTH_SHORT).show();
                 if (isNewUser) {
@@ -616,7 +624,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
                 if (userId != null) {
                     currentFarmer.setUserId(userId);
                 } else {
-                    Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - No userId available, skipping database save");
+                    AppLog.w(TAG, "No userId available, skipping database save");
                     callback.onError("No user ID available");
                     return;
                 }
@@ -627,16 +635,19 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
             currentFarmer.setBirdCount(farmSize);
             currentFarmer.setFarmAddress(farmAddress);
             currentFarmer.setBirdType(farmType);
+            if (farmPoint != null) {
+                currentFarmer.setCoordinates(farmPoint[0], farmPoint[1]);
+            }
             // Note: farmName and experience are stored only in SharedPreferences since they're not in the database schema
             currentFarmer.setPassword(null);
             if (selectedImageUri != null) {
-                Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Image URI set but not uploaded: " + selectedImageUri);
+                AppLog.d(TAG, "Image URI set but not uploaded: " + selectedImageUri);
             }
 
             String userId = authManager.getUserId();
             String token = authManager.getAccessToken();
             if (userId == null || token == null) {
-                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Missing userId or token, can't save to DB");
+                AppLog.e(TAG, "Missing userId or token, can't save to DB");
                 callback.onError("Missing authentication credentials");
                 return;
             }
@@ -649,9 +660,9 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
                             public void onResponse(Call<List<Farmer>> call, Response<List<Farmer>> response) {
                                 if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
                                     currentFarmer = response.body().get(0);
-                                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Farmer created in DB successfully");
+                                    AppLog.d(TAG, "Farmer created in DB successfully");
                                     if (currentFarmer.getFarmerId() != null) {
-                                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Received farmer ID: " + currentFarmer.getFarmerId());
+                                        AppLog.d(TAG, "Received farmer ID: " + currentFarmer.getFarmerId());
                                         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
                                         prefs.edit().putString("farmerId", currentFarmer.getFarmerId()).apply();
                                     }
@@ -659,10 +670,10 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
                                 } else {
                                     String errorBody = response.errorBody() != null ? response.errorBody().toString() : "Unknown error";
                                     if (response.code() == 409 && errorBody.contains("farmers_email_key")) {
-                                        Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - User already exists, trying to load existing farmer profile");
+                                        AppLog.d(TAG, "User already exists, trying to load existing farmer profile");
                                         loadExistingFarmerByEmail(authHeader, currentFarmer.getEmail(), callback);
                                     } else {
-                                        Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to create farmer: HTTP " + response.code() + ", " + errorBody);
+                                        AppLog.e(TAG, "Failed to create farmer: HTTP " + response.code() + ", " + errorBody);
                                         callback.onError("Server error: " + errorBody);
                                     }
                                 }
@@ -670,7 +681,7 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
 
                             @Override
                             public void onFailure(Call<List<Farmer>> call, Throwable t) {
-                                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Network error creating farmer: " + t.getMessage());
+                                AppLog.e(TAG, "Network error creating farmer: " + t.getMessage());
                                 callback.onError("Network error: " + t.getMessage());
                             }
                         });
@@ -681,24 +692,24 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
                             public void onResponse(Call<List<Farmer>> call, Response<List<Farmer>> response) {
                                 if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
                                     currentFarmer = response.body().get(0);
-                                    Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Farmer updated in DB successfully");
+                                    AppLog.d(TAG, "Farmer updated in DB successfully");
                                     callback.onSuccess();
                                 } else {
                                     String errorBody = response.errorBody() != null ? response.errorBody().toString() : "Unknown error";
-                                    Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Failed to update farmer: HTTP " + response.code() + ", " + errorBody);
+                                    AppLog.e(TAG, "Failed to update farmer: HTTP " + response.code() + ", " + errorBody);
                                     callback.onError("Server error: " + errorBody);
                                 }
                             }
 
                             @Override
                             public void onFailure(Call<List<Farmer>> call, Throwable t) {
-                                Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Network error updating farmer: " + t.getMessage());
+                                AppLog.e(TAG, "Network error updating farmer: " + t.getMessage());
                                 callback.onError("Network error: " + t.getMessage());
                             }
                         });
             }
         } catch (Exception e) {
-            Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Exception in saveToDatabase: " + e.getMessage(), e);
+            AppLog.e(TAG, "Exception in saveToDatabase: " + e.getMessage(), e);
             callback.onError("Exception: " + e.getMessage());
         }
     }
@@ -711,28 +722,23 @@ public class FarmerProfileEditActivity extends AppCompatActivity {
                         if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
                             currentFarmer = response.body().get(0);
                             runOnUiThread(() -> displayFarmerData(currentFarmer));
-                            Log.d(TAG, "[LWENA27] " + getCurrentTime() + " - Loaded existing farmer data by email: " +
+                            AppLog.d(TAG, "Loaded existing farmer data by email: " +
                                     currentFarmer.getFullName() + ", " + currentFarmer.getFarmLocation());
                             callback.onSuccess();
                         } else {
-                            Log.w(TAG, "[LWENA27] " + getCurrentTime() + " - No existing farmer data found by email or request failed: HTTP " + response.code());
+                            AppLog.w(TAG, "No existing farmer data found by email or request failed: HTTP " + response.code());
                             callback.onError("Couldn't find existing profile");
                         }
                     }
 
                     @Override
                     public void onFailure(Call<List<Farmer>> call, Throwable t) {
-                        Log.e(TAG, "[LWENA27] " + getCurrentTime() + " - Error loading existing farmer data by email: " + t.getMessage());
+                        AppLog.e(TAG, "Error loading existing farmer data by email: " + t.getMessage());
                         callback.onError("Network error: " + t.getMessage());
                     }
                 });
     }
 
-    private String getCurrentTime() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.getDefault());
-        sdf.setTimeZone(TimeZone.getTimeZone("GMT+03:00"));
-        return sdf.format(new Date());
-    }
 
     @Override
     protected void onPause() {
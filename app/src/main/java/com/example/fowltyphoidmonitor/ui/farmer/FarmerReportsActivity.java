@@ -180,7 +180,7 @@ public class FarmerReportsActivity extends AppCompatActivity {
     private void setupRecyclerView() {
         if (recyclerViewReports != null) {
             recyclerViewReports.setLayoutManager(new LinearLayoutManager(this));
-            reportsAdapter = new FarmerReportsAdapter(reportsList, this::onReportClick);
+            reportsAdapter = new FarmerReportsAdapter(this::onReportClick);
             recyclerViewReports.setAdapter(reportsAdapter);
         }
     }
@@ -309,7 +309,7 @@ public class FarmerReportsActivity extends AppCompatActivity {
 
         // Update adapter
         if (reportsAdapter != null) {
-            reportsAdapter.notifyDataSetChanged();
+            reportsAdapter.updateReports(reportsList);
         }
 
         // Show/hide empty state
@@ -8,27 +8,69 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.ui.farmer.FarmerReportsActivity.ReportItem;
+import com.example.fowltyphoidmonitor.utils.ListDiff;
 import com.google.android.material.chip.Chip;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class FarmerReportsAdapter extends RecyclerView.Adapter<FarmerReportsAdapter.ReportViewHolder> {
+public class FarmerReportsAdapter extends ListAdapter<ReportItem, FarmerReportsAdapter.ReportViewHolder> {
 
-    private List<FarmerReportsActivity.ReportItem> reportsList;
+    // Payload for a report whose only change is its review status
+    private static final String PAYLOAD_STATUS = "status";
+
+    private static final DiffUtil.ItemCallback<ReportItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<ReportItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ReportItem oldItem, @NonNull ReportItem newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ReportItem oldItem, @NonNull ReportItem newItem) {
+            return sameExceptStatus(oldItem, newItem) && Objects.equals(oldItem.getStatus(), newItem.getStatus());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull ReportItem oldItem, @NonNull ReportItem newItem) {
+            return sameExceptStatus(oldItem, newItem) ? PAYLOAD_STATUS : null;
+        }
+
+        private boolean sameExceptStatus(ReportItem a, ReportItem b) {
+            return Objects.equals(a.getTitle(), b.getTitle())
+                    && Objects.equals(a.getDescription(), b.getDescription())
+                    && Objects.equals(a.getSeverity(), b.getSeverity())
+                    && Objects.equals(a.getSubmissionDate(), b.getSubmissionDate())
+                    && a.getAffectedBirds() == b.getAffectedBirds()
+                    && Objects.equals(a.getLocation(), b.getLocation());
+        }
+    };
+
+    private final ListDiff.StableIds stableIds = new ListDiff.StableIds();
     private Context context;
     private OnReportClickListener onReportClickListener;
 
     // Interface for handling report clicks
     public interface OnReportClickListener {
-        void onReportClick(FarmerReportsActivity.ReportItem report);
+        void onReportClick(ReportItem report);
     }
 
-    public FarmerReportsAdapter(List<FarmerReportsActivity.ReportItem> reportsList, OnReportClickListener listener) {
-        this.reportsList = reportsList;
+    public FarmerReportsAdapter(OnReportClickListener listener) {
+        super(ListDiff.config(DIFF_CALLBACK));
         this.onReportClickListener = listener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        ReportItem report = getItem(position);
+        return stableIds.get(report.getId(), report);
     }
 
     @NonNull
@@ -41,19 +83,24 @@ public class FarmerReportsAdapter extends RecyclerView.Adapter<FarmerReportsAdap
 
     @Override
     public void onBindViewHolder(@NonNull ReportViewHolder holder, int position) {
-        FarmerReportsActivity.ReportItem report = reportsList.get(position);
+        ReportItem report = getItem(position);
         holder.bind(report);
     }
 
     @Override
-    public int getItemCount() {
-        return reportsList.size();
+    public void onBindViewHolder(@NonNull ReportViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        ReportItem report = getItem(position);
+        holder.bindStatus(report);
+        holder.bindClick(report);
     }
 
-    // Method to update the reports list (for filtering)
-    public void updateReports(List<FarmerReportsActivity.ReportItem> newReportsList) {
-        this.reportsList = newReportsList;
-        notifyDataSetChanged();
+    // Method to update the reports list (for filtering); only changed rows are rebound
+    public void updateReports(List<ReportItem> newReportsList) {
+        submitList(new ArrayList<>(newReportsList));
     }
 
     // ViewHolder class
@@ -83,7 +130,7 @@ public class FarmerReportsAdapter extends RecyclerView.Adapter<FarmerReportsAdap
             chipSeverity = itemView.findViewById(R.id.chipSeverity);
         }
 
-        public void bind(FarmerReportsActivity.ReportItem report) {
+        public void bind(ReportItem report) {
             // Set basic information
             txtReportTitle.setText(report.getTitle());
             txtReportId.setText("ID: " + report.getId());
@@ -92,24 +139,30 @@ public class FarmerReportsAdapter extends RecyclerView.Adapter<FarmerReportsAdap
             txtAffectedBirds.setText("Kuku walioathiriwa: " + report.getAffectedBirds());
             txtLocation.setText("Eneo: " + report.getLocation());
 
-            // Set status chip
-            chipStatus.setText(getStatusText(report.getStatus()));
-            setStatusChipColor(chipStatus, report.getStatus());
+            bindStatus(report);
 
             // Set severity chip
             chipSeverity.setText(getSeverityText(report.getSeverity()));
             setSeverityChipColor(chipSeverity, report.getSeverity());
 
-            // Set click listener
+            bindClick(report);
+
+            // Add ripple effect for better user experience
+            cardReport.setClickable(true);
+            cardReport.setFocusable(true);
+        }
+
+        void bindClick(ReportItem report) {
             cardReport.setOnClickListener(v -> {
                 if (onReportClickListener != null) {
                     onReportClickListener.onReportClick(report);
                 }
             });
+        }
 
-            // Add ripple effect for better user experience
-            cardReport.setClickable(true);
-            cardReport.setFocusable(true);
+        void bindStatus(ReportItem report) {
+            chipStatus.setText(getStatusText(report.getStatus()));
+            setStatusChipColor(chipStatus, report.getStatus());
         }
 
         private String getStatusText(String status) {
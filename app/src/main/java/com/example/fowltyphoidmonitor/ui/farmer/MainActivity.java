@@ -32,6 +32,7 @@ import com.example.fowltyphoidmonitor.ui.common.SymptomTrackerActivity;
 
 import java.util.Map;
 import com.example.fowltyphoidmonitor.ui.farmer.FarmerConsultationsActivity;
+import com.example.fowltyphoidmonitor.utils.StartupTrace;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.button.MaterialButton;
 
@@ -67,6 +68,7 @@ public class MainActivity extends AppCompatActivity implements AppNotificationMa
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTrace.finishOnFirstFrame(this);
 
         // Initialize AuthManager
         authManager = AuthManager.getInstance(this);
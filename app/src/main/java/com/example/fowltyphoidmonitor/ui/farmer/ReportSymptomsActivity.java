@@ -11,7 +11,6 @@ import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.TextView;
 import android.widget.Toast;
-import android.os.AsyncTask;
 import org.json.JSONObject;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -23,6 +22,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.example.fowltyphoidmonitor.R;
 import com.example.fowltyphoidmonitor.ui.common.ProfileActivity;
 import com.example.fowltyphoidmonitor.ui.common.SettingsActivity;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 public class ReportSymptomsActivity extends AppCompatActivity implements BottomNavigationView.OnNavigationItemSelectedListener {
@@ -98,47 +98,44 @@ public class ReportSymptomsActivity extends AppCompatActivity implements BottomN
     private void submitProblemToSupabase(String symptoms) {
         // You may want to get farmer_id from AuthManager or SharedPreferences
         String farmerId = "farmer_" + System.currentTimeMillis(); // Replace with real user id
-        new SubmitProblemTask().execute(farmerId, symptoms);
+        AppExecutors.getInstance().io().execute(() -> {
+            boolean success = postProblem(farmerId, symptoms);
+            runOnUiThread(() -> {
+                if (success) {
+                    Toast.makeText(ReportSymptomsActivity.this, "Tatizo limewasilishwa kwa daktari.", Toast.LENGTH_LONG).show();
+                } else {
+                    Toast.makeText(ReportSymptomsActivity.this, "Imeshindikana kutuma tatizo. Tafadhali jaribu tena.", Toast.LENGTH_LONG).show();
+                }
+            });
+        });
     }
 
-    private class SubmitProblemTask extends AsyncTask<String, Void, Boolean> {
-        @Override
-        protected Boolean doInBackground(String... params) {
-            try {
-                URL url = new URL(SUPABASE_URL);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("POST");
-                conn.setRequestProperty("apikey", SUPABASE_ANON_KEY);
-                conn.setRequestProperty("Authorization", "Bearer " + SUPABASE_ANON_KEY);
-                conn.setRequestProperty("Content-Type", "application/json");
-                conn.setDoOutput(true);
-
-                JSONObject json = new JSONObject();
-                json.put("farmer_id", params[0]);
-                json.put("symptoms", params[1]);
-                json.put("status", "open");
-
-                OutputStream os = conn.getOutputStream();
-                os.write(json.toString().getBytes());
-                os.flush();
-                os.close();
-
-                int responseCode = conn.getResponseCode();
-                conn.disconnect();
-                return responseCode == 201 || responseCode == 200;
-            } catch (Exception e) {
-                e.printStackTrace();
-                return false;
-            }
-        }
-
-        @Override
-        protected void onPostExecute(Boolean success) {
-            if (success) {
-                Toast.makeText(ReportSymptomsActivity.this, "Tatizo limewasilishwa kwa daktari.", Toast.LENGTH_LONG).show();
-            } else {
-                Toast.makeText(ReportSymptomsActivity.this, "Imeshindikana kutuma tatizo. Tafadhali jaribu tena.", Toast.LENGTH_LONG).show();
-            }
+    private boolean postProblem(String farmerId, String symptoms) {
+        try {
+            URL url = new URL(SUPABASE_URL);
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("apikey", SUPABASE_ANON_KEY);
+            conn.setRequestProperty("Authorization", "Bearer " + SUPABASE_ANON_KEY);
+            conn.setRequestProperty("Content-Type", "application/json");
+            conn.setDoOutput(true);
+
+            JSONObject json = new JSONObject();
+            json.put("farmer_id", farmerId);
+            json.put("symptoms", symptoms);
+            json.put("status", "open");
+
+            OutputStream os = conn.getOutputStream();
+            os.write(json.toString().getBytes());
+            os.flush();
+            os.close();
+
+            int responseCode = conn.getResponseCode();
+            conn.disconnect();
+            return responseCode == 201 || responseCode == 200;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
         }
     }
 
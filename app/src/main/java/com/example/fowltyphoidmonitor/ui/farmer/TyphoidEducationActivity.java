@@ -4,13 +4,16 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.data.local.KnowledgePack;
 import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.knowledge.KnowledgePackManager;
 import com.google.android.material.button.MaterialButton;
 
 /**
@@ -34,6 +37,7 @@ public class TyphoidEducationActivity extends AppCompatActivity {
     private Toolbar toolbar;
     private MaterialButton btnReportCase;
     private MaterialButton btnTalkToVetEducation;
+    private TextView txtTyphoidIntro;
     
     // Auth manager
     private AuthManager authManager;
@@ -55,6 +59,9 @@ public class TyphoidEducationActivity extends AppCompatActivity {
         // Setup click listeners
         setupClickListeners();
 
+        // Load content from the offline knowledge pack
+        loadEducationContent();
+
         Log.d(TAG, "TyphoidEducationActivity created successfully");
     }
 
@@ -65,6 +72,43 @@ public class TyphoidEducationActivity extends AppCompatActivity {
         toolbar = findViewById(R.id.toolbar);
         btnReportCase = findViewById(R.id.btnReportCase);
         btnTalkToVetEducation = findViewById(R.id.btnTalkToVet);
+        txtTyphoidIntro = findViewById(R.id.txtTyphoidIntro);
+    }
+
+    /**
+     * Show the introduction from the knowledge pack. The layout text stays as the
+     * fallback, and a newer disease_info description replaces it once downloaded.
+     */
+    private void loadEducationContent() {
+        KnowledgePackManager packManager = KnowledgePackManager.getInstance(this);
+        showIntroduction(packManager);
+
+        packManager.checkForUpdatesAsync(new KnowledgePackManager.UpdateCallback() {
+            @Override
+            public void onPackUpdated(String version) {
+                if (!isFinishing()) {
+                    showIntroduction(packManager);
+                }
+            }
+
+            @Override
+            public void onNoUpdate() {
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.w(TAG, "Education content update failed: " + error);
+            }
+        });
+    }
+
+    private void showIntroduction(KnowledgePackManager packManager) {
+        if (txtTyphoidIntro == null) return;
+        String description = packManager.getField(KnowledgePackManager.DEFAULT_DISEASE,
+                KnowledgePack.FIELD_DESCRIPTION);
+        if (description != null && !description.isEmpty()) {
+            txtTyphoidIntro.setText(description);
+        }
     }
 
     /**
@@ -3,8 +3,6 @@ package com.example.fowltyphoidmonitor.ui.vet;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import android.widget.ImageButton;
@@ -31,9 +29,11 @@ import com.example.fowltyphoidmonitor.ui.vet.ManageDiseaseInfoActivity;
 import com.example.fowltyphoidmonitor.R;
 import com.example.fowltyphoidmonitor.ui.vet.ReportAnalyticsActivity;
 import com.example.fowltyphoidmonitor.ui.farmer.RequestConsultationActivity;
+import com.example.fowltyphoidmonitor.ui.common.DashboardManagerActivity;
 import com.example.fowltyphoidmonitor.ui.common.SetRemindersActivity;
 import com.example.fowltyphoidmonitor.ui.common.SubmitReportActivity;
 import com.example.fowltyphoidmonitor.ui.vet.AdminConsultationActivity;
+import com.example.fowltyphoidmonitor.utils.StartupTrace;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.button.MaterialButton;
 import de.hdodenhof.circleimageview.CircleImageView;
@@ -62,9 +62,8 @@ public class AdminMainActivity extends AppCompatActivity {
     private com.example.fowltyphoidmonitor.services.auth.AuthManager authManager;
 
     // Real-time dashboard update handler
-    private Handler dashboardUpdateHandler;
-    private Runnable dashboardUpdateRunnable;
-    private static final int DASHBOARD_UPDATE_INTERVAL = 30000; // 30 seconds
+    private DashboardManagerActivity dashboardManager;
+    private DashboardManagerActivity.DashboardUpdateListener dashboardListener;
 
     // Authentication constants - unified with login and register activities
     private static final String PREFS_NAME = "FowlTyphoidMonitorPrefs";
@@ -93,6 +92,7 @@ public class AdminMainActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTrace.finishOnFirstFrame(this);
         
         Log.d(TAG, "[LWENA27] AdminMainActivity onCreate started");
 
@@ -209,7 +209,6 @@ public class AdminMainActivity extends AppCompatActivity {
                 Log.d(TAG, "Token refresh successful, loading user data");
                 loadUserData();
                 if (isAdminOrVet()) {
-                    loadDashboardStats();
                     startDashboardUpdates();
                 } else {
                     loadFarmerDashboard();
@@ -223,7 +222,6 @@ public class AdminMainActivity extends AppCompatActivity {
                 Log.w(TAG, "Token refresh failed: " + error + ", but continuing with existing session");
                 loadUserData(); // Try to load data anyway
                 if (isAdminOrVet()) {
-                    loadDashboardStats();
                     startDashboardUpdates();
                 } else {
                     loadFarmerDashboard();
@@ -397,36 +395,38 @@ public class AdminMainActivity extends AppCompatActivity {
 
     // Real-time Dashboard Update Methods (Admin/Vet only)
     private void initializeDashboardUpdates() {
-        dashboardUpdateHandler = new Handler(Looper.getMainLooper());
-        dashboardUpdateRunnable = new Runnable() {
+        dashboardManager = DashboardManagerActivity.getInstance(this);
+        dashboardListener = new DashboardManagerActivity.DashboardUpdateListener() {
             @Override
-            public void run() {
-                // Update dashboard statistics
-                loadDashboardStats();
-                updateLastUpdatedTime();
+            public void onDashboardDataUpdated(DashboardManagerActivity.DashboardData data) {
+                setLoading(false);
+                showDashboardStats(data);
+            }
 
-                // Schedule next update
-                dashboardUpdateHandler.postDelayed(this, DASHBOARD_UPDATE_INTERVAL);
+            @Override
+            public void onError(String error) {
+                setLoading(false);
+                Log.e(TAG, "Error loading dashboard stats: " + error);
+                // Keep the last snapshot on screen; only say so when there is none
+                if (dashboardManager.getCurrentData().lastUpdated == 0) {
+                    Toast.makeText(AdminMainActivity.this, "Error loading dashboard statistics", Toast.LENGTH_SHORT).show();
+                }
             }
         };
     }
 
+    /** Listen for snapshots and poll; the first poll runs at once */
     private void startDashboardUpdates() {
-        if (dashboardUpdateHandler != null && dashboardUpdateRunnable != null) {
-            dashboardUpdateHandler.post(dashboardUpdateRunnable);
+        if (dashboardManager != null) {
+            dashboardManager.addUpdateListener(dashboardListener);
+            dashboardManager.startRealTimeUpdates();
         }
     }
 
     private void stopDashboardUpdates() {
-        if (dashboardUpdateHandler != null && dashboardUpdateRunnable != null) {
-            dashboardUpdateHandler.removeCallbacks(dashboardUpdateRunnable);
-        }
-    }
-
-    private void updateLastUpdatedTime() {
-        if (txtLastUpdated != null) {
-            String currentTime = java.text.DateFormat.getTimeInstance(java.text.DateFormat.SHORT).format(new java.util.Date());
-            txtLastUpdated.setText("Imesasishwa: " + currentTime);
+        if (dashboardManager != null) {
+            dashboardManager.removeUpdateListener(dashboardListener);
+            dashboardManager.stopRealTimeUpdates();
         }
     }
 
@@ -547,58 +547,26 @@ public class AdminMainActivity extends AppCompatActivity {
     }
 
     private void loadDashboardStats() {
-        // Load real dashboard statistics from database/API - no more mock data
+        // One snapshot of all figures from the server; see DashboardManagerActivity
+        if (dashboardManager == null) return;
         setLoading(true);
-
-        authManager.loadDashboardStats(new AuthManager.StatsCallback() {
-            @Override
-            public void onStatsLoaded(Map<String, Object> stats) {
-                setLoading(false);
-
-                // Display real statistics from database
-                int totalFarmers = getStatValue(stats, "total_farmers", 0);
-                int activeReports = getStatValue(stats, "active_reports", 0);
-                int pendingConsultations = getStatValue(stats, "pending_consultations", 0);
-
-                // Update the display with real data
-                if (txtTotalFarmers != null) txtTotalFarmers.setText(String.valueOf(totalFarmers));
-                if (txtActiveReports != null) txtActiveReports.setText(String.valueOf(activeReports));
-                if (txtPendingConsultations != null) txtPendingConsultations.setText(String.valueOf(pendingConsultations));
-
-                // Update last refresh time
-                updateLastUpdatedTime();
-
-                Log.d(TAG, "✅ Real dashboard stats loaded - Farmers: " + totalFarmers +
-                        ", Reports: " + activeReports + ", Consultations: " + pendingConsultations);
-            }
-
-            @Override
-            public void onError(String error) {
-                setLoading(false);
-                Log.e(TAG, "Error loading dashboard stats: " + error);
-
-                // Show zeros instead of mock data when there's an error
-                if (txtTotalFarmers != null) txtTotalFarmers.setText("0");
-                if (txtActiveReports != null) txtActiveReports.setText("0");
-                if (txtPendingConsultations != null) txtPendingConsultations.setText("0");
-
-                Toast.makeText(AdminMainActivity.this, "Error loading dashboard statistics", Toast.LENGTH_SHORT).show();
-            }
-        });
+        dashboardManager.forceUpdate();
     }
 
-    private int getStatValue(Map<String, Object> stats, String key, int defaultValue) {
-        try {
-            Object value = stats.get(key);
-            if (value instanceof Integer) {
-                return (Integer) value;
-            } else if (value instanceof String) {
-                return Integer.parseInt((String) value);
-            }
-        } catch (Exception e) {
-            Log.w(TAG, "Error parsing stat value for " + key + ": " + e.getMessage());
+    private void showDashboardStats(DashboardManagerActivity.DashboardData data) {
+        if (txtTotalFarmers != null) txtTotalFarmers.setText(String.valueOf(data.totalFarmers));
+        if (txtActiveReports != null) txtActiveReports.setText(String.valueOf(data.activeReports));
+        if (txtPendingConsultations != null) txtPendingConsultations.setText(String.valueOf(data.pendingConsultations));
+
+        if (txtLastUpdated != null) {
+            String time = java.text.DateFormat.getTimeInstance(java.text.DateFormat.SHORT)
+                    .format(new java.util.Date(data.lastUpdated));
+            txtLastUpdated.setText("Imesasishwa: " + time);
         }
-        return defaultValue;
+
+        Log.d(TAG, "Dashboard stats v" + data.version + " - Farmers: " + data.totalFarmers +
+                ", Reports: " + data.activeReports + " (" + data.criticalReports + " critical)" +
+                ", Consultations: " + data.pendingConsultations + ", New users today: " + data.newUsersToday);
     }
 
     // View Initialization Methods
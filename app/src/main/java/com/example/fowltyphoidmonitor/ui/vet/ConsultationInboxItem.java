@@ -12,8 +12,9 @@ import java.util.Date;
  */
 public class ConsultationInboxItem {
     private String consultationId;
+    private String farmerId;
     private String farmerName;
-    private String farmerEmail;
+    private String farmerPhone;
     private String question;
     private String priority; // urgent, high, medium, low
     private String status; // pending, answered, closed
@@ -21,15 +22,17 @@ public class ConsultationInboxItem {
     private Date lastAnsweredAt;
     private int unreadReplies;
     private String tags;
+    private String searchSnippet; // highlighted match from the search index, if any
 
     public ConsultationInboxItem() {}
 
-    public ConsultationInboxItem(String consultationId, String farmerName, String farmerEmail,
+    public ConsultationInboxItem(String consultationId, String farmerId, String farmerName, String farmerPhone,
                                 String question, String priority, String status, Date askedAt,
                                 Date lastAnsweredAt, int unreadReplies, String tags) {
         this.consultationId = consultationId;
+        this.farmerId = farmerId;
         this.farmerName = farmerName;
-        this.farmerEmail = farmerEmail;
+        this.farmerPhone = farmerPhone;
         this.question = question;
         this.priority = priority;
         this.status = status;
@@ -43,11 +46,14 @@ public class ConsultationInboxItem {
     public String getConsultationId() { return consultationId; }
     public void setConsultationId(String consultationId) { this.consultationId = consultationId; }
 
+    public String getFarmerId() { return farmerId; }
+    public void setFarmerId(String farmerId) { this.farmerId = farmerId; }
+
     public String getFarmerName() { return farmerName; }
     public void setFarmerName(String farmerName) { this.farmerName = farmerName; }
 
-    public String getFarmerEmail() { return farmerEmail; }
-    public void setFarmerEmail(String farmerEmail) { this.farmerEmail = farmerEmail; }
+    public String getFarmerPhone() { return farmerPhone; }
+    public void setFarmerPhone(String farmerPhone) { this.farmerPhone = farmerPhone; }
 
     public String getQuestion() { return question; }
     public void setQuestion(String question) { this.question = question; }
@@ -70,6 +76,20 @@ public class ConsultationInboxItem {
     public String getTags() { return tags; }
     public void setTags(String tags) { this.tags = tags; }
 
+    public String getSearchSnippet() { return searchSnippet; }
+    public void setSearchSnippet(String searchSnippet) { this.searchSnippet = searchSnippet; }
+
+    /**
+     * Copy of this item showing a search match. Items already in the inbox list are
+     * never changed in place, so list diffs can see the snippet change.
+     */
+    public ConsultationInboxItem withSearchSnippet(String snippet) {
+        ConsultationInboxItem copy = new ConsultationInboxItem(consultationId, farmerId, farmerName, farmerPhone,
+                question, priority, status, askedAt, lastAnsweredAt, unreadReplies, tags);
+        copy.searchSnippet = snippet;
+        return copy;
+    }
+
     /**
      * Get priority color for UI display
      */
@@ -0,0 +1,206 @@
+package com.example.fowltyphoidmonitor.ui.vet;
+
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+/**
+ * Filters the vet inbox by status, priority and search text off the main thread.
+ *
+ * Each consultation's fields are normalized once, when the inbox is loaded, into
+ * lowercase keys without diacritics, so a keystroke only runs substring checks. While
+ * the query keeps growing, only the previous matches are rechecked. Full-text index
+ * matches (which also cover message bodies) come first, in rank order, followed by the
+ * inbox items whose own fields match.
+ *
+ * All state lives on a serial queue; only the latest request's result is delivered.
+ */
+class InboxFilter {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    /**
+     * Receives filter results on the main thread
+     */
+    interface Listener {
+        void onFiltered(List<ConsultationInboxItem> items);
+    }
+
+    /**
+     * An inbox item with its keys precomputed
+     */
+    private static class Entry {
+        final ConsultationInboxItem item;
+        final String status;
+        final String priority;
+        final String text;
+
+        Entry(ConsultationInboxItem item) {
+            this.item = item;
+            this.status = normalize(item.getStatus());
+            this.priority = normalize(item.getPriority());
+            this.text = normalize(item.getFarmerName()) + '\n' + normalize(item.getFarmerPhone())
+                    + '\n' + normalize(item.getTags()) + '\n' + normalize(item.getQuestion());
+        }
+    }
+
+    private final Executor executor = AppExecutors.getInstance().serial("inbox-filter");
+    private final Listener listener;
+    private volatile int latest; // written on the main thread only
+
+    // Only touched on the executor
+    private List<Entry> entries = Collections.emptyList();
+    private Map<String, Entry> entriesById = Collections.emptyMap();
+    private String status = "all";
+    private String priority = "all";
+    private String query = "";
+    private Map<String, String> searchMatches;
+    private String narrowedQuery;
+    private List<Entry> narrowed;
+
+    InboxFilter(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Replace the inbox contents and refilter */
+    void setItems(List<ConsultationInboxItem> items) {
+        List<ConsultationInboxItem> copy = new ArrayList<>(items);
+        submit(() -> {
+            List<Entry> built = new ArrayList<>(copy.size());
+            Map<String, Entry> byId = new HashMap<>();
+            for (ConsultationInboxItem item : copy) {
+                Entry entry = new Entry(item);
+                built.add(entry);
+                byId.put(item.getConsultationId(), entry);
+            }
+            entries = built;
+            entriesById = byId;
+            narrowedQuery = null;
+            narrowed = null;
+        });
+    }
+
+    void setChipFilters(String status, String priority) {
+        submit(() -> {
+            this.status = status;
+            this.priority = priority;
+        });
+    }
+
+    /** New search text; full-text matches of the old text no longer apply */
+    void setQuery(String query) {
+        submit(() -> {
+            this.query = normalize(query).trim();
+            this.searchMatches = null;
+        });
+    }
+
+    /**
+     * Full-text index results for a query, consultation id to snippet in rank order.
+     * Ignored if the query has changed since.
+     */
+    void setSearchMatches(String forQuery, Map<String, String> matches) {
+        submit(() -> {
+            if (normalize(forQuery).trim().equals(query)) {
+                searchMatches = matches;
+            }
+        });
+    }
+
+    /**
+     * Apply a change and refilter. Requests queued behind a newer one skip the filter
+     * pass; their change still applies, so the newest pass sees them all.
+     */
+    private void submit(Runnable change) {
+        final int request = latest + 1;
+        latest = request;
+        executor.execute(() -> {
+            change.run();
+            if (request != latest) return;
+
+            List<ConsultationInboxItem> result = filter();
+            AppExecutors.getInstance().mainThread().execute(() -> {
+                if (request == latest) {
+                    listener.onFiltered(result);
+                }
+            });
+        });
+    }
+
+    private List<ConsultationInboxItem> filter() {
+        List<Entry> candidates = matchQuery();
+        List<ConsultationInboxItem> result = new ArrayList<>();
+
+        Set<String> ranked = Collections.emptySet();
+        if (searchMatches != null) {
+            ranked = new HashSet<>();
+            for (Map.Entry<String, String> match : searchMatches.entrySet()) {
+                Entry entry = entriesById.get(match.getKey());
+                if (entry != null && matchesChips(entry)) {
+                    result.add(entry.item.withSearchSnippet(match.getValue()));
+                    ranked.add(match.getKey());
+                }
+            }
+        }
+
+        for (Entry entry : candidates) {
+            if (matchesChips(entry) && !ranked.contains(entry.item.getConsultationId())) {
+                result.add(entry.item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Entries whose own fields contain every word of the query. A query that extends
+     * the previous one can only match a subset, so only those are rechecked.
+     */
+    private List<Entry> matchQuery() {
+        if (query.isEmpty()) {
+            narrowedQuery = null;
+            narrowed = null;
+            return entries;
+        }
+
+        List<Entry> source = narrowed != null && query.startsWith(narrowedQuery) ? narrowed : entries;
+        String[] words = SPACES.split(query);
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : source) {
+            if (containsAll(entry.text, words)) {
+                matches.add(entry);
+            }
+        }
+        narrowedQuery = query;
+        narrowed = matches;
+        return matches;
+    }
+
+    private boolean matchesChips(Entry entry) {
+        return ("all".equals(status) || status.equals(entry.status))
+                && ("all".equals(priority) || priority.equals(entry.priority));
+    }
+
+    private static boolean containsAll(String text, String[] words) {
+        for (String word : words) {
+            if (!text.contains(word)) return false;
+        }
+        return true;
+    }
+
+    /** Lowercase and strip diacritics, the way the full-text index folds text */
+    static String normalize(String value) {
+        if (value == null || value.isEmpty()) return "";
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -19,12 +19,12 @@ import androidx.appcompat.widget.Toolbar;
 import com.example.fowltyphoidmonitor.R;
 import com.example.fowltyphoidmonitor.services.auth.AuthManager;
 import com.example.fowltyphoidmonitor.ui.auth.LoginActivity;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * VetBroadcastMessageActivity - Send broadcast messages to all farmers
@@ -93,7 +93,7 @@ public class VetBroadcastMessageActivity extends AppCompatActivity {
     }
 
     private void initializeComponents() {
-        executorService = Executors.newCachedThreadPool();
+        executorService = AppExecutors.getInstance().io();
         mainHandler = new Handler(Looper.getMainLooper());
         currentVetName = authManager.getUserEmail();
     }
@@ -396,12 +396,4 @@ public class VetBroadcastMessageActivity extends AppCompatActivity {
         startActivity(loginIntent);
         finish();
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
 }
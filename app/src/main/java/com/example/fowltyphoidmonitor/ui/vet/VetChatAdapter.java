@@ -6,13 +6,18 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.utils.ListDiff;
 
 import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 /**
  * VetChatAdapter - RecyclerView adapter for chat messages in vet-farmer consultations
@@ -20,25 +25,62 @@ import java.util.Locale;
  * @author LWENA27
  * @created 2025-07-06
  */
-public class VetChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+public class VetChatAdapter extends ListAdapter<ChatMessage, RecyclerView.ViewHolder> {
 
     private static final int VIEW_TYPE_FARMER_MESSAGE = 1;
     private static final int VIEW_TYPE_VET_MESSAGE = 2;
     private static final int VIEW_TYPE_CURRENT_VET_MESSAGE = 3;
 
-    private List<ChatMessage> messageList;
+    // Payload for a message whose only change is its timestamp
+    private static final String PAYLOAD_TIME = "time";
+
+    private static final DiffUtil.ItemCallback<ChatMessage> DIFF_CALLBACK = new DiffUtil.ItemCallback<ChatMessage>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ChatMessage oldItem, @NonNull ChatMessage newItem) {
+            if (oldItem.getMessageId() == null || newItem.getMessageId() == null) {
+                return oldItem == newItem;
+            }
+            return oldItem.getMessageId().equals(newItem.getMessageId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ChatMessage oldItem, @NonNull ChatMessage newItem) {
+            return sameText(oldItem, newItem) && Objects.equals(oldItem.getSentAt(), newItem.getSentAt());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull ChatMessage oldItem, @NonNull ChatMessage newItem) {
+            return sameText(oldItem, newItem) ? PAYLOAD_TIME : null;
+        }
+
+        private boolean sameText(ChatMessage a, ChatMessage b) {
+            return Objects.equals(a.getMessageText(), b.getMessageText())
+                    && Objects.equals(a.getSenderName(), b.getSenderName())
+                    && Objects.equals(a.getSenderId(), b.getSenderId())
+                    && Objects.equals(a.getSenderType(), b.getSenderType());
+        }
+    };
+
+    private final ListDiff.StableIds stableIds = new ListDiff.StableIds();
     private String currentVetId;
     private SimpleDateFormat timeFormat;
 
-    public VetChatAdapter(List<ChatMessage> messageList, String currentVetId) {
-        this.messageList = messageList;
+    public VetChatAdapter(String currentVetId) {
+        super(ListDiff.config(DIFF_CALLBACK));
         this.currentVetId = currentVetId;
         this.timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        ChatMessage message = getItem(position);
+        return stableIds.get(message.getMessageId(), message);
     }
 
     @Override
     public int getItemViewType(int position) {
-        ChatMessage message = messageList.get(position);
+        ChatMessage message = getItem(position);
 
         if (message.isFromFarmer()) {
             return VIEW_TYPE_FARMER_MESSAGE;
@@ -74,7 +116,7 @@ public class VetChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-        ChatMessage message = messageList.get(position);
+        ChatMessage message = getItem(position);
 
         switch (holder.getItemViewType()) {
             case VIEW_TYPE_FARMER_MESSAGE:
@@ -90,8 +132,17 @@ public class VetChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
     }
 
     @Override
-    public int getItemCount() {
-        return messageList.size();
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        // Only the time changed; every view type has a txtTime
+        TextView txtTime = holder.itemView.findViewById(R.id.txtTime);
+        Date sentAt = getItem(position).getSentAt();
+        if (txtTime != null && sentAt != null) {
+            txtTime.setText(timeFormat.format(sentAt));
+        }
     }
 
     // ViewHolder for farmer messages (left side)
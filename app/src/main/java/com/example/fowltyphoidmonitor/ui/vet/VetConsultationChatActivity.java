@@ -20,8 +20,13 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.data.local.ThreadCache;
+import com.example.fowltyphoidmonitor.data.models.ConsultationMessage;
+import com.example.fowltyphoidmonitor.data.models.Farmer;
 import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.prefetch.ThreadPrefetcher;
 import com.example.fowltyphoidmonitor.ui.auth.LoginActivity;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 
@@ -31,7 +36,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * VetConsultationChatActivity - Chat interface for vet-farmer consultations
@@ -68,13 +72,16 @@ public class VetConsultationChatActivity extends AppCompatActivity {
 
     // Managers and services
     private AuthManager authManager;
+    private ThreadCache threadCache;
+    private ThreadPrefetcher threadPrefetcher;
     private ExecutorService executorService;
     private Handler mainHandler;
 
     // Consultation data
     private String consultationId;
+    private String farmerId;
     private String farmerName;
-    private String farmerEmail;
+    private String farmerPhone;
     private String priority;
     private String currentVetId;
     private String currentVetName;
@@ -110,8 +117,9 @@ public class VetConsultationChatActivity extends AppCompatActivity {
             setupAutoRefresh();
             setupQuickReplies();
 
-            // Load chat messages
-            loadChatMessages();
+            // Show the cached thread at once, then check the server for newer messages
+            loadChatMessages(false);
+            loadFarmerProfile();
 
             Log.d(TAG, "VetConsultationChatActivity created for consultation: " + consultationId);
 
@@ -125,8 +133,9 @@ public class VetConsultationChatActivity extends AppCompatActivity {
     private void getConsultationDataFromIntent() {
         Intent intent = getIntent();
         consultationId = intent.getStringExtra("consultation_id");
+        farmerId = intent.getStringExtra("farmer_id");
         farmerName = intent.getStringExtra("farmer_name");
-        farmerEmail = intent.getStringExtra("farmer_email");
+        farmerPhone = intent.getStringExtra("farmer_phone");
         priority = intent.getStringExtra("priority");
 
         if (consultationId == null || farmerName == null) {
@@ -137,8 +146,10 @@ public class VetConsultationChatActivity extends AppCompatActivity {
     }
 
     private void initializeComponents() {
-        executorService = Executors.newCachedThreadPool();
+        executorService = AppExecutors.getInstance().io();
         mainHandler = new Handler(Looper.getMainLooper());
+        threadCache = ThreadCache.getInstance(this);
+        threadPrefetcher = ThreadPrefetcher.getInstance(this);
 
         // Get current vet information
         currentVetId = authManager.getUserId();
@@ -190,7 +201,7 @@ public class VetConsultationChatActivity extends AppCompatActivity {
         }
 
         if (txtFarmerInfo != null) {
-            txtFarmerInfo.setText(farmerName + " (" + farmerEmail + ")");
+            txtFarmerInfo.setText(farmerLabel());
         }
 
         // Set priority chip
@@ -201,7 +212,7 @@ public class VetConsultationChatActivity extends AppCompatActivity {
     }
 
     private void setupRecyclerView() {
-        adapter = new VetChatAdapter(messageList, currentVetId);
+        adapter = new VetChatAdapter(currentVetId);
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         layoutManager.setStackFromEnd(true); // Start from bottom (latest messages)
         recyclerViewMessages.setLayoutManager(layoutManager);
@@ -228,7 +239,7 @@ public class VetConsultationChatActivity extends AppCompatActivity {
         btnMarkResolved.setOnClickListener(v -> markConsultationResolved());
 
         // Swipe refresh
-        swipeRefreshLayout.setOnRefreshListener(this::loadChatMessages);
+        swipeRefreshLayout.setOnRefreshListener(() -> loadChatMessages(true));
 
         // Message input watcher
         etMessage.addTextChangedListener(new TextWatcher() {
@@ -261,82 +272,105 @@ public class VetConsultationChatActivity extends AppCompatActivity {
             @Override
             public void run() {
                 if (isAutoRefreshEnabled) {
-                    loadChatMessages();
+                    loadChatMessages(false);
                     mainHandler.postDelayed(this, REFRESH_INTERVAL);
                 }
             }
         };
     }
 
-    private void loadChatMessages() {
+    /**
+     * Render the cached thread, then fetch only messages newer than the cache.
+     * Errors are shown only for a manual refresh that has nothing cached to fall back on.
+     */
+    private void loadChatMessages(boolean userInitiated) {
         executorService.execute(() -> {
-            try {
-                // Simulate loading messages - replace with actual API call
-                List<ChatMessage> newMessages = fetchMessagesFromServer();
+            List<ChatMessage> cached = readCachedMessages();
+            mainHandler.post(() -> showMessages(cached));
 
+            try {
+                threadPrefetcher.syncThread(consultationId);
+                List<ChatMessage> refreshed = readCachedMessages();
                 mainHandler.post(() -> {
-                    int oldSize = messageList.size();
-                    messageList.clear();
-                    messageList.addAll(newMessages);
-
-                    if (oldSize != messageList.size()) {
-                        adapter.notifyDataSetChanged();
-                        scrollToBottom();
-                    }
-
+                    showMessages(refreshed);
                     swipeRefreshLayout.setRefreshing(false);
-
-                    Log.d(TAG, "Loaded " + messageList.size() + " messages");
                 });
 
             } catch (Exception e) {
                 Log.e(TAG, "Error loading messages: " + e.getMessage(), e);
                 mainHandler.post(() -> {
                     swipeRefreshLayout.setRefreshing(false);
-                    Toast.makeText(VetConsultationChatActivity.this,
-                        "Hitilafu wakati wa kupakia ujumbe", Toast.LENGTH_SHORT).show();
+                    if (userInitiated && messageList.isEmpty()) {
+                        Toast.makeText(VetConsultationChatActivity.this,
+                            "Hitilafu wakati wa kupakia ujumbe", Toast.LENGTH_SHORT).show();
+                    }
                 });
             }
         });
     }
 
-    private List<ChatMessage> fetchMessagesFromServer() {
-        // Mock chat data - replace with actual API call
-        List<ChatMessage> mockMessages = new ArrayList<>();
+    private void showMessages(List<ChatMessage> messages) {
+        if (isFinishing()) return;
+        int oldSize = messageList.size();
+        messageList.clear();
+        messageList.addAll(messages);
 
-        // Original farmer question
-        mockMessages.add(new ChatMessage(
-            "1", consultationId, farmerEmail, farmerName, "farmer",
-            "Kuku wangu wanaumwa sana, wamepoteza hamu ya kula na wanateseka. Je, ni nini kifanyike?",
-            new Date(System.currentTimeMillis() - 3600000), // 1 hour ago
-            false
-        ));
+        // Only changed rows are rebound; follow the conversation when it grew
+        boolean grew = messageList.size() > oldSize;
+        adapter.submitList(new ArrayList<>(messageList), grew ? this::scrollToBottom : null);
 
-        // Vet response 1
-        mockMessages.add(new ChatMessage(
-            "2", consultationId, currentVetId, "Daktari Mwangi", "vet",
-            "Asante kwa swali lako. Kwa dalili unazozielezea, inaweza kuwa ni ugonjwa wa fowl typhoid. Je, umegundua dalili zingine kama vile kuchomoka kwa dimu?",
-            new Date(System.currentTimeMillis() - 3300000), // 55 minutes ago
-            false
-        ));
+        Log.d(TAG, "Showing " + messageList.size() + " messages");
+    }
 
-        // Farmer response
-        mockMessages.add(new ChatMessage(
-            "3", consultationId, farmerEmail, farmerName, "farmer",
-            "Ndio, kuna kuku wawili wamechokomea na wengine wanaogopa kuku. Pia nimegundua kana wanakahawa wakati wa kulala.",
-            new Date(System.currentTimeMillis() - 3000000), // 50 minutes ago
-            false
-        ));
+    private List<ChatMessage> readCachedMessages() {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (ConsultationMessage message : threadCache.getMessages(consultationId)) {
+            String senderType = message.getSenderType() != null ? message.getSenderType() : "farmer";
+            String senderName = message.getSenderName();
+            if (senderName == null || senderName.isEmpty()) {
+                senderName = "farmer".equals(senderType) ? farmerName : "Daktari";
+            }
+            messages.add(new ChatMessage(
+                message.getId(), consultationId, message.getSenderId(), senderName, senderType,
+                message.getMessage(),
+                message.getCreatedAt() != null ? message.getCreatedAt() : new Date(),
+                false
+            ));
+        }
+        return messages;
+    }
 
-        // Vet response 2 (from another vet)
-        mockMessages.add(new ChatMessage(
-            "4", consultationId, "vet2", "Daktari Wanjiku", "vet",
-            "Hali hii ni ya haraka. Napendelea utumie dawa za antibiotics kama Enrofloxacin. Pia zimepasua kuku wagonjwa kutoka kwa wengine haraka.",
-            new Date(System.currentTimeMillis() - 2700000), // 45 minutes ago
-            false
-        ));
+    /**
+     * Show the farmer's location from the cached profile, refreshing it if stale
+     */
+    private void loadFarmerProfile() {
+        executorService.execute(() -> {
+            Farmer farmer = threadCache.getProfile(farmerId, Farmer.class);
+            mainHandler.post(() -> showFarmerInfo(farmer));
 
-        return mockMessages;
+            try {
+                // Usually refreshed from the farmers mirror with nothing downloaded,
+                // so look at the cache rather than the byte count
+                long fetchedAt = threadCache.getProfileFetchedAt(farmerId);
+                threadPrefetcher.refreshFarmerProfile(farmerId);
+                if (threadCache.getProfileFetchedAt(farmerId) != fetchedAt) {
+                    Farmer refreshed = threadCache.getProfile(farmerId, Farmer.class);
+                    mainHandler.post(() -> showFarmerInfo(refreshed));
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Could not refresh farmer profile: " + e.getMessage());
+            }
+        });
+    }
+
+    private void showFarmerInfo(Farmer farmer) {
+        if (txtFarmerInfo == null || farmer == null || farmer.getLocation() == null) return;
+        txtFarmerInfo.setText(farmerLabel() + " • " + farmer.getLocation());
+    }
+
+    /** Farmer name, with the phone number when the farmer gave one */
+    private String farmerLabel() {
+        return farmerPhone != null && !farmerPhone.isEmpty() ? farmerName + " (" + farmerPhone + ")" : farmerName;
     }
 
     private void sendMessage() {
@@ -359,8 +393,7 @@ public class VetConsultationChatActivity extends AppCompatActivity {
 
         // Add to list immediately for better UX
         messageList.add(newMessage);
-        adapter.notifyItemInserted(messageList.size() - 1);
-        scrollToBottom();
+        adapter.submitList(new ArrayList<>(messageList), this::scrollToBottom);
 
         // Clear input
         etMessage.setText("");
@@ -469,9 +502,6 @@ public class VetConsultationChatActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
         if (autoRefreshRunnable != null) {
             mainHandler.removeCallbacks(autoRefreshRunnable);
         }
@@ -21,20 +21,31 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.data.local.ThreadCache;
 import com.example.fowltyphoidmonitor.services.auth.AuthManager;
+import com.example.fowltyphoidmonitor.services.prefetch.ThreadPrefetcher;
+import com.example.fowltyphoidmonitor.services.search.SearchIndex;
+import com.example.fowltyphoidmonitor.services.sync.SyncEngine;
+import com.example.fowltyphoidmonitor.services.triage.TriageScheduler;
 import com.example.fowltyphoidmonitor.ui.auth.LoginActivity;
+import com.example.fowltyphoidmonitor.utils.AppExecutors;
+import com.example.fowltyphoidmonitor.utils.Timestamps;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * VetConsultationInboxActivity - Inbox-style consultation management for vets
@@ -59,6 +70,11 @@ public class VetConsultationInboxActivity extends AppCompatActivity {
     // Refresh interval (30 seconds)
     private static final long REFRESH_INTERVAL = 30000;
 
+    // Search: filter once typing pauses briefly, query the index after a longer pause
+    private static final long FILTER_DEBOUNCE_DELAY = 120;
+    private static final long SEARCH_DEBOUNCE_DELAY = 300;
+    private static final int SEARCH_RESULT_LIMIT = 200;
+
     // UI Components
     private Toolbar toolbar;
     private ImageButton btnBack;
@@ -77,6 +93,20 @@ public class VetConsultationInboxActivity extends AppCompatActivity {
     private List<ConsultationInboxItem> consultationList;
     private List<ConsultationInboxItem> filteredList;
     private VetConsultationInboxAdapter adapter;
+
+    // Status, priority and text filtering run in the background on precomputed keys
+    private InboxFilter inboxFilter;
+    private Runnable pendingFilterRunnable;
+
+    // Full-text search also matches message bodies; its results rank first
+    private SearchIndex searchIndex;
+    private final SearchIndex.SearchSession searchSession = new SearchIndex.SearchSession();
+    private Runnable pendingSearchRunnable;
+
+    // Consultations and farmer names come from the local mirror of the server tables,
+    // unread counts from the cached threads
+    private SyncEngine syncEngine;
+    private ThreadCache threadCache;
     
     // Managers and services
     private AuthManager authManager;
@@ -134,7 +164,7 @@ public class VetConsultationInboxActivity extends AppCompatActivity {
     }
 
     private void initializeComponents() {
-        executorService = Executors.newCachedThreadPool();
+        executorService = AppExecutors.getInstance().io();
         mainHandler = new Handler(Looper.getMainLooper());
         
         // Get current vet information
@@ -143,6 +173,13 @@ public class VetConsultationInboxActivity extends AppCompatActivity {
         
         consultationList = new ArrayList<>();
         filteredList = new ArrayList<>();
+
+        inboxFilter = new InboxFilter(this::showFilteredConsultations);
+        pendingFilterRunnable = () -> inboxFilter.setQuery(currentSearchQuery);
+        searchIndex = SearchIndex.getInstance(this);
+        syncEngine = SyncEngine.getInstance(this);
+        threadCache = ThreadCache.getInstance(this);
+        pendingSearchRunnable = this::runSearch;
     }
 
     private void initializeViews() {
@@ -213,7 +250,7 @@ public class VetConsultationInboxActivity extends AppCompatActivity {
     }
 
     private void setupRecyclerView() {
-        adapter = new VetConsultationInboxAdapter(filteredList, this::onConsultationItemClick);
+        adapter = new VetConsultationInboxAdapter(this::onConsultationItemClick);
         recyclerViewConsultations.setLayoutManager(new LinearLayoutManager(this));
         recyclerViewConsultations.setAdapter(adapter);
     }
@@ -246,7 +283,7 @@ public class VetConsultationInboxActivity extends AppCompatActivity {
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
                 currentSearchQuery = s.toString().trim();
-                applyFilters();
+                scheduleSearch();
             }
 
             @Override
@@ -266,75 +303,238 @@ public class VetConsultationInboxActivity extends AppCompatActivity {
         };
     }
 
+    /**
+     * Bring the mirror up to date, then build the inbox from it. The pull waits on the
+     * network, so it runs on the blocking pool and hands the read over to io. When the
+     * sync fails (e.g. offline) the inbox still shows what the mirror holds.
+     */
     private void loadConsultationInbox() {
-        executorService.execute(() -> {
-            try {
-                // Simulate loading consultations - replace with actual API call
-                List<ConsultationInboxItem> newConsultations = fetchConsultationsFromServer();
-                
-                mainHandler.post(() -> {
-                    consultationList.clear();
-                    consultationList.addAll(newConsultations);
-                    applyFilters();
-                    updateStatistics();
-                    swipeRefreshLayout.setRefreshing(false);
-                    
-                    Log.d(TAG, "Loaded " + consultationList.size() + " consultations");
-                });
+        AppExecutors.getInstance().blocking().execute(() -> {
+            if (!syncEngine.syncTables(SyncEngine.TABLE_CONSULTATIONS, SyncEngine.TABLE_FARMERS)) {
+                Log.w(TAG, "Consultation sync failed, showing mirrored consultations");
+            }
+            executorService.execute(this::showMirroredConsultations);
+        });
+    }
+
+    private void showMirroredConsultations() {
+        try {
+            List<ConsultationInboxItem> newConsultations = readMirroredConsultations();
+            sortByTriageOrder(newConsultations);
+            indexConsultations(newConsultations);
+            prefetchThreads(newConsultations);
+            
+            mainHandler.post(() -> {
+                consultationList.clear();
+                consultationList.addAll(newConsultations);
+                inboxFilter.setItems(newConsultations);
+                if (!currentSearchQuery.isEmpty()) {
+                    // Re-run the query so new consultations show up in results
+                    runSearch();
+                }
+                updateStatistics();
+                swipeRefreshLayout.setRefreshing(false);
                 
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading consultations: " + e.getMessage(), e);
-                mainHandler.post(() -> {
-                    swipeRefreshLayout.setRefreshing(false);
-                    Toast.makeText(VetConsultationInboxActivity.this, 
-                        "Hitilafu wakati wa kupakia mahojiano", Toast.LENGTH_SHORT).show();
-                });
+                Log.d(TAG, "Loaded " + consultationList.size() + " consultations");
+            });
+            runTriage();
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading consultations: " + e.getMessage(), e);
+            mainHandler.post(() -> {
+                swipeRefreshLayout.setRefreshing(false);
+                Toast.makeText(VetConsultationInboxActivity.this, 
+                    "Hitilafu wakati wa kupakia mahojiano", Toast.LENGTH_SHORT).show();
+            });
+        }
+    }
+
+    /**
+     * Build the inbox from the mirrored consultations and farmers. Unread counts are the
+     * farmer messages after the vet's last reply in the cached thread.
+     */
+    private List<ConsultationInboxItem> readMirroredConsultations() {
+        Map<String, JsonObject> farmers = new HashMap<>();
+        for (JsonObject farmer : syncEngine.getLocalRows(SyncEngine.TABLE_FARMERS, JsonObject.class)) {
+            String farmerId = getString(farmer, "farmer_id");
+            if (farmerId != null) {
+                farmers.put(farmerId, farmer);
+            }
+        }
+
+        List<ConsultationInboxItem> items = new ArrayList<>();
+        for (JsonObject row : syncEngine.getLocalRows(SyncEngine.TABLE_CONSULTATIONS, JsonObject.class)) {
+            String consultationId = getString(row, "consultation_id");
+            if (consultationId == null) continue;
+
+            String farmerId = getString(row, "farmer_id");
+            JsonObject farmer = farmerId != null ? farmers.get(farmerId) : null;
+            String farmerName = farmer != null ? getString(farmer, "full_name") : null;
+            String title = getString(row, "title");
+            String question = getString(row, "description");
+            String serverStatus = getString(row, "status");
+            boolean pending = serverStatus == null || "PENDING".equalsIgnoreCase(serverStatus)
+                    || "CONFIRMED".equalsIgnoreCase(serverStatus);
+            long askedAt = Timestamps.parseMillis(getString(row, "created_at"));
+            long updatedAt = Timestamps.parseMillis(getString(row, "updated_at"));
+
+            items.add(new ConsultationInboxItem(
+                    consultationId,
+                    farmerId,
+                    farmerName != null ? farmerName : "Mfugaji",
+                    farmer != null ? getString(farmer, "phone_number") : null,
+                    question != null ? question : (title != null ? title : ""),
+                    priorityOf(getString(row, "urgency")),
+                    pending ? "pending" : "answered",
+                    new Date(askedAt > 0 ? askedAt : System.currentTimeMillis()),
+                    !pending && updatedAt > 0 ? new Date(updatedAt) : null,
+                    threadCache.countUnread(consultationId, AuthManager.ROLE_VET),
+                    title != null ? title : ""));
+        }
+        return items;
+    }
+
+    /** Map the server urgency onto the inbox priority filters */
+    private static String priorityOf(String urgency) {
+        switch (TriageScheduler.urgencyLevel(urgency)) {
+            case TriageScheduler.URGENCY_URGENT:
+                return "urgent";
+            case TriageScheduler.URGENCY_HIGH:
+                return "high";
+            case TriageScheduler.URGENCY_LOW:
+                return "low";
+            default:
+                return "medium";
+        }
+    }
+
+    private static String getString(JsonObject row, String key) {
+        JsonElement value = row.get(key);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    /**
+     * Pending consultations first, earliest SLA deadline first, as the triage queue
+     * serves them; the rest keep their order after them
+     */
+    private void sortByTriageOrder(List<ConsultationInboxItem> items) {
+        Collections.sort(items, new Comparator<ConsultationInboxItem>() {
+            @Override
+            public int compare(ConsultationInboxItem a, ConsultationInboxItem b) {
+                boolean pendingA = "pending".equals(a.getStatus());
+                boolean pendingB = "pending".equals(b.getStatus());
+                if (pendingA != pendingB) return pendingA ? -1 : 1;
+                if (!pendingA) return 0;
+                long deadlineA = triageDeadline(a);
+                long deadlineB = triageDeadline(b);
+                if (deadlineA != deadlineB) return deadlineA < deadlineB ? -1 : 1;
+                return TriageScheduler.urgencyLevel(b.getPriority()) - TriageScheduler.urgencyLevel(a.getPriority());
             }
         });
     }
 
-    private List<ConsultationInboxItem> fetchConsultationsFromServer() {
-        // Mock data - replace with actual API call to fetch consultations
-        List<ConsultationInboxItem> mockData = new ArrayList<>();
-        
-        // Sample urgent consultation
-        mockData.add(new ConsultationInboxItem(
-            "1", "Mfugaji John Doe", "john@example.com",
-            "Kuku wangu wanaumwa sana, wamepoteza hamu ya kula na wanateseka. Je, ni nini kifanyike?",
-            "urgent", "pending", new Date(System.currentTimeMillis() - 3600000), // 1 hour ago
-            null, 3, "Kuku, Ugonjwa, Haraka"
-        ));
-        
-        // Sample high priority consultation
-        mockData.add(new ConsultationInboxItem(
-            "2", "Mfugaji Mary Mwangi", "mary@example.com",
-            "Nimegundua kuku mmoja amekufa, wengine wanaonyesha dalili za ugonjwa. Naomba msaada wa haraka.",
-            "high", "answered", new Date(System.currentTimeMillis() - 7200000), // 2 hours ago
-            new Date(System.currentTimeMillis() - 1800000), // Answered 30 minutes ago
-            1, "Kifo, Dalili, Msaada"
-        ));
-        
-        // Sample medium priority consultation
-        mockData.add(new ConsultationInboxItem(
-            "3", "Mfugaji Peter Kamau", "peter@example.com",
-            "Kuna njia gani bora za kuzuia magonjwa ya kuku wakati wa kipindi cha baridi?",
-            "medium", "pending", new Date(System.currentTimeMillis() - 10800000), // 3 hours ago
-            null, 0, "Kuzuia, Baridi, Afya"
-        ));
-        
-        return mockData;
+    private static long triageDeadline(ConsultationInboxItem item) {
+        long askedAt = item.getAskedAt() != null ? item.getAskedAt().getTime() : 0;
+        return TriageScheduler.deadlineOf(item.getPriority(), askedAt);
+    }
+
+    /**
+     * Check in as online, assign waiting consultations and show how the queue stands
+     */
+    private void runTriage() {
+        TriageScheduler.getInstance(this).run(new TriageScheduler.Callback() {
+            @Override
+            public void onTriaged(TriageScheduler.Metrics metrics) {
+                if (isFinishing() || txtUserInfo == null) return;
+                String info = "Daktari: " + currentVetName + " • Foleni: " + metrics.queued;
+                if (metrics.breached > 0) {
+                    info += " (" + metrics.breached + " zimechelewa)";
+                }
+                if (metrics.medianWaitMs > 0) {
+                    info += " • Kusubiri: ~" + (metrics.medianWaitMs / 60000) + " dk";
+                }
+                txtUserInfo.setText(info);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.w(TAG, "Triage failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void indexConsultations(List<ConsultationInboxItem> items) {
+        List<SearchIndex.Document> documents = new ArrayList<>();
+        for (ConsultationInboxItem item : items) {
+            String title = item.getFarmerName() + (item.getTags() != null ? " " + item.getTags() : "");
+            documents.add(SearchIndex.Document.forConsultation(item.getConsultationId(), title, item.getQuestion()));
+        }
+        searchIndex.indexAsync(documents);
+    }
+
+    /**
+     * Warm the local cache with the threads the vet is most likely to open next
+     */
+    private void prefetchThreads(List<ConsultationInboxItem> items) {
+        List<ThreadPrefetcher.Candidate> candidates = new ArrayList<>();
+        for (ConsultationInboxItem item : items) {
+            Date lastActivity = item.getLastAnsweredAt() != null ? item.getLastAnsweredAt() : item.getAskedAt();
+            candidates.add(new ThreadPrefetcher.Candidate(
+                    item.getConsultationId(),
+                    item.getFarmerId(),
+                    "urgent".equals(item.getPriority()),
+                    item.getUnreadReplies(),
+                    lastActivity != null ? lastActivity.getTime() : 0));
+        }
+        ThreadPrefetcher.getInstance(this).prefetchAsync(candidates);
+    }
+
+    private void scheduleSearch() {
+        mainHandler.removeCallbacks(pendingFilterRunnable);
+        mainHandler.removeCallbacks(pendingSearchRunnable);
+        if (currentSearchQuery.isEmpty()) {
+            // Clearing the search should feel instant
+            pendingFilterRunnable.run();
+        } else {
+            mainHandler.postDelayed(pendingFilterRunnable, FILTER_DEBOUNCE_DELAY);
+            mainHandler.postDelayed(pendingSearchRunnable, SEARCH_DEBOUNCE_DELAY);
+        }
+    }
+
+    /**
+     * Query the full-text index off the main thread. Matches on a consultation's
+     * question or any of its messages select that consultation; disease info is
+     * searched on its own screen.
+     */
+    private void runSearch() {
+        String query = currentSearchQuery;
+        if (query.isEmpty()) {
+            return;
+        }
+        searchIndex.searchAsync(searchSession, query, SEARCH_RESULT_LIMIT, (searchedQuery, results) -> {
+            if (isFinishing() || !searchedQuery.equals(currentSearchQuery)) {
+                return;
+            }
+            Map<String, String> matches = new LinkedHashMap<>();
+            for (SearchIndex.SearchResult result : results) {
+                if (result.parentId != null && !matches.containsKey(result.parentId)) {
+                    matches.put(result.parentId, result.snippet);
+                }
+            }
+            inboxFilter.setSearchMatches(searchedQuery, matches);
+        }, SearchIndex.TYPE_CONSULTATION, SearchIndex.TYPE_MESSAGE);
     }
 
     private void applyStatusFilter(String status) {
         currentStatusFilter = status;
         updateFilterChips();
-        applyFilters();
+        inboxFilter.setChipFilters(currentStatusFilter, currentPriorityFilter);
     }
 
     private void applyPriorityFilter(String priority) {
         currentPriorityFilter = priority;
         updateFilterChips();
-        applyFilters();
+        inboxFilter.setChipFilters(currentStatusFilter, currentPriorityFilter);
     }
 
     private void updateFilterChips() {
@@ -362,27 +562,13 @@ public class VetConsultationInboxActivity extends AppCompatActivity {
         }
     }
 
-    private void applyFilters() {
-        filteredList.clear();
-        
-        for (ConsultationInboxItem item : consultationList) {
-            boolean matchesStatus = currentStatusFilter.equals("all") || 
-                                  item.getStatus().equals(currentStatusFilter);
-            
-            boolean matchesPriority = currentPriorityFilter.equals("all") || 
-                                    item.getPriority().equals(currentPriorityFilter);
-            
-            boolean matchesSearch = currentSearchQuery.isEmpty() ||
-                                  item.getFarmerName().toLowerCase().contains(currentSearchQuery.toLowerCase()) ||
-                                  item.getQuestion().toLowerCase().contains(currentSearchQuery.toLowerCase()) ||
-                                  item.getTags().toLowerCase().contains(currentSearchQuery.toLowerCase());
-            
-            if (matchesStatus && matchesPriority && matchesSearch) {
-                filteredList.add(item);
-            }
-        }
-        
-        adapter.notifyDataSetChanged();
+    /**
+     * Show a filter result; the adapter diffs it against the current list
+     */
+    private void showFilteredConsultations(List<ConsultationInboxItem> items) {
+        if (isFinishing()) return;
+        filteredList = items;
+        adapter.submitList(items);
         updateEmptyState();
     }
 
@@ -423,7 +609,8 @@ public class VetConsultationInboxActivity extends AppCompatActivity {
         Intent chatIntent = new Intent(this, VetConsultationChatActivity.class);
         chatIntent.putExtra("consultation_id", item.getConsultationId());
         chatIntent.putExtra("farmer_name", item.getFarmerName());
-        chatIntent.putExtra("farmer_email", item.getFarmerEmail());
+        chatIntent.putExtra("farmer_id", item.getFarmerId());
+        chatIntent.putExtra("farmer_phone", item.getFarmerPhone());
         chatIntent.putExtra("priority", item.getPriority());
         startActivityForResult(chatIntent, REQUEST_CHAT_CONSULTATION);
     }
@@ -462,12 +649,16 @@ public class VetConsultationInboxActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
         if (autoRefreshRunnable != null) {
             mainHandler.removeCallbacks(autoRefreshRunnable);
         }
+        if (pendingSearchRunnable != null) {
+            mainHandler.removeCallbacks(pendingSearchRunnable);
+        }
+        searchSession.cancel();
+        if (pendingFilterRunnable != null) {
+            mainHandler.removeCallbacks(pendingFilterRunnable);
+        }
     }
 
     @Override
@@ -8,13 +8,18 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.fowltyphoidmonitor.R;
+import com.example.fowltyphoidmonitor.services.search.SearchIndex;
+import com.example.fowltyphoidmonitor.utils.ListDiff;
 
 import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 /**
  * VetConsultationInboxAdapter - RecyclerView adapter for vet consultation inbox
@@ -24,9 +29,32 @@ import java.util.Locale;
  * @author LWENA27
  * @created 2025-07-06
  */
-public class VetConsultationInboxAdapter extends RecyclerView.Adapter<VetConsultationInboxAdapter.ViewHolder> {
+public class VetConsultationInboxAdapter extends ListAdapter<ConsultationInboxItem, VetConsultationInboxAdapter.ViewHolder> {
 
-    private List<ConsultationInboxItem> consultationList;
+    // Bits of a change payload; any other change rebinds the whole row
+    private static final int CHANGE_UNREAD = 1;
+    private static final int CHANGE_STATUS = 2;
+    private static final int CHANGE_SNIPPET = 4;
+
+    private static final DiffUtil.ItemCallback<ConsultationInboxItem> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ConsultationInboxItem>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ConsultationInboxItem oldItem, @NonNull ConsultationInboxItem newItem) {
+                    return Objects.equals(oldItem.getConsultationId(), newItem.getConsultationId());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ConsultationInboxItem oldItem, @NonNull ConsultationInboxItem newItem) {
+                    return sameExceptPartial(oldItem, newItem) && changes(oldItem, newItem) == 0;
+                }
+
+                @Override
+                public Object getChangePayload(@NonNull ConsultationInboxItem oldItem, @NonNull ConsultationInboxItem newItem) {
+                    return sameExceptPartial(oldItem, newItem) ? changes(oldItem, newItem) : null;
+                }
+            };
+
+    private final ListDiff.StableIds stableIds = new ListDiff.StableIds();
     private OnConsultationClickListener clickListener;
     private SimpleDateFormat dateFormat;
     private SimpleDateFormat timeFormat;
@@ -35,12 +63,18 @@ public class VetConsultationInboxAdapter extends RecyclerView.Adapter<VetConsult
         void onConsultationClick(ConsultationInboxItem consultation);
     }
 
-    public VetConsultationInboxAdapter(List<ConsultationInboxItem> consultationList,
-                                      OnConsultationClickListener clickListener) {
-        this.consultationList = consultationList;
+    public VetConsultationInboxAdapter(OnConsultationClickListener clickListener) {
+        super(ListDiff.config(DIFF_CALLBACK));
         this.clickListener = clickListener;
         this.dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
         this.timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        ConsultationInboxItem item = getItem(position);
+        return stableIds.get(item.getConsultationId(), item);
     }
 
     @NonNull
@@ -53,13 +87,37 @@ public class VetConsultationInboxAdapter extends RecyclerView.Adapter<VetConsult
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        ConsultationInboxItem consultation = consultationList.get(position);
-        holder.bind(consultation);
+        holder.bind(getItem(position));
     }
 
     @Override
-    public int getItemCount() {
-        return consultationList.size();
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        int changes = 0;
+        for (Object payload : payloads) {
+            changes |= (Integer) payload;
+        }
+        holder.bindChanges(getItem(position), changes);
+    }
+
+    private static boolean sameExceptPartial(ConsultationInboxItem a, ConsultationInboxItem b) {
+        return Objects.equals(a.getFarmerName(), b.getFarmerName())
+                && Objects.equals(a.getFarmerPhone(), b.getFarmerPhone())
+                && Objects.equals(a.getQuestion(), b.getQuestion())
+                && Objects.equals(a.getPriority(), b.getPriority())
+                && Objects.equals(a.getAskedAt(), b.getAskedAt())
+                && Objects.equals(a.getTags(), b.getTags());
+    }
+
+    private static int changes(ConsultationInboxItem a, ConsultationInboxItem b) {
+        int changes = 0;
+        if (a.getUnreadReplies() != b.getUnreadReplies()) changes |= CHANGE_UNREAD;
+        if (!Objects.equals(a.getStatus(), b.getStatus())) changes |= CHANGE_STATUS;
+        if (!Objects.equals(a.getSearchSnippet(), b.getSearchSnippet())) changes |= CHANGE_SNIPPET;
+        return changes;
     }
 
     public class ViewHolder extends RecyclerView.ViewHolder {
@@ -96,7 +154,7 @@ public class VetConsultationInboxAdapter extends RecyclerView.Adapter<VetConsult
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && clickListener != null) {
-                    clickListener.onConsultationClick(consultationList.get(position));
+                    clickListener.onConsultationClick(getItem(position));
                 }
             });
         }
@@ -104,10 +162,9 @@ public class VetConsultationInboxAdapter extends RecyclerView.Adapter<VetConsult
         public void bind(ConsultationInboxItem consultation) {
             // Farmer information
             txtFarmerName.setText(consultation.getFarmerName());
-            txtFarmerEmail.setText(consultation.getFarmerEmail());
+            txtFarmerEmail.setText(consultation.getFarmerPhone());
 
-            // Question preview
-            txtQuestionPreview.setText(consultation.getQuestionPreview());
+            bindQuestionPreview(consultation);
 
             // Date and time
             if (consultation.getAskedAt() != null) {
@@ -120,24 +177,11 @@ public class VetConsultationInboxAdapter extends RecyclerView.Adapter<VetConsult
             txtPriority.setText(consultation.getPriorityText());
             txtPriority.setTextColor(ContextCompat.getColor(itemView.getContext(), consultation.getPriorityColor()));
 
-            // Status
-            txtStatus.setText(consultation.getStatusText());
-
             // Priority indicator
             setPriorityIndicator(consultation.getPriority());
 
-            // Status indicator
-            setStatusIndicator(consultation.getStatus());
-
-            // Unread messages
-            if (consultation.hasUnreadMessages()) {
-                txtUnreadCount.setVisibility(View.VISIBLE);
-                txtUnreadCount.setText(String.valueOf(consultation.getUnreadReplies()));
-                viewUnreadIndicator.setVisibility(View.VISIBLE);
-            } else {
-                txtUnreadCount.setVisibility(View.GONE);
-                viewUnreadIndicator.setVisibility(View.GONE);
-            }
+            bindStatus(consultation);
+            bindUnread(consultation);
 
             // Tags
             if (consultation.getTags() != null && !consultation.getTags().isEmpty()) {
@@ -151,6 +195,41 @@ public class VetConsultationInboxAdapter extends RecyclerView.Adapter<VetConsult
             setCardHighlighting(consultation);
         }
 
+        /**
+         * Rebind only what a poll changed, e.g. a new unread reply
+         */
+        void bindChanges(ConsultationInboxItem consultation, int changes) {
+            if ((changes & CHANGE_SNIPPET) != 0) bindQuestionPreview(consultation);
+            if ((changes & CHANGE_STATUS) != 0) bindStatus(consultation);
+            if ((changes & CHANGE_UNREAD) != 0) bindUnread(consultation);
+            setCardHighlighting(consultation);
+        }
+
+        private void bindQuestionPreview(ConsultationInboxItem consultation) {
+            // Question preview, or the matching text while a search is active
+            if (consultation.getSearchSnippet() != null) {
+                txtQuestionPreview.setText(SearchIndex.toHighlightedText(consultation.getSearchSnippet()));
+            } else {
+                txtQuestionPreview.setText(consultation.getQuestionPreview());
+            }
+        }
+
+        private void bindStatus(ConsultationInboxItem consultation) {
+            txtStatus.setText(consultation.getStatusText());
+            setStatusIndicator(consultation.getStatus());
+        }
+
+        private void bindUnread(ConsultationInboxItem consultation) {
+            if (consultation.hasUnreadMessages()) {
+                txtUnreadCount.setVisibility(View.VISIBLE);
+                txtUnreadCount.setText(String.valueOf(consultation.getUnreadReplies()));
+                viewUnreadIndicator.setVisibility(View.VISIBLE);
+            } else {
+                txtUnreadCount.setVisibility(View.GONE);
+                viewUnreadIndicator.setVisibility(View.GONE);
+            }
+        }
+
         private void setPriorityIndicator(String priority) {
             switch (priority.toLowerCase()) {
                 case "urgent":
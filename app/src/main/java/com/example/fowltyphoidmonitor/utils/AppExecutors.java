@@ -0,0 +1,296 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * App-wide executors, shared by every screen and service instead of per-class pools.
+ *
+ * <ul>
+ *   <li>{@link #io()} - bounded pool for network, disk and database work</li>
+ *   <li>{@link #cpu()} - pool sized to the cores for parsing and number crunching</li>
+ *   <li>{@link #blocking()} - unbounded pool for work that sleeps or waits on other
+ *       tasks, such as retry backoff, rate limiting or a get() on another queue</li>
+ *   <li>{@link #serial(String)} - named queues that run their tasks one at a time, in
+ *       order, on the blocking pool; use one per resource that must not be touched concurrently</li>
+ *   <li>{@link #mainThread()} - posts to the UI thread</li>
+ * </ul>
+ * A task on the bounded pools must never wait for another task: with every thread
+ * waiting, the awaited task never runs. The pools live as long as the process, so
+ * callers cannot shut them down.
+ */
+public final class AppExecutors {
+    private static final String TAG = "AppExecutors";
+
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int IO_POOL_SIZE = 4;
+    private static final int CPU_POOL_SIZE = Math.max(2, Math.min(CPU_COUNT - 1, 4));
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final int QUEUE_WARN_DEPTH = 32;
+
+    private static volatile AppExecutors instance;
+
+    private final ThreadPoolExecutor ioExecutor;
+    private final ThreadPoolExecutor cpuExecutor;
+    private final ThreadPoolExecutor blockingExecutor;
+    private final MainThreadExecutor mainThreadExecutor;
+    private final ConcurrentMap<String, SerialExecutor> serialExecutors = new ConcurrentHashMap<>();
+
+    public static AppExecutors getInstance() {
+        if (instance == null) {
+            synchronized (AppExecutors.class) {
+                if (instance == null) {
+                    instance = new AppExecutors();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private AppExecutors() {
+        this.ioExecutor = newPool("io", IO_POOL_SIZE, Process.THREAD_PRIORITY_BACKGROUND);
+        this.cpuExecutor = newPool("cpu", CPU_POOL_SIZE,
+                Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE);
+        // Threads are only created while tasks wait, and serial queues use at most one each
+        this.blockingExecutor = new MeteredPool("blocking", 0, Integer.MAX_VALUE, new SynchronousQueue<>(),
+                new NamedThreadFactory("blocking", Process.THREAD_PRIORITY_BACKGROUND));
+        this.mainThreadExecutor = new MainThreadExecutor();
+    }
+
+    /** Pool for blocking network, file and database work */
+    public ExecutorService io() {
+        return ioExecutor;
+    }
+
+    /** Pool for CPU-bound work; never block on IO here */
+    public ExecutorService cpu() {
+        return cpuExecutor;
+    }
+
+    /** Pool for work that sleeps or waits on other tasks; grows with the waiting tasks */
+    public ExecutorService blocking() {
+        return blockingExecutor;
+    }
+
+    /** Posts to the main thread */
+    public MainThreadExecutor mainThread() {
+        return mainThreadExecutor;
+    }
+
+    /**
+     * Get the serial queue with the given name, creating it on first use. Tasks
+     * submitted to the same queue never overlap and run in submission order.
+     */
+    public Executor serial(String name) {
+        SerialExecutor executor = serialExecutors.get(name);
+        if (executor == null) {
+            SerialExecutor created = new SerialExecutor(name, blockingExecutor);
+            executor = serialExecutors.putIfAbsent(name, created);
+            if (executor == null) executor = created;
+        }
+        return executor;
+    }
+
+    /**
+     * Snapshot of queue depths and active threads, keyed by executor name
+     */
+    public Map<String, QueueStats> getQueueStats() {
+        Map<String, QueueStats> stats = new LinkedHashMap<>();
+        stats.put("io", QueueStats.of(ioExecutor));
+        stats.put("cpu", QueueStats.of(cpuExecutor));
+        stats.put("blocking", QueueStats.of(blockingExecutor));
+        for (SerialExecutor executor : serialExecutors.values()) {
+            stats.put("serial:" + executor.name, executor.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Queue metrics of one executor
+     */
+    public static class QueueStats {
+        public final int queued;
+        public final int active;
+        public final long completed;
+        public final int maxQueued;
+
+        QueueStats(int queued, int active, long completed, int maxQueued) {
+            this.queued = queued;
+            this.active = active;
+            this.completed = completed;
+            this.maxQueued = maxQueued;
+        }
+
+        static QueueStats of(ThreadPoolExecutor pool) {
+            int maxQueued = pool instanceof MeteredPool ? ((MeteredPool) pool).maxQueued.get() : 0;
+            return new QueueStats(pool.getQueue().size(), pool.getActiveCount(),
+                    pool.getCompletedTaskCount(), maxQueued);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "queued=%d active=%d completed=%d maxQueued=%d",
+                    queued, active, completed, maxQueued);
+        }
+    }
+
+    /**
+     * Executor that runs tasks on the UI thread
+     */
+    public static class MainThreadExecutor implements Executor {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            handler.post(command);
+        }
+
+        public void executeDelayed(Runnable command, long delayMillis) {
+            handler.postDelayed(command, delayMillis);
+        }
+
+        public void cancel(Runnable command) {
+            handler.removeCallbacks(command);
+        }
+    }
+
+    private static ThreadPoolExecutor newPool(String name, int size, int priority) {
+        ThreadPoolExecutor pool = new MeteredPool(name, size, size, new LinkedBlockingQueue<>(),
+                new NamedThreadFactory(name, priority));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Pool that records its high-water queue depth and warns when work piles up.
+     * Shared for the life of the process, so shutdown requests are ignored: a caller
+     * shutting it down would break every other user.
+     */
+    private static class MeteredPool extends ThreadPoolExecutor {
+        private final String name;
+        private final AtomicInteger maxQueued = new AtomicInteger();
+
+        MeteredPool(String name, int coreSize, int maxSize, BlockingQueue<Runnable> queue,
+                    ThreadFactory factory) {
+            super(coreSize, maxSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, factory);
+            this.name = name;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            super.execute(command);
+            int depth = getQueue().size();
+            int previousMax = maxQueued.get();
+            if (depth > previousMax && maxQueued.compareAndSet(previousMax, depth)
+                    && depth >= QUEUE_WARN_DEPTH) {
+                Log.w(TAG, "Executor " + name + " queue depth reached " + depth);
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            Log.w(TAG, "Ignoring shutdown of shared executor " + name);
+        }
+
+        @NonNull
+        @Override
+        public List<Runnable> shutdownNow() {
+            // Same as shutdown: nothing is interrupted and the queued tasks still run
+            Log.w(TAG, "Ignoring shutdownNow of shared executor " + name);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Runs tasks one after another on a backing pool
+     */
+    private static class SerialExecutor implements Executor {
+        private final String name;
+        private final Executor backing;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private Runnable active;
+        private long completed;
+        private int maxQueued;
+
+        SerialExecutor(String name, Executor backing) {
+            this.name = name;
+            this.backing = backing;
+        }
+
+        @Override
+        public synchronized void execute(@NonNull Runnable command) {
+            tasks.offer(() -> {
+                try {
+                    command.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (tasks.size() > maxQueued) {
+                maxQueued = tasks.size();
+                if (maxQueued >= QUEUE_WARN_DEPTH) {
+                    Log.w(TAG, "Serial queue " + name + " depth reached " + maxQueued);
+                }
+            }
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            if (active != null) completed++;
+            active = tasks.poll();
+            if (active != null) {
+                backing.execute(active);
+            }
+        }
+
+        synchronized QueueStats getStats() {
+            return new QueueStats(tasks.size(), active != null ? 1 : 0, completed, maxQueued);
+        }
+    }
+
+    /**
+     * Names threads "kuku-&lt;pool&gt;-&lt;n&gt;" so they are identifiable in traces and ANR dumps
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final int priority;
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        NamedThreadFactory(String name, int priority) {
+            this.prefix = "kuku-" + name + "-";
+            this.priority = priority;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(priority);
+                runnable.run();
+            }, prefix + count.getAndIncrement());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import android.util.Log;
+
+import com.example.fowltyphoidmonitor.BuildConfig;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * App logging facade, used instead of calling {@link Log} directly.
+ *
+ * A call below the current level costs one comparison. Where building the message is
+ * not free, pass a {@link Message} lambda so the text is only built when it will be
+ * written. Release builds drop debug and verbose output whatever the runtime level.
+ *
+ * Every written entry goes to logcat and into a ring of the most recent entries.
+ * Entries keep their raw time, and timestamps are only formatted when the ring is
+ * dumped with {@link #dump()}.
+ */
+public final class AppLog {
+    public static final int VERBOSE = Log.VERBOSE;
+    public static final int DEBUG = Log.DEBUG;
+    public static final int INFO = Log.INFO;
+    public static final int WARN = Log.WARN;
+    public static final int ERROR = Log.ERROR;
+
+    private static final boolean DEBUG_BUILD = BuildConfig.DEBUG;
+    private static final int RING_CAPACITY = 512;
+
+    /**
+     * Builds a log message; only called if the entry is written
+     */
+    public interface Message {
+        String get();
+    }
+
+    private static volatile int minLevel = DEBUG_BUILD ? DEBUG : INFO;
+
+    // Ring of recent entries; slots are reused, so writing allocates nothing
+    private static final Entry[] ring = new Entry[RING_CAPACITY];
+    private static int next;
+    private static int count;
+    private static final SimpleDateFormat timeFormat =
+            new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US); // guarded by ring
+
+    static {
+        for (int i = 0; i < RING_CAPACITY; i++) {
+            ring[i] = new Entry();
+        }
+    }
+
+    private AppLog() {
+    }
+
+    /** Lowest level written; lower levels are dropped before their message is built */
+    public static void setMinLevel(int level) {
+        minLevel = level;
+    }
+
+    public static boolean isLoggable(int level) {
+        return level >= minLevel && (DEBUG_BUILD || level >= INFO);
+    }
+
+    public static void d(String tag, String message) {
+        if (isLoggable(DEBUG)) write(DEBUG, tag, message, null);
+    }
+
+    public static void d(String tag, Message message) {
+        if (isLoggable(DEBUG)) write(DEBUG, tag, message.get(), null);
+    }
+
+    public static void i(String tag, String message) {
+        if (isLoggable(INFO)) write(INFO, tag, message, null);
+    }
+
+    public static void i(String tag, Message message) {
+        if (isLoggable(INFO)) write(INFO, tag, message.get(), null);
+    }
+
+    public static void w(String tag, String message) {
+        if (isLoggable(WARN)) write(WARN, tag, message, null);
+    }
+
+    public static void w(String tag, Message message) {
+        if (isLoggable(WARN)) write(WARN, tag, message.get(), null);
+    }
+
+    public static void w(String tag, String message, Throwable error) {
+        if (isLoggable(WARN)) write(WARN, tag, message, error);
+    }
+
+    public static void e(String tag, String message) {
+        if (isLoggable(ERROR)) write(ERROR, tag, message, null);
+    }
+
+    public static void e(String tag, Message message) {
+        if (isLoggable(ERROR)) write(ERROR, tag, message.get(), null);
+    }
+
+    public static void e(String tag, String message, Throwable error) {
+        if (isLoggable(ERROR)) write(ERROR, tag, message, error);
+    }
+
+    /**
+     * The recent entries, oldest first, one per line, e.g. for a bug report
+     */
+    public static String dump() {
+        StringBuilder out = new StringBuilder();
+        Date date = new Date();
+        synchronized (ring) {
+            int start = (next - count + RING_CAPACITY) % RING_CAPACITY;
+            for (int i = 0; i < count; i++) {
+                Entry entry = ring[(start + i) % RING_CAPACITY];
+                date.setTime(entry.time);
+                out.append(timeFormat.format(date))
+                        .append(' ').append(levelChar(entry.level))
+                        .append('/').append(entry.tag)
+                        .append(": ").append(entry.message)
+                        .append('\n');
+                if (entry.error != null) {
+                    out.append(Log.getStackTraceString(entry.error)).append('\n');
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /** Forget the recorded entries */
+    public static void clear() {
+        synchronized (ring) {
+            for (Entry entry : ring) {
+                entry.set(0, 0, null, null, null);
+            }
+            next = 0;
+            count = 0;
+        }
+    }
+
+    private static void write(int level, String tag, String message, Throwable error) {
+        if (error != null) {
+            Log.println(level, tag, message + '\n' + Log.getStackTraceString(error));
+        } else {
+            Log.println(level, tag, message);
+        }
+
+        synchronized (ring) {
+            ring[next].set(System.currentTimeMillis(), level, tag, message, error);
+            next = (next + 1) % RING_CAPACITY;
+            if (count < RING_CAPACITY) count++;
+        }
+    }
+
+    private static char levelChar(int level) {
+        switch (level) {
+            case VERBOSE: return 'V';
+            case DEBUG: return 'D';
+            case INFO: return 'I';
+            case WARN: return 'W';
+            default: return 'E';
+        }
+    }
+
+    /**
+     * One ring slot
+     */
+    private static class Entry {
+        long time;
+        int level;
+        String tag;
+        String message;
+        Throwable error;
+
+        void set(long time, int level, String tag, String message, Throwable error) {
+            this.time = time;
+            this.level = level;
+            this.tag = tag;
+            this.message = message;
+            this.error = error;
+        }
+    }
+}
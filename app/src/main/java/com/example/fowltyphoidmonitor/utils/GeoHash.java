@@ -0,0 +1,117 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding and the cell arithmetic used for area lookups.
+ *
+ * A geohash names a latitude/longitude cell; each extra character splits the cell
+ * into 32, and every point in a cell has the cell's hash as a prefix. Nearby points
+ * therefore share prefixes, so "near here" becomes a handful of prefix lookups in an
+ * ordered index. Precision 4 is about 39 x 20 km, precision 5 about 4.9 x 4.9 km.
+ */
+public final class GeoHash {
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    /** Most cells a radius query may expand to before falling back to a coarser precision */
+    private static final int MAX_COVERING_CELLS = 36;
+
+    private GeoHash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean lngBit = true;
+        int bits = 0;
+        int value = 0;
+        while (hash.length() < precision) {
+            if (lngBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (longitude >= mid) {
+                    value = value * 2 + 1;
+                    minLng = mid;
+                } else {
+                    value = value * 2;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = value * 2 + 1;
+                    minLat = mid;
+                } else {
+                    value = value * 2;
+                    maxLat = mid;
+                }
+            }
+            lngBit = !lngBit;
+            if (++bits == 5) {
+                hash.append(BASE32.charAt(value));
+                bits = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /** Height of a cell of the given precision, in degrees of latitude */
+    public static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    /** Width of a cell of the given precision, in degrees of longitude */
+    public static double cellWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+
+    /**
+     * Cells that together cover the circle around a point, at the finest precision up to
+     * maxPrecision that needs no more than MAX_COVERING_CELLS of them. All cells have the
+     * same length, so a point lies in the circle only if its hash starts with one of them.
+     */
+    public static Set<String> coveringCells(double latitude, double longitude, double radiusKm,
+                                            int maxPrecision) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double lngDelta = radiusKm / (KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+        double minLat = Math.max(-90, latitude - latDelta);
+        double maxLat = Math.min(90, latitude + latDelta);
+        double minLng = Math.max(-180, longitude - lngDelta);
+        double maxLng = Math.min(180, longitude + lngDelta);
+
+        int precision = Math.max(1, maxPrecision);
+        while (precision > 1) {
+            long rows = (long) Math.ceil((maxLat - minLat) / cellHeight(precision)) + 1;
+            long columns = (long) Math.ceil((maxLng - minLng) / cellWidth(precision)) + 1;
+            if (rows * columns <= MAX_COVERING_CELLS) break;
+            precision--;
+        }
+
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        // Step a cell at a time and finish on the far edge, so no strip is skipped
+        for (double lat = minLat; ; lat = Math.min(maxLat, lat + height)) {
+            for (double lng = minLng; ; lng = Math.min(maxLng, lng + width)) {
+                cells.add(encode(lat, lng, precision));
+                if (lng >= maxLng) break;
+            }
+            if (lat >= maxLat) break;
+        }
+        return cells;
+    }
+
+    /** Great-circle distance between two points */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
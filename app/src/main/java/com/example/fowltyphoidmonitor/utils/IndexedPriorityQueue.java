@@ -0,0 +1,132 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A binary heap whose entries can be found by key, so one can be changed or removed
+ * in O(log n) instead of the O(n) search java.util.PriorityQueue needs. The head is
+ * the smallest value under the comparator. Not thread-safe.
+ */
+public final class IndexedPriorityQueue<K, V> {
+    private final Comparator<? super V> comparator;
+    private final List<K> keys = new ArrayList<>();
+    private final List<V> values = new ArrayList<>();
+    private final Map<K, Integer> positions = new HashMap<>();
+
+    public IndexedPriorityQueue(Comparator<? super V> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    public boolean contains(K key) {
+        return positions.containsKey(key);
+    }
+
+    public V get(K key) {
+        Integer position = positions.get(key);
+        return position != null ? values.get(position) : null;
+    }
+
+    /** Add an entry, or give an existing key its new value and move it into place */
+    public void put(K key, V value) {
+        Integer position = positions.get(key);
+        if (position == null) {
+            keys.add(key);
+            values.add(value);
+            positions.put(key, keys.size() - 1);
+            siftUp(keys.size() - 1);
+            return;
+        }
+        V old = values.get(position);
+        values.set(position, value);
+        if (comparator.compare(value, old) < 0) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    /** Remove an entry; returns its value, or null if the key was not queued */
+    public V remove(K key) {
+        Integer position = positions.get(key);
+        if (position == null) return null;
+        V value = values.get(position);
+        int last = keys.size() - 1;
+        swap(position, last);
+        positions.remove(keys.remove(last));
+        values.remove(last);
+        if (position < last) {
+            siftDown(position);
+            siftUp(position);
+        }
+        return value;
+    }
+
+    public K peekKey() {
+        return keys.isEmpty() ? null : keys.get(0);
+    }
+
+    public V peek() {
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    public V poll() {
+        return keys.isEmpty() ? null : remove(keys.get(0));
+    }
+
+    /** The queued values in no particular order */
+    public List<V> values() {
+        return new ArrayList<>(values);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (comparator.compare(values.get(position), values.get(parent)) >= 0) break;
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        int size = keys.size();
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && comparator.compare(values.get(left), values.get(smallest)) < 0) {
+                smallest = left;
+            }
+            if (right < size && comparator.compare(values.get(right), values.get(smallest)) < 0) {
+                smallest = right;
+            }
+            if (smallest == position) return;
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        if (a == b) return;
+        K keyA = keys.get(a);
+        K keyB = keys.get(b);
+        keys.set(a, keyB);
+        keys.set(b, keyA);
+        V valueA = values.get(a);
+        values.set(a, values.get(b));
+        values.set(b, valueA);
+        positions.put(keyB, a);
+        positions.put(keyA, b);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+
+/**
+ * Glide setup with explicit cache budgets, so photo-heavy consultations cannot grow
+ * the image caches without bound. The budgets are upper limits; low-memory devices
+ * get whatever smaller size Glide computes for their screen and RAM.
+ */
+@GlideModule
+public final class KukuGlideModule extends AppGlideModule {
+    private static final long MEMORY_CACHE_BYTES = 24 * 1024 * 1024L;
+    private static final long BITMAP_POOL_BYTES = 16 * 1024 * 1024L;
+    private static final long DISK_CACHE_BYTES = 100 * 1024 * 1024L;
+    private static final String DISK_CACHE_DIR = "attachment_images";
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context).build();
+        builder.setMemoryCache(new LruResourceCache(Math.min(calculator.getMemoryCacheSize(), MEMORY_CACHE_BYTES)));
+        builder.setBitmapPool(new LruBitmapPool(Math.min(calculator.getBitmapPoolSize(), BITMAP_POOL_BYTES)));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_BYTES));
+        // Half the memory of ARGB_8888; the attachment viewer asks for full colour
+        builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+        builder.setLogLevel(Log.ERROR);
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
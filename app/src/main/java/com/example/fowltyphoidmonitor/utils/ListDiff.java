@@ -0,0 +1,51 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Helpers for RecyclerView adapters that diff their lists in the background.
+ *
+ * Adapters extend ListAdapter with {@link #config(DiffUtil.ItemCallback)}, so the diff
+ * of each submitted list runs on the CPU pool and only changed rows are rebound.
+ */
+public final class ListDiff {
+
+    private ListDiff() {
+    }
+
+    /** Differ config that computes diffs on the shared CPU pool */
+    public static <T> AsyncDifferConfig<T> config(DiffUtil.ItemCallback<T> callback) {
+        return new AsyncDifferConfig.Builder<>(callback)
+                .setBackgroundThreadExecutor(AppExecutors.getInstance().cpu())
+                .build();
+    }
+
+    /**
+     * Maps item keys to stable adapter ids. Ids are handed out in order, so unlike
+     * hashing a string key they never collide. Items without a key (e.g. a local
+     * message not yet saved) are tracked by identity.
+     */
+    public static final class StableIds {
+        private final Map<String, Long> byKey = new HashMap<>();
+        private final Map<Object, Long> byItem = new WeakHashMap<>();
+        private long nextId = 1;
+
+        public long get(String key, Object item) {
+            Long id = key != null ? byKey.get(key) : byItem.get(item);
+            if (id == null) {
+                id = nextId++;
+                if (key != null) {
+                    byKey.put(key, id);
+                } else {
+                    byItem.put(item, id);
+                }
+            }
+            return id;
+        }
+    }
+}
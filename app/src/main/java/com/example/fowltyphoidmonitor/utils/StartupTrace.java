@@ -0,0 +1,123 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures cold start.
+ *
+ * Each init step runs inside a section, which shows up in systrace/Perfetto and is
+ * recorded with its thread, start and duration. Marks note events such as the first
+ * frame. When the first interactive screen draws, the recorded timeline is written to
+ * the log once as the startup report. Afterwards sections and marks cost nothing.
+ *
+ * Times are from process start on API 24+, otherwise from the first use of this class.
+ */
+public final class StartupTrace {
+    private static final String TAG = "StartupTrace";
+
+    private static final long origin = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+            ? Process.getStartUptimeMillis() : SystemClock.uptimeMillis();
+    private static final List<String> events = new ArrayList<>(); // guarded by itself
+    private static volatile boolean finished;
+
+    /**
+     * An open section; end it on the thread that began it
+     */
+    public static final class Section {
+        private static final Section NONE = new Section(null, 0);
+
+        private final String name;
+        private final long start;
+
+        private Section(String name, long start) {
+            this.name = name;
+            this.start = start;
+        }
+
+        public void end() {
+            if (name == null) return;
+            Trace.endSection();
+            long end = SystemClock.uptimeMillis();
+            record(String.format(Locale.US, "%6d ms  %-28s %5d ms  [%s]",
+                    start - origin, name, end - start, Thread.currentThread().getName()));
+        }
+    }
+
+    private StartupTrace() {
+    }
+
+    /** Open a section, e.g. around one init step */
+    public static Section begin(String name) {
+        if (finished) return Section.NONE;
+        Trace.beginSection(name);
+        return new Section(name, SystemClock.uptimeMillis());
+    }
+
+    /** Note that something happened now */
+    public static void mark(String event) {
+        if (finished) return;
+        record(String.format(Locale.US, "%6d ms  %s", SystemClock.uptimeMillis() - origin, event));
+    }
+
+    /** Mark the activity's first frame once it has been drawn */
+    public static void markFirstFrame(Activity activity, String event) {
+        onFirstFrame(activity, () -> mark(event));
+    }
+
+    /**
+     * Mark the first frame of the first interactive screen and write the startup
+     * report. Screens reached later, e.g. from the menu, do nothing.
+     */
+    public static void finishOnFirstFrame(Activity activity) {
+        if (finished) return;
+        String screen = activity.getClass().getSimpleName();
+        onFirstFrame(activity, () -> {
+            mark("first interactive frame (" + screen + ")");
+            report();
+        });
+    }
+
+    /** Write the recorded timeline to the log and stop recording */
+    public static void report() {
+        if (finished) return;
+        finished = true;
+        StringBuilder report = new StringBuilder("Startup report, ms since process start:");
+        synchronized (events) {
+            for (String event : events) {
+                report.append('\n').append(event);
+            }
+            events.clear();
+        }
+        AppLog.i(TAG, report.toString());
+    }
+
+    private static void record(String event) {
+        synchronized (events) {
+            events.add(event);
+        }
+    }
+
+    /** Run after the first frame of the activity's window has been drawn */
+    private static void onFirstFrame(Activity activity, Runnable action) {
+        View decor = activity.getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decor.getViewTreeObserver().removeOnPreDrawListener(this);
+                // Runs once this traversal, including the draw, has finished
+                decor.post(action);
+                return true;
+            }
+        });
+    }
+}
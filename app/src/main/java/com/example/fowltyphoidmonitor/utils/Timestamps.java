@@ -0,0 +1,69 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Server timestamps without java.time, which needs API 26.
+ */
+public final class Timestamps {
+    // As PostgREST returns them: fraction and zone are optional, no zone is UTC
+    private static final Pattern TIMESTAMP = Pattern.compile(
+            "(\\d{4}-\\d{2}-\\d{2})[T ](\\d{2}:\\d{2}:\\d{2})(?:\\.(\\d{1,9}))?(Z|[+-]\\d{2}(?::?\\d{2})?)?");
+
+    private Timestamps() {
+    }
+
+    /** Epoch milliseconds of an ISO-8601 timestamp, or -1 if it is missing or malformed */
+    public static long parseMillis(String value) {
+        long micros = parseMicros(value);
+        return micros >= 0 ? micros / 1000 : -1;
+    }
+
+    /**
+     * Epoch microseconds of an ISO-8601 timestamp, or -1 if it is missing or malformed.
+     * Compare timestamps this way, never as strings: "2025-07-07T00:00:00" and
+     * "2025-07-07 00:00:00.5+00:00" are both valid and do not sort as text.
+     */
+    public static long parseMicros(String value) {
+        if (value == null) return -1;
+        Matcher m = TIMESTAMP.matcher(value.trim());
+        if (!m.matches()) return -1;
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        format.setLenient(false);
+        long seconds;
+        try {
+            seconds = format.parse(m.group(1) + " " + m.group(2)).getTime() / 1000;
+        } catch (ParseException e) {
+            return -1;
+        }
+
+        long micros = 0;
+        if (m.group(3) != null) {
+            String fraction = (m.group(3) + "000000").substring(0, 6);
+            micros = Long.parseLong(fraction);
+        }
+        String zone = m.group(4);
+        if (zone != null && !"Z".equals(zone)) {
+            String digits = zone.substring(1).replace(":", "");
+            int offset = Integer.parseInt(digits.substring(0, 2)) * 3600
+                    + (digits.length() > 2 ? Integer.parseInt(digits.substring(2)) * 60 : 0);
+            seconds -= zone.charAt(0) == '-' ? -offset : offset;
+        }
+        return seconds * 1_000_000L + micros;
+    }
+
+    /** A timestamp after 1970 in the one form this app writes: UTC, microseconds, "Z" */
+    public static String formatMicros(long micros) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(micros / 1000))
+                + String.format(Locale.US, ".%06dZ", micros % 1_000_000L);
+    }
+}
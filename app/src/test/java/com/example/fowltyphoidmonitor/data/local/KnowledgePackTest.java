@@ -0,0 +1,97 @@
+package com.example.fowltyphoidmonitor.data.local;
+
+import com.example.fowltyphoidmonitor.data.models.DiseaseInfo;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class KnowledgePackTest {
+    private static final String[] FIELDS =
+            {"name", "description", "causes", "symptoms", "treatment", "prevention", "updated_at"};
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void writeThenMap_roundTripsEveryField() throws IOException {
+        DiseaseInfo info = new DiseaseInfo(null, "Kideri", "Virusi", "Kukohoa • kupiga chafya",
+                "Hakuna tiba", "Chanjo", "Ugonjwa wa virusi");
+        info.setUpdatedAt("2025-07-08T10:00:00Z");
+        DiseaseInfo sparse = new DiseaseInfo(null, "Empty", null, null, null, null, null);
+        File file = temp.newFile("pack.kpk");
+
+        KnowledgePack.write(file, "2025-07-08T10:00:00Z", Arrays.asList(info, sparse));
+        KnowledgePack pack = KnowledgePack.map(file);
+
+        assertEquals("2025-07-08T10:00:00Z", pack.getVersion());
+        assertEquals(2, pack.size());
+        assertEquals(0, pack.indexOf("kideri"));
+        assertEquals("Kukohoa • kupiga chafya", pack.getField(0, KnowledgePack.FIELD_SYMPTOMS));
+        assertEquals("2025-07-08T10:00:00Z", pack.getField(0, KnowledgePack.FIELD_UPDATED_AT));
+        assertNull(pack.getField(1, KnowledgePack.FIELD_CAUSES));
+        assertEquals(-1, pack.indexOf("Missing"));
+    }
+
+    @Test(expected = IOException.class)
+    public void map_rejectsOtherFiles() throws IOException {
+        File file = temp.newFile("other.kpk");
+        Files.write(file.toPath(), "not a pack at all".getBytes(StandardCharsets.UTF_8));
+        KnowledgePack.map(file);
+    }
+
+    /** The pack the Gradle task builds carries exactly the source files' content */
+    @Test
+    public void generatedPack_matchesSource() throws IOException {
+        File source = new File(System.getProperty("knowledgePack.source", "src/main/knowledge"));
+        File generated = new File(System.getProperty("knowledgePack.file",
+                "build/generated/knowledge/assets/knowledge/disease_pack.kpk"));
+        JsonObject index = JsonParser.parseString(read(new File(source, "diseases.json"))).getAsJsonObject();
+        KnowledgePack pack = KnowledgePack.map(generated);
+
+        assertEquals(index.get("version").getAsString(), pack.getVersion());
+        assertTrue(pack.getVersionMicros() > 0);
+        JsonArray diseases = index.getAsJsonArray("diseases");
+        assertEquals(diseases.size(), pack.size());
+        for (int i = 0; i < diseases.size(); i++) {
+            JsonObject disease = diseases.get(i).getAsJsonObject();
+            for (int field = 0; field < FIELDS.length; field++) {
+                assertEquals(FIELDS[field] + " of entry " + i,
+                        expected(source, disease, FIELDS[field]), pack.getField(i, field));
+            }
+        }
+    }
+
+    private static String expected(File source, JsonObject disease, String field) throws IOException {
+        JsonElement file = disease.get(field + "_file");
+        if (file != null) {
+            List<String> lines = new ArrayList<>(Files.readAllLines(
+                    new File(source, file.getAsString()).toPath(), StandardCharsets.UTF_8));
+            StringBuilder text = new StringBuilder();
+            for (String line : lines) {
+                text.append(line);
+            }
+            return text.toString();
+        }
+        JsonElement value = disease.get(field);
+        return value != null && !value.isJsonNull() ? value.getAsString() : null;
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.fowltyphoidmonitor.data.local;
+
+import com.example.fowltyphoidmonitor.data.models.ConsultationMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/** ThreadCache pages for tests outside this package, whose constructor they cannot reach */
+public final class TestPages {
+
+    private TestPages() {
+    }
+
+    /** Messages m{first} .. m{first + count - 1}, one second apart */
+    public static ThreadCache.Page page(int first, int count, boolean hasMore) {
+        List<ConsultationMessage> messages = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            ConsultationMessage message = new ConsultationMessage();
+            message.setId("m" + i);
+            messages.add(message);
+        }
+        if (messages.isEmpty()) {
+            return new ThreadCache.Page(messages, null, null, hasMore);
+        }
+        return new ThreadCache.Page(messages, position(first), position(first + count - 1), hasMore);
+    }
+
+    private static ThreadCache.Position position(int index) {
+        String createdAt = String.format(Locale.ROOT, "2025-07-07T00:%02d:%02dZ", index / 60 % 60, index % 60);
+        return new ThreadCache.Position(createdAt, "m" + index);
+    }
+}
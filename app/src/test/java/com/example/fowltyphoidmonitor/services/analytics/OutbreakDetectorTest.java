@@ -0,0 +1,120 @@
+package com.example.fowltyphoidmonitor.services.analytics;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class OutbreakDetectorTest {
+    private static final long TODAY = 20000;
+
+    /** A cell seeded with a steady baseline, the way seed() fills it from the mirror */
+    private static OutbreakDetector.Cell steadyCell(int perDay) {
+        OutbreakDetector.Cell cell = new OutbreakDetector.Cell();
+        cell.lastDay = TODAY;
+        for (long day = TODAY - OutbreakDetector.BASELINE_DAYS; day < TODAY; day++) {
+            cell.add(day, perDay);
+        }
+        return cell;
+    }
+
+    @Test
+    public void steadyBaseline_staysQuiet() {
+        OutbreakDetector.Cell cell = steadyCell(2);
+        cell.add(TODAY, 2);
+
+        assertEquals(2.0, cell.mean(), 1e-9);
+        // No spread at all, so the floor applies
+        assertEquals(1.0, cell.deviation(), 1e-9);
+        assertEquals(0.0, cell.currentCusum(), 1e-9);
+    }
+
+    @Test
+    public void spike_crossesThresholdOnlyWhenLargeEnough() {
+        OutbreakDetector.Cell cell = steadyCell(2);
+
+        // Threshold is 4 deviations; slack takes off half of one
+        cell.add(TODAY, 6);
+        assertEquals(3.5, cell.currentCusum(), 1e-9);
+        assertTrue(cell.currentCusum() <= 4.0 * cell.deviation());
+
+        cell.add(TODAY, 1);
+        assertEquals(4.5, cell.currentCusum(), 1e-9);
+        assertTrue(cell.currentCusum() > 4.0 * cell.deviation());
+    }
+
+    @Test
+    public void advanceTo_carriesCusumAndClearsAlarmWhenItDrains() {
+        OutbreakDetector.Cell cell = steadyCell(2);
+        cell.add(TODAY, 7);
+        cell.alarmed = true;
+
+        cell.advanceTo(TODAY + 1);
+        assertEquals(4.5, cell.cusum, 1e-9);
+        assertTrue(cell.alarmed);
+
+        long day = TODAY + 1;
+        while (cell.cusum > 0) {
+            cell.advanceTo(++day);
+        }
+        assertFalse(cell.alarmed);
+        assertTrue(day - TODAY < OutbreakDetector.BASELINE_DAYS);
+    }
+
+    @Test
+    public void runningSums_matchRecount() {
+        Random random = new Random(3);
+        OutbreakDetector.Cell cell = new OutbreakDetector.Cell();
+        cell.lastDay = TODAY;
+        Map<Long, Integer> counts = new HashMap<>();
+
+        for (long day = TODAY; day < TODAY + 200; day++) {
+            cell.advanceTo(day);
+            for (int i = 0; i < 5; i++) {
+                // Late reports and deletions touch days still in the window
+                long target = day - random.nextInt(OutbreakDetector.BASELINE_DAYS + 1);
+                int delta = random.nextInt(7) - 2;
+                int before = counts.containsKey(target) ? counts.get(target) : 0;
+                counts.put(target, Math.max(0, before + delta));
+                cell.add(target, delta);
+            }
+
+            double sum = 0;
+            double sumSquares = 0;
+            for (long past = day - OutbreakDetector.BASELINE_DAYS; past < day; past++) {
+                int count = counts.containsKey(past) ? counts.get(past) : 0;
+                sum += count;
+                sumSquares += (double) count * count;
+            }
+            assertEquals(sum, cell.sum, 1e-6);
+            assertEquals(sumSquares, cell.sumSquares, 1e-6);
+        }
+    }
+
+    @Test
+    public void longGap_startsOver() {
+        OutbreakDetector.Cell cell = steadyCell(3);
+        cell.add(TODAY, 20);
+
+        cell.advanceTo(TODAY + OutbreakDetector.BASELINE_DAYS + 5);
+
+        assertEquals(0.0, cell.sum, 1e-9);
+        assertEquals(0.0, cell.cusum, 1e-9);
+        assertEquals(TODAY + OutbreakDetector.BASELINE_DAYS + 5, cell.lastDay);
+    }
+
+    @Test
+    public void alertId_isTheSameOnEveryDevice() {
+        String id = OutbreakDetector.alertId("Morogoro", TODAY);
+
+        assertEquals(id, OutbreakDetector.alertId("Morogoro", TODAY));
+        assertNotEquals(id, OutbreakDetector.alertId("Morogoro", TODAY + 1));
+        assertNotEquals(id, OutbreakDetector.alertId("Dodoma", TODAY));
+        // The notifications table keys on a UUID
+        assertEquals(id, UUID.fromString(id).toString());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.fowltyphoidmonitor.services.export;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+public class ReportExporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ReportExporter.Job job(File file) {
+        ReportExporter.Job job = new ReportExporter.Job();
+        job.dataset = ReportExporter.Dataset.REPORTS;
+        job.format = ReportExporter.Format.NDJSON;
+        job.gzip = true;
+        job.path = file.getAbsolutePath();
+        job.from = "2025-07-01T00:00:00+03:00";
+        job.to = "2025-07-08T00:00:00+03:00";
+        return job;
+    }
+
+    private static ResponseBody rows(int first, int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = first; i < first + count; i++) {
+            if (i > first) json.append(',');
+            json.append("{\"report_id\":\"r").append(i)
+                    .append("\",\"created_at\":\"2025-07-02T10:00:0").append(i).append("+00:00\"}");
+        }
+        return ResponseBody.create(json.append(']').toString(), MediaType.get("application/json"));
+    }
+
+    /** Write a page the way export() does and checkpoint the file length */
+    private static void writePage(ReportExporter.Job job, File file, ResponseBody body) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            ReportExporter.writePage(job, body, out, new ReportExporter.Handle());
+        }
+        job.bytes = file.length();
+    }
+
+    private static List<String> readGzipLines(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void resume_cutsPartialPageAndAppendsEachRowOnce() throws Exception {
+        File file = new File(folder.getRoot(), "exports/reports.ndjson.gz");
+        ReportExporter.Job job = job(file);
+        ReportExporter.prepareFile(job, file);
+        writePage(job, file, rows(1, 2));
+        long checkpoint = job.bytes;
+
+        // The process died while the next page was being written
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{0x1f, (byte) 0x8b, 8, 0, 1, 2, 3});
+        }
+        ReportExporter.prepareFile(job, file);
+
+        assertEquals(checkpoint, file.length());
+        assertEquals(2, job.rows);
+        assertEquals("r2", job.lastId);
+
+        writePage(job, file, rows(3, 2));
+        List<String> lines = readGzipLines(file);
+        assertEquals(4, lines.size());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(lines.get(i).contains("\"r" + (i + 1) + "\""));
+        }
+    }
+
+    @Test
+    public void resume_startsOverWhenFileIsShorterThanCheckpoint() throws Exception {
+        File file = new File(folder.getRoot(), "reports.ndjson.gz");
+        ReportExporter.Job job = job(file);
+        ReportExporter.prepareFile(job, file);
+        writePage(job, file, rows(1, 2));
+        job.bytes = file.length() + 10;
+
+        ReportExporter.prepareFile(job, file);
+
+        assertFalse(file.exists());
+        assertEquals(0, job.bytes);
+        assertEquals(0, job.rows);
+        assertNull(job.lastCreatedAt);
+        assertNull(job.lastId);
+    }
+
+    @Test
+    public void pageQuery_continuesAfterCursor() {
+        ReportExporter.Job job = job(new File(folder.getRoot(), "reports.csv"));
+
+        assertFalse(ReportExporter.pageQuery(job).get("and").contains("or("));
+
+        job.lastCreatedAt = "2025-07-02T10:00:02+00:00";
+        job.lastId = "r2";
+        Map<String, String> query = ReportExporter.pageQuery(job);
+
+        assertEquals("(created_at.gte.\"2025-07-01T00:00:00+03:00\",created_at.lt.\"2025-07-08T00:00:00+03:00\""
+                + ",or(created_at.gt.\"2025-07-02T10:00:02+00:00\",and(created_at.eq.\"2025-07-02T10:00:02+00:00\""
+                + ",report_id.gt.r2)))", query.get("and"));
+        assertEquals("created_at.asc,report_id.asc", query.get("order"));
+    }
+}
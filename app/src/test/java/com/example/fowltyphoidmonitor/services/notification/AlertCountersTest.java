@@ -0,0 +1,67 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.Alert;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertPriority;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertStatus;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertType;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.StatsPeriod;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class AlertCountersTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private static Alert sentAlert(long sentAt) {
+        Alert alert = new Alert("Tahadhari", "Ujumbe", AlertType.HEALTH_TIP, AlertPriority.LOW);
+        alert.status = AlertStatus.SENT;
+        alert.sentAt = new Date(sentAt);
+        alert.deliveryStats.totalRecipients = 10;
+        alert.deliveryStats.delivered = 8;
+        return alert;
+    }
+
+    @Test
+    public void archive_keepsSentAlertsInTotalsAndBuckets() {
+        long now = System.currentTimeMillis();
+        AlertCounters counters = new AlertCounters();
+        Alert sent = sentAlert(now - DAY);
+        Alert draft = new Alert("Rasimu", "Ujumbe", AlertType.HEALTH_TIP, AlertPriority.LOW);
+        counters.apply(null, sent);
+        counters.apply(null, draft);
+
+        counters.archive(sent);
+        counters.archive(draft);
+
+        AlertManager.AlertStatistics stats = counters.toStatistics();
+        assertEquals(1, stats.totalAlerts);
+        assertEquals(1, stats.sentAlerts);
+        assertEquals(0, stats.draftAlerts);
+        assertEquals(10, stats.totalRecipients);
+        assertEquals(8, stats.totalDelivered);
+        assertEquals(0, counters.getLiveTotal());
+
+        int bucketed = 0;
+        for (AlertManager.AlertStatsBucket bucket : counters.series(StatsPeriod.DAY, 7, now)) {
+            bucketed += bucket.alerts;
+        }
+        assertEquals(1, bucketed);
+    }
+
+    @Test
+    public void restore_keepsArchivedCount() {
+        AlertCounters counters = new AlertCounters();
+        Alert sent = sentAlert(System.currentTimeMillis());
+        counters.apply(null, sent);
+        counters.archive(sent);
+
+        AlertCounters restored = new AlertCounters();
+        restored.restore(counters.snapshotState());
+
+        assertEquals(0, restored.getLiveTotal());
+        assertEquals(1, restored.toStatistics().totalAlerts);
+    }
+}
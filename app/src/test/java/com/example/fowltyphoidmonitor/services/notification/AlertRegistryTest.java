@@ -0,0 +1,38 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.Alert;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertPriority;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertType;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class AlertRegistryTest {
+
+    private static Alert alert(String title) {
+        return new Alert(title, "Ujumbe", AlertType.HEALTH_TIP, AlertPriority.LOW);
+    }
+
+    @Test
+    public void load_keepsAlertsWrittenBeforeIt() {
+        AlertRegistry registry = new AlertRegistry();
+        Alert stored = alert("Iliyohifadhiwa");
+        Alert storedThenEdited = alert("Ya zamani");
+        Alert early = registry.put(alert("Mpya"));
+        Alert edited = storedThenEdited.copy();
+        edited.title = "Imehaririwa";
+        registry.put(edited);
+
+        registry.load(Arrays.asList(stored, storedThenEdited),
+                () -> registry.counters().rebuild(registry.getAll()));
+
+        assertEquals(3, registry.size());
+        assertNotNull(registry.get(stored.id));
+        assertNotNull(registry.get(early.id));
+        assertEquals("Imehaririwa", registry.get(storedThenEdited.id).title);
+        assertEquals(3, registry.counters().getLiveTotal());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class AlertSchedulerTest {
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private TimeZone defaultZone;
+
+    @Before
+    public void setUp() {
+        defaultZone = TimeZone.getDefault();
+        // Has a daylight saving change, unlike East Africa time
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    private static long at(int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+
+    @Test
+    public void oneShot_hasNoNextFire() {
+        long previous = at(2025, Calendar.JULY, 7, 8, 0);
+
+        assertEquals(0, AlertScheduler.nextFireTime(null, previous, previous));
+        assertEquals(0, AlertScheduler.nextFireTime("FORTNIGHTLY", previous, previous));
+    }
+
+    @Test
+    public void dueRepeat_firesOnePeriodLater() {
+        long previous = at(2025, Calendar.JULY, 7, 8, 0);
+
+        assertEquals(at(2025, Calendar.JULY, 8, 8, 0),
+                AlertScheduler.nextFireTime(AlertScheduler.PATTERN_DAILY, previous, previous));
+        assertEquals(at(2025, Calendar.JULY, 14, 8, 0),
+                AlertScheduler.nextFireTime(" weekly ", previous, previous));
+        assertEquals(previous + HOUR,
+                AlertScheduler.nextFireTime(AlertScheduler.PATTERN_HOURLY, previous, previous));
+    }
+
+    @Test
+    public void missedRepeats_skipToNextFutureSlot() {
+        long previous = at(2025, Calendar.JULY, 1, 8, 0);
+        // The phone was off for ten days
+        long now = at(2025, Calendar.JULY, 11, 9, 30);
+
+        assertEquals(at(2025, Calendar.JULY, 12, 8, 0),
+                AlertScheduler.nextFireTime(AlertScheduler.PATTERN_DAILY, previous, now));
+        assertEquals(at(2025, Calendar.JULY, 11, 10, 0),
+                AlertScheduler.nextFireTime(AlertScheduler.PATTERN_HOURLY, previous, now));
+    }
+
+    @Test
+    public void monthly_keepsMonthEndWithoutDrift() {
+        long previous = at(2025, Calendar.JANUARY, 31, 8, 0);
+
+        long february = AlertScheduler.nextFireTime(AlertScheduler.PATTERN_MONTHLY, previous, previous);
+        assertEquals(at(2025, Calendar.FEBRUARY, 28, 8, 0), february);
+        // Stepping from the original day, not from 28 February
+        assertEquals(at(2025, Calendar.MARCH, 31, 8, 0),
+                AlertScheduler.nextFireTime(AlertScheduler.PATTERN_MONTHLY, previous, february));
+    }
+
+    @Test
+    public void daylightSavingChange_keepsLocalTimeOfDay() {
+        // Clocks go forward on 30 March 2025, so that day is 23 hours long
+        long previous = at(2025, Calendar.MARCH, 29, 8, 0);
+
+        long next = AlertScheduler.nextFireTime(AlertScheduler.PATTERN_DAILY, previous, previous);
+
+        assertEquals(at(2025, Calendar.MARCH, 30, 8, 0), next);
+        assertEquals(23 * HOUR, next - previous);
+    }
+
+    @Test
+    public void clockSetForward_firesAtNextSlotAfterNewTime() {
+        // TIME_SET: the user moved the clock three days and a bit ahead
+        long previous = at(2025, Calendar.JULY, 7, 8, 0);
+        long now = previous + 3 * 24 * HOUR + 5 * HOUR;
+
+        long next = AlertScheduler.nextFireTime(AlertScheduler.PATTERN_DAILY, previous, now);
+
+        assertEquals(at(2025, Calendar.JULY, 11, 8, 0), next);
+        assertTrue(next > now);
+        assertTrue(next - now <= 24 * HOUR);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.fowltyphoidmonitor.services.notification;
+
+import com.example.fowltyphoidmonitor.data.api.ApiClient;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.Alert;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertPriority;
+import com.example.fowltyphoidmonitor.services.notification.AlertManager.AlertType;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.http.Headers;
+import retrofit2.http.POST;
+
+import static org.junit.Assert.*;
+
+public class BroadcastFanoutTest {
+
+    /** Stand-in for the notifications table with its (alert_id, recipient_id) key */
+    private static class FakeServer implements BroadcastFanout.ChunkSender {
+        final Set<String> rows = Collections.synchronizedSet(new HashSet<>());
+        final List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+        final List<Long> attemptTimes = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> failures = Collections.synchronizedList(new ArrayList<>());
+        boolean loseFirstResponse;
+
+        @Override
+        public void send(List<Map<String, Object>> chunk) throws IOException, BroadcastFanout.HttpException {
+            attemptTimes.add(System.currentTimeMillis());
+            if (!failures.isEmpty()) {
+                throw new BroadcastFanout.HttpException(failures.remove(0));
+            }
+            chunkSizes.add(chunk.size());
+            for (Map<String, Object> row : chunk) {
+                // resolution=ignore-duplicates: a repeated key is skipped, not inserted again
+                rows.add(row.get("alert_id") + "|" + row.get("recipient_id"));
+            }
+            if (loseFirstResponse) {
+                loseFirstResponse = false;
+                throw new IOException("connection reset after insert");
+            }
+        }
+    }
+
+    private static class Result implements BroadcastFanout.ProgressListener {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile int delivered;
+        volatile int failed;
+
+        @Override
+        public void onChunkDone(int delivered, int failed) {
+        }
+
+        @Override
+        public void onComplete(int delivered, int failed) {
+            this.delivered = delivered;
+            this.failed = failed;
+            done.countDown();
+        }
+    }
+
+    private static List<String> recipients(int count) {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            recipients.add("user-" + i);
+        }
+        return recipients;
+    }
+
+    private static Alert alert() {
+        return new Alert("Tahadhari", "Homa ya matumbo ya kuku", AlertType.DISEASE_OUTBREAK, AlertPriority.HIGH);
+    }
+
+    @Test
+    public void send_splitsRecipientsIntoChunks() throws Exception {
+        FakeServer server = new FakeServer();
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        Result result = new Result();
+        Alert alert = alert();
+
+        new BroadcastFanout(server, workers).send(alert, recipients(1201), result);
+
+        assertTrue(result.done.await(10, TimeUnit.SECONDS));
+        workers.shutdown();
+        List<Integer> sizes = new ArrayList<>(server.chunkSizes);
+        Collections.sort(sizes);
+        assertEquals(Arrays.asList(201, 500, 500), sizes);
+        assertEquals(1201, server.rows.size());
+        assertTrue(server.rows.contains(alert.id + "|user-1200"));
+        assertEquals(1201, result.delivered);
+        assertEquals(0, result.failed);
+    }
+
+    @Test
+    public void send_retriesThrottledChunkWithBackoff() throws Exception {
+        FakeServer server = new FakeServer();
+        server.failures.addAll(Arrays.asList(429, 429));
+        Result result = new Result();
+
+        new BroadcastFanout(server, Runnable::run).send(alert(), recipients(10), result);
+
+        assertEquals(3, server.attemptTimes.size());
+        // Backoff doubles from 500 ms with up to half of it taken off as jitter
+        assertTrue(server.attemptTimes.get(1) - server.attemptTimes.get(0) >= 250);
+        assertTrue(server.attemptTimes.get(2) - server.attemptTimes.get(1) >= 500);
+        assertEquals(10, result.delivered);
+        assertEquals(0, result.failed);
+    }
+
+    @Test
+    public void send_doesNotRetryRejectedChunk() throws Exception {
+        FakeServer server = new FakeServer();
+        server.failures.add(403);
+        Result result = new Result();
+
+        new BroadcastFanout(server, Runnable::run).send(alert(), recipients(10), result);
+
+        assertEquals(1, server.attemptTimes.size());
+        assertEquals(0, result.delivered);
+        assertEquals(10, result.failed);
+    }
+
+    @Test
+    public void send_retryAfterLostResponseDeliversOnce() throws Exception {
+        FakeServer server = new FakeServer();
+        server.loseFirstResponse = true;
+        Result result = new Result();
+
+        new BroadcastFanout(server, Runnable::run).send(alert(), recipients(10), result);
+
+        assertEquals(2, server.attemptTimes.size());
+        assertEquals(10, server.rows.size());
+        assertEquals(10, result.delivered);
+    }
+
+    @Test
+    public void insertNotifications_ignoresDuplicateAlertRecipient() throws Exception {
+        Method insert = ApiClient.ApiService.class.getMethod("insertNotifications",
+                String.class, String.class, List.class);
+
+        assertTrue(insert.getAnnotation(POST.class).value().contains("on_conflict=alert_id,recipient_id"));
+        assertTrue(Arrays.toString(insert.getAnnotation(Headers.class).value())
+                .contains("resolution=ignore-duplicates"));
+    }
+}
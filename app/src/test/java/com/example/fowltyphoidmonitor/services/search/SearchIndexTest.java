@@ -0,0 +1,78 @@
+package com.example.fowltyphoidmonitor.services.search;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class SearchIndexTest {
+
+    /** A matchinfo('pcnalx') blob for one phrase over the title and body columns */
+    private static byte[] matchInfo(int totalDocs, int[] avgLengths, int[] rowLengths,
+                                    int[] hitsInRow, int[] docsWithHits) {
+        int columns = avgLengths.length;
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (3 + 2 * columns + 3 * columns))
+                .order(ByteOrder.nativeOrder());
+        buffer.putInt(1).putInt(columns).putInt(totalDocs);
+        for (int length : avgLengths) buffer.putInt(length);
+        for (int length : rowLengths) buffer.putInt(length);
+        for (int column = 0; column < columns; column++) {
+            buffer.putInt(hitsInRow[column]).putInt(hitsInRow[column] * 3).putInt(docsWithHits[column]);
+        }
+        return buffer.array();
+    }
+
+    @Test
+    public void buildMatchExpression_makesEveryTermAPrefix() {
+        assertEquals("kuku* wagonj*", SearchIndex.buildMatchExpression("Kuku Wagonj"));
+        assertEquals("homa* 2025*", SearchIndex.buildMatchExpression("  homa,2025 "));
+    }
+
+    @Test
+    public void buildMatchExpression_stripsQuotesAndOperators() {
+        // Quotes, '-', '*', '/' and brackets would be FTS syntax; lowercase "or" is a plain term
+        assertEquals("homa* or* kuku* near* 2* mafua*",
+                SearchIndex.buildMatchExpression("\"homa\" OR -kuku* NEAR/2 (mafua)"));
+    }
+
+    @Test
+    public void buildMatchExpression_emptyInputMatchesNothing() {
+        assertNull(SearchIndex.buildMatchExpression(null));
+        assertNull(SearchIndex.buildMatchExpression(""));
+        assertNull(SearchIndex.buildMatchExpression("  \"\" -*  "));
+    }
+
+    @Test
+    public void buildMatchExpression_capsTermCount() {
+        assertEquals("a* b* c* d* e* f* g* h*", SearchIndex.buildMatchExpression("a b c d e f g h i j"));
+    }
+
+    @Test
+    public void bm25_matchesHandComputedScore() {
+        byte[] info = matchInfo(10, new int[]{5, 20}, new int[]{5, 20}, new int[]{1, 0}, new int[]{2, 0});
+
+        // Row of average length, so tf = 1; title weight 2; idf = ln((10 - 2 + 0.5) / (2 + 0.5))
+        assertEquals(2 * Math.log(8.5 / 2.5), SearchIndex.bm25(info), 1e-9);
+    }
+
+    @Test
+    public void bm25_weighsTitleAboveBody() {
+        byte[] title = matchInfo(10, new int[]{5, 20}, new int[]{5, 20}, new int[]{1, 0}, new int[]{2, 0});
+        byte[] body = matchInfo(10, new int[]{5, 20}, new int[]{5, 20}, new int[]{0, 1}, new int[]{0, 2});
+
+        assertTrue(SearchIndex.bm25(title) > SearchIndex.bm25(body));
+    }
+
+    @Test
+    public void bm25_favoursShortRowsAndKeepsCommonTermsPositive() {
+        byte[] shortRow = matchInfo(10, new int[]{5, 20}, new int[]{5, 10}, new int[]{0, 1}, new int[]{0, 2});
+        byte[] longRow = matchInfo(10, new int[]{5, 20}, new int[]{5, 40}, new int[]{0, 1}, new int[]{0, 2});
+        byte[] everywhere = matchInfo(10, new int[]{5, 20}, new int[]{5, 20}, new int[]{0, 1}, new int[]{0, 10});
+
+        assertTrue(SearchIndex.bm25(shortRow) > SearchIndex.bm25(longRow));
+        // A term in every document still counts a little
+        assertEquals(0.01, SearchIndex.bm25(everywhere), 1e-9);
+    }
+}
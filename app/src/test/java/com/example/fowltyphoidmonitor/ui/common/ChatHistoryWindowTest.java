@@ -0,0 +1,92 @@
+package com.example.fowltyphoidmonitor.ui.common;
+
+import com.example.fowltyphoidmonitor.data.local.TestPages;
+import com.example.fowltyphoidmonitor.data.models.ConsultationMessage;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ChatHistoryWindowTest {
+    private static final int PAGE = ChatHistoryWindow.PAGE_SIZE;
+
+    /** A window holding the newest page, messages 1000 .. 1000 + PAGE - 1 */
+    private static ChatHistoryWindow atNewest() {
+        ChatHistoryWindow window = new ChatHistoryWindow();
+        window.reset(TestPages.page(1000, PAGE, false));
+        return window;
+    }
+
+    @Test
+    public void reset_assumesOlderHistoryOnServer() {
+        ChatHistoryWindow window = atNewest();
+
+        assertTrue(window.hasOlder());
+        assertFalse(window.hasNewer());
+        assertEquals("m1000", window.oldest().messageId);
+        assertEquals("m" + (1000 + PAGE - 1), window.newest().messageId);
+    }
+
+    @Test
+    public void prependOlder_dropsNewestPagePastLimit() {
+        ChatHistoryWindow window = atNewest();
+        for (int page = 1; page < ChatHistoryWindow.MAX_PAGES; page++) {
+            window.prependOlder(TestPages.page(1000 - page * PAGE, PAGE, true), true);
+        }
+        assertFalse(window.hasNewer());
+        assertEquals(ChatHistoryWindow.MAX_PAGES * PAGE, window.snapshot().size());
+
+        window.prependOlder(TestPages.page(1000 - ChatHistoryWindow.MAX_PAGES * PAGE, PAGE, false), false);
+
+        assertTrue(window.hasNewer());
+        assertFalse(window.hasOlder());
+        assertEquals(ChatHistoryWindow.MAX_PAGES * PAGE, window.snapshot().size());
+        assertEquals("m999", window.newest().messageId);
+        assertEquals("m" + (1000 - ChatHistoryWindow.MAX_PAGES * PAGE), window.oldest().messageId);
+    }
+
+    @Test
+    public void appendNewer_topsUpPartPageInsteadOfAddingPages() {
+        ChatHistoryWindow window = new ChatHistoryWindow();
+        window.reset(TestPages.page(0, 1, false));
+        for (int i = 1; i < PAGE; i++) {
+            window.appendNewer(TestPages.page(i, 1, false));
+        }
+        // Single messages filled one page, so three older pages still fit
+        for (int page = 1; page < ChatHistoryWindow.MAX_PAGES; page++) {
+            window.prependOlder(TestPages.page(-page * PAGE, PAGE, true), true);
+        }
+
+        assertFalse(window.hasNewer());
+        assertEquals(ChatHistoryWindow.MAX_PAGES * PAGE, window.snapshot().size());
+        assertEquals("m" + (PAGE - 1), window.newest().messageId);
+    }
+
+    @Test
+    public void appendNewer_dropsOldestPagePastLimit() {
+        ChatHistoryWindow window = atNewest();
+        for (int page = 1; page <= ChatHistoryWindow.MAX_PAGES; page++) {
+            window.appendNewer(TestPages.page(1000 + page * PAGE, PAGE, false));
+        }
+
+        List<ConsultationMessage> messages = window.snapshot();
+        assertEquals(ChatHistoryWindow.MAX_PAGES * PAGE, messages.size());
+        assertEquals("m" + (1000 + PAGE), messages.get(0).getId());
+        assertEquals("m" + (1000 + (ChatHistoryWindow.MAX_PAGES + 1) * PAGE - 1),
+                messages.get(messages.size() - 1).getId());
+        assertTrue(window.hasOlder());
+        assertFalse(window.hasNewer());
+    }
+
+    @Test
+    public void remove_dropsMessageFromWindow() {
+        ChatHistoryWindow window = atNewest();
+
+        assertTrue(window.remove("m1005"));
+        assertFalse(window.remove("m1005"));
+        assertFalse(window.remove("m5"));
+        assertEquals(PAGE - 1, window.snapshot().size());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class GeoHashTest {
+
+    @Test
+    public void encode_matchesReferenceHashes() {
+        assertEquals("ezs42", GeoHash.encode(42.6, -5.6, 5));
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+        // A longer hash of the same point extends the shorter one
+        assertTrue(GeoHash.encode(-6.7924, 39.2083, 7).startsWith(GeoHash.encode(-6.7924, 39.2083, 4)));
+    }
+
+    @Test
+    public void cellSize_matchesPrecision() {
+        // Precision 5 is about 4.9 x 4.9 km: 0.0439 by 0.0439 degrees
+        assertEquals(180.0 / 4096, GeoHash.cellHeight(5), 1e-12);
+        assertEquals(360.0 / 8192, GeoHash.cellWidth(5), 1e-12);
+    }
+
+    @Test
+    public void coveringCells_containEveryPointInTheCircle() {
+        double lat = -6.7924;
+        double lng = 39.2083;
+        double radiusKm = 10;
+        Set<String> cells = GeoHash.coveringCells(lat, lng, radiusKm, 5);
+
+        assertFalse(cells.isEmpty());
+        assertTrue(cells.size() <= 36);
+        int length = cells.iterator().next().length();
+        for (String cell : cells) {
+            assertEquals(length, cell.length());
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            double pointLat = lat + (random.nextDouble() * 2 - 1) * 0.1;
+            double pointLng = lng + (random.nextDouble() * 2 - 1) * 0.1;
+            if (GeoHash.distanceKm(lat, lng, pointLat, pointLng) > radiusKm) continue;
+            String hash = GeoHash.encode(pointLat, pointLng, 7);
+            assertTrue("Not covered: " + hash, cells.contains(hash.substring(0, length)));
+        }
+    }
+
+    @Test
+    public void coveringCells_coarsenForLargeRadius() {
+        Set<String> cells = GeoHash.coveringCells(-6.7924, 39.2083, 200, 5);
+
+        assertTrue(cells.size() <= 36);
+        assertTrue(cells.iterator().next().length() < 5);
+    }
+
+    @Test
+    public void distanceKm_isGreatCircle() {
+        assertEquals(0, GeoHash.distanceKm(-6.8, 39.28, -6.8, 39.28), 1e-9);
+        assertEquals(111.19, GeoHash.distanceKm(0, 0, 1, 0), 0.01);
+        assertEquals(GeoHash.distanceKm(-6.8, 39.28, -3.37, 36.68),
+                GeoHash.distanceKm(-3.37, 36.68, -6.8, 39.28), 1e-9);
+    }
+}
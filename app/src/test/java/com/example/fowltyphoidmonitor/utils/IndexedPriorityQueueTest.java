@@ -0,0 +1,102 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedPriorityQueueTest {
+
+    private static IndexedPriorityQueue<String, Integer> queue() {
+        return new IndexedPriorityQueue<>((a, b) -> Integer.compare(a, b));
+    }
+
+    @Test
+    public void poll_returnsSmallestFirst() {
+        IndexedPriorityQueue<String, Integer> queue = queue();
+        queue.put("c", 3);
+        queue.put("a", 1);
+        queue.put("d", 4);
+        queue.put("b", 2);
+
+        assertEquals("a", queue.peekKey());
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertEquals(Integer.valueOf(2), queue.poll());
+        assertEquals(Integer.valueOf(3), queue.poll());
+        assertEquals(Integer.valueOf(4), queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void put_movesExistingKeyBothWays() {
+        IndexedPriorityQueue<String, Integer> queue = queue();
+        queue.put("a", 10);
+        queue.put("b", 20);
+        queue.put("c", 30);
+
+        queue.put("c", 5);
+        assertEquals("c", queue.peekKey());
+        queue.put("c", 25);
+        assertEquals("a", queue.peekKey());
+        assertEquals(3, queue.size());
+        assertEquals(Integer.valueOf(25), queue.get("c"));
+    }
+
+    @Test
+    public void remove_dropsOnlyThatKey() {
+        IndexedPriorityQueue<String, Integer> queue = queue();
+        for (int i = 0; i < 10; i++) {
+            queue.put("k" + i, i);
+        }
+
+        assertEquals(Integer.valueOf(4), queue.remove("k4"));
+        assertNull(queue.remove("k4"));
+        assertFalse(queue.contains("k4"));
+        assertEquals(9, queue.size());
+
+        List<Integer> polled = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            polled.add(queue.poll());
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 5, 6, 7, 8, 9), polled);
+    }
+
+    @Test
+    public void randomOperations_matchSortedReference() {
+        Random random = new Random(42);
+        IndexedPriorityQueue<String, Integer> queue = queue();
+        Map<String, Integer> reference = new HashMap<>();
+
+        for (int step = 0; step < 5000; step++) {
+            String key = "k" + random.nextInt(200);
+            int operation = random.nextInt(3);
+            if (operation < 2) {
+                int value = random.nextInt(1000);
+                queue.put(key, value);
+                reference.put(key, value);
+            } else {
+                assertEquals(reference.remove(key), queue.remove(key));
+            }
+            assertEquals(reference.size(), queue.size());
+            if (!reference.isEmpty()) {
+                assertEquals(Collections.min(reference.values()), queue.peek());
+            }
+        }
+
+        List<Integer> expected = new ArrayList<>(reference.values());
+        Collections.sort(expected);
+        List<Integer> polled = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            polled.add(queue.poll());
+        }
+        assertEquals(expected, polled);
+    }
+}
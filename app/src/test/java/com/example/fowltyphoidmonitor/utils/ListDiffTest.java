@@ -0,0 +1,35 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ListDiffTest {
+
+    @Test
+    public void stableIds_followKeysAndNeverCollide() {
+        ListDiff.StableIds ids = new ListDiff.StableIds();
+
+        long first = ids.get("msg-1", new Object());
+        long second = ids.get("msg-2", new Object());
+
+        assertNotEquals(first, second);
+        // A new object for the same row, e.g. after a refresh, keeps the row's id
+        assertEquals(first, ids.get("msg-1", new Object()));
+        assertEquals(second, ids.get("msg-2", new Object()));
+    }
+
+    @Test
+    public void stableIds_trackUnkeyedItemsByIdentity() {
+        ListDiff.StableIds ids = new ListDiff.StableIds();
+        Object local = new Object();
+        Object other = new Object();
+
+        long id = ids.get(null, local);
+
+        assertEquals(id, ids.get(null, local));
+        assertNotEquals(id, ids.get(null, other));
+        // Once saved it has a key, and from then on a new id of its own
+        assertNotEquals(id, ids.get("msg-1", local));
+    }
+}
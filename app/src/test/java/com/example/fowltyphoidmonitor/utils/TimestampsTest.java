@@ -0,0 +1,39 @@
+package com.example.fowltyphoidmonitor.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimestampsTest {
+    @Test
+    public void parseMicros_ordersByTimeNotText() {
+        long plain = Timestamps.parseMicros("2025-07-07T00:00:00");
+        long withZone = Timestamps.parseMicros("2025-07-07T03:00:00+03:00");
+        long fraction = Timestamps.parseMicros("2025-07-07 00:00:00.5+00:00");
+
+        assertEquals(plain, withZone);
+        assertEquals(plain + 500_000, fraction);
+        // As text "2025-07-07 00:00:00.5" sorts before "2025-07-07T00:00:00"
+        assertTrue("2025-07-07 00:00:00.5+00:00".compareTo("2025-07-07T00:00:00") < 0);
+        assertTrue(fraction > plain);
+
+        assertEquals(-1, Timestamps.parseMicros(null));
+        assertEquals(-1, Timestamps.parseMicros("yesterday"));
+        assertEquals(-1, Timestamps.parseMicros("2025-13-40T00:00:00"));
+    }
+
+    @Test
+    public void formatMicros_isCanonicalAndParsesBack() {
+        long micros = Timestamps.parseMicros("2025-07-08T12:34:56.123456-02:00");
+        String formatted = Timestamps.formatMicros(micros);
+
+        assertEquals("2025-07-08T14:34:56.123456Z", formatted);
+        assertEquals(micros, Timestamps.parseMicros(formatted));
+    }
+
+    @Test
+    public void parseMillis_dropsMicroseconds() {
+        assertEquals(1751846400123L, Timestamps.parseMillis("2025-07-07T00:00:00.123999Z"));
+        assertEquals(-1, Timestamps.parseMillis(""));
+    }
+}
@@ -0,0 +1,6 @@
+-- Index disease_info by updated_at for knowledge pack delta pulls
+-- Migration: 20250707001_disease_info_delta_index
+
+-- Clients request rows with updated_at newer than their pack version
+CREATE INDEX IF NOT EXISTS idx_disease_info_updated_at
+    ON public.disease_info (updated_at);
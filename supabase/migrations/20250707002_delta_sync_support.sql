@@ -0,0 +1,58 @@
+-- Support incremental (watermark) sync of client-mirrored tables
+-- Migration: 20250707002_delta_sync_support
+
+-- Clients pull rows with (updated_at, primary key) past their last watermark,
+-- so every synced table needs an updated_at that moves on each write.
+
+CREATE OR REPLACE FUNCTION trigger_set_timestamp()
+RETURNS TRIGGER AS $$
+BEGIN
+  NEW.updated_at = NOW();
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- consultation_messages had no updated_at column
+ALTER TABLE public.consultation_messages
+ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ DEFAULT now();
+
+UPDATE public.consultation_messages
+SET updated_at = created_at
+WHERE updated_at IS NULL;
+
+-- Recreating the tables in 20250704001 dropped their timestamp triggers
+DROP TRIGGER IF EXISTS set_timestamp_farmers ON public.farmers;
+CREATE TRIGGER set_timestamp_farmers
+    BEFORE UPDATE ON public.farmers
+    FOR EACH ROW
+    EXECUTE PROCEDURE trigger_set_timestamp();
+
+DROP TRIGGER IF EXISTS set_timestamp_vets ON public.vets;
+CREATE TRIGGER set_timestamp_vets
+    BEFORE UPDATE ON public.vets
+    FOR EACH ROW
+    EXECUTE PROCEDURE trigger_set_timestamp();
+
+DROP TRIGGER IF EXISTS set_timestamp_consultations ON public.consultations;
+CREATE TRIGGER set_timestamp_consultations
+    BEFORE UPDATE ON public.consultations
+    FOR EACH ROW
+    EXECUTE PROCEDURE trigger_set_timestamp();
+
+DROP TRIGGER IF EXISTS set_timestamp_consultation_messages ON public.consultation_messages;
+CREATE TRIGGER set_timestamp_consultation_messages
+    BEFORE UPDATE ON public.consultation_messages
+    FOR EACH ROW
+    EXECUTE PROCEDURE trigger_set_timestamp();
+
+DROP TRIGGER IF EXISTS set_timestamp_symptoms_reports ON public.symptoms_reports;
+CREATE TRIGGER set_timestamp_symptoms_reports
+    BEFORE UPDATE ON public.symptoms_reports
+    FOR EACH ROW
+    EXECUTE PROCEDURE trigger_set_timestamp();
+
+-- Keyset indexes matching the sync query order, for the tables the app mirrors
+-- (SyncEngine.TABLES). Chat threads are fetched per consultation by created_at, and
+-- reports, reminders and vets are never read as whole lists, so none are mirrored.
+CREATE INDEX IF NOT EXISTS farmers_sync_idx ON public.farmers (updated_at, farmer_id);
+CREATE INDEX IF NOT EXISTS consultations_sync_idx ON public.consultations (updated_at, consultation_id);
@@ -0,0 +1,25 @@
+-- Client-generated ids for idempotent inserts
+-- Migration: 20250707003_client_id_idempotency
+
+-- The app sends a UUID with every insert and posts with
+-- on_conflict=client_id and resolution=ignore-duplicates, so a retried
+-- request after a lost response cannot create a second row.
+
+ALTER TABLE public.consultations
+ADD COLUMN IF NOT EXISTS client_id UUID;
+
+ALTER TABLE public.consultation_messages
+ADD COLUMN IF NOT EXISTS client_id UUID;
+
+ALTER TABLE public.symptoms_reports
+ADD COLUMN IF NOT EXISTS client_id UUID;
+
+-- on_conflict needs a unique index; NULLs stay allowed for older rows
+CREATE UNIQUE INDEX IF NOT EXISTS consultations_client_id_key
+    ON public.consultations (client_id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS consultation_messages_client_id_key
+    ON public.consultation_messages (client_id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS symptoms_reports_client_id_key
+    ON public.symptoms_reports (client_id);
@@ -0,0 +1,37 @@
+-- Per-recipient alert notifications written by the broadcast fan-out
+-- Migration: 20250707004_alert_notifications
+
+-- One row per (alert, recipient). The app inserts recipients in chunks with
+-- on_conflict=alert_id,recipient_id and resolution=ignore-duplicates, so a
+-- retried chunk cannot deliver the same alert twice.
+
+CREATE TABLE IF NOT EXISTS public.notifications (
+    notification_id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    alert_id UUID NOT NULL,
+    recipient_id TEXT NOT NULL,
+    title TEXT NOT NULL,
+    message TEXT NOT NULL,
+    alert_type TEXT,
+    priority TEXT,
+    created_at TIMESTAMPTZ DEFAULT now(),
+    read_at TIMESTAMPTZ,
+    CONSTRAINT notifications_alert_recipient_key UNIQUE (alert_id, recipient_id)
+);
+
+ALTER TABLE public.notifications ENABLE ROW LEVEL SECURITY;
+
+CREATE POLICY "Users can read their own notifications"
+    ON public.notifications FOR SELECT
+    USING (recipient_id = auth.uid()::text);
+
+CREATE POLICY "Users can mark their own notifications as read"
+    ON public.notifications FOR UPDATE
+    USING (recipient_id = auth.uid()::text);
+
+CREATE POLICY "Vets can send notifications"
+    ON public.notifications FOR INSERT
+    WITH CHECK (EXISTS (SELECT 1 FROM public.vets WHERE vets.user_id = auth.uid()));
+
+-- Inbox query: newest notifications of one recipient
+CREATE INDEX IF NOT EXISTS notifications_recipient_created_idx
+    ON public.notifications (recipient_id, created_at DESC);
@@ -0,0 +1,177 @@
+-- Daily report counts for the vet analytics screen
+-- Migration: 20250707005_report_analytics
+
+-- report_daily_stats holds one row per (day, source, area, status) with the number
+-- of symptom reports or consultations created that day (East Africa time) by farmers
+-- in that area. Triggers keep it current on every insert, delete, status change and
+-- farmer relocation, so analytics over years of data read a few thousand small rows
+-- instead of scanning the report tables.
+--
+-- Every change takes a new version from a sequence. The app mirrors the rows it has
+-- seen and asks report_daily_stats_changes for versions past its watermark, so a
+-- refresh only transfers the buckets that moved. Rows that drop to zero are kept,
+-- which is how a decrement reaches the app.
+
+CREATE SEQUENCE IF NOT EXISTS public.report_daily_stats_version_seq;
+
+CREATE TABLE IF NOT EXISTS public.report_daily_stats (
+    day DATE NOT NULL,
+    source TEXT NOT NULL,                 -- 'report' or 'consultation'
+    area TEXT NOT NULL,
+    status TEXT NOT NULL,
+    reports INT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT nextval('public.report_daily_stats_version_seq'),
+    PRIMARY KEY (day, source, area, status)
+);
+
+CREATE INDEX IF NOT EXISTS report_daily_stats_version_idx
+    ON public.report_daily_stats (version);
+
+-- The farmer relocation trigger regroups one farmer's rows by day
+CREATE INDEX IF NOT EXISTS symptoms_reports_farmer_created_idx
+    ON public.symptoms_reports (farmer_id, created_at);
+CREATE INDEX IF NOT EXISTS consultations_farmer_created_idx
+    ON public.consultations (farmer_id, created_at);
+
+ALTER TABLE public.report_daily_stats ENABLE ROW LEVEL SECURITY;
+
+DROP POLICY IF EXISTS "Vets can read report statistics" ON public.report_daily_stats;
+CREATE POLICY "Vets can read report statistics"
+    ON public.report_daily_stats FOR SELECT
+    USING (EXISTS (SELECT 1 FROM public.vets WHERE vets.user_id = auth.uid()));
+
+-- Day a row counts towards; the service area is Tanzania
+CREATE OR REPLACE FUNCTION public.report_local_day(p_created_at TIMESTAMPTZ)
+RETURNS DATE
+LANGUAGE sql IMMUTABLE
+AS $$
+    SELECT (p_created_at AT TIME ZONE 'Africa/Dar_es_Salaam')::date;
+$$;
+
+CREATE OR REPLACE FUNCTION public.report_area(p_location TEXT)
+RETURNS TEXT
+LANGUAGE sql IMMUTABLE
+AS $$
+    SELECT COALESCE(NULLIF(btrim(p_location), ''), 'Haijulikani');
+$$;
+
+CREATE OR REPLACE FUNCTION public.bump_report_daily_stats(
+    p_day DATE, p_source TEXT, p_area TEXT, p_status TEXT, p_delta INT)
+RETURNS VOID
+LANGUAGE sql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+    INSERT INTO public.report_daily_stats AS s (day, source, area, status, reports)
+    VALUES (p_day, p_source, p_area, COALESCE(upper(p_status), 'UNKNOWN'), p_delta)
+    ON CONFLICT (day, source, area, status)
+    DO UPDATE SET reports = s.reports + EXCLUDED.reports, version = EXCLUDED.version;
+$$;
+
+-- Row trigger for symptoms_reports and consultations; TG_ARGV[0] names the source.
+-- Deltas rather than recounts, so concurrent inserts on one day cannot lose a count.
+CREATE OR REPLACE FUNCTION public.track_report_daily_stats()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        IF OLD.status IS NOT DISTINCT FROM NEW.status
+                AND OLD.farmer_id = NEW.farmer_id
+                AND report_local_day(OLD.created_at) = report_local_day(NEW.created_at) THEN
+            RETURN NULL;
+        END IF;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM bump_report_daily_stats(report_local_day(OLD.created_at), TG_ARGV[0],
+            report_area((SELECT location FROM farmers WHERE farmer_id = OLD.farmer_id)),
+            OLD.status, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM bump_report_daily_stats(report_local_day(NEW.created_at), TG_ARGV[0],
+            report_area((SELECT location FROM farmers WHERE farmer_id = NEW.farmer_id)),
+            NEW.status, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- A farmer who changes location takes their counted rows to the new area
+CREATE OR REPLACE FUNCTION public.move_report_daily_stats()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+DECLARE
+    v_old TEXT := report_area(OLD.location);
+    v_new TEXT := report_area(NEW.location);
+    v_row RECORD;
+BEGIN
+    IF v_old = v_new THEN
+        RETURN NULL;
+    END IF;
+    FOR v_row IN
+        SELECT report_local_day(created_at) AS day, 'report' AS source, status, count(*)::int AS n
+        FROM symptoms_reports WHERE farmer_id = NEW.farmer_id GROUP BY 1, 2, 3
+        UNION ALL
+        SELECT report_local_day(created_at), 'consultation', status, count(*)::int
+        FROM consultations WHERE farmer_id = NEW.farmer_id GROUP BY 1, 2, 3
+    LOOP
+        PERFORM bump_report_daily_stats(v_row.day, v_row.source, v_old, v_row.status, -v_row.n);
+        PERFORM bump_report_daily_stats(v_row.day, v_row.source, v_new, v_row.status, v_row.n);
+    END LOOP;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS symptoms_reports_daily_stats ON public.symptoms_reports;
+CREATE TRIGGER symptoms_reports_daily_stats
+    AFTER INSERT OR DELETE OR UPDATE OF status, farmer_id, created_at ON public.symptoms_reports
+    FOR EACH ROW EXECUTE FUNCTION public.track_report_daily_stats('report');
+
+DROP TRIGGER IF EXISTS consultations_daily_stats ON public.consultations;
+CREATE TRIGGER consultations_daily_stats
+    AFTER INSERT OR DELETE OR UPDATE OF status, farmer_id, created_at ON public.consultations
+    FOR EACH ROW EXECUTE FUNCTION public.track_report_daily_stats('consultation');
+
+DROP TRIGGER IF EXISTS farmers_move_daily_stats ON public.farmers;
+CREATE TRIGGER farmers_move_daily_stats
+    AFTER UPDATE OF location ON public.farmers
+    FOR EACH ROW EXECUTE FUNCTION public.move_report_daily_stats();
+
+-- Backfill from the existing rows; absolute counts, so running it again is harmless
+INSERT INTO public.report_daily_stats AS s (day, source, area, status, reports)
+SELECT day, source, area, status, count(*)::int
+FROM (
+    SELECT report_local_day(r.created_at) AS day, 'report' AS source,
+           report_area(f.location) AS area, COALESCE(upper(r.status), 'UNKNOWN') AS status
+    FROM public.symptoms_reports r
+    LEFT JOIN public.farmers f ON f.farmer_id = r.farmer_id
+    UNION ALL
+    SELECT report_local_day(c.created_at), 'consultation',
+           report_area(f.location), COALESCE(upper(c.status), 'UNKNOWN')
+    FROM public.consultations c
+    LEFT JOIN public.farmers f ON f.farmer_id = c.farmer_id
+) counted
+GROUP BY day, source, area, status
+ON CONFLICT (day, source, area, status)
+DO UPDATE SET reports = EXCLUDED.reports, version = EXCLUDED.version;
+
+-- Buckets of the day range changed after version p_after, one page in version
+-- order. The caller passes the last version of a page to get the next one.
+CREATE OR REPLACE FUNCTION public.report_daily_stats_changes(
+    p_from DATE, p_to DATE, p_after BIGINT DEFAULT 0, p_limit INT DEFAULT 1000)
+RETURNS SETOF public.report_daily_stats
+LANGUAGE sql STABLE
+AS $$
+    SELECT * FROM public.report_daily_stats
+    WHERE day BETWEEN p_from AND p_to AND version > p_after
+    ORDER BY version
+    LIMIT LEAST(p_limit, 1000);
+$$;
+
+GRANT EXECUTE ON FUNCTION public.report_daily_stats_changes(DATE, DATE, BIGINT, INT) TO authenticated;
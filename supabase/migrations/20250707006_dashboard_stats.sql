@@ -0,0 +1,243 @@
+-- Dashboard statistics as one conditional call
+-- Migration: 20250707006_dashboard_stats
+
+-- The admin dashboard polls these figures. Instead of counting the tables on every
+-- poll, triggers keep the totals in dashboard_counters and the sign-ups per day in
+-- dashboard_signups; every change stamps the row with a new version.
+--
+-- dashboard_stats() returns all figures as one JSON snapshot read in one statement,
+-- with an ETag built from the newest version and today's date. A client that sends
+-- the ETag back in If-None-Match gets 304 and an empty body while nothing changed.
+
+CREATE SEQUENCE IF NOT EXISTS public.dashboard_stats_version_seq;
+
+CREATE TABLE IF NOT EXISTS public.dashboard_counters (
+    name TEXT PRIMARY KEY,
+    value BIGINT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT nextval('public.dashboard_stats_version_seq')
+);
+
+CREATE TABLE IF NOT EXISTS public.dashboard_signups (
+    day DATE PRIMARY KEY,
+    users INT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT nextval('public.dashboard_stats_version_seq')
+);
+
+-- Only the functions below touch these tables
+ALTER TABLE public.dashboard_counters ENABLE ROW LEVEL SECURITY;
+ALTER TABLE public.dashboard_signups ENABLE ROW LEVEL SECURITY;
+
+-- Severity was captured by the report form but had no column to land in
+ALTER TABLE public.symptoms_reports ADD COLUMN IF NOT EXISTS severity TEXT;
+
+-- Same closed statuses as the analytics screen
+CREATE OR REPLACE FUNCTION public.report_is_open(p_status TEXT)
+RETURNS BOOLEAN
+LANGUAGE sql IMMUTABLE
+AS $$
+    SELECT COALESCE(upper(p_status), 'OPEN')
+        NOT IN ('RESOLVED', 'CLOSED', 'COMPLETED', 'ANSWERED', 'CANCELLED', 'REJECTED');
+$$;
+
+-- 'Hatari' is the report form's Swahili label for critical
+CREATE OR REPLACE FUNCTION public.report_is_critical(p_status TEXT, p_severity TEXT)
+RETURNS BOOLEAN
+LANGUAGE sql IMMUTABLE
+AS $$
+    SELECT report_is_open(p_status) AND COALESCE(upper(p_severity), '') IN ('CRITICAL', 'HATARI');
+$$;
+
+CREATE OR REPLACE FUNCTION public.bump_dashboard_counter(p_name TEXT, p_delta BIGINT)
+RETURNS VOID
+LANGUAGE sql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+    INSERT INTO public.dashboard_counters AS c (name, value)
+    VALUES (p_name, p_delta)
+    ON CONFLICT (name)
+    DO UPDATE SET value = c.value + EXCLUDED.value, version = EXCLUDED.version;
+$$;
+
+CREATE OR REPLACE FUNCTION public.bump_dashboard_signups(p_created_at TIMESTAMPTZ, p_delta INT)
+RETURNS VOID
+LANGUAGE sql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+    INSERT INTO public.dashboard_signups AS s (day, users)
+    VALUES (report_local_day(COALESCE(p_created_at, now())), p_delta)
+    ON CONFLICT (day)
+    DO UPDATE SET users = s.users + EXCLUDED.users, version = EXCLUDED.version;
+$$;
+
+-- Farmers and vets: sign-ups per day; farmers also the farmer total
+CREATE OR REPLACE FUNCTION public.track_dashboard_users()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM bump_dashboard_signups(NEW.created_at, 1);
+        IF TG_TABLE_NAME = 'farmers' THEN
+            PERFORM bump_dashboard_counter('total_farmers', 1);
+        END IF;
+    ELSE
+        PERFORM bump_dashboard_signups(OLD.created_at, -1);
+        IF TG_TABLE_NAME = 'farmers' THEN
+            PERFORM bump_dashboard_counter('total_farmers', -1);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.track_dashboard_reports()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+DECLARE
+    v_open INT := 0;
+    v_critical INT := 0;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        v_open := v_open - report_is_open(OLD.status)::int;
+        v_critical := v_critical - report_is_critical(OLD.status, OLD.severity)::int;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        v_open := v_open + report_is_open(NEW.status)::int;
+        v_critical := v_critical + report_is_critical(NEW.status, NEW.severity)::int;
+    END IF;
+    IF v_open <> 0 THEN
+        PERFORM bump_dashboard_counter('active_reports', v_open);
+    END IF;
+    IF v_critical <> 0 THEN
+        PERFORM bump_dashboard_counter('critical_reports', v_critical);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.track_dashboard_consultations()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+DECLARE
+    v_pending INT := 0;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        v_pending := v_pending - COALESCE(upper(OLD.status) = 'PENDING', false)::int;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        v_pending := v_pending + COALESCE(upper(NEW.status) = 'PENDING', false)::int;
+    END IF;
+    IF v_pending <> 0 THEN
+        PERFORM bump_dashboard_counter('pending_consultations', v_pending);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS farmers_dashboard_stats ON public.farmers;
+CREATE TRIGGER farmers_dashboard_stats
+    AFTER INSERT OR DELETE ON public.farmers
+    FOR EACH ROW EXECUTE FUNCTION public.track_dashboard_users();
+
+DROP TRIGGER IF EXISTS vets_dashboard_stats ON public.vets;
+CREATE TRIGGER vets_dashboard_stats
+    AFTER INSERT OR DELETE ON public.vets
+    FOR EACH ROW EXECUTE FUNCTION public.track_dashboard_users();
+
+DROP TRIGGER IF EXISTS symptoms_reports_dashboard_stats ON public.symptoms_reports;
+CREATE TRIGGER symptoms_reports_dashboard_stats
+    AFTER INSERT OR DELETE OR UPDATE OF status, severity ON public.symptoms_reports
+    FOR EACH ROW EXECUTE FUNCTION public.track_dashboard_reports();
+
+DROP TRIGGER IF EXISTS consultations_dashboard_stats ON public.consultations;
+CREATE TRIGGER consultations_dashboard_stats
+    AFTER INSERT OR DELETE OR UPDATE OF status ON public.consultations
+    FOR EACH ROW EXECUTE FUNCTION public.track_dashboard_consultations();
+
+-- Backfill with absolute values, so running it again is harmless
+INSERT INTO public.dashboard_counters AS c (name, value)
+VALUES
+    ('total_farmers', (SELECT count(*) FROM public.farmers)),
+    ('active_reports', (SELECT count(*) FROM public.symptoms_reports WHERE report_is_open(status))),
+    ('critical_reports', (SELECT count(*) FROM public.symptoms_reports
+                          WHERE report_is_critical(status, severity))),
+    ('pending_consultations', (SELECT count(*) FROM public.consultations
+                               WHERE upper(status) = 'PENDING'))
+ON CONFLICT (name)
+DO UPDATE SET value = EXCLUDED.value, version = EXCLUDED.version;
+
+INSERT INTO public.dashboard_signups AS s (day, users)
+SELECT report_local_day(created_at), count(*)::int
+FROM (
+    SELECT created_at FROM public.farmers
+    UNION ALL
+    SELECT created_at FROM public.vets
+) users
+GROUP BY 1
+ON CONFLICT (day)
+DO UPDATE SET users = EXCLUDED.users, version = EXCLUDED.version;
+
+-- The snapshot for vets. STABLE, so PostgREST serves it on GET.
+CREATE OR REPLACE FUNCTION public.dashboard_stats()
+RETURNS JSON
+LANGUAGE plpgsql STABLE
+SECURITY DEFINER
+SET search_path = public
+AS $$
+DECLARE
+    v_today DATE := report_local_day(now());
+    v_stats JSON;
+    v_version BIGINT;
+    v_etag TEXT;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM vets WHERE user_id = auth.uid()) THEN
+        RAISE EXCEPTION 'Only vets can read dashboard statistics' USING ERRCODE = '42501';
+    END IF;
+
+    -- One statement, so every figure comes from the same snapshot
+    WITH c AS (
+        SELECT COALESCE(max(value) FILTER (WHERE name = 'total_farmers'), 0) AS total_farmers,
+               COALESCE(max(value) FILTER (WHERE name = 'active_reports'), 0) AS active_reports,
+               COALESCE(max(value) FILTER (WHERE name = 'critical_reports'), 0) AS critical_reports,
+               COALESCE(max(value) FILTER (WHERE name = 'pending_consultations'), 0) AS pending_consultations,
+               COALESCE(max(version), 0) AS version
+        FROM dashboard_counters
+    ), s AS (
+        SELECT COALESCE(max(users), 0) AS users, COALESCE(max(version), 0) AS version
+        FROM dashboard_signups WHERE day = v_today
+    )
+    SELECT json_build_object(
+               'total_farmers', c.total_farmers,
+               'active_reports', c.active_reports,
+               'critical_reports', c.critical_reports,
+               'pending_consultations', c.pending_consultations,
+               'new_users_today', s.users,
+               'version', GREATEST(c.version, s.version),
+               'as_of', now()),
+           GREATEST(c.version, s.version)
+    INTO v_stats, v_version
+    FROM c, s;
+
+    -- The date is part of the tag because new_users_today resets at midnight
+    v_etag := '"' || v_version || '-' || to_char(v_today, 'YYYYMMDD') || '"';
+    PERFORM set_config('response.headers',
+        json_build_array(json_build_object('ETag', v_etag, 'Cache-Control', 'no-cache'))::text, true);
+    IF current_setting('request.headers', true)::json ->> 'if-none-match' = v_etag THEN
+        PERFORM set_config('response.status', '304', true);
+        RETURN NULL;
+    END IF;
+    RETURN v_stats;
+END;
+$$;
+
+GRANT EXECUTE ON FUNCTION public.dashboard_stats() TO authenticated;
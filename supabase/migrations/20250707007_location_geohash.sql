@@ -0,0 +1,204 @@
+-- Geohash index of farms and vets
+-- Migration: 20250707007_location_geohash
+
+-- The app geocodes a farmer's location text and stores the coordinates; vets get the
+-- same columns for when their profile carries a location.
+-- A trigger derives a precision 7 geohash (about 150 m) from them. Points that are
+-- close share a geohash prefix, so "within 10 km" becomes a range scan for each of
+-- a few dozen prefixes on one btree index instead of a scan of every farm. The
+-- column uses the C collation so prefixes sort as plain bytes.
+
+ALTER TABLE public.farmers ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE public.farmers ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+ALTER TABLE public.farmers ADD COLUMN IF NOT EXISTS geohash TEXT COLLATE "C";
+
+ALTER TABLE public.vets ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE public.vets ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+ALTER TABLE public.vets ADD COLUMN IF NOT EXISTS geohash TEXT COLLATE "C";
+
+CREATE INDEX IF NOT EXISTS farmers_geohash_idx ON public.farmers (geohash);
+CREATE INDEX IF NOT EXISTS vets_geohash_idx ON public.vets (geohash);
+
+CREATE OR REPLACE FUNCTION public.geohash_encode(p_lat DOUBLE PRECISION, p_lng DOUBLE PRECISION,
+                                                 p_precision INT DEFAULT 7)
+RETURNS TEXT
+LANGUAGE plpgsql IMMUTABLE
+AS $$
+DECLARE
+    v_base32 CONSTANT TEXT := '0123456789bcdefghjkmnpqrstuvwxyz';
+    v_min_lat DOUBLE PRECISION := -90;
+    v_max_lat DOUBLE PRECISION := 90;
+    v_min_lng DOUBLE PRECISION := -180;
+    v_max_lng DOUBLE PRECISION := 180;
+    v_mid DOUBLE PRECISION;
+    v_lng_bit BOOLEAN := true;
+    v_bits INT := 0;
+    v_value INT := 0;
+    v_hash TEXT := '';
+BEGIN
+    IF p_lat IS NULL OR p_lng IS NULL THEN
+        RETURN NULL;
+    END IF;
+    WHILE length(v_hash) < p_precision LOOP
+        IF v_lng_bit THEN
+            v_mid := (v_min_lng + v_max_lng) / 2;
+            IF p_lng >= v_mid THEN
+                v_value := v_value * 2 + 1;
+                v_min_lng := v_mid;
+            ELSE
+                v_value := v_value * 2;
+                v_max_lng := v_mid;
+            END IF;
+        ELSE
+            v_mid := (v_min_lat + v_max_lat) / 2;
+            IF p_lat >= v_mid THEN
+                v_value := v_value * 2 + 1;
+                v_min_lat := v_mid;
+            ELSE
+                v_value := v_value * 2;
+                v_max_lat := v_mid;
+            END IF;
+        END IF;
+        v_lng_bit := NOT v_lng_bit;
+        v_bits := v_bits + 1;
+        IF v_bits = 5 THEN
+            v_hash := v_hash || substr(v_base32, v_value + 1, 1);
+            v_bits := 0;
+            v_value := 0;
+        END IF;
+    END LOOP;
+    RETURN v_hash;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.set_geohash()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.geohash := geohash_encode(NEW.latitude, NEW.longitude, 7);
+    RETURN NEW;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS farmers_set_geohash ON public.farmers;
+CREATE TRIGGER farmers_set_geohash
+    BEFORE INSERT OR UPDATE OF latitude, longitude ON public.farmers
+    FOR EACH ROW EXECUTE FUNCTION public.set_geohash();
+
+DROP TRIGGER IF EXISTS vets_set_geohash ON public.vets;
+CREATE TRIGGER vets_set_geohash
+    BEFORE INSERT OR UPDATE OF latitude, longitude ON public.vets
+    FOR EACH ROW EXECUTE FUNCTION public.set_geohash();
+
+-- Rows that already have coordinates
+UPDATE public.farmers SET geohash = geohash_encode(latitude, longitude, 7)
+WHERE latitude IS NOT NULL AND longitude IS NOT NULL AND geohash IS NULL;
+UPDATE public.vets SET geohash = geohash_encode(latitude, longitude, 7)
+WHERE latitude IS NOT NULL AND longitude IS NOT NULL AND geohash IS NULL;
+
+-- Prefixes that cover the circle, at the finest precision up to 5 that needs no more
+-- than 36 of them; the same cells as GeoHash.coveringCells in the app
+CREATE OR REPLACE FUNCTION public.geohash_cover(p_lat DOUBLE PRECISION, p_lng DOUBLE PRECISION,
+                                               p_radius_km DOUBLE PRECISION)
+RETURNS SETOF TEXT
+LANGUAGE plpgsql IMMUTABLE
+AS $$
+DECLARE
+    v_lat_delta DOUBLE PRECISION := p_radius_km / 111.32;
+    v_lng_delta DOUBLE PRECISION := p_radius_km / (111.32 * GREATEST(0.01, cos(radians(p_lat))));
+    v_min_lat DOUBLE PRECISION := GREATEST(-90, p_lat - v_lat_delta);
+    v_max_lat DOUBLE PRECISION := LEAST(90, p_lat + v_lat_delta);
+    v_min_lng DOUBLE PRECISION := GREATEST(-180, p_lng - v_lng_delta);
+    v_max_lng DOUBLE PRECISION := LEAST(180, p_lng + v_lng_delta);
+    v_precision INT := 5;
+    v_height DOUBLE PRECISION;
+    v_width DOUBLE PRECISION;
+    v_lat DOUBLE PRECISION;
+    v_lng DOUBLE PRECISION;
+BEGIN
+    LOOP
+        v_height := 180.0 / (2 ^ ((5 * v_precision) / 2));
+        v_width := 360.0 / (2 ^ ((5 * v_precision + 1) / 2));
+        EXIT WHEN v_precision = 1
+            OR (ceil((v_max_lat - v_min_lat) / v_height) + 1)
+               * (ceil((v_max_lng - v_min_lng) / v_width) + 1) <= 36;
+        v_precision := v_precision - 1;
+    END LOOP;
+
+    v_lat := v_min_lat;
+    LOOP
+        v_lng := v_min_lng;
+        LOOP
+            RETURN NEXT geohash_encode(v_lat, v_lng, v_precision);
+            EXIT WHEN v_lng >= v_max_lng;
+            v_lng := LEAST(v_max_lng, v_lng + v_width);
+        END LOOP;
+        EXIT WHEN v_lat >= v_max_lat;
+        v_lat := LEAST(v_max_lat, v_lat + v_height);
+    END LOOP;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.geo_distance_km(p_lat1 DOUBLE PRECISION, p_lng1 DOUBLE PRECISION,
+                                             p_lat2 DOUBLE PRECISION, p_lng2 DOUBLE PRECISION)
+RETURNS DOUBLE PRECISION
+LANGUAGE sql IMMUTABLE
+AS $$
+    SELECT 2 * 6371.0 * asin(sqrt(
+        sin(radians(p_lat2 - p_lat1) / 2) ^ 2
+        + cos(radians(p_lat1)) * cos(radians(p_lat2)) * sin(radians(p_lng2 - p_lng1) / 2) ^ 2));
+$$;
+
+-- Farmers and vets within the radius, nearest first; vets have no location text.
+-- Vets only: it exposes where farms are. Each covering prefix is one index range; '~' sorts after every
+-- geohash character.
+CREATE OR REPLACE FUNCTION public.users_near(p_lat DOUBLE PRECISION, p_lng DOUBLE PRECISION,
+                                            p_radius_km DOUBLE PRECISION)
+RETURNS TABLE (user_id UUID, role TEXT, location TEXT, distance_km DOUBLE PRECISION)
+LANGUAGE plpgsql STABLE
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM vets v WHERE v.user_id = auth.uid()) THEN
+        RAISE EXCEPTION 'Only vets can look up nearby users' USING ERRCODE = '42501';
+    END IF;
+
+    RETURN QUERY
+    WITH cells AS (
+        SELECT DISTINCT cell FROM geohash_cover(p_lat, p_lng, p_radius_km) AS cell
+    ), candidates AS (
+        SELECT f.user_id, 'farmer'::text AS role, f.location, f.latitude, f.longitude
+        FROM cells c
+        JOIN farmers f ON f.geohash >= c.cell AND f.geohash < c.cell || '~'
+        UNION ALL
+        SELECT v.user_id, 'vet'::text, NULL::text, v.latitude, v.longitude
+        FROM cells c
+        JOIN vets v ON v.geohash >= c.cell AND v.geohash < c.cell || '~'
+    )
+    SELECT c.user_id, c.role, c.location, geo_distance_km(p_lat, p_lng, c.latitude, c.longitude) AS d
+    FROM candidates c
+    WHERE geo_distance_km(p_lat, p_lng, c.latitude, c.longitude) <= p_radius_km
+    ORDER BY d;
+END;
+$$;
+
+GRANT EXECUTE ON FUNCTION public.users_near(DOUBLE PRECISION, DOUBLE PRECISION, DOUBLE PRECISION) TO authenticated;
+
+-- Farms per cell, for maps and per-area counts; p_precision 1 to 7
+CREATE OR REPLACE FUNCTION public.farms_per_cell(p_precision INT DEFAULT 4)
+RETURNS TABLE (cell TEXT, farms BIGINT)
+LANGUAGE sql STABLE
+SECURITY DEFINER
+SET search_path = public
+AS $$
+    SELECT left(geohash, p_precision), count(*)
+    FROM farmers
+    WHERE geohash IS NOT NULL
+      AND EXISTS (SELECT 1 FROM vets WHERE vets.user_id = auth.uid())
+    GROUP BY 1
+    ORDER BY 1;
+$$;
+
+GRANT EXECUTE ON FUNCTION public.farms_per_cell(INT) TO authenticated;
@@ -0,0 +1,139 @@
+-- Consultation triage: SLA deadlines, vet presence and safe assignment
+-- Migration: 20250707008_consultation_triage
+
+-- Every consultation gets an SLA deadline from its urgency when it is created. The
+-- app's triage scheduler serves open consultations earliest deadline first and
+-- assigns each to an online vet by specialization and load. Several vets' devices
+-- may run the scheduler at once, so an assignment is a compare-and-set: it only
+-- applies if the consultation still has the vet the scheduler saw. A vet counts as
+-- online while their app has checked in within the last 45 minutes; cases assigned
+-- to a vet who went offline without answering return to the queue.
+
+ALTER TABLE public.consultations ADD COLUMN IF NOT EXISTS sla_deadline TIMESTAMPTZ;
+ALTER TABLE public.consultations ADD COLUMN IF NOT EXISTS assigned_at TIMESTAMPTZ;
+ALTER TABLE public.consultations ADD COLUMN IF NOT EXISTS specialization TEXT;
+ALTER TABLE public.vets ADD COLUMN IF NOT EXISTS last_seen_at TIMESTAMPTZ;
+
+-- English values from the API, Swahili ones from the request form
+CREATE OR REPLACE FUNCTION public.consultation_urgency_level(p_urgency TEXT)
+RETURNS INT
+LANGUAGE sql IMMUTABLE
+AS $$
+    SELECT CASE lower(btrim(COALESCE(p_urgency, '')))
+        WHEN 'urgent' THEN 4 WHEN 'emergency' THEN 4 WHEN 'dharura' THEN 4 WHEN 'haraka sana' THEN 4
+        WHEN 'high' THEN 3 WHEN 'juu' THEN 3 WHEN 'haraka' THEN 3
+        WHEN 'low' THEN 1 WHEN 'chini' THEN 1
+        ELSE 2
+    END;
+$$;
+
+-- Keep in step with TriageScheduler.slaMillis in the app
+CREATE OR REPLACE FUNCTION public.consultation_sla(p_urgency TEXT)
+RETURNS INTERVAL
+LANGUAGE sql IMMUTABLE
+AS $$
+    SELECT CASE consultation_urgency_level(p_urgency)
+        WHEN 4 THEN interval '2 hours'
+        WHEN 3 THEN interval '6 hours'
+        WHEN 1 THEN interval '72 hours'
+        ELSE interval '24 hours'
+    END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.set_consultation_sla()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.sla_deadline := COALESCE(NEW.created_at, now()) + consultation_sla(NEW.urgency);
+    RETURN NEW;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS consultations_set_sla ON public.consultations;
+CREATE TRIGGER consultations_set_sla
+    BEFORE INSERT OR UPDATE OF urgency, created_at ON public.consultations
+    FOR EACH ROW EXECUTE FUNCTION public.set_consultation_sla();
+
+UPDATE public.consultations
+SET sla_deadline = COALESCE(created_at, now()) + consultation_sla(urgency)
+WHERE sla_deadline IS NULL;
+
+-- Open consultations are PENDING (waiting for a vet) or CONFIRMED (assigned, unanswered)
+CREATE INDEX IF NOT EXISTS consultations_open_sla_idx
+    ON public.consultations (sla_deadline)
+    WHERE upper(status) IN ('PENDING', 'CONFIRMED');
+
+CREATE OR REPLACE FUNCTION public.vet_heartbeat()
+RETURNS VOID
+LANGUAGE sql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+    UPDATE vets SET last_seen_at = now() WHERE user_id = auth.uid();
+$$;
+
+-- Open consultations and vets in one snapshot; times are epoch milliseconds
+CREATE OR REPLACE FUNCTION public.triage_snapshot()
+RETURNS JSON
+LANGUAGE plpgsql STABLE
+SECURITY DEFINER
+SET search_path = public
+AS $$
+DECLARE
+    v_snapshot JSON;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM vets WHERE user_id = auth.uid()) THEN
+        RAISE EXCEPTION 'Only vets can read the triage queue' USING ERRCODE = '42501';
+    END IF;
+
+    SELECT json_build_object(
+        'consultations', COALESCE((
+            SELECT json_agg(json_build_object(
+                'id', c.consultation_id,
+                'urgency', consultation_urgency_level(c.urgency),
+                'created_at', (extract(epoch FROM COALESCE(c.created_at, now())) * 1000)::bigint,
+                'sla_deadline', (extract(epoch FROM c.sla_deadline) * 1000)::bigint,
+                'specialization', c.specialization,
+                'vet_id', c.vet_id,
+                'assigned_at', (extract(epoch FROM c.assigned_at) * 1000)::bigint))
+            FROM consultations c
+            WHERE upper(c.status) IN ('PENDING', 'CONFIRMED')), '[]'::json),
+        'vets', COALESCE((
+            SELECT json_agg(json_build_object(
+                'id', v.vet_id,
+                'specialization', v.specialization,
+                'online', COALESCE(v.available, true)
+                          AND v.last_seen_at > now() - interval '45 minutes'))
+            FROM vets v), '[]'::json),
+        'now', (extract(epoch FROM now()) * 1000)::bigint)
+    INTO v_snapshot;
+    RETURN v_snapshot;
+END;
+$$;
+
+-- Assign if the consultation still has p_expected_vet (NULL for unassigned) and is open
+CREATE OR REPLACE FUNCTION public.claim_consultation(p_consultation_id UUID, p_vet_id UUID,
+                                                     p_expected_vet UUID DEFAULT NULL)
+RETURNS BOOLEAN
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM vets WHERE user_id = auth.uid()) THEN
+        RAISE EXCEPTION 'Only vets can assign consultations' USING ERRCODE = '42501';
+    END IF;
+
+    UPDATE consultations
+    SET vet_id = p_vet_id, status = 'CONFIRMED', assigned_at = now(), updated_at = now()
+    WHERE consultation_id = p_consultation_id
+      AND vet_id IS NOT DISTINCT FROM p_expected_vet
+      AND upper(status) IN ('PENDING', 'CONFIRMED');
+    RETURN FOUND;
+END;
+$$;
+
+GRANT EXECUTE ON FUNCTION public.vet_heartbeat() TO authenticated;
+GRANT EXECUTE ON FUNCTION public.triage_snapshot() TO authenticated;
+GRANT EXECUTE ON FUNCTION public.claim_consultation(UUID, UUID, UUID) TO authenticated;
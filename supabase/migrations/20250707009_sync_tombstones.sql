@@ -0,0 +1,69 @@
+-- Tombstones for deleted rows of client-mirrored tables
+-- Migration: 20250707009_sync_tombstones
+
+-- The sync engine pulls rows past an updated_at watermark, which never shows a
+-- deletion. Every delete on a mirrored table now leaves a tombstone. Clients pull
+-- the tombstones past their own watermark and drop those rows from their mirror.
+-- The vet inbox reads consultations and farmer names from the mirror, so vets also
+-- need read access to both tables.
+
+CREATE TABLE IF NOT EXISTS public.sync_tombstones (
+    tombstone_id BIGSERIAL PRIMARY KEY,
+    table_name TEXT NOT NULL,
+    row_id TEXT NOT NULL,
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Keyset index matching the sync query order
+CREATE INDEX IF NOT EXISTS sync_tombstones_sync_idx
+    ON public.sync_tombstones (deleted_at, tombstone_id);
+
+ALTER TABLE public.sync_tombstones ENABLE ROW LEVEL SECURITY;
+
+-- Only ids, and only of rows that are gone
+DROP POLICY IF EXISTS "Signed-in users can read tombstones" ON public.sync_tombstones;
+CREATE POLICY "Signed-in users can read tombstones"
+    ON public.sync_tombstones FOR SELECT
+    TO authenticated
+    USING (true);
+
+-- TG_ARGV[0] names the primary key column
+CREATE OR REPLACE FUNCTION public.record_sync_tombstone()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+    INSERT INTO sync_tombstones (table_name, row_id)
+    VALUES (TG_TABLE_NAME, to_jsonb(OLD) ->> TG_ARGV[0]);
+    RETURN OLD;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS farmers_sync_tombstone ON public.farmers;
+CREATE TRIGGER farmers_sync_tombstone
+    AFTER DELETE ON public.farmers
+    FOR EACH ROW EXECUTE FUNCTION public.record_sync_tombstone('farmer_id');
+
+DROP TRIGGER IF EXISTS consultations_sync_tombstone ON public.consultations;
+CREATE TRIGGER consultations_sync_tombstone
+    AFTER DELETE ON public.consultations
+    FOR EACH ROW EXECUTE FUNCTION public.record_sync_tombstone('consultation_id');
+
+DROP POLICY IF EXISTS "Vets can read consultations" ON public.consultations;
+CREATE POLICY "Vets can read consultations"
+    ON public.consultations FOR SELECT
+    USING (EXISTS (SELECT 1 FROM public.vets WHERE vets.user_id = auth.uid()));
+
+DROP POLICY IF EXISTS "Farmers can read their own consultations" ON public.consultations;
+CREATE POLICY "Farmers can read their own consultations"
+    ON public.consultations FOR SELECT
+    USING (EXISTS (SELECT 1 FROM public.farmers
+                   WHERE farmers.farmer_id = consultations.farmer_id
+                     AND farmers.user_id = auth.uid()));
+
+DROP POLICY IF EXISTS "Vets can read farmers" ON public.farmers;
+CREATE POLICY "Vets can read farmers"
+    ON public.farmers FOR SELECT
+    USING (EXISTS (SELECT 1 FROM public.vets WHERE vets.user_id = auth.uid()));
@@ -0,0 +1,24 @@
+-- Let admins send alert notifications
+-- Migration: 20250707010_admin_notifications
+
+-- The admin screens send alerts through the same fan-out as vets, but the only
+-- insert policy on notifications admits vets, so every admin chunk was rejected.
+-- Admins are listed in their own table; rows are added from the dashboard or with
+-- the service role, never by the app, so signing up cannot make anyone an admin.
+
+CREATE TABLE IF NOT EXISTS public.admins (
+    user_id UUID PRIMARY KEY REFERENCES auth.users(id) ON DELETE CASCADE,
+    created_at TIMESTAMPTZ DEFAULT now()
+);
+
+ALTER TABLE public.admins ENABLE ROW LEVEL SECURITY;
+
+DROP POLICY IF EXISTS "Admins can read their own row" ON public.admins;
+CREATE POLICY "Admins can read their own row"
+    ON public.admins FOR SELECT
+    USING (user_id = auth.uid());
+
+DROP POLICY IF EXISTS "Admins can send notifications" ON public.notifications;
+CREATE POLICY "Admins can send notifications"
+    ON public.notifications FOR INSERT
+    WITH CHECK (EXISTS (SELECT 1 FROM public.admins WHERE admins.user_id = auth.uid()));
@@ -0,0 +1,30 @@
+-- Storage bucket for symptom report photos
+-- Migration: 20250707011_report_images_bucket
+
+-- ReportUploader sends photos to the report-images bucket through the resumable
+-- upload endpoint and stores their public URLs in symptoms_reports.images. Objects
+-- are named by the SHA-256 of their bytes, so a URL cannot be guessed without the
+-- photo. Uploads use x-upsert, which needs insert and update; the duplicate check
+-- before an upload reads through the authenticated endpoint, which needs select.
+
+INSERT INTO storage.buckets (id, name, public)
+VALUES ('report-images', 'report-images', true)
+ON CONFLICT (id) DO UPDATE SET public = EXCLUDED.public;
+
+DROP POLICY IF EXISTS "Signed-in users can upload report images" ON storage.objects;
+CREATE POLICY "Signed-in users can upload report images"
+    ON storage.objects FOR INSERT
+    TO authenticated
+    WITH CHECK (bucket_id = 'report-images');
+
+DROP POLICY IF EXISTS "Signed-in users can replace report images" ON storage.objects;
+CREATE POLICY "Signed-in users can replace report images"
+    ON storage.objects FOR UPDATE
+    TO authenticated
+    USING (bucket_id = 'report-images');
+
+DROP POLICY IF EXISTS "Signed-in users can read report images" ON storage.objects;
+CREATE POLICY "Signed-in users can read report images"
+    ON storage.objects FOR SELECT
+    TO authenticated
+    USING (bucket_id = 'report-images');
@@ -0,0 +1,31 @@
+-- Recipients of an area's outbreak alert
+-- Migration: 20250707012_outbreak_recipients
+
+-- Outbreak alerts name areas as report_area() buckets them. The app asks the server
+-- for the farmers of those areas, so notifications are addressed to auth user ids
+-- rather than to the app's local user list. Vets only, like users_near: it reveals
+-- which users farm where.
+
+CREATE INDEX IF NOT EXISTS farmers_report_area_idx
+    ON public.farmers (report_area(location));
+
+CREATE OR REPLACE FUNCTION public.users_in_areas(p_areas TEXT[])
+RETURNS TABLE (user_id UUID)
+LANGUAGE plpgsql STABLE
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM vets v WHERE v.user_id = auth.uid()) THEN
+        RAISE EXCEPTION 'Only vets can look up users by area' USING ERRCODE = '42501';
+    END IF;
+
+    RETURN QUERY
+    SELECT DISTINCT f.user_id
+    FROM farmers f
+    WHERE report_area(f.location) = ANY(p_areas)
+      AND f.user_id IS NOT NULL;
+END;
+$$;
+
+GRANT EXECUTE ON FUNCTION public.users_in_areas(TEXT[]) TO authenticated;
@@ -0,0 +1,36 @@
+-- Farm counts per geohash bucket around a point
+-- Migration: 20250707013_farms_near
+
+-- farms_per_cell counted every farm in the country to answer questions about one
+-- area, and nothing called it. farms_near answers the per-area question over the
+-- few buckets that cover a circle, one index range each, next to users_near and
+-- users_in_areas. Counts are per whole bucket, so they include farms just outside the
+-- radius. Vets only, like the other lookups.
+
+DROP FUNCTION IF EXISTS public.farms_per_cell(INT);
+
+CREATE OR REPLACE FUNCTION public.farms_near(p_lat DOUBLE PRECISION, p_lng DOUBLE PRECISION,
+                                            p_radius_km DOUBLE PRECISION)
+RETURNS TABLE (cell TEXT, farms BIGINT)
+LANGUAGE plpgsql STABLE
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM vets v WHERE v.user_id = auth.uid()) THEN
+        RAISE EXCEPTION 'Only vets can count nearby farms' USING ERRCODE = '42501';
+    END IF;
+
+    RETURN QUERY
+    WITH cells AS (
+        SELECT DISTINCT c AS prefix FROM geohash_cover(p_lat, p_lng, p_radius_km) AS c
+    )
+    SELECT cells.prefix, count(f.farmer_id)
+    FROM cells
+    JOIN farmers f ON f.geohash >= cells.prefix AND f.geohash < cells.prefix || '~'
+    GROUP BY cells.prefix
+    ORDER BY cells.prefix;
+END;
+$$;
+
+GRANT EXECUTE ON FUNCTION public.farms_near(DOUBLE PRECISION, DOUBLE PRECISION, DOUBLE PRECISION) TO authenticated;
@@ -0,0 +1,76 @@
+-- Null-safe vet presence and vet checks on claims
+-- Migration: 20250707014_triage_vet_checks
+
+-- A vet that never sent a heartbeat has a NULL last_seen_at, which made their
+-- "online" flag NULL in the triage snapshot instead of false. claim_consultation also
+-- took any p_vet_id, so a caller could assign a case to a missing or unavailable vet;
+-- it now only assigns to a vet the snapshot would show online, and returns false
+-- otherwise like a lost race.
+
+CREATE OR REPLACE FUNCTION public.triage_snapshot()
+RETURNS JSON
+LANGUAGE plpgsql STABLE
+SECURITY DEFINER
+SET search_path = public
+AS $$
+DECLARE
+    v_snapshot JSON;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM vets WHERE user_id = auth.uid()) THEN
+        RAISE EXCEPTION 'Only vets can read the triage queue' USING ERRCODE = '42501';
+    END IF;
+
+    SELECT json_build_object(
+        'consultations', COALESCE((
+            SELECT json_agg(json_build_object(
+                'id', c.consultation_id,
+                'urgency', consultation_urgency_level(c.urgency),
+                'created_at', (extract(epoch FROM COALESCE(c.created_at, now())) * 1000)::bigint,
+                'sla_deadline', (extract(epoch FROM c.sla_deadline) * 1000)::bigint,
+                'specialization', c.specialization,
+                'vet_id', c.vet_id,
+                'assigned_at', (extract(epoch FROM c.assigned_at) * 1000)::bigint))
+            FROM consultations c
+            WHERE upper(c.status) IN ('PENDING', 'CONFIRMED')), '[]'::json),
+        'vets', COALESCE((
+            SELECT json_agg(json_build_object(
+                'id', v.vet_id,
+                'specialization', v.specialization,
+                'online', COALESCE(v.available, true)
+                          AND COALESCE(v.last_seen_at > now() - interval '45 minutes', false)))
+            FROM vets v), '[]'::json),
+        'now', (extract(epoch FROM now()) * 1000)::bigint)
+    INTO v_snapshot;
+    RETURN v_snapshot;
+END;
+$$;
+
+-- Assign if the consultation still has p_expected_vet (NULL for unassigned) and is open,
+-- and p_vet_id is an available vet seen recently
+CREATE OR REPLACE FUNCTION public.claim_consultation(p_consultation_id UUID, p_vet_id UUID,
+                                                     p_expected_vet UUID DEFAULT NULL)
+RETURNS BOOLEAN
+LANGUAGE plpgsql
+SECURITY DEFINER
+SET search_path = public
+AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM vets WHERE user_id = auth.uid()) THEN
+        RAISE EXCEPTION 'Only vets can assign consultations' USING ERRCODE = '42501';
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM vets v
+                   WHERE v.vet_id = p_vet_id
+                     AND COALESCE(v.available, true)
+                     AND COALESCE(v.last_seen_at > now() - interval '45 minutes', false)) THEN
+        RETURN false;
+    END IF;
+
+    UPDATE consultations
+    SET vet_id = p_vet_id, status = 'CONFIRMED', assigned_at = now(), updated_at = now()
+    WHERE consultation_id = p_consultation_id
+      AND vet_id IS NOT DISTINCT FROM p_expected_vet
+      AND upper(status) IN ('PENDING', 'CONFIRMED');
+    RETURN FOUND;
+END;
+$$;